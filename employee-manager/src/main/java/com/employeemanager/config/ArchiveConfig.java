@@ -0,0 +1,12 @@
+package com.employeemanager.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Munkanapló archiválás: hideg réteg a megőrzési időn túli adatoknak
+ */
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+}
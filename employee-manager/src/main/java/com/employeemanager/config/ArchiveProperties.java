@@ -0,0 +1,21 @@
+package com.employeemanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Munkanapló archiválás beállításai (application.properties: archive.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "archive")
+public class ArchiveProperties {
+
+    /** Archív réteg használata: a lekérdezések a határ előtti tartományban az archívumból is olvasnak */
+    private boolean enabled = true;
+
+    /** Ennél több évvel korábbi munkanaplók kerülnek archiválásra (hónap elejére kerekítve) */
+    private int retentionYears = 2;
+
+    /** Firebase kapcsolatok tömörített archív fájljainak könyvtára */
+    private String directory = "archive";
+}
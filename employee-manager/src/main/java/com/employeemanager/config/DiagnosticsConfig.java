@@ -0,0 +1,19 @@
+package com.employeemanager.config;
+
+import com.employeemanager.diagnostics.FlightRecorderManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Diagnosztika: folyamatosan futó JFR felvétel az utólagos hibakereséshez
+ */
+@Configuration
+@EnableConfigurationProperties(DiagnosticsProperties.class)
+public class DiagnosticsConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public FlightRecorderManager flightRecorderManager(DiagnosticsProperties properties) {
+        return new FlightRecorderManager(properties.getJfr());
+    }
+}
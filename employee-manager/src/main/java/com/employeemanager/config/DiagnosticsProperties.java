@@ -0,0 +1,87 @@
+package com.employeemanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Diagnosztikai beállítások (application.properties: diagnostics.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "diagnostics")
+public class DiagnosticsProperties {
+
+    private Jfr jfr = new Jfr();
+
+    private SlowQuery slowQuery = new SlowQuery();
+
+    private Schema schema = new Schema();
+
+    /**
+     * Folyamatosan futó Java Flight Recorder felvétel beállításai
+     */
+    @Data
+    public static class Jfr {
+
+        /** Induljon-e a felvétel az alkalmazással együtt */
+        private boolean enabled = true;
+
+        /** Ennél rövidebb lekérdezések nem kerülnek a felvételbe */
+        private Duration queryThreshold = Duration.ofMillis(20);
+
+        /** Lassú lekérdezés esemény küszöbértéke (stack trace-szel) */
+        private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+        /** A lemezen tartott felvétel maximális kora */
+        private Duration maxAge = Duration.ofHours(6);
+
+        /** A lemezen tartott felvétel maximális mérete */
+        private DataSize maxSize = DataSize.ofMegabytes(100);
+
+        /** A mentett felvételek könyvtára */
+        private String dumpDirectory = "diagnostics";
+    }
+
+    /**
+     * JDBC szintű lassú lekérdezés napló és végrehajtási terv mentés
+     */
+    @Data
+    public static class SlowQuery {
+
+        /** Utasítások időmérése a DataSource proxy-n keresztül */
+        private boolean enabled = true;
+
+        /** Ennél lassabb utasítások kerülnek a naplóba */
+        private Duration threshold = Duration.ofMillis(200);
+
+        /** EXPLAIN futtatása a lassú SELECT utasításokra (MySQL, PostgreSQL, H2) */
+        private boolean explain = false;
+
+        /** Ugyanaz az utasítás legfeljebb ilyen gyakran kerül újra EXPLAIN-re */
+        private Duration explainInterval = Duration.ofMinutes(10);
+
+        /** Végrehajtási tervek fájlja (rotálva: .1, .2, ...) */
+        private String planFile = "diagnostics/query-plans.log";
+
+        /** A tervfájl mérete, amely felett rotálunk */
+        private DataSize planFileMaxSize = DataSize.ofMegabytes(5);
+
+        /** Megtartott tervfájlok száma */
+        private int planFileCount = 3;
+    }
+
+    /**
+     * Séma ellenőrzés a kapcsolatváltásoknál
+     */
+    @Data
+    public static class Schema {
+
+        /** Már ellenőrzött DataSource-ra váltáskor a séma újraellenőrzése háttérszálon */
+        private boolean backgroundVerification = true;
+
+        /** Ugyanaz a DataSource legfeljebb ilyen gyakran kerül újraellenőrzésre */
+        private Duration verificationInterval = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,47 @@
+package com.employeemanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Firebase helyi gyorsítótár beállításai (application.properties: firebase.cache.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "firebase.cache")
+public class FirebaseCacheProperties {
+
+    /** Firestore dokumentumok helyi (H2 fájl) tárolása; az olvasások helyben futnak */
+    private boolean enabled = true;
+
+    /** A gyorsítótár fájlok könyvtára, kapcsolatonként külön alkönyvtárral */
+    private String directory = "cache";
+
+    /** Ennyi időnként kérdezi le a változásokat (csak az utolsó szinkron óta módosult dokumentumokat) */
+    private Duration syncInterval = Duration.ofMinutes(1);
+
+    /** Ennyi időnként teljes letöltés: a változáskövetés nélküli (régebbi kliens által írt) módosítások miatt */
+    private Duration fullSyncInterval = Duration.ofDays(7);
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * Késleltetett írás: a mentés a helyi naplóba kerül, a Firestore-ba háttérszál írja ki
+     */
+    @Data
+    public static class WriteBehind {
+
+        /** Csak bekapcsolt gyorsítótárral működik */
+        private boolean enabled = false;
+
+        /** A napló kiírásának gyakorisága */
+        private Duration flushInterval = Duration.ofSeconds(2);
+
+        /** Egy Firestore kötegbe kerülő módosítások száma (legfeljebb 250) */
+        private int batchSize = 250;
+
+        /** Sikertelen kiírás után az újrapróbálkozás legnagyobb várakozási ideje */
+        private Duration maxBackoff = Duration.ofMinutes(1);
+    }
+}
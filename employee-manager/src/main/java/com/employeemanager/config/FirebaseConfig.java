@@ -1,5 +1,6 @@
 package com.employeemanager.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,6 +10,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.text.SimpleDateFormat;
 
 @Configuration
+@EnableConfigurationProperties(FirebaseCacheProperties.class)
 public class FirebaseConfig {
 
     @Bean
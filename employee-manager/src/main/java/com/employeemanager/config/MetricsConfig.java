@@ -0,0 +1,42 @@
+package com.employeemanager.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Micrometer metrikák: memóriában (diagnosztikai nézet) és JMX-en (jconsole, VisualVM) keresztül
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean(destroyMethod = "close")
+    public MeterRegistry meterRegistry() {
+        CompositeMeterRegistry registry = new CompositeMeterRegistry();
+        registry.add(new SimpleMeterRegistry());
+        registry.add(new JmxMeterRegistry(JmxConfig.DEFAULT, Clock.SYSTEM));
+        registry.config().commonTags("application", "employee-manager");
+
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        return registry;
+    }
+
+    /**
+     * A @Timed annotációval ellátott service metódusok mérése
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.employeemanager.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC -> Firestore replikáció: kimenő napló és háttérben futó kiírás
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicationProperties.class)
+public class ReplicationConfig {
+}
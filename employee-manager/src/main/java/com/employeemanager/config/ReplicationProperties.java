@@ -0,0 +1,33 @@
+package com.employeemanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * JDBC adatbázis Firestore replikájának beállításai (application.properties: replication.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "replication")
+public class ReplicationProperties {
+
+    /** A JDBC mentések és törlések a kimenő naplón át a Firestore replikába is kikerülnek */
+    private boolean enabled = false;
+
+    /** A replika Firebase projektje */
+    private String firebaseProjectId;
+
+    private String firebaseDatabaseUrl;
+
+    private String firebaseServiceAccountPath;
+
+    /** A kimenő napló lekérdezésének gyakorisága */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /** Egy Firestore kötegbe kerülő dokumentumok száma (legfeljebb 250) */
+    private int batchSize = 250;
+
+    /** Sikertelen kiírás után az újrapróbálkozás legnagyobb várakozási ideje */
+    private Duration maxBackoff = Duration.ofMinutes(1);
+}
@@ -11,10 +11,16 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 // Saját dialógusok
+import com.employeemanager.diagnostics.FlightRecorderManager;
+import com.employeemanager.repository.columnar.EbevSubmissionIndex;
+import com.employeemanager.repository.columnar.WorkRecordColumnStore;
+import com.employeemanager.service.impl.WorkRecordArchiveService;
+import com.employeemanager.service.impl.WorkRecordColumnStoreService;
 import com.employeemanager.dialog.EmployeeDialog;
 import com.employeemanager.dialog.UserGuideDialog;
 import com.employeemanager.dialog.WorkRecordDialog;
 import com.employeemanager.dialog.DatabaseConnectionDialog;
+import com.employeemanager.dialog.DiagnosticsDialog;
 
 // Modellek
 import com.employeemanager.model.Employee;
@@ -25,6 +31,7 @@ import com.employeemanager.model.fx.WorkRecordFX;
 
 // Service-ek
 import com.employeemanager.service.interfaces.EmployeeService;
+import com.employeemanager.service.interfaces.WorkRecordService;
 import com.employeemanager.service.impl.ReportService;
 import com.employeemanager.service.impl.SettingsService;
 import com.employeemanager.service.impl.DatabaseConnectionService;
@@ -33,13 +40,16 @@ import com.employeemanager.service.exception.ServiceException;
 
 // Utility osztályok
 import com.employeemanager.util.AlertHelper;
+import com.employeemanager.util.CsvExporter;
 import com.employeemanager.util.ExcelExporter;
+import com.employeemanager.util.Money;
 
 // Komponensek
 import com.employeemanager.component.StatusBar;
 import com.employeemanager.component.WarningIndicator;
 
 // Lombok
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -49,6 +59,7 @@ import org.springframework.stereotype.Controller;
 // Java standard library
 import java.math.BigDecimal;
 import java.net.URL;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -66,8 +77,14 @@ public class MainViewController implements Initializable {
     private final ReportService reportService;
     private final SettingsService settingsService;
     private final ExcelExporter excelExporter;
+    private final CsvExporter csvExporter;
+    private final WorkRecordService workRecordService;
     private final DatabaseConnectionService databaseConnectionService;
     private final WorkPatternAnalyzer workPatternAnalyzer;
+    private final MeterRegistry meterRegistry;
+    private final FlightRecorderManager flightRecorderManager;
+    private final WorkRecordArchiveService workRecordArchiveService;
+    private final WorkRecordColumnStoreService workRecordColumnStore;
 
     // FXML injections for main TabPane
     @FXML private TabPane mainTabPane;
@@ -142,6 +159,7 @@ public class MainViewController implements Initializable {
         }
 
         Platform.runLater(() -> analyzeAllEmployeesWarnings());
+        workRecordColumnStore.preload();
     }
 
     // ==========================================
@@ -385,6 +403,53 @@ public class MainViewController implements Initializable {
         }
     }
 
+    @FXML
+    private void showDiagnostics() {
+        try {
+            Dialog<Void> dialog = new DiagnosticsDialog(meterRegistry);
+            dialog.showAndWait();
+            updateStatus("Diagnosztika megjelenítve");
+        } catch (Exception e) {
+            AlertHelper.showError("Hiba", "Nem sikerült megnyitni a diagnosztikát", e.getMessage());
+            updateStatus("Hiba a diagnosztika megnyitása közben");
+        }
+    }
+
+    @FXML
+    private void dumpFlightRecording() {
+        try {
+            Path file = flightRecorderManager.dump();
+            AlertHelper.showInformation("Diagnosztikai felvétel",
+                    "A felvétel mentése sikeres",
+                    "Fájl: " + file.toAbsolutePath() + "\n\nA fájl JDK Mission Control-lal nyitható meg.");
+            updateStatus("Diagnosztikai felvétel mentve: " + file.getFileName());
+        } catch (Exception e) {
+            AlertHelper.showError("Hiba", "Nem sikerült menteni a diagnosztikai felvételt", e.getMessage());
+            updateStatus("Hiba a diagnosztikai felvétel mentése közben");
+        }
+    }
+
+    @FXML
+    private void archiveOldWorkRecords() {
+        LocalDate cutoff = workRecordArchiveService.getCutoff();
+        if (!AlertHelper.showConfirmation("Archiválás",
+                "Régi munkanaplók archiválása",
+                "A " + cutoff + " előtti munkanaplók az archívumba kerülnek.\n"
+                        + "A dátum szerinti lekérdezések és kimutatások továbbra is látják őket. Folytatja?")) {
+            return;
+        }
+        try {
+            int moved = workRecordArchiveService.archiveExpiredRecords();
+            AlertHelper.showInformation("Archiválás", "Az archiválás sikeres",
+                    moved + " munkanapló került az archívumba.");
+            updateStatus("Archivált munkanaplók: " + moved);
+            refreshAllData();
+        } catch (Exception e) {
+            AlertHelper.showError("Hiba", "Nem sikerült az archiválás", e.getMessage());
+            updateStatus("Hiba az archiválás közben");
+        }
+    }
+
     @FXML
     private void showAboutDialog() {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -905,12 +970,13 @@ public class MainViewController implements Initializable {
                 .mapToInt(WorkRecordFX::getHoursWorked)
                 .sum();
 
-        BigDecimal totalPayment = records.stream()
-                .map(WorkRecordFX::getPayment)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long totalPayment = 0;
+        for (WorkRecordFX record : records) {
+            totalPayment = Money.add(totalPayment, Money.toFiller(record.getPayment()));
+        }
 
         totalHoursLabel.setText(String.format("%d óra", totalHours));
-        totalPaymentLabel.setText(String.format("%,.0f Ft", totalPayment));
+        totalPaymentLabel.setText(Money.format(totalPayment));
     }
 
     /**
@@ -962,7 +1028,8 @@ public class MainViewController implements Initializable {
             String filePath = excelExporter.exportWorkRecords(
                     workRecordTable.getItems(),
                     startDatePicker.getValue(),
-                    endDatePicker.getValue());
+                    endDatePicker.getValue(),
+                    ebevSubmissionIndex());
 
             updateStatus("Excel exportálva: " + filePath);
             AlertHelper.showInformation("Sikeres exportálás",
@@ -974,6 +1041,42 @@ public class MainViewController implements Initializable {
         }
     }
 
+    /**
+     * e-BEV bejelentések indexe a már betöltött oszlopos másolatból; a felületi szálon nem tölt be,
+     * betöltetlen másolatnál az exportálás index nélkül csoportosít, a másolat pedig a háttérben töltődik
+     */
+    private EbevSubmissionIndex ebevSubmissionIndex() {
+        WorkRecordColumnStore store = workRecordColumnStore.getLoadedStore();
+        if (store == null) {
+            log.debug("Column store not loaded yet, grouping export rows directly");
+            workRecordColumnStore.preload();
+            return null;
+        }
+        return store.getEbevIndex();
+    }
+
+    @FXML
+    private void exportToCsv() {
+        LocalDate start = startDatePicker.getValue();
+        LocalDate end = endDatePicker.getValue();
+        if (start == null || end == null) {
+            AlertHelper.showWarning("Hiányzó időszak", "Válassza ki a kezdő és záró dátumot!");
+            return;
+        }
+
+        try {
+            String filePath = csvExporter.exportWorkRecords(workRecordService, start, end);
+
+            updateStatus("CSV exportálva: " + filePath);
+            AlertHelper.showInformation("Sikeres exportálás",
+                    "A CSV fájl elkészült",
+                    "Fájl helye: " + filePath);
+        } catch (Exception e) {
+            AlertHelper.showError("Hiba", "Nem sikerült exportálni a CSV fájlt", e.getMessage());
+            updateStatus("Hiba a CSV exportálás közben");
+        }
+    }
+
     private void updateStatus(String message) {
         if (statusBar != null) {
             statusBar.setText(message + " - " +
@@ -1103,7 +1206,9 @@ public class MainViewController implements Initializable {
             workRecordTable.getSelectionModel().clearSelection();
             reportList.getSelectionModel().clearSelection();
             
-            // Újratöltjük az adatokat
+            // Újratöltjük az adatokat (más kliensek módosításai is látszódjanak a kimutatásokban)
+            workRecordColumnStore.invalidate();
+            workRecordColumnStore.preload();
             loadInitialData();
             
             // Értesítjük a felhasználót
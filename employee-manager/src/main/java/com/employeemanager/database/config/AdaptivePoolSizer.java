@@ -0,0 +1,105 @@
+package com.employeemanager.database.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HikariCP pool méretének igazítása a megfigyelt várakozási időhöz és kihasználtsághoz
+ *
+ * Időközönként mintát vesz a pool állapotából (aktív kapcsolatok, várakozó szálak) és a kapcsolatkérések
+ * átlagos várakozási idejéből (hikaricp.connections.acquire). Várakozásnál a maximum a felső korlátig nő,
+ * tartósan alacsony kihasználtságnál lépésenként csökken: terhelés alatt nincs sorban állás, alapjáraton
+ * pedig a pool nem foglal fölösleges adatbázis kapcsolatot.
+ */
+@Slf4j
+public class AdaptivePoolSizer {
+
+    // Ennél hosszabb átlagos várakozás (ms) esetén nő a pool
+    static final double GROW_WAIT_MILLIS = 5;
+    // Ennél kisebb kihasználtság SHRINK_AFTER_SAMPLES egymást követő mintán át csökkenti a pool-t
+    static final double SHRINK_UTILIZATION = 0.25;
+    static final int SHRINK_AFTER_SAMPLES = 6;
+
+    private final HikariDataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final int lowerBound;
+    private final int upperBound;
+
+    private long lastAcquireCount;
+    private double lastAcquireMillis;
+    private int idleSamples;
+
+    public AdaptivePoolSizer(HikariDataSource dataSource, MeterRegistry meterRegistry, int lowerBound, int upperBound) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.lowerBound = Math.max(1, lowerBound);
+        this.upperBound = Math.max(this.lowerBound, upperBound);
+    }
+
+    /**
+     * Egy minta feldolgozása és szükség esetén a pool maximumának módosítása
+     */
+    public synchronized void sample() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null || dataSource.isClosed()) {
+            return;
+        }
+        try {
+            HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+            int current = config.getMaximumPoolSize();
+            int next = nextSize(current, pool.getActiveConnections(), pool.getThreadsAwaitingConnection(),
+                    averageAcquireMillis());
+            if (next != current) {
+                config.setMaximumPoolSize(next);
+                log.info("Adaptive pool {} resized from {} to {} connections", config.getPoolName(), current, next);
+            }
+        } catch (RuntimeException e) {
+            // Az ütemezett mintavétel hiba után is folytatódjon
+            log.warn("Adaptive pool sizing sample failed for {}: {}", dataSource.getPoolName(), e.getMessage());
+        }
+    }
+
+    /**
+     * A következő pool méret a minta alapján
+     */
+    synchronized int nextSize(int current, int active, int waiting, double averageWaitMillis) {
+        if ((waiting > 0 || averageWaitMillis >= GROW_WAIT_MILLIS) && current < upperBound) {
+            idleSamples = 0;
+            return Math.min(upperBound, current + Math.max(1, waiting));
+        }
+        if (waiting == 0 && active <= current * SHRINK_UTILIZATION) {
+            if (++idleSamples >= SHRINK_AFTER_SAMPLES && current > lowerBound) {
+                idleSamples = 0;
+                return current - 1;
+            }
+        } else {
+            idleSamples = 0;
+        }
+        return current;
+    }
+
+    /**
+     * A kapcsolatkérések átlagos várakozási ideje az előző minta óta
+     */
+    private double averageAcquireMillis() {
+        Timer timer = meterRegistry.find("hikaricp.connections.acquire")
+                .tag("pool", dataSource.getPoolName())
+                .timer();
+        if (timer == null) {
+            return 0;
+        }
+        long count = timer.count();
+        double totalMillis = timer.totalTime(TimeUnit.MILLISECONDS);
+        long requests = count - lastAcquireCount;
+        double waited = totalMillis - lastAcquireMillis;
+        lastAcquireCount = count;
+        lastAcquireMillis = totalMillis;
+        return requests > 0 ? waited / requests : 0;
+    }
+}
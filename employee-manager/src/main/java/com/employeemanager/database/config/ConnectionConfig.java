@@ -5,16 +5,24 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 /**
  * Adatbázis kapcsolat konfigurációja
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ConnectionConfig {
+
+    // Elérhetetlen replika ne tartsa fel sokáig az olvasást (utána az elsődlegesről olvasunk)
+    private static final long REPLICA_CONNECTION_TIMEOUT = 5000L;
+
+    // A PostgreSQL driver alapértelmezése: titkosít, ha a szerver támogatja, különben titkosítás nélkül kapcsolódik
+    public static final String DEFAULT_SSL_MODE = "prefer";
     
     private String name;
     private DatabaseType type;
@@ -37,6 +45,29 @@ public class ConnectionConfig {
     private Integer minIdle = 2;
     @Builder.Default
     private Long connectionTimeout = 30000L; // 30 másodperc
+
+    // PostgreSQL titkosítás (disable, allow, prefer, require, verify-ca, verify-full)
+    @Builder.Default
+    private String sslMode = DEFAULT_SSL_MODE;
+
+    // Driver hangolás (utasítás-gyorsítótár, előkészítés, H2 gyorsítótár) adatbázis típusonként
+    @Builder.Default
+    private PoolTuningProfile tuningProfile = PoolTuningProfile.BALANCED;
+
+    // A pool mérete minIdle és maxPoolSize között a várakozás és kihasználtság szerint változik
+    private boolean adaptivePoolSizing;
+
+    // work_records particionálás munkavégzés dátuma szerint (csak PostgreSQL, opt-in)
+    @Builder.Default
+    private WorkRecordPartitioning workRecordPartitioning = WorkRecordPartitioning.NONE;
+
+    // Csak olvasható replikák ("host" vagy "host:port", MySQL/PostgreSQL); a lekérdezések ide mennek
+    @Builder.Default
+    private List<String> replicaHosts = new ArrayList<>();
+
+    // Írás után ennyi ideig (ms) az olvasások is az elsődlegesre mennek, hogy a saját módosítás látsszon
+    @Builder.Default
+    private Long readAfterWriteWindow = 5000L;
     
     /**
      * JDBC URL generálása SQL adatbázisokhoz
@@ -57,6 +88,35 @@ public class ConnectionConfig {
         }
     }
     
+    /**
+     * Igaz, ha a kapcsolathoz olvasási replika is tartozik
+     */
+    public boolean hasReplicas() {
+        return replicaHosts != null && !replicaHosts.isEmpty();
+    }
+
+    /**
+     * A megadott replika kapcsolata: az elsődleges beállításai a replika hostjával és portjával
+     */
+    public ConnectionConfig replicaConfig(int index) {
+        String replicaHost = replicaHosts.get(index).trim();
+        Integer replicaPort = port;
+        int separator = replicaHost.lastIndexOf(':');
+        if (separator > 0) {
+            replicaPort = Integer.parseInt(replicaHost.substring(separator + 1).trim());
+            replicaHost = replicaHost.substring(0, separator).trim();
+        }
+        return toBuilder()
+                .name(name + " (replica " + (index + 1) + ")")
+                .host(replicaHost)
+                .port(replicaPort)
+                .active(false)
+                .replicaHosts(new ArrayList<>())
+                .connectionTimeout(connectionTimeout != null
+                        ? Math.min(connectionTimeout, REPLICA_CONNECTION_TIMEOUT) : REPLICA_CONNECTION_TIMEOUT)
+                .build();
+    }
+
     /**
      * JDBC Driver osztály neve
      */
@@ -95,7 +155,7 @@ public class ConnectionConfig {
             case POSTGRESQL:
                 props.setProperty("ApplicationName", "EmployeeManager");
                 props.setProperty("reWriteBatchedInserts", "true");
-                props.setProperty("sslmode", "disable"); // DOCKERHEZ
+                props.setProperty("sslmode", sslMode != null ? sslMode : DEFAULT_SSL_MODE);
                 break;
             default:
                 break;
@@ -1,5 +1,10 @@
 package com.employeemanager.database.config;
 
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.monitoring.SlowQueryDataSource;
+import com.employeemanager.database.monitoring.SlowQueryLog;
+import com.employeemanager.database.partition.WorkRecordPartitionManager;
+import com.employeemanager.database.schema.SchemaInitializerFactory;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.firestore.Firestore;
 import com.google.firebase.FirebaseApp;
@@ -7,34 +12,93 @@ import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.FirestoreClient;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Adatbázis kapcsolatok központi kezelője
+ *
+ * A JDBC DataSource-ok sémáját DataSource-onként egyszer ellenőrzi (migrálja); az ismételt
+ * kapcsolatváltások a tárolt állapotot használják, opcionális háttérbeli újraellenőrzéssel.
+ * A replikákkal rendelkező kapcsolatok replikánként külön pool-t kapnak (lásd ReadReplicaRouter).
+ * A pool-ok a kapcsolat pool-t érintő beállításainak ujjlenyomatához kötöttek. A kapcsolatteszt soha nem zár be
+ * élő pool-t: a sikeres teszt pool-ja csak akkor marad meg, ha a kapcsolatnak még nincs pool-ja. Aktiváláskor
+ * (prepareConnection) a tesztelt pool félre van téve, és a repository-k újraépítésekor veszi át a régi pool helyét.
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class DatabaseConnectionManager {
 
+    // Az adaptív pool-ok mintavételi gyakorisága
+    private static final long POOL_SAMPLE_INTERVAL_SECONDS = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final DiagnosticsProperties diagnosticsProperties;
     private final Map<String, DataSource> dataSourceCache = new ConcurrentHashMap<>();
+    // A cache-elt pool-ok létrehozásakori beállításai (ujjlenyomat összevetéshez)
+    private final Map<String, ConnectionConfig> pooledConfigs = new ConcurrentHashMap<>();
     private final Map<String, Firestore> firestoreCache = new ConcurrentHashMap<>();
+    private final Map<String, SchemaState> schemaStates = new ConcurrentHashMap<>();
+    private final Map<String, ReadReplicaRouter> replicaRouters = new ConcurrentHashMap<>();
+    // Aktiváláshoz tesztelt, a régi pool helyére váró pool-ok
+    private final Map<String, StagedPool> stagedPools = new ConcurrentHashMap<>();
+    private final ExecutorService schemaVerifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "schema-verifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Pool példányonként, mert egy kapcsolat pool-jai (pl. régi és új) azonos nevűek lehetnek
+    private final Map<HikariDataSource, ScheduledFuture<?>> adaptivePools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poolSizer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pool-sizer");
+        thread.setDaemon(true);
+        return thread;
+    });
     private ConnectionConfig activeConnection;
 
     /**
      * Kapcsolat tesztelése
+     * Az élő pool-okat nem érinti, így mentetlen (szerkesztés alatti) beállításokkal is biztonságosan hívható
      */
     public boolean testConnection(ConnectionConfig config) {
+        return testConnection(config, false);
+    }
+
+    /**
+     * Kapcsolat tesztelése aktiváláshoz
+     * A sikeres teszt pool-ja félre kerül, és a kapcsolat következő getDataSource hívása (a repository-k
+     * újraépítése) ezt veszi át a módosított beállítású régi pool helyett; közvetlenül az aktiválás előtt hívandó
+     */
+    public boolean prepareConnection(ConnectionConfig config) {
+        return testConnection(config, true);
+    }
+
+    private boolean testConnection(ConnectionConfig config, boolean activation) {
         if (!config.isValid()) {
             log.error("Invalid connection configuration");
             return false;
@@ -46,7 +110,7 @@ public class DatabaseConnectionManager {
             case MYSQL:
             case POSTGRESQL:
             case H2:
-                return testJdbcConnection(config);
+                return testJdbcConnection(config, activation);
             default:
                 return false;
         }
@@ -56,7 +120,7 @@ public class DatabaseConnectionManager {
      * JDBC kapcsolat tesztelése - JAVÍTOTT VERZIÓ HikariCP-vel
      */
     @SuppressWarnings("null")
-    private boolean testJdbcConnection(ConnectionConfig config) {
+    private boolean testJdbcConnection(ConnectionConfig config, boolean activation) {
         log.info("=== JDBC CONNECTION TEST WITH HIKARICP ===");
         log.info("Testing connection to: {}", config.getJdbcUrl());
         log.info("Database Type: {}", config.getType());
@@ -68,10 +132,18 @@ public class DatabaseConnectionManager {
         log.info("=== END DEBUG INFO ===");
 
         DataSource testDataSource = null;
+        boolean pooled = false;
         try {
-            // Ideiglenes DataSource létrehozása teszteléshez
-            log.info("Creating temporary HikariCP DataSource for testing...");
-            testDataSource = createDataSource(config);
+            // Azonos beállítású meglévő pool esetén nem nyitunk újat
+            testDataSource = cachedDataSource(config);
+            pooled = testDataSource != null;
+            if (pooled) {
+                log.info("Reusing pooled DataSource of {} for the connection test", config.getName());
+            } else {
+                log.info("Creating HikariCP DataSource for testing...");
+                // Metrika és adaptív méretezés csak a cache-be kerülő pool-hoz (lásd promote, getDataSource)
+                testDataSource = createDataSource(config, false);
+            }
 
             // Kapcsolat tesztelése a DataSource-on keresztül
             log.info("Attempting connection via HikariCP DataSource...");
@@ -83,6 +155,10 @@ public class DatabaseConnectionManager {
                     log.info("Connection URL: {}", conn.getMetaData().getURL());
                     log.info("Database product: {}", conn.getMetaData().getDatabaseProductName());
                     log.info("Database version: {}", conn.getMetaData().getDatabaseProductVersion());
+                    if (!pooled) {
+                        // A sikeres teszt pool-ja megmarad, ha nem kell hozzá élő pool-t bezárni
+                        pooled = promote(config, testDataSource, activation);
+                    }
                 } else {
                     log.error("Connection is null or closed");
                 }
@@ -107,10 +183,10 @@ public class DatabaseConnectionManager {
             log.error("Unexpected error during connection test", e);
             return false;
         } finally {
-            // Cleanup - DataSource bezárása
-            if (testDataSource instanceof HikariDataSource) {
+            // Cleanup - a cache-be vagy aktiváláshoz félre nem tett DataSource bezárása
+            if (!pooled && testDataSource != null) {
                 log.info("Closing temporary HikariCP DataSource...");
-                ((HikariDataSource) testDataSource).close();
+                closeDataSource(testDataSource);
             }
         }
     }
@@ -157,20 +233,321 @@ public class DatabaseConnectionManager {
 
     /**
      * DataSource létrehozása vagy cache-ből visszaadása
+     * Bekapcsolt lassú lekérdezés napló esetén a pool egy időmérő proxy mögött van
      */
     public DataSource getDataSource(ConnectionConfig config) {
         if (config.getType() == DatabaseType.FIREBASE) {
             throw new IllegalArgumentException("Use getFirestore() for Firebase connections");
         }
 
+        DataSource cached = cachedDataSource(config);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            cached = cachedDataSource(config);
+            if (cached != null) {
+                return cached;
+            }
+            String cacheKey = getCacheKey(config);
+            // Előbb a régi pool zárul: a metrikák azonos pool névvel (tag) kerülnek regisztrálásra
+            evict(cacheKey);
+            DataSource dataSource = takeStagedPool(config);
+            if (dataSource != null) {
+                enableMonitoring(config, (HikariDataSource) dataSource);
+                log.info("Using the DataSource tested on activation of {}", config.getName());
+            } else {
+                dataSource = createDataSource(config, true);
+            }
+            dataSource = withSlowQueryLog(config, dataSource);
+            dataSourceCache.put(cacheKey, dataSource);
+            pooledConfigs.put(cacheKey, snapshot(config));
+            return dataSource;
+        }
+    }
+
+    /**
+     * A kapcsolat cache-elt DataSource-a, ha azonos pool beállításokkal jött létre; egyébként null
+     */
+    private DataSource cachedDataSource(ConnectionConfig config) {
+        String cacheKey = getCacheKey(config);
+        DataSource dataSource = dataSourceCache.get(cacheKey);
+        ConnectionConfig pooled = pooledConfigs.get(cacheKey);
+        if (dataSource == null || pooled == null || !poolFingerprint(pooled).equals(poolFingerprint(config))) {
+            return null;
+        }
+        return dataSource;
+    }
+
+    /**
+     * Sikeresen tesztelt DataSource megtartása; false, ha bezárandó
+     * A cache-be csak akkor kerül, ha a kapcsolatnak még nincs pool-ja: élő pool-t teszt nem zár be, mert arra
+     * az aktuális repository-k épülnek. Aktiváláskor a régi pool helyére félre van téve (lásd getDataSource).
+     */
+    private synchronized boolean promote(ConnectionConfig config, DataSource dataSource, boolean activation) {
+        if (cachedDataSource(config) != null) {
+            return false;
+        }
         String cacheKey = getCacheKey(config);
-        return dataSourceCache.computeIfAbsent(cacheKey, key -> createDataSource(config));
+        if (!dataSourceCache.containsKey(cacheKey)) {
+            enableMonitoring(config, (HikariDataSource) dataSource);
+            dataSourceCache.put(cacheKey, withSlowQueryLog(config, dataSource));
+            pooledConfigs.put(cacheKey, snapshot(config));
+            log.info("Promoted tested DataSource of {} to the connection pool cache", config.getName());
+            return true;
+        }
+        if (!activation) {
+            return false;
+        }
+        StagedPool previous = stagedPools.put(cacheKey, new StagedPool(snapshot(config), dataSource));
+        if (previous != null) {
+            closeDataSource(previous.dataSource);
+        }
+        log.info("Staged tested DataSource of {} to replace its current pool", config.getName());
+        return true;
+    }
+
+    /**
+     * Az aktiváláshoz félretett pool átvétele, ha azonos beállításokkal jött létre; egyébként null
+     */
+    private DataSource takeStagedPool(ConnectionConfig config) {
+        StagedPool staged = stagedPools.remove(getCacheKey(config));
+        if (staged == null) {
+            return null;
+        }
+        if (!poolFingerprint(staged.config).equals(poolFingerprint(config))) {
+            closeDataSource(staged.dataSource);
+            return null;
+        }
+        return staged.dataSource;
+    }
+
+    /**
+     * Elavult (más beállítással létrehozott) pool bezárása a replikáival és a séma állapotával együtt
+     */
+    private synchronized void evict(String cacheKey) {
+        ConnectionConfig previous = pooledConfigs.remove(cacheKey);
+        DataSource dataSource = dataSourceCache.remove(cacheKey);
+        if (dataSource == null) {
+            return;
+        }
+        log.info("Closing outdated connection pool: {}", cacheKey);
+        closeDataSource(dataSource);
+        schemaStates.remove(cacheKey);
+        replicaRouters.remove(cacheKey);
+        if (previous != null && previous.hasReplicas()) {
+            for (int i = 0; i < previous.getReplicaHosts().size(); i++) {
+                DataSource replica = dataSourceCache.remove(getCacheKey(previous.replicaConfig(i)));
+                if (replica != null) {
+                    closeDataSource(replica);
+                }
+            }
+        }
+    }
+
+    /**
+     * A pool-t meghatározó beállítások; eltérés esetén új pool kell
+     */
+    private static String poolFingerprint(ConnectionConfig config) {
+        return String.join("|", String.valueOf(config.getType()), config.getJdbcUrl(),
+                String.valueOf(config.getUsername()), String.valueOf(Objects.hashCode(config.getPassword())),
+                String.valueOf(config.getMaxPoolSize()), String.valueOf(config.getMinIdle()),
+                String.valueOf(config.getConnectionTimeout()), String.valueOf(config.getTuningProfile()),
+                String.valueOf(config.isAdaptivePoolSizing()), String.valueOf(config.getReplicaHosts()),
+                String.valueOf(config.getReadAfterWriteWindow()),
+                String.valueOf(config.getSslMode()));
+    }
+
+    private static ConnectionConfig snapshot(ConnectionConfig config) {
+        return config.toBuilder()
+                .replicaHosts(config.getReplicaHosts() != null ? new ArrayList<>(config.getReplicaHosts()) : null)
+                .build();
+    }
+
+    private void closeDataSource(DataSource dataSource) {
+        if (dataSource instanceof SlowQueryDataSource) {
+            ((SlowQueryDataSource) dataSource).close();
+            dataSource = ((SlowQueryDataSource) dataSource).getDelegate();
+        }
+        if (dataSource instanceof HikariDataSource) {
+            HikariDataSource hikari = (HikariDataSource) dataSource;
+            ScheduledFuture<?> sizing = adaptivePools.remove(hikari);
+            if (sizing != null) {
+                sizing.cancel(false);
+            }
+            hikari.close();
+        }
+    }
+
+    /**
+     * Olvasási útválasztó a kapcsolat replikáihoz; null, ha nincs replika
+     * A replikák sémáját nem migráljuk: azt az elsődleges adatbázistól kapják
+     */
+    public ReadReplicaRouter getReadReplicaRouter(ConnectionConfig config) {
+        if (!config.hasReplicas()) {
+            return null;
+        }
+        if (config.getType() != DatabaseType.MYSQL && config.getType() != DatabaseType.POSTGRESQL) {
+            log.warn("Read replicas are only supported on MySQL and PostgreSQL, ignored for {}", config.getName());
+            return null;
+        }
+
+        String cacheKey = getCacheKey(config);
+        ReadReplicaRouter router = replicaRouters.get(cacheKey);
+        if (router != null) {
+            return router;
+        }
+
+        // A pool-ok a map frissítésén kívül készülnek: a getDataSource a régi pool kiváltásakor
+        // a replicaRouters-ből is töröl (evict), ami egy computeIfAbsent-en belül rekurzív frissítés lenne
+        // A metrikák csak a bekerülő pool-okhoz regisztrálódnak: a vesztes pool zárása azonos nevű mérőket törölne
+        DataSource primary = getDataSource(config);
+        List<ConnectionConfig> replicaConfigs = new ArrayList<>();
+        List<HikariDataSource> pools = new ArrayList<>();
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < config.getReplicaHosts().size(); i++) {
+            ConnectionConfig replica = config.replicaConfig(i);
+            HikariDataSource pool = (HikariDataSource) createDataSource(replica, false, false);
+            replicaConfigs.add(replica);
+            pools.add(pool);
+            replicas.add(withSlowQueryLog(replica, pool));
+        }
+        long window = config.getReadAfterWriteWindow() != null ? config.getReadAfterWriteWindow() : 0;
+        ReadReplicaRouter created = new ReadReplicaRouter(config.getName(), primary, replicas, Duration.ofMillis(window));
+
+        synchronized (this) {
+            if (dataSourceCache.get(cacheKey) == primary) {
+                ReadReplicaRouter existing = replicaRouters.putIfAbsent(cacheKey, created);
+                if (existing != null) {
+                    // Párhuzamos hívás útválasztója nyert: a most nyitott replika pool-ok feleslegesek
+                    replicas.forEach(this::closeDataSource);
+                    return existing;
+                }
+                // Az evict a kapcsolat pool-jával együtt ezeket is zárja
+                for (int i = 0; i < replicas.size(); i++) {
+                    enableMonitoring(replicaConfigs.get(i), pools.get(i));
+                    DataSource previous = dataSourceCache.put(getCacheKey(replicaConfigs.get(i)), replicas.get(i));
+                    if (previous != null) {
+                        closeDataSource(previous);
+                    }
+                }
+                log.info("Routing reads of {} to {} replicas (read-after-write window {} ms)",
+                        config.getName(), replicas.size(), window);
+                return created;
+            }
+        }
+        // Az elsődleges pool közben lecserélődött: újra, az új pool-lal
+        replicas.forEach(this::closeDataSource);
+        return getReadReplicaRouter(config);
+    }
+
+    /**
+     * DataSource a legújabb verzióra migrált sémával
+     * Csak a DataSource első használatakor fut migráció; később a tárolt ellenőrzött állapot számít
+     */
+    public DataSource getVerifiedDataSource(ConnectionConfig config) {
+        DataSource dataSource = getDataSource(config);
+        SchemaState state = schemaStates.computeIfAbsent(getCacheKey(config), key -> new SchemaState());
+
+        synchronized (state) {
+            if (state.version == null) {
+                long start = System.currentTimeMillis();
+                state.version = SchemaInitializerFactory.initializeDatabase(dataSource, config.getType());
+                maintainPartitions(config, dataSource);
+                state.verifiedAt = System.currentTimeMillis();
+                log.info("Schema of {} verified at version {} in {} ms",
+                        config.getName(), state.version, state.verifiedAt - start);
+                return dataSource;
+            }
+        }
+
+        verifyInBackground(config, dataSource, state);
+        return dataSource;
+    }
+
+    /**
+     * Már ellenőrzött séma újraellenőrzése háttérszálon; hiba esetén a következő használat újra szinkron migrál
+     */
+    private void verifyInBackground(ConnectionConfig config, DataSource dataSource, SchemaState state) {
+        DiagnosticsProperties.Schema settings = diagnosticsProperties.getSchema();
+        if (!settings.isBackgroundVerification()
+                || System.currentTimeMillis() - state.verifiedAt < settings.getVerificationInterval().toMillis()
+                || !state.verifying.compareAndSet(false, true)) {
+            return;
+        }
+
+        schemaVerifier.execute(() -> {
+            try {
+                String version = SchemaInitializerFactory.initializeDatabase(dataSource, config.getType());
+                maintainPartitions(config, dataSource);
+                synchronized (state) {
+                    state.version = version;
+                    state.verifiedAt = System.currentTimeMillis();
+                }
+                log.debug("Schema of {} re-verified at version {}", config.getName(), version);
+            } catch (Exception e) {
+                log.warn("Background schema verification failed for {}, will re-run on next use",
+                        config.getName(), e);
+                synchronized (state) {
+                    state.version = null;
+                }
+            } finally {
+                state.verifying.set(false);
+            }
+        });
     }
 
     /**
-     * HikariCP DataSource létrehozása
+     * PostgreSQL work_records particionálás karbantartása (átalakítás, jövőbeli partíciók), ha be van kapcsolva
+     * Hiba esetén a tábla változatlan marad, illetve a hiányzó időszak sorai a DEFAULT partícióba kerülnek,
+     * ezért a kapcsolat ettől még használható
      */
-    private DataSource createDataSource(ConnectionConfig config) {
+    private void maintainPartitions(ConnectionConfig config, DataSource dataSource) {
+        WorkRecordPartitioning partitioning = config.getWorkRecordPartitioning();
+        if (partitioning == null || partitioning == WorkRecordPartitioning.NONE) {
+            return;
+        }
+        if (config.getType() != DatabaseType.POSTGRESQL) {
+            log.warn("Work record partitioning is only supported on PostgreSQL, ignored for {}", config.getName());
+            return;
+        }
+        try {
+            new WorkRecordPartitionManager(dataSource, partitioning).maintain();
+        } catch (SQLException e) {
+            log.error("Work record partition maintenance failed for {}", config.getName(), e);
+        }
+    }
+
+    /**
+     * Igaz, ha a kapcsolat sémája már ellenőrzésre került
+     */
+    public boolean isSchemaVerified(ConnectionConfig config) {
+        SchemaState state = schemaStates.get(getCacheKey(config));
+        return state != null && state.version != null;
+    }
+
+    private DataSource withSlowQueryLog(ConnectionConfig config, DataSource dataSource) {
+        DiagnosticsProperties.SlowQuery settings = diagnosticsProperties.getSlowQuery();
+        if (!settings.isEnabled()) {
+            return dataSource;
+        }
+        log.info("Slow query log enabled for {} (threshold {} ms, explain: {})",
+                config.getName(), settings.getThreshold().toMillis(), settings.isExplain());
+        return new SlowQueryDataSource(dataSource,
+                new SlowQueryLog(config.getName(), config.getType(), dataSource, settings));
+    }
+
+    /**
+     * HikariCP DataSource létrehozása; a pool metrikák csak a tartós (cache-elt) pool-okhoz kerülnek regisztrálásra
+     */
+    private DataSource createDataSource(ConnectionConfig config, boolean registerMetrics) {
+        return createDataSource(config, registerMetrics, true);
+    }
+
+    /**
+     * @param failFast false esetén a pool akkor is létrejön, ha az adatbázis épp nem érhető el (replikák)
+     */
+    private DataSource createDataSource(ConnectionConfig config, boolean registerMetrics, boolean failFast) {
         HikariConfig hikariConfig = new HikariConfig();
 
         log.info("=== HIKARI DATASOURCE CREATION ===");
@@ -185,36 +562,34 @@ public class DatabaseConnectionManager {
         hikariConfig.setPassword(config.getPassword());
         hikariConfig.setDriverClassName(config.getDriverClassName());
 
-        // Connection pool beállítások
-        hikariConfig.setMaximumPoolSize(config.getMaxPoolSize());
+        // Connection pool beállítások; adaptív módban a pool kicsiről indul és terhelés alatt nő
+        hikariConfig.setMaximumPoolSize(config.isAdaptivePoolSizing()
+                ? Math.max(1, Math.min(config.getMinIdle(), config.getMaxPoolSize())) : config.getMaxPoolSize());
         hikariConfig.setMinimumIdle(config.getMinIdle());
         hikariConfig.setConnectionTimeout(config.getConnectionTimeout());
         hikariConfig.setPoolName("EmployeeManager-" + config.getName());
-
-        // Adatbázis specifikus beállítások
-        if (config.getType() == DatabaseType.MYSQL) {
-            hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
-            hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
-            hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-            log.info("Added MySQL specific properties to HikariCP");
+        if (!failFast) {
+            hikariConfig.setInitializationFailTimeout(-1);
         }
 
-        // PostgreSQL specifikus beállítások HikariCP-hez
+        // Adatbázis specifikus driver beállítások a hangolási profil szerint
+        PoolTuningProfile profile = config.getTuningProfile() != null
+                ? config.getTuningProfile() : PoolTuningProfile.BALANCED;
+        profile.apply(hikariConfig, config.getType());
         if (config.getType() == DatabaseType.POSTGRESQL) {
-            hikariConfig.addDataSourceProperty("ApplicationName", "EmployeeManager");
-            hikariConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
-            hikariConfig.addDataSourceProperty("sslmode", "disable");
-            log.info("Added PostgreSQL specific properties to HikariCP:");
-            log.info("  - ApplicationName: EmployeeManager");
-            log.info("  - reWriteBatchedInserts: true");
-            log.info("  - sslmode: disable");
+            hikariConfig.addDataSourceProperty("sslmode",
+                    config.getSslMode() != null ? config.getSslMode() : ConnectionConfig.DEFAULT_SSL_MODE);
         }
+        log.info("Applied {} tuning profile for {}", profile.name(), config.getType());
 
         log.info("=== END HIKARI CREATION ===");
 
         try {
             HikariDataSource dataSource = new HikariDataSource(hikariConfig);
             log.info("HikariDataSource created successfully for: {}", config.getName());
+            if (registerMetrics) {
+                enableMonitoring(config, dataSource);
+            }
             return dataSource;
         } catch (Exception e) {
             log.error("Failed to create HikariDataSource for: {}", config.getName(), e);
@@ -222,6 +597,40 @@ public class DatabaseConnectionManager {
         }
     }
 
+    /**
+     * Pool metrikák regisztrálása és az adaptív méretezés indítása egy tartós pool-hoz
+     */
+    private void enableMonitoring(ConnectionConfig config, HikariDataSource dataSource) {
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        if (config.isAdaptivePoolSizing()) {
+            startAdaptiveSizing(config, dataSource);
+        }
+    }
+
+    /**
+     * Igaz, ha a kapcsolat cache-elt pool-jának adaptív méretezése ütemezve van
+     */
+    boolean isAdaptiveSizingScheduled(ConnectionConfig config) {
+        DataSource dataSource = cachedDataSource(config);
+        if (dataSource instanceof SlowQueryDataSource) {
+            dataSource = ((SlowQueryDataSource) dataSource).getDelegate();
+        }
+        ScheduledFuture<?> sizing = dataSource instanceof HikariDataSource ? adaptivePools.get(dataSource) : null;
+        return sizing != null && !sizing.isDone();
+    }
+
+    /**
+     * Adaptív pool méretezés indítása: a pool minIdle és maxPoolSize között igazodik a terheléshez
+     */
+    private void startAdaptiveSizing(ConnectionConfig config, HikariDataSource dataSource) {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(dataSource, meterRegistry,
+                config.getMinIdle(), config.getMaxPoolSize());
+        adaptivePools.put(dataSource, poolSizer.scheduleWithFixedDelay(
+                sizer::sample, POOL_SAMPLE_INTERVAL_SECONDS, POOL_SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS));
+        log.info("Adaptive pool sizing enabled for {} ({}..{} connections)",
+                config.getName(), config.getMinIdle(), config.getMaxPoolSize());
+    }
+
     /**
      * Firestore instance létrehozása vagy cache-ből visszaadása
      */
@@ -288,6 +697,13 @@ public class DatabaseConnectionManager {
         return config.getType() + ":" + config.getName();
     }
 
+    /**
+     * Metrika regisztry a pool-ok és repository-k méréséhez
+     */
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
     /**
      * Aktív kapcsolat beállítása
      */
@@ -305,16 +721,25 @@ public class DatabaseConnectionManager {
     }
 
     /**
-     * Összes kapcsolat bezárása és cache tisztítása
+     * Összes kapcsolat bezárása, cache tisztítása és a háttérszálak leállítása
+     *
+     * Leállításkor a rá épülő bean-ek (RepositoryFactory: késleltetett írás, replikáció) után fut,
+     * így azok utolsó kiírása még élő kapcsolatokon történik.
      */
+    @PreDestroy
     public void closeAll() {
         // DataSource-ok bezárása
-        dataSourceCache.values().forEach(ds -> {
-            if (ds instanceof HikariDataSource) {
-                ((HikariDataSource) ds).close();
-            }
-        });
+        dataSourceCache.values().forEach(this::closeDataSource);
+        stagedPools.values().forEach(staged -> closeDataSource(staged.dataSource));
+        stagedPools.clear();
+        adaptivePools.values().forEach(future -> future.cancel(false));
+        adaptivePools.clear();
+        poolSizer.shutdownNow();
         dataSourceCache.clear();
+        pooledConfigs.clear();
+        schemaStates.clear();
+        replicaRouters.clear();
+        schemaVerifier.shutdownNow();
 
         // Firebase app-ok törlése
         FirebaseApp.getApps().forEach(FirebaseApp::delete);
@@ -322,4 +747,26 @@ public class DatabaseConnectionManager {
 
         log.info("All database connections closed");
     }
-}
\ No newline at end of file
+
+    /**
+     * Egy DataSource séma állapota: az utoljára ellenőrzött verzió (null, ha még nincs ellenőrizve)
+     */
+    private static final class SchemaState {
+        private volatile String version;
+        private volatile long verifiedAt;
+        private final AtomicBoolean verifying = new AtomicBoolean();
+    }
+
+    /**
+     * Aktiváláshoz tesztelt pool a létrehozásakori beállításokkal
+     */
+    private static final class StagedPool {
+        private final ConnectionConfig config;
+        private final DataSource dataSource;
+
+        private StagedPool(ConnectionConfig config, DataSource dataSource) {
+            this.config = config;
+            this.dataSource = dataSource;
+        }
+    }
+}
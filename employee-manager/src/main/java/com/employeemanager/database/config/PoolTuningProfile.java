@@ -0,0 +1,87 @@
+package com.employeemanager.database.config;
+
+import com.zaxxer.hikari.HikariConfig;
+
+/**
+ * JDBC driver és HikariCP hangolási profilok adatbázis típusonként
+ *
+ * A profil a driver utasítás-gyorsítótárát, a PostgreSQL szerver oldali előkészítési küszöbét és alapértelmezett
+ * fetch méretét, illetve a H2 gyorsítótár és zárolási beállításait határozza meg. A pool méretét a kapcsolat
+ * maxPoolSize/minIdle beállítása adja (adaptív módban ez a tartomány, lásd AdaptivePoolSizer).
+ * A titkosítás (PostgreSQL sslmode) nem hangolás, hanem a kapcsolat beállítása (ConnectionConfig.sslMode).
+ * A H2 kapcsolat mindig memóriabeli, így az MVStore fájl beállításai (WRITE_DELAY, COMPRESS, tömörítés)
+ * hatástalanok lennének; a profil csak a gyorsítótárakat és a zárolási időt állítja.
+ */
+public enum PoolTuningProfile {
+    BALANCED("Kiegyensúlyozott", 250, 3, 0, 32 * 1024, 16),
+    DATA_ENTRY("Adatrögzítés (rövid tranzakciók)", 100, 5, 0, 16 * 1024, 8),
+    REPORTING("Riportok (nagy lekérdezések)", 500, 1, 1000, 128 * 1024, 64);
+
+    private static final int H2_LOCK_TIMEOUT_MILLIS = 10_000;
+
+    private final String displayName;
+    private final int statementCacheSize;
+    private final int prepareThreshold;
+    private final int defaultFetchSize;
+    private final int h2CacheSizeKb;
+    private final int h2QueryCacheSize;
+
+    PoolTuningProfile(String displayName, int statementCacheSize, int prepareThreshold, int defaultFetchSize,
+                      int h2CacheSizeKb, int h2QueryCacheSize) {
+        this.displayName = displayName;
+        this.statementCacheSize = statementCacheSize;
+        this.prepareThreshold = prepareThreshold;
+        this.defaultFetchSize = defaultFetchSize;
+        this.h2CacheSizeKb = h2CacheSizeKb;
+        this.h2QueryCacheSize = h2QueryCacheSize;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Driver tulajdonságok beállítása a pool konfigurációban
+     */
+    public void apply(HikariConfig hikariConfig, DatabaseType type) {
+        switch (type) {
+            case MYSQL -> {
+                hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+                hikariConfig.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+                hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+                hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+                // Szerver oldali kurzor a fetchSize-t beállító (stream) lekérdezésekhez
+                hikariConfig.addDataSourceProperty("useCursorFetch", "true");
+                // Batch INSERT-ek összevonása többsoros utasítássá (saveAll, tömeges betöltés)
+                hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+                // Fölösleges körutak elhagyása (autocommit, session állapot, metaadatok)
+                hikariConfig.addDataSourceProperty("cacheResultSetMetadata", "true");
+                hikariConfig.addDataSourceProperty("cacheServerConfiguration", "true");
+                hikariConfig.addDataSourceProperty("elideSetAutoCommits", "true");
+                hikariConfig.addDataSourceProperty("useLocalSessionState", "true");
+                hikariConfig.addDataSourceProperty("maintainTimeStats", "false");
+            }
+            case POSTGRESQL -> {
+                hikariConfig.addDataSourceProperty("ApplicationName", "EmployeeManager");
+                hikariConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
+                // Ennyi végrehajtás után lesz az utasítás szerver oldalon előkészítve
+                hikariConfig.addDataSourceProperty("prepareThreshold", String.valueOf(prepareThreshold));
+                hikariConfig.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(statementCacheSize));
+                if (defaultFetchSize > 0) {
+                    hikariConfig.addDataSourceProperty("defaultRowFetchSize", String.valueOf(defaultFetchSize));
+                }
+            }
+            case H2 -> hikariConfig.setJdbcUrl(hikariConfig.getJdbcUrl()
+                    + ";CACHE_SIZE=" + h2CacheSizeKb
+                    + ";QUERY_CACHE_SIZE=" + h2QueryCacheSize
+                    + ";LOCK_TIMEOUT=" + H2_LOCK_TIMEOUT_MILLIS);
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
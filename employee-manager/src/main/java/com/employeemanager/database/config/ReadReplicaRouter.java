@@ -0,0 +1,81 @@
+package com.employeemanager.database.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Olvasó kapcsolatok elosztása egy JDBC kapcsolat replikái között
+ *
+ * A lekérdezések körbeforgó sorrendben a replikákra mennek, így a hónap végi riportok nem terhelik az
+ * adatrögzítést kiszolgáló elsődleges adatbázist. Írás után a read-after-write ablakban minden olvasás az
+ * elsődlegesre megy, hogy a replikák késése ellenére is látsszon a saját módosítás. Elérhetetlen replika
+ * egy ideig kimarad a sorból; ha egyik sem érhető el, az elsődlegesről olvasunk.
+ */
+@Slf4j
+public class ReadReplicaRouter {
+
+    private static final long UNAVAILABLE_MILLIS = 30_000;
+
+    private final String name;
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long readAfterWriteNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLongArray unavailableUntil;
+
+    private volatile long lastWriteNanos;
+
+    public ReadReplicaRouter(String name, DataSource primary, List<DataSource> replicas, Duration readAfterWrite) {
+        this.name = name;
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readAfterWriteNanos = Math.max(0, readAfterWrite.toNanos());
+        this.unavailableUntil = new AtomicLongArray(replicas.size());
+        this.lastWriteNanos = System.nanoTime() - readAfterWriteNanos - 1;
+    }
+
+    /**
+     * Kapcsolat egy lekérdezéshez: replika, vagy az írás utáni ablakban az elsődleges
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (System.nanoTime() - lastWriteNanos <= readAfterWriteNanos) {
+            return primary.getConnection();
+        }
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % count;
+            if (now < unavailableUntil.get(index)) {
+                continue;
+            }
+            try {
+                return replicas.get(index).getConnection();
+            } catch (SQLException e) {
+                unavailableUntil.set(index, now + UNAVAILABLE_MILLIS);
+                log.warn("Read replica {} of {} unavailable, skipping it for {} s: {}",
+                        index + 1, name, TimeUnit.MILLISECONDS.toSeconds(UNAVAILABLE_MILLIS), e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Sikeres írás jelzése: a read-after-write ablakban az olvasások az elsődlegesre mennek
+     */
+    public void markWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+}
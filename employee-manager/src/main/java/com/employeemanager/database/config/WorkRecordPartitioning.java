@@ -0,0 +1,92 @@
+package com.employeemanager.database.config;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A work_records tábla particionálása munkavégzés dátuma szerint (csak PostgreSQL)
+ */
+public enum WorkRecordPartitioning {
+    NONE("Nincs particionálás", null, 0),
+    MONTHLY("Havi partíciók", DateTimeFormatter.ofPattern("yyyy_MM"), 3),
+    YEARLY("Éves partíciók", DateTimeFormatter.ofPattern("yyyy"), 1);
+
+    private final String displayName;
+    private final DateTimeFormatter suffixFormat;
+    private final int periodsAhead;
+
+    WorkRecordPartitioning(String displayName, DateTimeFormatter suffixFormat, int periodsAhead) {
+        this.displayName = displayName;
+        this.suffixFormat = suffixFormat;
+        this.periodsAhead = periodsAhead;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Ennyi jövőbeli időszakra készül előre partíció
+     */
+    public int getPeriodsAhead() {
+        return periodsAhead;
+    }
+
+    /**
+     * A dátumot tartalmazó időszak első napja
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case MONTHLY -> date.withDayOfMonth(1);
+            case YEARLY -> date.withDayOfYear(1);
+            case NONE -> throw new IllegalStateException("Partitioning is disabled");
+        };
+    }
+
+    /**
+     * A következő időszak első napja (a partíció felső, nyitott határa)
+     */
+    public LocalDate nextPeriod(LocalDate periodStart) {
+        return switch (this) {
+            case MONTHLY -> periodStart.plusMonths(1);
+            case YEARLY -> periodStart.plusYears(1);
+            case NONE -> throw new IllegalStateException("Partitioning is disabled");
+        };
+    }
+
+    /**
+     * Partíció tábla neve, pl. work_records_p2024_01 vagy work_records_p2024
+     */
+    public String partitionName(String table, LocalDate periodStart) {
+        if (this == NONE) {
+            throw new IllegalStateException("Partitioning is disabled");
+        }
+        return table + "_p" + periodStart.format(suffixFormat);
+    }
+
+    /**
+     * Időszak kezdete a partíció nevéből; null, ha a név nem ennek a particionálásnak felel meg
+     */
+    public LocalDate parsePeriodStart(String table, String partitionName) {
+        String prefix = table + "_p";
+        if (this == NONE || !partitionName.startsWith(prefix)) {
+            return null;
+        }
+        String suffix = partitionName.substring(prefix.length());
+        try {
+            return switch (this) {
+                case MONTHLY -> suffix.length() == 7
+                        ? LocalDate.parse(suffix + "_01", DateTimeFormatter.ofPattern("yyyy_MM_dd")) : null;
+                case YEARLY -> suffix.length() == 4 ? LocalDate.of(Integer.parseInt(suffix), 1, 1) : null;
+                case NONE -> null;
+            };
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -1,27 +1,48 @@
 package com.employeemanager.database.factory;
 
+import com.employeemanager.config.ArchiveProperties;
+import com.employeemanager.config.FirebaseCacheProperties;
+import com.employeemanager.config.ReplicationProperties;
 import com.employeemanager.database.config.ConnectionConfig;
 import com.employeemanager.database.config.DatabaseConnectionManager;
-import com.employeemanager.database.schema.SchemaInitializerFactory;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.repository.archive.ArchivingWorkRecordRepository;
+import com.employeemanager.repository.archive.FileWorkRecordArchive;
+import com.employeemanager.repository.archive.JdbcWorkRecordArchive;
+import com.employeemanager.repository.archive.WorkRecordArchive;
+import com.employeemanager.repository.cache.FirestoreDocumentCache;
 import com.employeemanager.repository.impl.FirebaseEmployeeRepository;
 import com.employeemanager.repository.impl.FirebaseWorkRecordRepository;
 import com.employeemanager.repository.impl.JdbcEmployeeRepository;
 import com.employeemanager.repository.impl.JdbcWorkRecordRepository;
 import com.employeemanager.repository.interfaces.EmployeeRepository;
 import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.repository.metrics.MeteredEmployeeRepository;
+import com.employeemanager.repository.metrics.MeteredWorkRecordRepository;
+import com.employeemanager.repository.replication.FirestoreReplicator;
+import com.employeemanager.repository.replication.ReplicationOutbox;
 import com.google.cloud.firestore.Firestore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Repository példányok létrehozása az aktív adatbázis kapcsolat alapján
  *
  * Thread-safe implementáció: synchronized metódusok és volatile mezők biztosítják
  * a megfelelő szálbiztonságot többszálú környezetben.
+ * A visszaadott repository-k mért dekorátorok (Micrometer, backend és művelet szerint).
+ * Bekapcsolt archiválásnál a WorkRecordRepository archív olvasású dekorátor (lásd ArchivingWorkRecordRepository).
+ * Firebase kapcsolatnál a két repository közös helyi gyorsítótárat használ (lásd FirestoreDocumentCache).
+ * Bekapcsolt replikációnál a JDBC repository-k kimenő naplót írnak, amit a FirestoreReplicator visz át a replikába.
+ * Olvasási replikákkal rendelkező JDBC kapcsolatnál a két repository közös ReadReplicaRouter-t kap.
  */
 @Slf4j
 @Component
@@ -29,11 +50,20 @@ import java.io.IOException;
 public class RepositoryFactory {
 
     private final DatabaseConnectionManager connectionManager;
+    private final ArchiveProperties archiveProperties;
+    private final FirebaseCacheProperties firebaseCacheProperties;
+    private final ReplicationProperties replicationProperties;
 
     // Volatile mezők a láthatóság biztosítására több szál között
     private volatile EmployeeRepository currentEmployeeRepository;
     private volatile WorkRecordRepository currentWorkRecordRepository;
+    private volatile WorkRecordArchive currentWorkRecordArchive;
     private volatile String currentConnectionKey;
+    private volatile FirestoreDocumentCache currentFirestoreCache;
+    private volatile String currentFirestoreCacheKey;
+    private volatile ReplicationOutbox currentReplicationOutbox;
+    private volatile FirestoreReplicator currentReplicator;
+    private volatile String currentReplicationKey;
     
     /**
      * EmployeeRepository létrehozása vagy visszaadása
@@ -87,7 +117,10 @@ public class RepositoryFactory {
             case FIREBASE:
                 try {
                     Firestore firestore = connectionManager.getFirestore(config);
-                    return new FirebaseEmployeeRepository(firestore);
+                    FirebaseEmployeeRepository repository =
+                            new FirebaseEmployeeRepository(firestore, firestoreCache(config, firestore));
+                    repository.bindTo(connectionManager.getMeterRegistry());
+                    return metered(repository, config);
                 } catch (IOException e) {
                     log.error("Failed to create Firebase EmployeeRepository", e);
                     throw new RuntimeException("Failed to create Firebase repository", e);
@@ -96,17 +129,17 @@ public class RepositoryFactory {
             case MYSQL:
             case POSTGRESQL:
             case H2:
-                DataSource dataSource = connectionManager.getDataSource(config);
-                
-                // Séma inicializálása ha szükséges
+                // A séma DataSource-onként egyszer kerül ellenőrzésre (lásd DatabaseConnectionManager)
+                DataSource dataSource;
                 try {
-                    SchemaInitializerFactory.initializeDatabase(dataSource, config.getType());
+                    dataSource = connectionManager.getVerifiedDataSource(config);
                 } catch (Exception e) {
                     log.error("Failed to initialize database schema", e);
                     throw new RuntimeException("Failed to initialize database schema", e);
                 }
                 
-                return new JdbcEmployeeRepository(dataSource);
+                return metered(new JdbcEmployeeRepository(dataSource, replicationOutbox(config, dataSource),
+                        connectionManager.getReadReplicaRouter(config)), config);
                 
             default:
                 throw new IllegalArgumentException("Unsupported database type: " + config.getType());
@@ -126,7 +159,13 @@ public class RepositoryFactory {
             case FIREBASE:
                 try {
                     Firestore firestore = connectionManager.getFirestore(config);
-                    return new FirebaseWorkRecordRepository(firestore, employeeRepository);
+                    FirebaseWorkRecordRepository repository =
+                            new FirebaseWorkRecordRepository(firestore, employeeRepository,
+                                    firestoreCache(config, firestore));
+                    repository.bindTo(connectionManager.getMeterRegistry());
+                    return metered(withArchive(repository, config, () -> new FileWorkRecordArchive(
+                            Paths.get(archiveProperties.getDirectory(), localStorageName(config)),
+                            repository, employeeRepository)), config);
                 } catch (IOException e) {
                     log.error("Failed to create Firebase WorkRecordRepository", e);
                     throw new RuntimeException("Failed to create Firebase repository", e);
@@ -135,23 +174,146 @@ public class RepositoryFactory {
             case MYSQL:
             case POSTGRESQL:
             case H2:
-                DataSource dataSource = connectionManager.getDataSource(config);
-                
-                // Séma inicializálása ha szükséges
+                // A séma DataSource-onként egyszer kerül ellenőrzésre (lásd DatabaseConnectionManager)
+                DataSource dataSource;
                 try {
-                    SchemaInitializerFactory.initializeDatabase(dataSource, config.getType());
+                    dataSource = connectionManager.getVerifiedDataSource(config);
                 } catch (Exception e) {
                     log.error("Failed to initialize database schema", e);
                     throw new RuntimeException("Failed to initialize database schema", e);
                 }
                 
-                return new JdbcWorkRecordRepository(dataSource, employeeRepository);
+                return metered(withArchive(new JdbcWorkRecordRepository(dataSource, employeeRepository,
+                                replicationOutbox(config, dataSource), connectionManager.getReadReplicaRouter(config),
+                                config.getType()),
+                                config,
+                        () -> new JdbcWorkRecordArchive(dataSource)), config);
                 
             default:
                 throw new IllegalArgumentException("Unsupported database type: " + config.getType());
         }
     }
     
+    /**
+     * Archív réteg hozzáadása, ha az archiválás be van kapcsolva
+     */
+    private WorkRecordRepository withArchive(WorkRecordRepository repository, ConnectionConfig config,
+                                             Supplier<WorkRecordArchive> archiveFactory) {
+        if (!archiveProperties.isEnabled()) {
+            currentWorkRecordArchive = null;
+            return repository;
+        }
+        WorkRecordArchive archive = archiveFactory.get();
+        currentWorkRecordArchive = archive;
+        log.info("Work record archive enabled for {}: {}", config.getName(), archive.getClass().getSimpleName());
+        return new ArchivingWorkRecordRepository(repository, archive);
+    }
+
+    /**
+     * A kapcsolat helyi gyorsítótára; null, ha ki van kapcsolva vagy nem nyitható meg
+     */
+    private FirestoreDocumentCache firestoreCache(ConnectionConfig config, Firestore firestore) {
+        if (!firebaseCacheProperties.isEnabled()) {
+            return null;
+        }
+        String cacheKey = getConnectionKey(config);
+        if (currentFirestoreCache != null && cacheKey.equals(currentFirestoreCacheKey)) {
+            return currentFirestoreCache;
+        }
+        closeFirestoreCache();
+        try {
+            currentFirestoreCache = new FirestoreDocumentCache(firestore,
+                    Paths.get(firebaseCacheProperties.getDirectory(), localStorageName(config)),
+                    firebaseCacheProperties.getSyncInterval(), firebaseCacheProperties.getFullSyncInterval());
+            currentFirestoreCacheKey = cacheKey;
+            log.info("Local Firebase cache enabled for {}", config.getName());
+            FirebaseCacheProperties.WriteBehind writeBehind = firebaseCacheProperties.getWriteBehind();
+            // Kikapcsolt módban is kiírjuk a naplóban maradt módosításokat
+            int pending = currentFirestoreCache.pendingWriteCount();
+            if (writeBehind.isEnabled() || pending > 0) {
+                currentFirestoreCache.startWriteBehind(writeBehind.getBatchSize(), writeBehind.getFlushInterval(),
+                        writeBehind.getMaxBackoff());
+                log.info("Firestore write-behind enabled for {} ({} pending writes)", config.getName(), pending);
+            }
+            return currentFirestoreCache;
+        } catch (ExecutionException e) {
+            // Pl. egy másik futó példány fogja a fájlt: gyorsítótár nélkül is működünk
+            log.warn("Local Firebase cache unavailable for {}, reading from Firestore", config.getName(), e);
+            return null;
+        }
+    }
+
+    private void closeFirestoreCache() {
+        if (currentFirestoreCache != null) {
+            currentFirestoreCache.close();
+            currentFirestoreCache = null;
+            currentFirestoreCacheKey = null;
+        }
+    }
+
+    /**
+     * A JDBC kapcsolat kimenő naplója és a replikába író háttérszál; null, ha a replikáció ki van kapcsolva
+     *
+     * A napló a replika elérhetőségétől függetlenül íródik: ha a Firestore nem érhető el, a bejegyzések
+     * a következő sikeres indításkor kerülnek ki.
+     */
+    private ReplicationOutbox replicationOutbox(ConnectionConfig config, DataSource dataSource) {
+        if (!replicationProperties.isEnabled()) {
+            return null;
+        }
+        String replicationKey = getConnectionKey(config);
+        if (currentReplicationOutbox != null && replicationKey.equals(currentReplicationKey)) {
+            return currentReplicationOutbox;
+        }
+        stopReplication();
+        currentReplicationOutbox = new ReplicationOutbox();
+        currentReplicationKey = replicationKey;
+        try {
+            Firestore replica = connectionManager.getFirestore(replicaConfig());
+            currentReplicator = new FirestoreReplicator(dataSource, replica, replicationProperties.getBatchSize(),
+                    replicationProperties.getPollInterval(), replicationProperties.getMaxBackoff());
+            log.info("Firestore replication enabled for {} to project {}", config.getName(),
+                    replicationProperties.getFirebaseProjectId());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Firestore replica unavailable, changes of {} are kept in the outbox", config.getName(), e);
+        }
+        return currentReplicationOutbox;
+    }
+
+    private ConnectionConfig replicaConfig() {
+        return ConnectionConfig.builder()
+                .name("Firestore replica")
+                .type(DatabaseType.FIREBASE)
+                .firebaseProjectId(replicationProperties.getFirebaseProjectId())
+                .firebaseDatabaseUrl(replicationProperties.getFirebaseDatabaseUrl())
+                .firebaseServiceAccountPath(replicationProperties.getFirebaseServiceAccountPath())
+                .build();
+    }
+
+    private void stopReplication() {
+        if (currentReplicator != null) {
+            currentReplicator.close();
+            currentReplicator = null;
+        }
+        currentReplicationOutbox = null;
+        currentReplicationKey = null;
+    }
+
+    /**
+     * Firebase archív és gyorsítótár könyvtár neve a kapcsolat nevéből, fájlrendszer-biztos karakterekkel
+     */
+    private static String localStorageName(ConnectionConfig config) {
+        return config.getName().replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private EmployeeRepository metered(EmployeeRepository repository, ConnectionConfig config) {
+        return new MeteredEmployeeRepository(repository, connectionManager.getMeterRegistry(), config.getType());
+    }
+
+    private WorkRecordRepository metered(WorkRecordRepository repository, ConnectionConfig config) {
+        return new MeteredWorkRecordRepository(repository, connectionManager.getMeterRegistry(), config.getType());
+    }
+
     /**
      * Kapcsolat kulcs generálása az egyedi azonosításhoz
      */
@@ -159,16 +321,33 @@ public class RepositoryFactory {
         return config.getType() + ":" + config.getName() + ":" + config.hashCode();
     }
     
+    /**
+     * Az aktív kapcsolat archív rétege; null, ha az archiválás ki van kapcsolva
+     */
+    public synchronized WorkRecordArchive getWorkRecordArchive() {
+        getWorkRecordRepository();
+        return currentWorkRecordArchive;
+    }
+
     /**
      * Repository cache tisztítása
      */
     public synchronized void clearCache() {
         currentEmployeeRepository = null;
         currentWorkRecordRepository = null;
+        currentWorkRecordArchive = null;
         currentConnectionKey = null;
+        closeFirestoreCache();
+        stopReplication();
         log.info("Repository cache cleared");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        // A késleltetett írás és a replikáció naplójának kiírása, a helyi gyorsítótár lezárása
+        clearCache();
+    }
+
     /**
      * Aktív kapcsolat váltása
      */
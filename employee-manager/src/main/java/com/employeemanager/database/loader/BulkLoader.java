@@ -0,0 +1,48 @@
+package com.employeemanager.database.loader;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tömeges adatbetöltés az adott backend leggyorsabb írási útvonalán
+ * Hiányzó azonosító esetén a betöltő generál egyet, hogy a munkanaplók hivatkozhassanak rá.
+ */
+public interface BulkLoader extends AutoCloseable {
+
+    /**
+     * Alkalmazottak betöltése, visszaadja a betöltött sorok számát (a listánál kevesebb: véglegesen sikertelen sorok)
+     */
+    int loadEmployees(List<Employee> employees) throws ExecutionException, InterruptedException;
+
+    /**
+     * Munkanaplók betöltése, visszaadja a betöltött sorok számát (a listánál kevesebb: véglegesen sikertelen sorok)
+     */
+    int loadWorkRecords(List<WorkRecord> workRecords) throws ExecutionException, InterruptedException;
+
+    /**
+     * A határnál régebbi munkanaplók áthelyezése a cél archívumába és a határ rögzítése
+     * Archív tábla nélküli backend (Firestore) esetén a munkanaplók az élő gyűjteményben maradnak.
+     */
+    default void archiveBefore(LocalDate boundary) throws ExecutionException, InterruptedException {
+    }
+
+    /**
+     * Betöltési mód neve naplózáshoz (pl. "JDBC batch", "COPY")
+     */
+    String getName();
+
+    /**
+     * Felülírja-e az ismételten betöltött sorokat (a folytatott adatátvitel ezt figyelembe veszi)
+     */
+    default boolean isIdempotent() {
+        return false;
+    }
+
+    @Override
+    default void close() throws ExecutionException, InterruptedException {
+    }
+}
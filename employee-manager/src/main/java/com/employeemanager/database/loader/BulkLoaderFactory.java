@@ -0,0 +1,27 @@
+package com.employeemanager.database.loader;
+
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+
+import java.io.IOException;
+
+/**
+ * Az adatbázis típusnak megfelelő tömeges betöltő
+ */
+public class BulkLoaderFactory {
+
+    public static BulkLoader create(ConnectionConfig config, DatabaseConnectionManager connectionManager)
+            throws IOException {
+        switch (config.getType()) {
+            case FIREBASE:
+                return new FirestoreBulkLoader(connectionManager.getFirestore(config));
+            case POSTGRESQL:
+                return new PostgresCopyBulkLoader(connectionManager.getDataSource(config));
+            case MYSQL:
+            case H2:
+                return new JdbcBatchBulkLoader(connectionManager.getDataSource(config));
+            default:
+                throw new IllegalArgumentException("No bulk loader for: " + config.getType());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.employeemanager.database.loader;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.cache.FirestoreDocumentCache;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Firestore betöltő BulkWriter-rel
+ * A BulkWriter párhuzamosan küldi a kötegeket és az 500/50/5 szabály szerint fokozatosan gyorsít;
+ * az átmeneti hibákat MAX_ATTEMPTS próbálkozásig újraküldi. Az ezután is sikertelen írások nem számítanak
+ * betöltöttnek, így a DataTransfer a köteget visszatartja.
+ */
+@Slf4j
+public class FirestoreBulkLoader implements BulkLoader {
+
+    private static final String EMPLOYEES_COLLECTION = "employees";
+    private static final String WORK_RECORDS_COLLECTION = "workrecords";
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final Firestore firestore;
+    private final BulkWriter writer;
+    private final AtomicLong failedWrites = new AtomicLong();
+
+    public FirestoreBulkLoader(Firestore firestore) {
+        this.firestore = firestore;
+        this.writer = firestore.bulkWriter();
+        this.writer.addWriteErrorListener(error -> {
+            if (error.getFailedAttempts() < MAX_ATTEMPTS) {
+                return true;
+            }
+            failedWrites.incrementAndGet();
+            log.error("Firestore bulk write failed after {} attempts: {} ({})",
+                    error.getFailedAttempts(), error.getDocumentReference().getPath(), error.getMessage());
+            return false;
+        });
+    }
+
+    @Override
+    public int loadEmployees(List<Employee> employees) throws ExecutionException, InterruptedException {
+        CollectionReference collection = firestore.collection(EMPLOYEES_COLLECTION);
+        for (Employee employee : employees) {
+            DocumentReference docRef = documentFor(collection, employee.getId());
+            employee.setId(docRef.getId());
+            writer.set(docRef, withUpdateTime(employee.toMap()));
+        }
+        return flush(employees.size());
+    }
+
+    @Override
+    public int loadWorkRecords(List<WorkRecord> workRecords) throws ExecutionException, InterruptedException {
+        CollectionReference collection = firestore.collection(WORK_RECORDS_COLLECTION);
+        for (WorkRecord record : workRecords) {
+            DocumentReference docRef = documentFor(collection, record.getId());
+            record.setId(docRef.getId());
+            writer.set(docRef, withUpdateTime(record.toMap()));
+        }
+        return flush(workRecords.size());
+    }
+
+    /**
+     * Módosítási időbélyeg a helyi gyorsítótárak változáskövetéséhez (lásd FirestoreDocumentCache)
+     */
+    private static Map<String, Object> withUpdateTime(Map<String, Object> data) {
+        data.put(FirestoreDocumentCache.UPDATED_AT, FieldValue.serverTimestamp());
+        return data;
+    }
+
+    private static DocumentReference documentFor(CollectionReference collection, String id) {
+        return id == null || id.isEmpty() ? collection.document() : collection.document(id);
+    }
+
+    /**
+     * Megvárja a sorban álló írásokat, így a hívó visszanyomást (backpressure) kap
+     */
+    private int flush(int submitted) throws ExecutionException, InterruptedException {
+        long failedBefore = failedWrites.get();
+        writer.flush().get();
+        return submitted - (int) (failedWrites.get() - failedBefore);
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    @Override
+    public void close() throws ExecutionException, InterruptedException {
+        writer.close();
+    }
+
+    @Override
+    public String getName() {
+        return "Firestore BulkWriter";
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
+}
@@ -0,0 +1,159 @@
+package com.employeemanager.database.loader;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.archive.JdbcWorkRecordArchive;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * JDBC batch betöltő (H2, MySQL) - egy tranzakció hívásonként, BATCH_SIZE soronkénti executeBatch
+ * MySQL esetén a rewriteBatchedStatements kapcsoló a batch-eket többsoros INSERT-té vonja össze.
+ * A created_at a modell értékét kapja (generált vagy átvitt adat); hiányzó értéknél a betöltés idejét.
+ */
+@Slf4j
+public class JdbcBatchBulkLoader implements BulkLoader {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_EMPLOYEE_SQL = """
+            INSERT INTO employees
+            (id, name, birth_place, birth_date, mother_name, tax_number, social_security_number, address, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP))
+            """;
+
+    private static final String INSERT_WORK_RECORD_SQL = """
+            INSERT INTO work_records
+            (id, employee_id, notification_date, notification_time, ebev_serial_number,
+             work_date, payment, hours_worked, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP))
+            """;
+
+    private final DataSource dataSource;
+
+    public JdbcBatchBulkLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public int loadEmployees(List<Employee> employees) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_EMPLOYEE_SQL)) {
+                int pending = 0;
+                for (Employee employee : employees) {
+                    if (employee.getId() == null || employee.getId().isEmpty()) {
+                        employee.setId(UUID.randomUUID().toString());
+                    }
+                    ps.setString(1, employee.getId());
+                    ps.setString(2, employee.getName());
+                    ps.setString(3, employee.getBirthPlace());
+                    ps.setDate(4, employee.getBirthDate() != null ? Date.valueOf(employee.getBirthDate()) : null);
+                    ps.setString(5, employee.getMotherName());
+                    ps.setString(6, employee.getTaxNumber());
+                    ps.setString(7, employee.getSocialSecurityNumber());
+                    ps.setString(8, employee.getAddress());
+                    if (employee.getCreatedAt() != null) {
+                        ps.setTimestamp(9, Timestamp.valueOf(employee.getCreatedAt().atStartOfDay()));
+                    } else {
+                        ps.setNull(9, Types.TIMESTAMP);
+                    }
+                    ps.addBatch();
+
+                    if (++pending == BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            return employees.size();
+        } catch (SQLException e) {
+            log.error("Error bulk loading {} employees", employees.size(), e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public int loadWorkRecords(List<WorkRecord> workRecords) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_WORK_RECORD_SQL)) {
+                int pending = 0;
+                for (WorkRecord record : workRecords) {
+                    if (record.getId() == null || record.getId().isEmpty()) {
+                        record.setId(UUID.randomUUID().toString());
+                    }
+                    ps.setString(1, record.getId());
+                    ps.setString(2, record.getEmployee().getId());
+                    ps.setDate(3, Date.valueOf(record.getNotificationDate()));
+                    if (record.getNotificationTime() != null) {
+                        ps.setTime(4, Time.valueOf(record.getNotificationTime()));
+                    } else {
+                        ps.setNull(4, Types.TIME);
+                    }
+                    ps.setString(5, record.getEbevSerialNumber());
+                    ps.setDate(6, Date.valueOf(record.getWorkDate()));
+                    ps.setBigDecimal(7, record.getPayment());
+                    ps.setInt(8, record.getHoursWorked());
+                    if (record.getCreatedAt() != null) {
+                        ps.setTimestamp(9, Timestamp.valueOf(record.getCreatedAt()));
+                    } else {
+                        ps.setNull(9, Types.TIMESTAMP);
+                    }
+                    ps.addBatch();
+
+                    if (++pending == BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            return workRecords.size();
+        } catch (SQLException e) {
+            log.error("Error bulk loading {} work records", workRecords.size(), e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public void archiveBefore(LocalDate boundary) throws ExecutionException {
+        new JdbcWorkRecordArchive(dataSource).archiveBefore(boundary);
+    }
+
+    @Override
+    public String getName() {
+        return "JDBC batch";
+    }
+}
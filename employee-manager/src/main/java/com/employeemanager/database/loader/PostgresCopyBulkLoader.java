@@ -0,0 +1,168 @@
+package com.employeemanager.database.loader;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.archive.JdbcWorkRecordArchive;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * PostgreSQL betöltő a COPY ... FROM STDIN protokollal (CSV formátum)
+ * A sorokat kb. 64 KB-os darabokban küldi, így a teljes adathalmaz nem kerül egyszerre memóriába.
+ * A created_at a modell értékét kapja (generált vagy átvitt adat); hiányzó értéknél a betöltés idejét.
+ */
+@Slf4j
+public class PostgresCopyBulkLoader implements BulkLoader {
+
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private static final String COPY_EMPLOYEES_SQL = "COPY employees "
+            + "(id, name, birth_place, birth_date, mother_name, tax_number, social_security_number, address, created_at) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String COPY_WORK_RECORDS_SQL = "COPY work_records "
+            + "(id, employee_id, notification_date, notification_time, ebev_serial_number, "
+            + "work_date, payment, hours_worked, created_at) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    private final DataSource dataSource;
+
+    public PostgresCopyBulkLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public int loadEmployees(List<Employee> employees) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection()) {
+            CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_EMPLOYEES_SQL);
+            LocalDateTime loadedAt = LocalDateTime.now();
+            try {
+                StringBuilder rows = new StringBuilder(FLUSH_THRESHOLD + 1024);
+                for (Employee employee : employees) {
+                    if (employee.getId() == null || employee.getId().isEmpty()) {
+                        employee.setId(UUID.randomUUID().toString());
+                    }
+                    appendText(rows, employee.getId()).append(',');
+                    appendText(rows, employee.getName()).append(',');
+                    appendText(rows, employee.getBirthPlace()).append(',');
+                    appendValue(rows, employee.getBirthDate()).append(',');
+                    appendText(rows, employee.getMotherName()).append(',');
+                    appendText(rows, employee.getTaxNumber()).append(',');
+                    appendText(rows, employee.getSocialSecurityNumber()).append(',');
+                    appendText(rows, employee.getAddress()).append(',');
+                    appendValue(rows, employee.getCreatedAt() != null
+                            ? employee.getCreatedAt().atStartOfDay() : loadedAt).append('\n');
+                    flushIfNeeded(copyIn, rows);
+                }
+                write(copyIn, rows);
+                long copied = copyIn.endCopy();
+                return (int) copied;
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error copying {} employees", employees.size(), e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public int loadWorkRecords(List<WorkRecord> workRecords) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection()) {
+            CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_WORK_RECORDS_SQL);
+            LocalDateTime loadedAt = LocalDateTime.now();
+            try {
+                StringBuilder rows = new StringBuilder(FLUSH_THRESHOLD + 1024);
+                for (WorkRecord record : workRecords) {
+                    if (record.getId() == null || record.getId().isEmpty()) {
+                        record.setId(UUID.randomUUID().toString());
+                    }
+                    appendText(rows, record.getId()).append(',');
+                    appendText(rows, record.getEmployee().getId()).append(',');
+                    appendValue(rows, record.getNotificationDate()).append(',');
+                    appendValue(rows, record.getNotificationTime()).append(',');
+                    appendText(rows, record.getEbevSerialNumber()).append(',');
+                    appendValue(rows, record.getWorkDate()).append(',');
+                    appendValue(rows, record.getPayment() != null ? record.getPayment().toPlainString() : null)
+                            .append(',');
+                    appendValue(rows, record.getHoursWorked()).append(',');
+                    appendValue(rows, record.getCreatedAt() != null ? record.getCreatedAt() : loadedAt).append('\n');
+                    flushIfNeeded(copyIn, rows);
+                }
+                write(copyIn, rows);
+                long copied = copyIn.endCopy();
+                return (int) copied;
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error copying {} work records", workRecords.size(), e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * Szöveg mező CSV formában: mindig idézőjelek között, hogy az üres szöveg ne legyen NULL
+     */
+    private static StringBuilder appendText(StringBuilder rows, String value) {
+        if (value == null) {
+            return rows;
+        }
+        rows.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                rows.append('"');
+            }
+            rows.append(c);
+        }
+        return rows.append('"');
+    }
+
+    /**
+     * Dátum, idő és szám mezők: a toString() alak megegyezik a PostgreSQL bemeneti formátummal
+     */
+    private static StringBuilder appendValue(StringBuilder rows, Object value) {
+        return value != null ? rows.append(value) : rows;
+    }
+
+    private static void flushIfNeeded(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        if (rows.length() >= FLUSH_THRESHOLD) {
+            write(copyIn, rows);
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        if (rows.length() == 0) {
+            return;
+        }
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    @Override
+    public void archiveBefore(LocalDate boundary) throws ExecutionException {
+        new JdbcWorkRecordArchive(dataSource).archiveBefore(boundary);
+    }
+
+    @Override
+    public String getName() {
+        return "PostgreSQL COPY";
+    }
+}
@@ -0,0 +1,77 @@
+package com.employeemanager.database.migration;
+
+import com.employeemanager.database.config.DatabaseType;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Verziózott séma migrációk futtatása egy adatbázis típusra
+ * A database_info.schema_version alapján csak a hiányzó verziók futnak le, sorrendben;
+ * minden verzió után a tárolt verzió frissül, így egy megszakadt futás onnan folytatódik
+ */
+@Slf4j
+public class MigrationRunner {
+
+    private final DatabaseType type;
+    private final List<SchemaMigration> migrations;
+
+    public MigrationRunner(DatabaseType type, List<SchemaMigration> migrations) {
+        if (migrations.isEmpty()) {
+            throw new IllegalArgumentException("No migrations for: " + type);
+        }
+        // Az első migráció a verziókövetés előtti alapséma, verziója nélküle nem értelmezhető
+        if (!SchemaVersion.INITIAL.equals(migrations.get(0).getVersion())) {
+            throw new IllegalArgumentException("First migration must be the baseline " + SchemaVersion.INITIAL
+                    + ", got: " + migrations.get(0).getVersion());
+        }
+        for (int i = 1; i < migrations.size(); i++) {
+            if (!SchemaVersion.isOlder(migrations.get(i - 1).getVersion(), migrations.get(i).getVersion())) {
+                throw new IllegalArgumentException("Migrations are not in ascending version order: "
+                        + migrations.get(i - 1).getVersion() + ", " + migrations.get(i).getVersion());
+            }
+        }
+        this.type = type;
+        this.migrations = migrations;
+    }
+
+    public String getLatestVersion() {
+        return migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    /**
+     * A séma frissítése a legújabb verzióra
+     *
+     * @return a séma verziója a futás után
+     */
+    public String migrate(DataSource dataSource) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            String current = SchemaVersion.read(conn);
+            log.info("{} schema version: {} (latest: {})", type, current != null ? current : "none", getLatestVersion());
+
+            if (current != null && SchemaVersion.isOlder(getLatestVersion(), current)) {
+                log.warn("{} schema version {} is newer than this application knows ({})",
+                        type, current, getLatestVersion());
+                return current;
+            }
+
+            for (SchemaMigration migration : migrations) {
+                if (current != null && !SchemaVersion.isOlder(current, migration.getVersion())) {
+                    continue;
+                }
+                log.info("Applying {} schema migration {}: {}", type, migration.getVersion(), migration.getDescription());
+                long start = System.currentTimeMillis();
+                for (MigrationStep step : migration.getSteps()) {
+                    step.apply(conn);
+                }
+                SchemaVersion.write(conn, migration.getVersion());
+                current = migration.getVersion();
+                log.info("{} schema migrated to {} in {} ms", type, current, System.currentTimeMillis() - start);
+            }
+            return current;
+        }
+    }
+}
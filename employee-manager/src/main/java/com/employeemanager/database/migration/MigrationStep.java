@@ -0,0 +1,26 @@
+package com.employeemanager.database.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Egy migrációs lépés; újrafuttatható (idempotens) kell legyen, mert egy félbeszakadt migráció
+ * a következő indításkor elölről fut
+ */
+@FunctionalInterface
+public interface MigrationStep {
+
+    void apply(Connection conn) throws SQLException;
+
+    /**
+     * Egyszerű, önmagában idempotens DDL utasítás (pl. CREATE TABLE IF NOT EXISTS)
+     */
+    static MigrationStep sql(String statement) {
+        return conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(statement);
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.employeemanager.database.migration;
+
+import com.employeemanager.database.config.DatabaseType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Index létrehozása a táblák zárolása nélkül, ahol a dialektus támogatja
+ * <ul>
+ *     <li>PostgreSQL: CREATE INDEX CONCURRENTLY; egy korábbi megszakadt építés INVALID indexét előbb eldobja.
+ *     Particionált táblán (work_records) a CONCURRENTLY nem használható: ott csak a meglévő index fogadható el,
+ *     az új indexet a WorkRecordPartitionManager hozza létre</li>
+ *     <li>MySQL: ALTER TABLE ... ADD INDEX, ALGORITHM=INPLACE, LOCK=NONE, létezés ellenőrzéssel</li>
+ *     <li>H2: CREATE INDEX IF NOT EXISTS</li>
+ * </ul>
+ */
+@Slf4j
+public final class OnlineIndex {
+
+    private OnlineIndex() {
+    }
+
+    public static MigrationStep create(DatabaseType type, String name, String table, String columns) {
+        return create(type, name, table, columns, null);
+    }
+
+    /**
+     * @param include INCLUDE oszlopok (csak PostgreSQL-en), vagy null
+     */
+    public static MigrationStep create(DatabaseType type, String name, String table, String columns, String include) {
+        return switch (type) {
+            case POSTGRESQL -> conn -> createPostgreSql(conn, name, table, columns, include);
+            case MYSQL -> conn -> createMySql(conn, name, table, columns);
+            case H2 -> MigrationStep.sql("CREATE INDEX IF NOT EXISTS " + name + " ON " + table + "(" + columns + ")");
+            default -> throw new IllegalArgumentException("No index support for: " + type);
+        };
+    }
+
+    private static void createPostgreSql(Connection conn, String name, String table, String columns, String include)
+            throws SQLException {
+        // A CONCURRENTLY nem futhat tranzakción belül
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(true);
+        try (Statement stmt = conn.createStatement()) {
+            Boolean valid = postgreSqlIndexValid(conn, name);
+            if (postgreSqlPartitioned(conn, table)) {
+                if (Boolean.TRUE.equals(valid)) {
+                    log.info("Index {} verified on partitioned table {}", name, table);
+                    return;
+                }
+                throw new SQLException("Index " + name + " cannot be created concurrently on partitioned table "
+                        + table + "; create it with WorkRecordPartitionManager instead");
+            }
+            if (Boolean.FALSE.equals(valid)) {
+                log.warn("Dropping invalid index {} left by an interrupted build", name);
+                stmt.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            }
+            stmt.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON " + table + " (" + columns + ")"
+                    + (include != null ? " INCLUDE (" + include + ")" : ""));
+            log.info("Index {} created/verified", name);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static Boolean postgreSqlIndexValid(Connection conn, String name) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+
+    private static boolean postgreSqlPartitioned(Connection conn, String table) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT relkind FROM pg_class WHERE oid = to_regclass(?)")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && "p".equals(rs.getString(1));
+            }
+        }
+    }
+
+    private static void createMySql(Connection conn, String name, String table, String columns) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+                SELECT 1 FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?
+                """)) {
+            ps.setString(1, table);
+            ps.setString(2, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ADD INDEX " + name + " (" + columns + "), ALGORITHM=INPLACE, LOCK=NONE");
+            log.info("Index {} created", name);
+        }
+    }
+}
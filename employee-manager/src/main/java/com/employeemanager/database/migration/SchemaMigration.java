@@ -0,0 +1,26 @@
+package com.employeemanager.database.migration;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Egy séma verzió lépései; sikeres lefutás után a schema_version erre a verzióra áll
+ */
+@Getter
+public final class SchemaMigration {
+
+    private final String version;
+    private final String description;
+    private final List<MigrationStep> steps;
+
+    private SchemaMigration(String version, String description, List<MigrationStep> steps) {
+        this.version = version;
+        this.description = description;
+        this.steps = steps;
+    }
+
+    public static SchemaMigration of(String version, String description, MigrationStep... steps) {
+        return new SchemaMigration(version, description, List.of(steps));
+    }
+}
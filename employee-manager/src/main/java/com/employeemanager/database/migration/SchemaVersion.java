@@ -0,0 +1,85 @@
+package com.employeemanager.database.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A database_info táblában tárolt séma verzió olvasása, írása és összehasonlítása
+ */
+public final class SchemaVersion {
+
+    /** A verziókövetés bevezetése előtti sémák verziója */
+    public static final String INITIAL = "1.0";
+
+    private static final String KEY = "schema_version";
+
+    private SchemaVersion() {
+    }
+
+    /**
+     * Tárolt verzió, vagy null, ha nincs database_info tábla vagy bejegyzés
+     */
+    public static String read(Connection conn) throws SQLException {
+        if (!tableExists(conn, "database_info")) {
+            return null;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT property_value FROM database_info WHERE property_key = ?")) {
+            ps.setString(1, KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Verzió rögzítése dialektus-független UPDATE/INSERT párral
+     */
+    public static void write(Connection conn, String version) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE database_info SET property_value = ?, updated_at = CURRENT_TIMESTAMP WHERE property_key = ?")) {
+            update.setString(1, version);
+            update.setString(2, KEY);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO database_info (property_key, property_value) VALUES (?, ?)")) {
+            insert.setString(1, KEY);
+            insert.setString(2, version);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Pontokkal tagolt verziók összehasonlítása (1.0 < 1.1 < 1.10)
+     */
+    public static boolean isOlder(String version, String target) {
+        String[] left = version.split("\\.");
+        String[] right = target.split("\\.");
+        for (int i = 0; i < Math.max(left.length, right.length); i++) {
+            int l = i < left.length ? Integer.parseInt(left[i]) : 0;
+            int r = i < right.length ? Integer.parseInt(right[i]) : 0;
+            if (l != r) {
+                return l < r;
+            }
+        }
+        return false;
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = metaData.getTables(conn.getCatalog(), null, name, new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package com.employeemanager.database.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Méret alapján rotált szöveges fájl (plans.log, plans.log.1, ... plans.log.N-1)
+ */
+@Slf4j
+class RollingPlanFile {
+
+    private final Path path;
+    private final long maxBytes;
+    private final int fileCount;
+
+    RollingPlanFile(Path path, long maxBytes, int fileCount) {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.fileCount = Math.max(1, fileCount);
+    }
+
+    synchronized void append(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(path) && Files.size(path) + bytes.length > maxBytes) {
+                roll();
+            }
+            Files.write(path, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Could not write query plan file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void roll() throws IOException {
+        if (fileCount == 1) {
+            Files.delete(path);
+            return;
+        }
+        Files.deleteIfExists(rolled(fileCount - 1));
+        for (int i = fileCount - 2; i >= 1; i--) {
+            Path source = rolled(i);
+            if (Files.exists(source)) {
+                Files.move(source, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,180 @@
+package com.employeemanager.database.monitoring;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * DataSource proxy, amely minden utasítás végrehajtási idejét méri és a lassúakat a SlowQueryLog-nak adja át
+ * Stream olvasásnál csak az executeQuery ideje számít, a ResultSet bejárása nem
+ */
+public class SlowQueryDataSource implements DataSource, AutoCloseable {
+
+    private final DataSource delegate;
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryDataSource(DataSource delegate, SlowQueryLog slowQueryLog) {
+        this.delegate = delegate;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    public DataSource getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(delegate.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(delegate.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(delegate)) {
+            return iface.cast(delegate);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+
+    /**
+     * A napló háttérszálának leállítása; a mögöttes pool bezárása a hívó feladata
+     */
+    @Override
+    public void close() {
+        slowQueryLog.close();
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A létrehozott Statement-eket mérő proxy-ba csomagolja
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(connection, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return wrapStatement(Statement.class, result, null);
+                case "prepareStatement":
+                    return wrapStatement(PreparedStatement.class, result, (String) args[0]);
+                case "prepareCall":
+                    return wrapStatement(CallableStatement.class, result, (String) args[0]);
+                default:
+                    return result;
+            }
+        }
+
+        private Object wrapStatement(Class<? extends Statement> type, Object statement, String sql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) statement, sql));
+        }
+    }
+
+    /**
+     * execute* hívások időmérése; PreparedStatement esetén a kötött paraméterek is gyűlnek
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private final Map<Integer, Object> parameters;
+
+        private StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.parameters = preparedSql != null ? new TreeMap<>() : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("execute")) {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                long start = System.nanoTime();
+                try {
+                    return invokeTarget(statement, method, args);
+                } finally {
+                    slowQueryLog.record(sql, parameters, System.nanoTime() - start);
+                }
+            }
+
+            if (parameters != null) {
+                if (name.equals("setNull") && args.length >= 2 && args[0] instanceof Integer) {
+                    parameters.put((Integer) args[0], null);
+                } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parameters.put((Integer) args[0], args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+            }
+            return invokeTarget(statement, method, args);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.employeemanager.database.monitoring;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.config.DatabaseType;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Lassú JDBC utasítások naplózása redaktált paraméterekkel, opcionális EXPLAIN tervvel
+ * Az EXPLAIN háttérszálon, a mért (nem proxyzott) DataSource-on fut, így a hívót nem lassítja
+ */
+@Slf4j
+public class SlowQueryLog implements AutoCloseable {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int EXPLAIN_QUEUE_SIZE = 16;
+    private static final long CLOSE_TIMEOUT_SECONDS = 2;
+    // Az EXPLAIN ritkításához megjegyzett utasítások száma (dinamikus SQL esetén is korlátos)
+    private static final int MAX_TRACKED_STATEMENTS = 256;
+
+    private final String connectionName;
+    private final DatabaseType databaseType;
+    private final DataSource explainDataSource;
+    private final DiagnosticsProperties.SlowQuery settings;
+    private final long thresholdNanos;
+    // Redaktált (literálok nélküli) utasítás -> utolsó EXPLAIN ideje, LRU sorrendben
+    private final Map<String, Long> lastExplained = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_TRACKED_STATEMENTS;
+        }
+    };
+    private final RollingPlanFile planFile;
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(String connectionName, DatabaseType databaseType, DataSource explainDataSource,
+                        DiagnosticsProperties.SlowQuery settings) {
+        this.connectionName = connectionName;
+        this.databaseType = databaseType;
+        this.explainDataSource = explainDataSource;
+        this.settings = settings;
+        this.thresholdNanos = settings.getThreshold().toNanos();
+
+        if (settings.isExplain()) {
+            this.planFile = new RollingPlanFile(Paths.get(settings.getPlanFile()),
+                    settings.getPlanFileMaxSize().toBytes(), settings.getPlanFileCount());
+            // Egyetlen háttérszál, telített sor esetén az újabb terveket eldobjuk
+            this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain-" + connectionName);
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+        } else {
+            this.planFile = null;
+            this.explainExecutor = null;
+        }
+    }
+
+    /**
+     * Egy végrehajtott utasítás rögzítése; a küszöb alatt semmilyen munkát nem végez
+     */
+    public void record(String sql, Map<Integer, Object> parameters, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos || sql == null) {
+            return;
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        String statement = redact(sql);
+        String redactedParameters = redactParameters(parameters);
+        log.warn("Slow query on {} ({} ms): {} {}", connectionName, elapsedMillis, statement, redactedParameters);
+
+        if (explainExecutor != null && isExplainable(sql) && shouldExplain(statement)) {
+            Map<Integer, Object> boundValues = parameters != null ? new TreeMap<>(parameters) : Map.of();
+            explainExecutor.execute(() -> explain(sql, boundValues, statement, redactedParameters, elapsedMillis));
+        }
+    }
+
+    private boolean shouldExplain(String statement) {
+        long now = System.nanoTime();
+        long interval = settings.getExplainInterval().toNanos();
+        synchronized (lastExplained) {
+            Long previous = lastExplained.get(statement);
+            if (previous != null && now - previous < interval) {
+                return false;
+            }
+            lastExplained.put(statement, now);
+            return true;
+        }
+    }
+
+    private void explain(String sql, Map<Integer, Object> boundValues, String statement,
+                         String redactedParameters, long elapsedMillis) {
+        StringBuilder entry = new StringBuilder(1024);
+        entry.append("=== ").append(LocalDateTime.now().withNano(0)).append(" | ").append(connectionName)
+                .append(" (").append(databaseType).append(") | ").append(elapsedMillis).append(" ms\n")
+                .append(statement).append('\n')
+                .append("params: ").append(redactedParameters).append('\n');
+
+        try (Connection conn = explainDataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(explainPrefix() + sql)) {
+            for (Map.Entry<Integer, Object> parameter : boundValues.entrySet()) {
+                ps.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columns = metaData.getColumnCount();
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        if (i > 1) {
+                            entry.append(" | ");
+                        }
+                        entry.append(rs.getString(i));
+                    }
+                    entry.append('\n');
+                }
+            }
+        } catch (SQLException e) {
+            entry.append("EXPLAIN failed: ").append(e.getMessage()).append('\n');
+            log.debug("EXPLAIN failed for slow query on {}", connectionName, e);
+        }
+
+        planFile.append(entry.append('\n').toString());
+    }
+
+    /**
+     * Mindhárom támogatott dialektus a sima EXPLAIN előtagot fogadja el (ANALYZE nélkül, a lekérdezés nem fut le újra)
+     */
+    private String explainPrefix() {
+        return switch (databaseType) {
+            case MYSQL, POSTGRESQL, H2 -> "EXPLAIN ";
+            default -> throw new IllegalStateException("EXPLAIN is not supported for " + databaseType);
+        };
+    }
+
+    private boolean isExplainable(String sql) {
+        if (databaseType == DatabaseType.FIREBASE) {
+            return false;
+        }
+        String trimmed = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return trimmed.startsWith("SELECT") || trimmed.startsWith("WITH");
+    }
+
+    /**
+     * Az utasítás egy sorba tömörítve, a szöveges literálok nélkül
+     */
+    static String redact(String sql) {
+        String withoutLiterals = STRING_LITERAL.matcher(sql).replaceAll("'***'");
+        return WHITESPACE.matcher(withoutLiterals).replaceAll(" ").trim();
+    }
+
+    /**
+     * Kötött paraméterek: csak a pozíció és a típus kerül a naplóba, az érték nem
+     */
+    static String redactParameters(Map<Integer, Object> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return "[]";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            Object value = parameter.getValue();
+            sb.append(parameter.getKey()).append('=')
+                    .append(value != null ? value.getClass().getSimpleName() : "NULL");
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * A már sorba állt tervek rövid ideig még kiíródnak
+     */
+    @Override
+    public void close() {
+        if (explainExecutor == null) {
+            return;
+        }
+        explainExecutor.shutdown();
+        try {
+            if (!explainExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                explainExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            explainExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.employeemanager.database.partition;
+
+import com.employeemanager.database.config.WorkRecordPartitioning;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A work_records tábla deklaratív (RANGE) particionálása work_date szerint PostgreSQL-en
+ *
+ * Az első futás a meglévő táblát egy tranzakcióban particionált táblává alakítja; utána minden
+ * futás előre létrehozza a következő időszakok partícióit. A tartományon kívüli sorokat a
+ * DEFAULT partíció fogadja, ezeket egy új partíció létrehozásakor átmozgatjuk.
+ * Particionált táblán a work_records indexeket ez az osztály hozza létre (CONCURRENTLY itt nem használható).
+ *
+ * Az elsődleges kulcs (id) helyett (id, work_date): PostgreSQL-en az egyedi kulcsnak tartalmaznia kell a
+ * partíciókulcsot, így a kulcs önmagában csak partíción belül garantálja az id egyediségét. A mentés, az
+ * archív réteg (ArchivingWorkRecordRepository) és a replikáció (FirestoreReplicator) id szerinti upsert-je
+ * viszont globálisan egyedi id-t feltételez, ezért egy BEFORE INSERT trigger tranzakciós advisory lock alatt
+ * elutasítja (unique_violation) a más work_date-tel már létező id-t. Ez partíciók közötti sormozgatásnál
+ * (work_date módosítás) is helyes, mert a mozgatás törlése a trigger lekérdezése előtt megtörténik.
+ * A trigger PostgreSQL 13+ szükséges; a leválasztott partíciókat már nem ellenőrzi.
+ */
+@Slf4j
+public class WorkRecordPartitionManager {
+
+    private static final String TABLE = "work_records";
+    private static final String UNPARTITIONED_TABLE = "work_records_unpartitioned";
+    private static final String DEFAULT_PARTITION = "work_records_default";
+
+    // Oszlopok a PostgreSQLSchemaInitializer work_records táblájával egyezően; a PK tartalmazza a partíciókulcsot
+    private static final String CREATE_PARTITIONED_TABLE = """
+        CREATE TABLE work_records (
+            id VARCHAR(50) NOT NULL,
+            employee_id VARCHAR(50) NOT NULL REFERENCES employees(id) ON DELETE CASCADE,
+            notification_date DATE NOT NULL,
+            notification_time TIME,
+            ebev_serial_number VARCHAR(100),
+            work_date DATE NOT NULL,
+            payment DECIMAL(12, 2) NOT NULL,
+            hours_worked INT NOT NULL,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            PRIMARY KEY (id, work_date)
+        ) PARTITION BY RANGE (work_date)
+        """;
+
+    private static final String COPY_ROWS = """
+        INSERT INTO work_records (id, employee_id, notification_date, notification_time, ebev_serial_number,
+                                  work_date, payment, hours_worked, created_at)
+        SELECT id, employee_id, notification_date, notification_time, ebev_serial_number,
+               work_date, payment, hours_worked, created_at
+        FROM work_records_unpartitioned
+        """;
+
+    // A globális id egyediség ellenőrzése (a PK csak (id, work_date) szerint egyedi)
+    private static final String UNIQUE_ID_TRIGGER = "work_records_unique_id";
+
+    private static final String CREATE_UNIQUE_ID_FUNCTION = """
+        CREATE OR REPLACE FUNCTION work_records_unique_id() RETURNS trigger AS $$
+        BEGIN
+            PERFORM pg_advisory_xact_lock(hashtext('work_records:' || NEW.id));
+            IF EXISTS (SELECT 1 FROM work_records WHERE id = NEW.id AND work_date <> NEW.work_date) THEN
+                RAISE EXCEPTION 'duplicate work record id: %', NEW.id USING ERRCODE = 'unique_violation';
+            END IF;
+            RETURN NEW;
+        END
+        $$ LANGUAGE plpgsql
+        """;
+
+    private static final String CREATE_UNIQUE_ID_TRIGGER = "CREATE TRIGGER " + UNIQUE_ID_TRIGGER
+            + " BEFORE INSERT ON work_records FOR EACH ROW EXECUTE FUNCTION work_records_unique_id()";
+
+    private static final String[] INDEXES = {
+            "CREATE INDEX idx_work_records_employee_id ON work_records(employee_id)",
+            "CREATE INDEX idx_work_records_work_date ON work_records(work_date)",
+            "CREATE INDEX idx_work_records_notification_date ON work_records(notification_date)",
+            "CREATE INDEX idx_work_records_employee_work_date ON work_records(employee_id, work_date)"
+                    + " INCLUDE (payment, hours_worked)",
+            "CREATE INDEX idx_work_records_work_date_employee ON work_records(work_date, employee_id)"
+                    + " INCLUDE (payment, hours_worked)",
+            "CREATE INDEX idx_work_records_notification_work_date ON work_records(notification_date, work_date)"
+    };
+
+    private final DataSource dataSource;
+    private final WorkRecordPartitioning partitioning;
+
+    public WorkRecordPartitionManager(DataSource dataSource, WorkRecordPartitioning partitioning) {
+        if (partitioning == null || partitioning == WorkRecordPartitioning.NONE) {
+            throw new IllegalArgumentException("Partitioning interval required");
+        }
+        this.dataSource = dataSource;
+        this.partitioning = partitioning;
+    }
+
+    /**
+     * Átalakítás (ha még nem particionált) és a jövőbeli partíciók létrehozása
+     */
+    public void maintain() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!isPartitioned(conn)) {
+                convert(conn);
+            }
+            ensureUniqueIdTrigger(conn);
+            ensurePartitions(conn, LocalDate.now());
+        }
+    }
+
+    /**
+     * A megadott dátum előtt véget érő partíciók leválasztása; a leválasztott táblák önálló táblaként megmaradnak
+     *
+     * @return a leválasztott táblák nevei
+     */
+    public List<String> detachPartitionsBefore(LocalDate cutoff) throws SQLException {
+        List<String> detached = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String partition : listPartitions(conn)) {
+                LocalDate start = partitioning.parsePeriodStart(TABLE, partition);
+                if (start != null && !partitioning.nextPeriod(start).isAfter(cutoff)) {
+                    stmt.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+                    detached.add(partition);
+                    log.info("Detached work_records partition {}", partition);
+                }
+            }
+        }
+        return detached;
+    }
+
+    private boolean isPartitioned(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT relkind FROM pg_class WHERE oid = to_regclass('" + TABLE + "')")) {
+            return rs.next() && "p".equals(rs.getString(1));
+        }
+    }
+
+    /**
+     * A globális id egyediséget ellenőrző trigger létrehozása, ha még nincs (a korábban átalakított táblákon is)
+     * Az új partíciók a szülő tábla triggerét automatikusan öröklik.
+     */
+    private void ensureUniqueIdTrigger(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM pg_trigger WHERE tgname = '" + UNIQUE_ID_TRIGGER
+                    + "' AND tgrelid = to_regclass('" + TABLE + "')")) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+            stmt.execute(CREATE_UNIQUE_ID_FUNCTION);
+            stmt.execute(CREATE_UNIQUE_ID_TRIGGER);
+            log.info("Created global id uniqueness trigger on partitioned work_records");
+        }
+    }
+
+    /**
+     * Egyszeri átalakítás egy tranzakcióban; a tábla a másolás alatt zárolva van
+     */
+    private void convert(Connection conn) throws SQLException {
+        log.info("Converting work_records to {} range partitions, this locks the table until done", partitioning.name());
+        long start = System.currentTimeMillis();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+            stmt.execute("ALTER TABLE " + TABLE + " RENAME TO " + UNPARTITIONED_TABLE);
+            stmt.execute("ALTER TABLE " + UNPARTITIONED_TABLE + " RENAME CONSTRAINT work_records_pkey TO "
+                    + UNPARTITIONED_TABLE + "_pkey");
+            stmt.execute(CREATE_PARTITIONED_TABLE);
+            stmt.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+
+            // A meglévő adatok teljes tartománya és az aktuális időszak partíciókat kap
+            LocalDate from = LocalDate.now();
+            LocalDate to = LocalDate.now();
+            try (ResultSet rs = stmt.executeQuery("SELECT MIN(work_date), MAX(work_date) FROM " + UNPARTITIONED_TABLE)) {
+                if (rs.next() && rs.getDate(1) != null) {
+                    from = rs.getDate(1).toLocalDate();
+                    to = rs.getDate(2).toLocalDate();
+                }
+            }
+            for (LocalDate period = partitioning.periodStart(from); !period.isAfter(to);
+                 period = partitioning.nextPeriod(period)) {
+                stmt.execute(createPartitionSql(period));
+            }
+
+            int rows = stmt.executeUpdate(COPY_ROWS);
+            stmt.execute("DROP TABLE " + UNPARTITIONED_TABLE);
+            for (String index : INDEXES) {
+                stmt.execute(index);
+            }
+            conn.commit();
+            log.info("Converted work_records to partitioned table ({} rows) in {} ms",
+                    rows, System.currentTimeMillis() - start);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Az aktuális és a következő időszakok partícióinak létrehozása, a DEFAULT partícióba került sorok átmozgatásával
+     */
+    private void ensurePartitions(Connection conn, LocalDate today) throws SQLException {
+        List<String> existing = listPartitions(conn);
+        for (String partition : existing) {
+            if (!partition.equals(DEFAULT_PARTITION) && partitioning.parsePeriodStart(TABLE, partition) == null) {
+                log.warn("Partition {} does not match {} partitioning, skipping partition maintenance",
+                        partition, partitioning.name());
+                return;
+            }
+        }
+
+        LocalDate period = partitioning.periodStart(today);
+        for (int i = 0; i <= partitioning.getPeriodsAhead(); i++, period = partitioning.nextPeriod(period)) {
+            String name = partitioning.partitionName(TABLE, period);
+            if (!existing.contains(name)) {
+                createFromDefault(conn, name, period);
+            }
+        }
+    }
+
+    private void createFromDefault(Connection conn, String name, LocalDate period) throws SQLException {
+        LocalDate end = partitioning.nextPeriod(period);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+            int moved;
+            try (PreparedStatement ps = conn.prepareStatement("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE work_date >= ? AND work_date < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved")) {
+                ps.setDate(1, Date.valueOf(period));
+                ps.setDate(2, Date.valueOf(end));
+                moved = ps.executeUpdate();
+            }
+            stmt.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name + " FOR VALUES FROM ('"
+                    + period + "') TO ('" + end + "')");
+            conn.commit();
+            log.info("Created work_records partition {} ({} rows moved from default)", name, moved);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private String createPartitionSql(LocalDate period) {
+        return "CREATE TABLE " + partitioning.partitionName(TABLE, period) + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + period + "') TO ('" + partitioning.nextPeriod(period) + "')";
+    }
+
+    private List<String> listPartitions(Connection conn) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                     + " WHERE i.inhparent = to_regclass('" + TABLE + "') ORDER BY c.relname")) {
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+        return partitions;
+    }
+}
@@ -1,132 +1,112 @@
 package com.employeemanager.database.schema;
 
-import lombok.extern.slf4j.Slf4j;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.migration.SchemaMigration;
+import com.employeemanager.database.migration.SchemaVersion;
 
-import javax.sql.DataSource;
-import java.sql.*;
+import java.util.List;
+
+import static com.employeemanager.database.migration.MigrationStep.sql;
+import static com.employeemanager.database.migration.OnlineIndex.create;
 
 /**
  * MySQL séma inicializáló
  */
-@Slf4j
 public class MySQLSchemaInitializer implements SchemaInitializer {
-    
-    @Override
-    public void initializeSchema(DataSource dataSource) throws SQLException {
-        try (Connection conn = dataSource.getConnection()) {
-            
-            // employees tábla
-            String createEmployeesTable = """
-                CREATE TABLE IF NOT EXISTS employees (
-                    id VARCHAR(50) PRIMARY KEY,
-                    name VARCHAR(200) NOT NULL,
-                    birth_place VARCHAR(200),
-                    birth_date DATE,
-                    mother_name VARCHAR(200),
-                    tax_number VARCHAR(10) UNIQUE,
-                    social_security_number VARCHAR(9) UNIQUE,
-                    address TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    INDEX idx_tax_number (tax_number),
-                    INDEX idx_ssn (social_security_number),
-                    INDEX idx_name (name)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
-                """;
-            
-            // work_records tábla
-            String createWorkRecordsTable = """
-                CREATE TABLE IF NOT EXISTS work_records (
-                    id VARCHAR(50) PRIMARY KEY,
-                    employee_id VARCHAR(50) NOT NULL,
-                    notification_date DATE NOT NULL,
-                    notification_time TIME,
-                    ebev_serial_number VARCHAR(100),
-                    work_date DATE NOT NULL,
-                    payment DECIMAL(12, 2) NOT NULL,
-                    hours_worked INT NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (employee_id) REFERENCES employees(id) ON DELETE CASCADE,
-                    INDEX idx_employee_id (employee_id),
-                    INDEX idx_work_date (work_date),
-                    INDEX idx_notification_date (notification_date)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
-                """;
-            
-            // database_info tábla (verziókövetéshez)
-            String createInfoTable = """
-                CREATE TABLE IF NOT EXISTS database_info (
-                    property_key VARCHAR(50) PRIMARY KEY,
-                    property_value VARCHAR(200),
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
-                """;
-            
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute(createEmployeesTable);
-                log.info("Employees table created/verified");
-                
-                stmt.execute(createWorkRecordsTable);
-                log.info("Work records table created/verified");
-                
-                stmt.execute(createInfoTable);
-                log.info("Database info table created/verified");
-                
-                // Verzió információ beszúrása
-                stmt.execute("""
-                    INSERT INTO database_info (property_key, property_value)
-                    VALUES ('schema_version', '1.0')
-                    ON DUPLICATE KEY UPDATE property_value = '1.0'
-                    """);
-                
-                log.info("MySQL schema initialization completed");
-            }
-        }
-    }
 
-    @Override
-    public boolean isSchemaExists(DataSource dataSource) throws SQLException {
-        try (Connection conn = dataSource.getConnection()) {
-            DatabaseMetaData metaData = conn.getMetaData();
-
-            // MySQL specifikus: katalógus (adatbázis név) lekérése
-            String catalog = conn.getCatalog();
-            log.debug("Checking schema in catalog: {}", catalog);
+    // employees tábla
+    private static final String CREATE_EMPLOYEES_TABLE = """
+        CREATE TABLE IF NOT EXISTS employees (
+            id VARCHAR(50) PRIMARY KEY,
+            name VARCHAR(200) NOT NULL,
+            birth_place VARCHAR(200),
+            birth_date DATE,
+            mother_name VARCHAR(200),
+            tax_number VARCHAR(10) UNIQUE,
+            social_security_number VARCHAR(9) UNIQUE,
+            address TEXT,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            INDEX idx_tax_number (tax_number),
+            INDEX idx_ssn (social_security_number),
+            INDEX idx_name (name)
+        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+        """;
 
-            // Próbáljuk különböző formátumokban
-            String[] tableVariants = {"employees", "EMPLOYEES"};
-            boolean employeesExists = false;
-            boolean workRecordsExists = false;
+    // work_records tábla
+    private static final String CREATE_WORK_RECORDS_TABLE = """
+        CREATE TABLE IF NOT EXISTS work_records (
+            id VARCHAR(50) PRIMARY KEY,
+            employee_id VARCHAR(50) NOT NULL,
+            notification_date DATE NOT NULL,
+            notification_time TIME,
+            ebev_serial_number VARCHAR(100),
+            work_date DATE NOT NULL,
+            payment DECIMAL(12, 2) NOT NULL,
+            hours_worked INT NOT NULL,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            FOREIGN KEY (employee_id) REFERENCES employees(id) ON DELETE CASCADE,
+            INDEX idx_employee_id (employee_id),
+            INDEX idx_work_date (work_date),
+            INDEX idx_notification_date (notification_date)
+        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+        """;
 
-            // employees tábla ellenőrzése
-            for (String tableName : tableVariants) {
-                try (ResultSet rs = metaData.getTables(catalog, null, tableName, new String[]{"TABLE"})) {
-                    if (rs.next()) {
-                        log.debug("Found employees table as: {}", tableName);
-                        employeesExists = true;
-                        break;
-                    }
-                }
-            }
+    // work_records_archive tábla - a megőrzési időn túli munkanaplók (hideg adat)
+    private static final String CREATE_WORK_RECORDS_ARCHIVE_TABLE = """
+        CREATE TABLE IF NOT EXISTS work_records_archive (
+            id VARCHAR(50) PRIMARY KEY,
+            employee_id VARCHAR(50) NOT NULL,
+            notification_date DATE NOT NULL,
+            notification_time TIME,
+            ebev_serial_number VARCHAR(100),
+            work_date DATE NOT NULL,
+            payment DECIMAL(12, 2) NOT NULL,
+            hours_worked INT NOT NULL,
+            created_at TIMESTAMP NULL,
+            archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            FOREIGN KEY (employee_id) REFERENCES employees(id) ON DELETE CASCADE,
+            INDEX idx_archive_work_date (work_date),
+            INDEX idx_archive_employee_work_date (employee_id, work_date),
+            INDEX idx_archive_notification_date (notification_date)
+        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+        """;
 
-            if (!employeesExists) {
-                log.debug("employees table not found");
-                return false;
-            }
+    // replication_outbox tábla - a replikára még ki nem írt módosítások (lásd ReplicationOutbox)
+    private static final String CREATE_REPLICATION_OUTBOX_TABLE = """
+        CREATE TABLE IF NOT EXISTS replication_outbox (
+            seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+            entity_type VARCHAR(20) NOT NULL,
+            entity_id VARCHAR(50) NOT NULL,
+            operation VARCHAR(10) NOT NULL,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+        """;
 
-            // work_records tábla ellenőrzése
-            String[] workRecordVariants = {"work_records", "WORK_RECORDS"};
-            for (String tableName : workRecordVariants) {
-                try (ResultSet rs = metaData.getTables(catalog, null, tableName, new String[]{"TABLE"})) {
-                    if (rs.next()) {
-                        log.debug("Found work_records table as: {}", tableName);
-                        workRecordsExists = true;
-                        break;
-                    }
-                }
-            }
+    // database_info tábla (verziókövetéshez)
+    private static final String CREATE_INFO_TABLE = """
+        CREATE TABLE IF NOT EXISTS database_info (
+            property_key VARCHAR(50) PRIMARY KEY,
+            property_value VARCHAR(200),
+            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+        """;
 
-            log.debug("Schema check result - employees: {}, work_records: {}", employeesExists, workRecordsExists);
-            return employeesExists && workRecordsExists;
-        }
+    @Override
+    public List<SchemaMigration> getMigrations() {
+        return List.of(
+                SchemaMigration.of(SchemaVersion.INITIAL, "Base tables and single-column indexes",
+                        sql(CREATE_EMPLOYEES_TABLE),
+                        sql(CREATE_WORK_RECORDS_TABLE),
+                        sql(CREATE_INFO_TABLE)),
+                // A MySQL nem ismeri az INCLUDE oszlopokat, ezért itt csak összetett indexek vannak
+                SchemaMigration.of("1.1", "Composite work_records indexes",
+                        create(DatabaseType.MYSQL, "idx_employee_work_date", "work_records", "employee_id, work_date"),
+                        create(DatabaseType.MYSQL, "idx_work_date_employee", "work_records", "work_date, employee_id"),
+                        create(DatabaseType.MYSQL, "idx_notification_work_date", "work_records", "notification_date, work_date")),
+                SchemaMigration.of("1.2", "Work record archive table",
+                        sql(CREATE_WORK_RECORDS_ARCHIVE_TABLE)),
+                SchemaMigration.of("1.3", "Replication outbox table",
+                        sql(CREATE_REPLICATION_OUTBOX_TABLE))
+        );
     }
-}
\ No newline at end of file
+}
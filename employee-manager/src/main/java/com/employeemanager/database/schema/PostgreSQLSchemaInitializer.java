@@ -1,113 +1,115 @@
 package com.employeemanager.database.schema;
 
-import lombok.extern.slf4j.Slf4j;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.migration.SchemaMigration;
+import com.employeemanager.database.migration.SchemaVersion;
 
-import javax.sql.DataSource;
-import java.sql.*;
+import java.util.List;
+
+import static com.employeemanager.database.migration.MigrationStep.sql;
+import static com.employeemanager.database.migration.OnlineIndex.create;
 
 /**
  * PostgreSQL séma inicializáló
  */
-@Slf4j
 public class PostgreSQLSchemaInitializer implements SchemaInitializer {
-    
-    @Override
-    public void initializeSchema(DataSource dataSource) throws SQLException {
-        try (Connection conn = dataSource.getConnection()) {
-            
-            // employees tábla
-            String createEmployeesTable = """
-                CREATE TABLE IF NOT EXISTS employees (
-                    id VARCHAR(50) PRIMARY KEY,
-                    name VARCHAR(200) NOT NULL,
-                    birth_place VARCHAR(200),
-                    birth_date DATE,
-                    mother_name VARCHAR(200),
-                    tax_number VARCHAR(10) UNIQUE,
-                    social_security_number VARCHAR(9) UNIQUE,
-                    address TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-                """;
-            
-            // work_records tábla
-            String createWorkRecordsTable = """
-                CREATE TABLE IF NOT EXISTS work_records (
-                    id VARCHAR(50) PRIMARY KEY,
-                    employee_id VARCHAR(50) NOT NULL REFERENCES employees(id) ON DELETE CASCADE,
-                    notification_date DATE NOT NULL,
-                    notification_time TIME,
-                    ebev_serial_number VARCHAR(100),
-                    work_date DATE NOT NULL,
-                    payment DECIMAL(12, 2) NOT NULL,
-                    hours_worked INT NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-                """;
-            
-            // database_info tábla
-            String createInfoTable = """
-                CREATE TABLE IF NOT EXISTS database_info (
-                    property_key VARCHAR(50) PRIMARY KEY,
-                    property_value VARCHAR(200),
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-                """;
-            
-            // Indexek
-            String[] createIndexes = {
-                "CREATE INDEX IF NOT EXISTS idx_employees_tax_number ON employees(tax_number)",
-                "CREATE INDEX IF NOT EXISTS idx_employees_ssn ON employees(social_security_number)",
-                "CREATE INDEX IF NOT EXISTS idx_employees_name ON employees(name)",
-                "CREATE INDEX IF NOT EXISTS idx_work_records_employee_id ON work_records(employee_id)",
-                "CREATE INDEX IF NOT EXISTS idx_work_records_work_date ON work_records(work_date)",
-                "CREATE INDEX IF NOT EXISTS idx_work_records_notification_date ON work_records(notification_date)"
-            };
-            
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute(createEmployeesTable);
-                log.info("Employees table created/verified");
-                
-                stmt.execute(createWorkRecordsTable);
-                log.info("Work records table created/verified");
-                
-                stmt.execute(createInfoTable);
-                log.info("Database info table created/verified");
-                
-                // Indexek létrehozása
-                for (String createIndex : createIndexes) {
-                    stmt.execute(createIndex);
-                }
-                log.info("Indexes created/verified");
-                
-                // Verzió információ beszúrása/frissítése
-                stmt.execute("""
-                    INSERT INTO database_info (property_key, property_value)
-                    VALUES ('schema_version', '1.0')
-                    ON CONFLICT (property_key) DO UPDATE
-                    SET property_value = '1.0', updated_at = CURRENT_TIMESTAMP
-                    """);
-                
-                log.info("PostgreSQL schema initialization completed");
-            }
-        }
-    }
-    
+
+    // employees tábla
+    private static final String CREATE_EMPLOYEES_TABLE = """
+        CREATE TABLE IF NOT EXISTS employees (
+            id VARCHAR(50) PRIMARY KEY,
+            name VARCHAR(200) NOT NULL,
+            birth_place VARCHAR(200),
+            birth_date DATE,
+            mother_name VARCHAR(200),
+            tax_number VARCHAR(10) UNIQUE,
+            social_security_number VARCHAR(9) UNIQUE,
+            address TEXT,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+
+    // work_records tábla
+    private static final String CREATE_WORK_RECORDS_TABLE = """
+        CREATE TABLE IF NOT EXISTS work_records (
+            id VARCHAR(50) PRIMARY KEY,
+            employee_id VARCHAR(50) NOT NULL REFERENCES employees(id) ON DELETE CASCADE,
+            notification_date DATE NOT NULL,
+            notification_time TIME,
+            ebev_serial_number VARCHAR(100),
+            work_date DATE NOT NULL,
+            payment DECIMAL(12, 2) NOT NULL,
+            hours_worked INT NOT NULL,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+
+    // work_records_archive tábla - a megőrzési időn túli munkanaplók (hideg adat)
+    private static final String CREATE_WORK_RECORDS_ARCHIVE_TABLE = """
+        CREATE TABLE IF NOT EXISTS work_records_archive (
+            id VARCHAR(50) PRIMARY KEY,
+            employee_id VARCHAR(50) NOT NULL REFERENCES employees(id) ON DELETE CASCADE,
+            notification_date DATE NOT NULL,
+            notification_time TIME,
+            ebev_serial_number VARCHAR(100),
+            work_date DATE NOT NULL,
+            payment DECIMAL(12, 2) NOT NULL,
+            hours_worked INT NOT NULL,
+            created_at TIMESTAMP,
+            archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+
+    // replication_outbox tábla - a replikára még ki nem írt módosítások (lásd ReplicationOutbox)
+    private static final String CREATE_REPLICATION_OUTBOX_TABLE = """
+        CREATE TABLE IF NOT EXISTS replication_outbox (
+            seq BIGSERIAL PRIMARY KEY,
+            entity_type VARCHAR(20) NOT NULL,
+            entity_id VARCHAR(50) NOT NULL,
+            operation VARCHAR(10) NOT NULL,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+
+    // database_info tábla
+    private static final String CREATE_INFO_TABLE = """
+        CREATE TABLE IF NOT EXISTS database_info (
+            property_key VARCHAR(50) PRIMARY KEY,
+            property_value VARCHAR(200),
+            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+
     @Override
-    public boolean isSchemaExists(DataSource dataSource) throws SQLException {
-        try (Connection conn = dataSource.getConnection()) {
-            DatabaseMetaData metaData = conn.getMetaData();
-            
-            // PostgreSQL-ben a táblák kisbetűsek
-            try (ResultSet rs = metaData.getTables(null, null, "employees", null)) {
-                if (!rs.next()) {
-                    return false;
-                }
-            }
-            
-            try (ResultSet rs = metaData.getTables(null, null, "work_records", null)) {
-                return rs.next();
-            }
-        }
+    public List<SchemaMigration> getMigrations() {
+        return List.of(
+                SchemaMigration.of(SchemaVersion.INITIAL, "Base tables and single-column indexes",
+                        sql(CREATE_EMPLOYEES_TABLE),
+                        sql(CREATE_WORK_RECORDS_TABLE),
+                        sql(CREATE_INFO_TABLE),
+                        sql("CREATE INDEX IF NOT EXISTS idx_employees_tax_number ON employees(tax_number)"),
+                        sql("CREATE INDEX IF NOT EXISTS idx_employees_ssn ON employees(social_security_number)"),
+                        sql("CREATE INDEX IF NOT EXISTS idx_employees_name ON employees(name)"),
+                        sql("CREATE INDEX IF NOT EXISTS idx_work_records_employee_id ON work_records(employee_id)"),
+                        sql("CREATE INDEX IF NOT EXISTS idx_work_records_work_date ON work_records(work_date)"),
+                        sql("CREATE INDEX IF NOT EXISTS idx_work_records_notification_date ON work_records(notification_date)")),
+                // A fizetés és óraszám INCLUDE oszlopként az indexben: az összesítések index-only scan-nel futhatnak
+                SchemaMigration.of("1.1", "Composite and covering work_records indexes",
+                        create(DatabaseType.POSTGRESQL, "idx_work_records_employee_work_date", "work_records",
+                                "employee_id, work_date", "payment, hours_worked"),
+                        create(DatabaseType.POSTGRESQL, "idx_work_records_work_date_employee", "work_records",
+                                "work_date, employee_id", "payment, hours_worked"),
+                        create(DatabaseType.POSTGRESQL, "idx_work_records_notification_work_date", "work_records",
+                                "notification_date, work_date")),
+                SchemaMigration.of("1.2", "Work record archive table",
+                        sql(CREATE_WORK_RECORDS_ARCHIVE_TABLE),
+                        sql("CREATE INDEX IF NOT EXISTS idx_work_records_archive_work_date ON work_records_archive(work_date)"),
+                        sql("CREATE INDEX IF NOT EXISTS idx_work_records_archive_employee_work_date"
+                                + " ON work_records_archive(employee_id, work_date)"),
+                        sql("CREATE INDEX IF NOT EXISTS idx_work_records_archive_notification_date"
+                                + " ON work_records_archive(notification_date)")),
+                SchemaMigration.of("1.3", "Replication outbox table",
+                        sql(CREATE_REPLICATION_OUTBOX_TABLE))
+        );
     }
-}
\ No newline at end of file
+}
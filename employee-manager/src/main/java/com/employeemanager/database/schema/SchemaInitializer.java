@@ -1,13 +1,17 @@
 package com.employeemanager.database.schema;
 
-import javax.sql.DataSource;
+import com.employeemanager.database.migration.SchemaMigration;
 
-import java.sql.*;
+import java.util.List;
 
 /**
  * Adatbázis séma inicializáló
  */
 public interface SchemaInitializer {
-    void initializeSchema(DataSource dataSource) throws SQLException;
-    boolean isSchemaExists(DataSource dataSource) throws SQLException;
-}
\ No newline at end of file
+
+    /**
+     * Az adatbázis típus migrációi növekvő verziósorrendben; az 1.0 a kiinduló séma
+     * Minden lépésnek újrafuttathatónak kell lennie
+     */
+    List<SchemaMigration> getMigrations();
+}
@@ -1,6 +1,7 @@
 package com.employeemanager.database.schema;
 
 import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.migration.MigrationRunner;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.sql.DataSource;
@@ -29,26 +30,17 @@ public class SchemaInitializerFactory {
     }
     
     /**
-     * Séma inicializálása és adatok betöltése
+     * Séma létrehozása vagy frissítése a legújabb verzióra
+     *
+     * @return a séma verziója a futás után
      */
-    public static void initializeDatabase(DataSource dataSource, DatabaseType type) {
+    public static String initializeDatabase(DataSource dataSource, DatabaseType type) {
         try {
             SchemaInitializer initializer = getInitializer(type);
-            
-            boolean schemaExists = initializer.isSchemaExists(dataSource);
-            log.info("Schema exists: {}", schemaExists);
-            
-            if (!schemaExists) {
-                log.info("Initializing database schema for: {}", type);
-                initializer.initializeSchema(dataSource);
-                log.info("Database schema initialized successfully");
-            } else {
-                log.info("Database schema already exists, skipping initialization");
-            }
-            
+            return new MigrationRunner(type, initializer.getMigrations()).migrate(dataSource);
         } catch (SQLException e) {
             log.error("Failed to initialize database schema", e);
             throw new RuntimeException("Database initialization failed", e);
         }
     }
-}
\ No newline at end of file
+}
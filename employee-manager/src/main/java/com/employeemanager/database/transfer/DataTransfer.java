@@ -0,0 +1,292 @@
+package com.employeemanager.database.transfer;
+
+import com.employeemanager.database.loader.BulkLoader;
+import com.employeemanager.database.transfer.TransferCheckpoint.Phase;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Adatok átvitele két backend között folyamatos (streaming) feldolgozással
+ *
+ * Egy olvasó szál azonosító szerinti lapokat olvas a forrásból, a hívó szál a cél tömeges betöltőjén
+ * (BulkLoader) írja ki őket. A kettő között legfeljebb maxInFlight lap vár, így a memóriahasználat a
+ * lapmérettel, nem az adatmennyiséggel arányos. Minden kiírt köteg után ellenőrzőpont készül; újraindításkor
+ * az átvitel onnan folytatódik. Nem újraírható célnál (JDBC) a folytatás első kötegét kihagyjuk, ha a
+ * megszakítás előtt már kiíródott. Ha a cél egy köteg néhány sorát véglegesen nem tudta kiírni, az átvitel
+ * az ellenőrzőpont léptetése nélkül, a sikertelen sorok számával (failed) megáll; újraindításkor ez a köteg
+ * újra kiíródik.
+ *
+ * Átalakítás: a dolgozó nélküli vagy dátum nélküli munkanaplók kimaradnak (skipped), a hiányzó óraszám és
+ * fizetés 0 lesz, a dolgozó neve az átvitt alkalmazottból jön. Az archivált munkanaplók is átkerülnek; a forrás
+ * archiválási határa a végén a célra is alkalmazódik (lásd BulkLoader.archiveBefore).
+ */
+@Slf4j
+public class DataTransfer {
+
+    private static final long REPORT_INTERVAL_NANOS = 5_000_000_000L;
+
+    private final RecordSource source;
+    private final BulkLoader target;
+    private final RecordSource targetReader;
+    private final Path checkpointFile;
+    private final int pageSize;
+    private final int maxInFlight;
+
+    private final Map<String, String> employeeNames = new HashMap<>();
+    private TransferCheckpoint checkpoint;
+    private long startedNanos;
+    private long lastReportNanos;
+
+    /**
+     * @param targetReader a cél olvasója a folytatáskori ellenőrzéshez
+     */
+    public DataTransfer(RecordSource source, BulkLoader target, RecordSource targetReader, Path checkpointFile,
+                        int pageSize, int maxInFlight) {
+        this.source = source;
+        this.target = target;
+        this.targetReader = targetReader;
+        this.checkpointFile = checkpointFile;
+        this.pageSize = pageSize;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Az átvitel futtatása az elejétől vagy a meglévő ellenőrzőponttól
+     *
+     * @return a végső ellenőrzőpont a számlálókkal
+     */
+    public TransferCheckpoint run() throws ExecutionException, InterruptedException {
+        Optional<TransferCheckpoint> saved = TransferCheckpoint.load(checkpointFile);
+        boolean resumed = saved.isPresent();
+        checkpoint = saved.orElseGet(TransferCheckpoint::new);
+        if (checkpoint.getPhase() == Phase.DONE) {
+            log.info("Transfer already finished according to {}", checkpointFile);
+            return checkpoint;
+        }
+        if (resumed) {
+            log.info("Resuming transfer at {}: {} employees, {} work records already copied",
+                    checkpoint.getPhase(), checkpoint.getEmployees(), checkpoint.getWorkRecords());
+        }
+        log.info("Transferring data: {} -> {} (page size {}, {} pages in flight)",
+                source.getName(), target.getName(), pageSize, maxInFlight);
+
+        startedNanos = System.nanoTime();
+        lastReportNanos = startedNanos;
+
+        if (checkpoint.getPhase() == Phase.EMPLOYEES) {
+            transfer(Phase.EMPLOYEES, checkpoint.getLastEmployeeId(), resumed, source::readEmployees,
+                    Employee::getId, this::transformEmployees, target::loadEmployees, targetReader::containsEmployee);
+            checkpoint.setPhase(Phase.WORK_RECORDS);
+            checkpoint.save(checkpointFile);
+            resumed = false;
+        } else {
+            // Folytatáskor a dolgozók azonosítóit és nevét újra beolvassuk
+            loadEmployeeNames();
+        }
+
+        transfer(Phase.WORK_RECORDS, checkpoint.getLastWorkRecordId(), resumed, source::readWorkRecords,
+                WorkRecord::getId, this::transformWorkRecords, target::loadWorkRecords,
+                targetReader::containsWorkRecord);
+
+        // A forrás archiválási határa a célon is érvényes: a régebbi munkanaplók a cél archívumába kerülnek
+        LocalDate archiveBoundary = source.getArchiveBoundary();
+        if (archiveBoundary != null) {
+            target.archiveBefore(archiveBoundary);
+            log.info("Applied archive boundary {} to {}", archiveBoundary, target.getName());
+        }
+        checkpoint.setPhase(Phase.DONE);
+        checkpoint.save(checkpointFile);
+
+        long copied = checkpoint.getEmployees() + checkpoint.getWorkRecords();
+        log.info("Transfer finished: {} employees, {} work records, {} skipped in {} s ({} records/s)",
+                checkpoint.getEmployees(), checkpoint.getWorkRecords(), checkpoint.getSkipped(),
+                (System.nanoTime() - startedNanos) / 1_000_000_000, recordsPerSecond(copied));
+        return checkpoint;
+    }
+
+    private <T> void transfer(Phase phase, String afterId, boolean resumed, PageReader<T> reader,
+                              Function<T, String> idOf, Function<List<T>, List<T>> transform,
+                              BatchWriter<T> writer, Contains contains)
+            throws ExecutionException, InterruptedException {
+
+        BlockingQueue<Batch<T>> queue = new ArrayBlockingQueue<>(maxInFlight);
+        ExecutorService readerThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transfer-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Future<?> reading = readerThread.submit(() -> {
+            try {
+                String after = afterId;
+                while (true) {
+                    List<T> page = reader.read(after, pageSize);
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    after = idOf.apply(page.get(page.size() - 1));
+                    queue.put(new Batch<>(page, after));
+                    if (page.size() < pageSize) {
+                        break;
+                    }
+                }
+                return null;
+            } finally {
+                queue.put(Batch.end());
+            }
+        });
+
+        try {
+            boolean checkReplay = resumed && !target.isIdempotent();
+            while (true) {
+                Batch<T> batch = queue.take();
+                if (batch.records == null) {
+                    break;
+                }
+                List<T> records = transform.apply(batch.records);
+                long skipped = batch.records.size() - records.size();
+
+                // A megszakítás előtti utolsó köteg kiíródhatott az ellenőrzőpont mentése előtt
+                int written;
+                if (checkReplay && !records.isEmpty() && contains.test(idOf.apply(records.get(0)))) {
+                    log.info("First {} batch after resume is already in the target, skipping", phase);
+                    written = records.size();
+                } else {
+                    written = records.isEmpty() ? 0 : writer.write(records);
+                }
+                checkReplay = false;
+                int failed = records.size() - written;
+                if (failed > 0) {
+                    holdBack(phase, failed);
+                }
+                advance(phase, batch.lastId, written, skipped);
+            }
+            reading.get();
+        } finally {
+            readerThread.shutdownNow();
+        }
+    }
+
+    /**
+     * Véglegesen sikertelen sorok: az ellenőrzőpont a köteg előtt marad, az átvitel megáll
+     */
+    private void holdBack(Phase phase, int failed) throws ExecutionException {
+        checkpoint.setFailed(failed);
+        checkpoint.save(checkpointFile);
+        log.error("{} of a {} batch could not be written to {}; transfer stopped before the batch",
+                failed, phase, target.getName());
+        throw new ExecutionException(failed + " " + phase + " rows could not be written to " + target.getName()
+                + "; run the transfer again to retry the batch", null);
+    }
+
+    private void advance(Phase phase, String lastId, int written, long skipped) throws ExecutionException {
+        if (phase == Phase.EMPLOYEES) {
+            checkpoint.setLastEmployeeId(lastId);
+            checkpoint.setEmployees(checkpoint.getEmployees() + written);
+        } else {
+            checkpoint.setLastWorkRecordId(lastId);
+            checkpoint.setWorkRecords(checkpoint.getWorkRecords() + written);
+        }
+        checkpoint.setSkipped(checkpoint.getSkipped() + skipped);
+        checkpoint.setFailed(0);
+        checkpoint.save(checkpointFile);
+
+        long now = System.nanoTime();
+        if (now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+            lastReportNanos = now;
+            long copied = checkpoint.getEmployees() + checkpoint.getWorkRecords();
+            log.info("Transferred {} employees, {} work records ({} records/s)",
+                    checkpoint.getEmployees(), checkpoint.getWorkRecords(), recordsPerSecond(copied));
+        }
+    }
+
+    private List<Employee> transformEmployees(List<Employee> employees) {
+        for (Employee employee : employees) {
+            employeeNames.put(employee.getId(), employee.getName());
+        }
+        return employees;
+    }
+
+    private List<WorkRecord> transformWorkRecords(List<WorkRecord> records) {
+        List<WorkRecord> accepted = new ArrayList<>(records.size());
+        for (WorkRecord record : records) {
+            String employeeId = record.getEmployee() != null ? record.getEmployee().getId() : null;
+            if (employeeId == null || !employeeNames.containsKey(employeeId)
+                    || record.getWorkDate() == null || record.getNotificationDate() == null) {
+                log.debug("Skipping work record {} (missing employee or date)", record.getId());
+                continue;
+            }
+            record.getEmployee().setName(employeeNames.get(employeeId));
+            if (record.getHoursWorked() == null) {
+                record.setHoursWorked(0);
+            }
+            if (record.getPayment() == null) {
+                record.setPayment(BigDecimal.ZERO);
+            }
+            accepted.add(record);
+        }
+        return accepted;
+    }
+
+    private void loadEmployeeNames() throws ExecutionException, InterruptedException {
+        String after = null;
+        while (true) {
+            List<Employee> page = source.readEmployees(after, pageSize);
+            transformEmployees(page);
+            if (page.size() < pageSize) {
+                return;
+            }
+            after = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private long recordsPerSecond(long records) {
+        long elapsed = Math.max(1, System.nanoTime() - startedNanos);
+        return records * 1_000_000_000L / elapsed;
+    }
+
+    @FunctionalInterface
+    private interface PageReader<T> {
+        List<T> read(String afterId, int limit) throws ExecutionException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        int write(List<T> records) throws ExecutionException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    private interface Contains {
+        boolean test(String id) throws ExecutionException, InterruptedException;
+    }
+
+    private static final class Batch<T> {
+        final List<T> records;
+        final String lastId;
+
+        Batch(List<T> records, String lastId) {
+            this.records = records;
+            this.lastId = lastId;
+        }
+
+        static <T> Batch<T> end() {
+            return new Batch<>(null, null);
+        }
+    }
+}
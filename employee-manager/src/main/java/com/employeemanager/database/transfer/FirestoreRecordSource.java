@@ -0,0 +1,83 @@
+package com.employeemanager.database.transfer;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore olvasó: dokumentum azonosító szerinti rendezés, startAfter + limit
+ */
+public class FirestoreRecordSource implements RecordSource {
+
+    private static final String EMPLOYEES_COLLECTION = "employees";
+    private static final String WORK_RECORDS_COLLECTION = "workrecords";
+
+    private final Firestore firestore;
+
+    public FirestoreRecordSource(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    @Override
+    public List<Employee> readEmployees(String afterId, int limit) throws ExecutionException, InterruptedException {
+        List<Employee> employees = new ArrayList<>(limit);
+        for (QueryDocumentSnapshot document : page(EMPLOYEES_COLLECTION, afterId, limit).getDocuments()) {
+            employees.add(Employee.fromMap(documentData(document)));
+        }
+        return employees;
+    }
+
+    @Override
+    public List<WorkRecord> readWorkRecords(String afterId, int limit) throws ExecutionException, InterruptedException {
+        List<WorkRecord> records = new ArrayList<>(limit);
+        for (QueryDocumentSnapshot document : page(WORK_RECORDS_COLLECTION, afterId, limit).getDocuments()) {
+            Map<String, Object> data = documentData(document);
+            WorkRecord record = WorkRecord.fromMap(data);
+            Employee employee = new Employee();
+            employee.setId((String) data.get("employeeId"));
+            employee.setName((String) data.get("employeeName"));
+            record.setEmployee(employee);
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Override
+    public boolean containsEmployee(String id) throws ExecutionException, InterruptedException {
+        return firestore.collection(EMPLOYEES_COLLECTION).document(id).get().get().exists();
+    }
+
+    @Override
+    public boolean containsWorkRecord(String id) throws ExecutionException, InterruptedException {
+        return firestore.collection(WORK_RECORDS_COLLECTION).document(id).get().get().exists();
+    }
+
+    @Override
+    public String getName() {
+        return "Firestore document ID pages";
+    }
+
+    private QuerySnapshot page(String collection, String afterId, int limit)
+            throws ExecutionException, InterruptedException {
+        Query query = firestore.collection(collection).orderBy(FieldPath.documentId());
+        if (afterId != null) {
+            query = query.startAfter(afterId);
+        }
+        return query.limit(limit).get().get();
+    }
+
+    private static Map<String, Object> documentData(QueryDocumentSnapshot document) {
+        Map<String, Object> data = document.getData();
+        data.put("id", document.getId());
+        return data;
+    }
+}
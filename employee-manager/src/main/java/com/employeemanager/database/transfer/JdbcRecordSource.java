@@ -0,0 +1,193 @@
+package com.employeemanager.database.transfer;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.archive.JdbcWorkRecordArchive;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * JDBC olvasó (H2, MySQL, PostgreSQL): WHERE id > ? ORDER BY id LIMIT ?, az elsődleges kulcs indexén
+ *
+ * A munkanaplók az élő és az archív táblából (work_records_archive) együtt, azonosító szerint összefésülve
+ * jönnek; mindkét ág legfeljebb egy lapnyi sort ad az indexén, így egy lap költsége nem nő a táblamérettel.
+ */
+@Slf4j
+public class JdbcRecordSource implements RecordSource {
+
+    private static final String EMPLOYEE_COLUMNS = """
+            SELECT id, name, birth_place, birth_date, mother_name, tax_number, social_security_number,
+                   address, created_at
+            FROM employees
+            """;
+
+    private static final String WORK_RECORD_COLUMNS = "id, employee_id, notification_date, notification_time,"
+            + " ebev_serial_number, work_date, payment, hours_worked, created_at";
+
+    // %1$s: a lapozási feltétel (WHERE id > ?) vagy üres
+    private static final String WORK_RECORD_PAGE_SQL = """
+            SELECT wr.id, wr.employee_id, wr.notification_date, wr.notification_time, wr.ebev_serial_number,
+                   wr.work_date, wr.payment, wr.hours_worked, wr.created_at, e.name AS employee_name
+            FROM ((SELECT %2$s FROM work_records %1$s ORDER BY id LIMIT ?)
+                  UNION ALL
+                  (SELECT %2$s FROM work_records_archive %1$s ORDER BY id LIMIT ?)) wr
+            LEFT JOIN employees e ON wr.employee_id = e.id
+            ORDER BY wr.id LIMIT ?
+            """;
+
+    private final DataSource dataSource;
+
+    public JdbcRecordSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public List<Employee> readEmployees(String afterId, int limit) throws ExecutionException {
+        String sql = EMPLOYEE_COLUMNS + (afterId != null ? "WHERE id > ? " : "") + "ORDER BY id LIMIT ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindPage(ps, afterId, limit);
+            List<Employee> employees = new ArrayList<>(limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    employees.add(mapEmployee(rs));
+                }
+            }
+            return employees;
+        } catch (SQLException e) {
+            log.error("Error reading employees after {}", afterId, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public List<WorkRecord> readWorkRecords(String afterId, int limit) throws ExecutionException {
+        String sql = String.format(WORK_RECORD_PAGE_SQL, afterId != null ? "WHERE id > ?" : "", WORK_RECORD_COLUMNS);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (int branch = 0; branch < 2; branch++) {
+                if (afterId != null) {
+                    ps.setString(index++, afterId);
+                }
+                ps.setInt(index++, limit);
+            }
+            ps.setInt(index, limit);
+            List<WorkRecord> records = new ArrayList<>(limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    records.add(mapWorkRecord(rs));
+                }
+            }
+            return records;
+        } catch (SQLException e) {
+            log.error("Error reading work records after {}", afterId, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public boolean containsEmployee(String id) throws ExecutionException {
+        return exists("SELECT 1 FROM employees WHERE id = ?", id);
+    }
+
+    @Override
+    public boolean containsWorkRecord(String id) throws ExecutionException {
+        return exists("SELECT 1 FROM work_records WHERE id = ?", id)
+                || exists("SELECT 1 FROM work_records_archive WHERE id = ?", id);
+    }
+
+    @Override
+    public LocalDate getArchiveBoundary() throws ExecutionException {
+        return new JdbcWorkRecordArchive(dataSource).getBoundary();
+    }
+
+    @Override
+    public String getName() {
+        return "JDBC keyset";
+    }
+
+    private boolean exists(String sql, String id) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            log.error("Error checking existence of {}", id, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    private static void bindPage(PreparedStatement ps, String afterId, int limit) throws SQLException {
+        int index = 1;
+        if (afterId != null) {
+            ps.setString(index++, afterId);
+        }
+        ps.setInt(index, limit);
+    }
+
+    private static Employee mapEmployee(ResultSet rs) throws SQLException {
+        Employee employee = new Employee();
+        employee.setId(rs.getString("id"));
+        employee.setName(rs.getString("name"));
+        employee.setBirthPlace(rs.getString("birth_place"));
+        Date birthDate = rs.getDate("birth_date");
+        if (birthDate != null) {
+            employee.setBirthDate(birthDate.toLocalDate());
+        }
+        employee.setMotherName(rs.getString("mother_name"));
+        employee.setTaxNumber(rs.getString("tax_number"));
+        employee.setSocialSecurityNumber(rs.getString("social_security_number"));
+        employee.setAddress(rs.getString("address"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            employee.setCreatedAt(createdAt.toLocalDateTime().toLocalDate());
+        }
+        return employee;
+    }
+
+    private static WorkRecord mapWorkRecord(ResultSet rs) throws SQLException {
+        WorkRecord record = new WorkRecord();
+        record.setId(rs.getString("id"));
+
+        Employee employee = new Employee();
+        employee.setId(rs.getString("employee_id"));
+        employee.setName(rs.getString("employee_name"));
+        record.setEmployee(employee);
+
+        Date notificationDate = rs.getDate("notification_date");
+        if (notificationDate != null) {
+            record.setNotificationDate(notificationDate.toLocalDate());
+        }
+        Time notificationTime = rs.getTime("notification_time");
+        if (notificationTime != null) {
+            record.setNotificationTime(notificationTime.toLocalTime());
+        }
+        record.setEbevSerialNumber(rs.getString("ebev_serial_number"));
+        Date workDate = rs.getDate("work_date");
+        if (workDate != null) {
+            record.setWorkDate(workDate.toLocalDate());
+        }
+        record.setPayment(rs.getBigDecimal("payment"));
+        record.setHoursWorked(rs.getInt("hours_worked"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            record.setCreatedAt(createdAt.toLocalDateTime());
+        }
+        return record;
+    }
+}
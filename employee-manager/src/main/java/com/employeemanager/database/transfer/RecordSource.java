@@ -0,0 +1,48 @@
+package com.employeemanager.database.transfer;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Adatok lapozott olvasása azonosító szerinti sorrendben (keyset lapozás)
+ *
+ * A következő lap az előző lap utolsó azonosítója után kezdődik, így a lekérdezés költsége nem nő a
+ * már átvitt sorok számával, és egy ellenőrzőpontból folytatható. A munkanaplók dolgozójából csak az
+ * azonosító és a név töltődik ki.
+ */
+public interface RecordSource extends AutoCloseable {
+
+    /**
+     * Legfeljebb limit alkalmazott az afterId után (null: az elejétől)
+     */
+    List<Employee> readEmployees(String afterId, int limit) throws ExecutionException, InterruptedException;
+
+    /**
+     * Legfeljebb limit munkanapló az afterId után (null: az elejétől)
+     */
+    List<WorkRecord> readWorkRecords(String afterId, int limit) throws ExecutionException, InterruptedException;
+
+    boolean containsEmployee(String id) throws ExecutionException, InterruptedException;
+
+    boolean containsWorkRecord(String id) throws ExecutionException, InterruptedException;
+
+    /**
+     * Az archiválási határ (az ennél régebbi munkanaplók archívumban vannak); null, ha nincs archívum
+     */
+    default LocalDate getArchiveBoundary() throws ExecutionException, InterruptedException {
+        return null;
+    }
+
+    /**
+     * Olvasási mód neve naplózáshoz
+     */
+    String getName();
+
+    @Override
+    default void close() throws ExecutionException, InterruptedException {
+    }
+}
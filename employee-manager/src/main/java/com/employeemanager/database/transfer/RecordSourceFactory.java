@@ -0,0 +1,26 @@
+package com.employeemanager.database.transfer;
+
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+
+import java.io.IOException;
+
+/**
+ * Az adatbázis típusnak megfelelő lapozott olvasó
+ */
+public class RecordSourceFactory {
+
+    public static RecordSource create(ConnectionConfig config, DatabaseConnectionManager connectionManager)
+            throws IOException {
+        switch (config.getType()) {
+            case FIREBASE:
+                return new FirestoreRecordSource(connectionManager.getFirestore(config));
+            case POSTGRESQL:
+            case MYSQL:
+            case H2:
+                return new JdbcRecordSource(connectionManager.getDataSource(config));
+            default:
+                throw new IllegalArgumentException("No record source for: " + config.getType());
+        }
+    }
+}
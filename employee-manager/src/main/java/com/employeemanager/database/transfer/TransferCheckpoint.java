@@ -0,0 +1,91 @@
+package com.employeemanager.database.transfer;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Adatátvitel ellenőrzőpontja: az aktuális szakasz, szakaszonként az utolsó átvitt azonosító és a számlálók
+ *
+ * Minden sikeresen kiírt köteg után mentődik (ideiglenes fájlba írás, majd átnevezés), így megszakadt
+ * átvitel az utolsó kiírt kötegtől folytatható. A failed a legutóbb visszatartott (részben sikertelen)
+ * köteg véglegesen sikertelen sorainak száma; a köteg sikeres újraírása után nulla.
+ */
+@Slf4j
+@Data
+public class TransferCheckpoint {
+
+    public enum Phase {
+        EMPLOYEES, WORK_RECORDS, DONE
+    }
+
+    private Phase phase = Phase.EMPLOYEES;
+    private String lastEmployeeId;
+    private String lastWorkRecordId;
+    private long employees;
+    private long workRecords;
+    private long skipped;
+    private long failed;
+
+    public static Optional<TransferCheckpoint> load(Path file) throws ExecutionException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            log.error("Error reading transfer checkpoint: {}", file, e);
+            throw new ExecutionException("Checkpoint error", e);
+        }
+        TransferCheckpoint checkpoint = new TransferCheckpoint();
+        checkpoint.setPhase(Phase.valueOf(properties.getProperty("phase", Phase.EMPLOYEES.name())));
+        checkpoint.setLastEmployeeId(properties.getProperty("lastEmployeeId"));
+        checkpoint.setLastWorkRecordId(properties.getProperty("lastWorkRecordId"));
+        checkpoint.setEmployees(Long.parseLong(properties.getProperty("employees", "0")));
+        checkpoint.setWorkRecords(Long.parseLong(properties.getProperty("workRecords", "0")));
+        checkpoint.setSkipped(Long.parseLong(properties.getProperty("skipped", "0")));
+        checkpoint.setFailed(Long.parseLong(properties.getProperty("failed", "0")));
+        return Optional.of(checkpoint);
+    }
+
+    public void save(Path file) throws ExecutionException {
+        Properties properties = new Properties();
+        properties.setProperty("phase", phase.name());
+        if (lastEmployeeId != null) {
+            properties.setProperty("lastEmployeeId", lastEmployeeId);
+        }
+        if (lastWorkRecordId != null) {
+            properties.setProperty("lastWorkRecordId", lastWorkRecordId);
+        }
+        properties.setProperty("employees", Long.toString(employees));
+        properties.setProperty("workRecords", Long.toString(workRecords));
+        properties.setProperty("skipped", Long.toString(skipped));
+        properties.setProperty("failed", Long.toString(failed));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Data transfer checkpoint");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Error writing transfer checkpoint: {}", file, e);
+            throw new ExecutionException("Checkpoint error", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.employeemanager.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Munkaidő minta elemzés futása egy vagy több alkalmazottra
+ */
+@Name("com.employeemanager.AnalyzerRun")
+@Label("Work Pattern Analysis")
+@Description("Work pattern analysis of one or more employees")
+@Category({"Employee Manager", "Analysis"})
+@StackTrace(false)
+public class AnalyzerRunEvent extends Event {
+
+    @Label("Scope")
+    public String scope;
+
+    @Label("Employee Count")
+    public int employeeCount;
+
+    @Label("Record Count")
+    public long recordCount;
+
+    @Label("Warning Count")
+    public int warningCount;
+}
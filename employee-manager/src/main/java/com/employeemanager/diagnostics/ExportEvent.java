@@ -0,0 +1,42 @@
+package com.employeemanager.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Munkanapló export vagy jelentés fájlba írása
+ */
+@Name("com.employeemanager.Export")
+@Label("Export")
+@Description("Work record export or report written to a file")
+@Category({"Employee Manager", "Export"})
+@StackTrace(false)
+public class ExportEvent extends Event {
+
+    @Label("Format")
+    public String format;
+
+    @Label("File")
+    public String file;
+
+    @Label("Start Date")
+    public String startDate;
+
+    @Label("End Date")
+    public String endDate;
+
+    @Label("Row Count")
+    public long rowCount;
+
+    @Label("File Size")
+    @DataAmount
+    public long fileSize;
+
+    @Label("Failed")
+    public boolean failed;
+}
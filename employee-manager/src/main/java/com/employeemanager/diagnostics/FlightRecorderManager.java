@@ -0,0 +1,95 @@
+package com.employeemanager.diagnostics;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Folyamatosan futó, alacsony terhelésű JFR felvétel ("default" profil + alkalmazás események)
+ * A felhasználó által jelzett lefagyások után a felvétel utólag fájlba menthető
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class FlightRecorderManager implements AutoCloseable {
+
+    private static final String RECORDING_NAME = "EmployeeManager";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final DiagnosticsProperties.Jfr settings;
+    private Recording recording;
+
+    public synchronized void start() {
+        if (!settings.isEnabled()) {
+            log.info("Flight recording disabled");
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Flight recorder is not available in this JVM");
+            return;
+        }
+
+        try {
+            Recording newRecording = new Recording(Configuration.getConfiguration("default"));
+            newRecording.setName(RECORDING_NAME);
+            newRecording.setToDisk(true);
+            newRecording.setMaxAge(settings.getMaxAge());
+            newRecording.setMaxSize(settings.getMaxSize().toBytes());
+
+            newRecording.enable(WorkRecordQueryEvent.class).withThreshold(settings.getQueryThreshold());
+            newRecording.enable(SlowQueryEvent.class)
+                    .withThreshold(settings.getSlowQueryThreshold())
+                    .withStackTrace();
+            newRecording.enable(ExportEvent.class);
+            newRecording.enable(AnalyzerRunEvent.class);
+
+            newRecording.start();
+            recording = newRecording;
+            log.info("Flight recording started (max age {}, max size {}, slow query threshold {} ms)",
+                    settings.getMaxAge(), settings.getMaxSize(), settings.getSlowQueryThreshold().toMillis());
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            log.warn("Could not start flight recording: {}", e.getMessage());
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    /**
+     * A felvétel eddigi tartalmának mentése időbélyeges .jfr fájlba (JDK Mission Control-lal megnyitható)
+     */
+    public synchronized Path dump() throws IOException {
+        if (!isRunning()) {
+            throw new IllegalStateException("Flight recording is not running");
+        }
+
+        Path directory = Paths.get(settings.getDumpDirectory());
+        Files.createDirectories(directory);
+        Path file = directory.resolve("employee-manager_" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+
+        recording.dump(file);
+        log.info("Flight recording dumped to {}", file);
+        return file;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            log.info("Flight recording stopped");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.employeemanager.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Munkanapló lekérdezések közös JFR mezői
+ */
+@Category({"Employee Manager", "Database"})
+abstract class QueryEvent extends Event {
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Query Type")
+    String queryType;
+
+    @Label("Start Date")
+    String startDate;
+
+    @Label("End Date")
+    String endDate;
+
+    @Label("Row Count")
+    long rowCount;
+
+    @Label("Documents Read")
+    long documentsRead;
+
+    @Label("Failed")
+    boolean failed;
+}
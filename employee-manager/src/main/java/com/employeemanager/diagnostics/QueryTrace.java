@@ -0,0 +1,61 @@
+package com.employeemanager.diagnostics;
+
+import java.time.LocalDate;
+
+/**
+ * Egy lekérdezés időmérése JFR eseményekkel; a lassú lekérdezés eseményt a felvétel küszöbértéke szűri
+ */
+public final class QueryTrace {
+
+    private final WorkRecordQueryEvent queryEvent = new WorkRecordQueryEvent();
+    private final SlowQueryEvent slowQueryEvent = new SlowQueryEvent();
+    private final String backend;
+    private final String queryType;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    private QueryTrace(String backend, String queryType, LocalDate startDate, LocalDate endDate) {
+        this.backend = backend;
+        this.queryType = queryType;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public static QueryTrace begin(String backend, String queryType, LocalDate startDate, LocalDate endDate) {
+        QueryTrace trace = new QueryTrace(backend, queryType, startDate, endDate);
+        trace.queryEvent.begin();
+        trace.slowQueryEvent.begin();
+        return trace;
+    }
+
+    public void end(long rowCount) {
+        end(rowCount, 0, false);
+    }
+
+    public void end(long rowCount, long documentsRead) {
+        end(rowCount, documentsRead, false);
+    }
+
+    public void failed() {
+        end(0, 0, true);
+    }
+
+    private void end(long rowCount, long documentsRead, boolean failed) {
+        commit(queryEvent, rowCount, documentsRead, failed);
+        commit(slowQueryEvent, rowCount, documentsRead, failed);
+    }
+
+    private void commit(QueryEvent event, long rowCount, long documentsRead, boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.backend = backend;
+            event.queryType = queryType;
+            event.startDate = startDate != null ? startDate.toString() : null;
+            event.endDate = endDate != null ? endDate.toString() : null;
+            event.rowCount = rowCount;
+            event.documentsRead = documentsRead;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.employeemanager.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Küszöbérték feletti lekérdezés, a hívó stack trace-szel együtt
+ */
+@Name("com.employeemanager.SlowQuery")
+@Label("Slow Query")
+@Description("Work record query that exceeded the slow query threshold")
+@Threshold("500 ms")
+public class SlowQueryEvent extends QueryEvent {
+}
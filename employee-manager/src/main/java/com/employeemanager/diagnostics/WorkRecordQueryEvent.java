@@ -0,0 +1,18 @@
+package com.employeemanager.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Munkanapló lekérdezés a repository rétegben
+ */
+@Name("com.employeemanager.WorkRecordQuery")
+@Label("Work Record Query")
+@Description("Work record query executed by a repository")
+@Threshold("20 ms")
+@StackTrace(false)
+public class WorkRecordQueryEvent extends QueryEvent {
+}
@@ -2,6 +2,8 @@ package com.employeemanager.dialog;
 
 import com.employeemanager.database.config.ConnectionConfig;
 import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.config.PoolTuningProfile;
+import com.employeemanager.database.config.WorkRecordPartitioning;
 import com.employeemanager.service.impl.DatabaseConnectionService;
 import com.employeemanager.util.AlertHelper;
 import javafx.application.Platform;
@@ -12,6 +14,8 @@ import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -47,6 +51,11 @@ public class DatabaseConnectionDialog extends Dialog<Void> {
     private TextField databaseField;
     private TextField usernameField;
     private PasswordField passwordField;
+    private TextField replicaHostsField;
+    private ComboBox<PoolTuningProfile> tuningProfileComboBox;
+    private CheckBox adaptivePoolCheckBox;
+    private ComboBox<WorkRecordPartitioning> partitioningComboBox;
+    private ComboBox<String> sslModeComboBox;
 
     // Szerkesztési állapot
     private ConnectionConfig editingConfig;
@@ -335,6 +344,10 @@ public class DatabaseConnectionDialog extends Dialog<Void> {
         VBox passSection = createFieldSection("🔒 Jelszó",
                 passwordField = new PasswordField(), "••••••••");
 
+        // Olvasási replikák (opcionális)
+        VBox replicaSection = createFieldSection("🪞 Olvasási replikák (vesszővel elválasztva)",
+                replicaHostsField = new TextField(), "replica1:5432, replica2");
+
         // Alapértelmezett port beállítása típus szerint
         DatabaseType type = typeComboBox.getValue();
         if (type == DatabaseType.MYSQL) {
@@ -343,10 +356,61 @@ public class DatabaseConnectionDialog extends Dialog<Void> {
             portField.setText("5432");
         }
 
-        form.getChildren().addAll(headerLabel, hostPortBox, dbSection, userSection, passSection);
+        form.getChildren().addAll(headerLabel, hostPortBox, dbSection, userSection, passSection, replicaSection,
+                createTuningSection());
+        if (type == DatabaseType.POSTGRESQL) {
+            form.getChildren().addAll(createSslSection(), createPartitioningSection());
+        }
         return form;
     }
 
+    private VBox createTuningSection() {
+        VBox section = new VBox(5);
+
+        Label label = new Label("⚙️ Kapcsolat hangolás");
+        label.getStyleClass().add("db-field-label");
+
+        tuningProfileComboBox = new ComboBox<>();
+        tuningProfileComboBox.getItems().addAll(PoolTuningProfile.values());
+        tuningProfileComboBox.setValue(PoolTuningProfile.BALANCED);
+        tuningProfileComboBox.getStyleClass().add("db-combobox");
+
+        adaptivePoolCheckBox = new CheckBox("Adaptív pool méret (terhelés szerint)");
+
+        section.getChildren().addAll(label, tuningProfileComboBox, adaptivePoolCheckBox);
+        return section;
+    }
+
+    private VBox createSslSection() {
+        VBox section = new VBox(5);
+
+        Label label = new Label("🔐 SSL mód (sslmode)");
+        label.getStyleClass().add("db-field-label");
+
+        sslModeComboBox = new ComboBox<>();
+        sslModeComboBox.getItems().addAll("disable", "allow", "prefer", "require", "verify-ca", "verify-full");
+        sslModeComboBox.setValue(ConnectionConfig.DEFAULT_SSL_MODE);
+        sslModeComboBox.getStyleClass().add("db-combobox");
+
+        section.getChildren().addAll(label, sslModeComboBox);
+        return section;
+    }
+
+    private VBox createPartitioningSection() {
+        VBox section = new VBox(5);
+
+        Label label = new Label("🗂️ Munkanaplók particionálása (work_date)");
+        label.getStyleClass().add("db-field-label");
+
+        partitioningComboBox = new ComboBox<>();
+        partitioningComboBox.getItems().addAll(WorkRecordPartitioning.values());
+        partitioningComboBox.setValue(WorkRecordPartitioning.NONE);
+        partitioningComboBox.getStyleClass().add("db-combobox");
+
+        section.getChildren().addAll(label, partitioningComboBox);
+        return section;
+    }
+
     private VBox createFieldSection(String labelText, TextField field, String promptText) {
         VBox section = new VBox(5);
 
@@ -508,6 +572,24 @@ public class DatabaseConnectionDialog extends Dialog<Void> {
                     if (passwordField != null) {
                         passwordField.setText(selected.getPassword() != null ? selected.getPassword() : "");
                     }
+                    if (replicaHostsField != null) {
+                        replicaHostsField.setText(selected.getReplicaHosts() != null
+                                ? String.join(", ", selected.getReplicaHosts()) : "");
+                    }
+                    if (tuningProfileComboBox != null && selected.getTuningProfile() != null) {
+                        tuningProfileComboBox.setValue(selected.getTuningProfile());
+                    }
+                    if (adaptivePoolCheckBox != null) {
+                        adaptivePoolCheckBox.setSelected(selected.isAdaptivePoolSizing());
+                    }
+                    if (sslModeComboBox != null && selected.getType() == DatabaseType.POSTGRESQL
+                            && selected.getSslMode() != null) {
+                        sslModeComboBox.setValue(selected.getSslMode());
+                    }
+                    if (partitioningComboBox != null && selected.getType() == DatabaseType.POSTGRESQL
+                            && selected.getWorkRecordPartitioning() != null) {
+                        partitioningComboBox.setValue(selected.getWorkRecordPartitioning());
+                    }
                 }
                 default -> throw new IllegalArgumentException("Unexpected value: " + selected.getType());
             }
@@ -641,6 +723,15 @@ public class DatabaseConnectionDialog extends Dialog<Void> {
                             "A port mezőben csak számot adjon meg!");
                     return false;
                 }
+
+                for (String replica : parseReplicaHosts(replicaHostsField.getText())) {
+                    int separator = replica.lastIndexOf(':');
+                    if (separator > 0 && !replica.substring(separator + 1).trim().matches("\\d+")) {
+                        AlertHelper.showWarning("Hibás replika",
+                                "A replikákat host vagy host:port formában adja meg: " + replica);
+                        return false;
+                    }
+                }
             }
             default -> throw new IllegalArgumentException("Unexpected value: " + type);
         }
@@ -666,6 +757,15 @@ public class DatabaseConnectionDialog extends Dialog<Void> {
                 config.setDatabase(databaseField.getText().trim());
                 config.setUsername(usernameField.getText().trim());
                 config.setPassword(passwordField.getText());
+                config.setReplicaHosts(parseReplicaHosts(replicaHostsField.getText()));
+                config.setTuningProfile(tuningProfileComboBox.getValue());
+                config.setAdaptivePoolSizing(adaptivePoolCheckBox.isSelected());
+                if (typeComboBox.getValue() == DatabaseType.POSTGRESQL && sslModeComboBox != null) {
+                    config.setSslMode(sslModeComboBox.getValue());
+                }
+                if (typeComboBox.getValue() == DatabaseType.POSTGRESQL && partitioningComboBox != null) {
+                    config.setWorkRecordPartitioning(partitioningComboBox.getValue());
+                }
             }
             default -> throw new IllegalArgumentException("Unexpected value: " + typeComboBox.getValue());
         }
@@ -673,6 +773,19 @@ public class DatabaseConnectionDialog extends Dialog<Void> {
         return config;
     }
 
+    private static List<String> parseReplicaHosts(String text) {
+        List<String> hosts = new ArrayList<>();
+        if (text == null) {
+            return hosts;
+        }
+        for (String host : text.split(",")) {
+            if (!host.trim().isEmpty()) {
+                hosts.add(host.trim());
+            }
+        }
+        return hosts;
+    }
+
     private Alert createProgressAlert(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -698,6 +811,7 @@ public class DatabaseConnectionDialog extends Dialog<Void> {
         if (databaseField != null) databaseField.clear();
         if (usernameField != null) usernameField.clear();
         if (passwordField != null) passwordField.clear();
+        if (replicaHostsField != null) replicaHostsField.clear();
 
         updateConnectionForm();
     }
@@ -0,0 +1,192 @@
+package com.employeemanager.dialog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Diagnosztikai nézet: repository, service, connection pool és JVM metrikák
+ * Ugyanezek a metrikák JMX-en (jconsole, VisualVM) is elérhetők a "metrics" domain alatt.
+ */
+public class DiagnosticsDialog extends Dialog<Void> {
+
+    private final MeterRegistry meterRegistry;
+    private final ObservableList<MeterRow> rows = FXCollections.observableArrayList();
+    private final FilteredList<MeterRow> filteredRows = new FilteredList<>(rows);
+
+    public DiagnosticsDialog(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        setTitle("Diagnosztika");
+        setHeaderText("Teljesítmény metrikák (adatbázis műveletek, connection pool, JVM)");
+        setResizable(true);
+
+        setupDialog();
+        refresh();
+    }
+
+    private void setupDialog() {
+        DialogPane dialogPane = getDialogPane();
+        dialogPane.getButtonTypes().add(ButtonType.CLOSE);
+
+        TextField filterField = new TextField();
+        filterField.setPromptText("Szűrés név vagy címke alapján (pl. repository, hikaricp, FIREBASE)");
+        filterField.textProperty().addListener((observable, oldValue, newValue) -> {
+            String filter = newValue == null ? "" : newValue.trim().toLowerCase(Locale.ROOT);
+            filteredRows.setPredicate(row -> filter.isEmpty()
+                    || row.name.toLowerCase(Locale.ROOT).contains(filter)
+                    || row.tags.toLowerCase(Locale.ROOT).contains(filter));
+        });
+        HBox.setHgrow(filterField, Priority.ALWAYS);
+
+        Button refreshButton = new Button("Frissítés");
+        refreshButton.setOnAction(event -> refresh());
+
+        HBox toolbar = new HBox(10, filterField, refreshButton);
+
+        TableView<MeterRow> table = new TableView<>(filteredRows);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.getColumns().add(textColumn("Metrika", 220, row -> row.name));
+        table.getColumns().add(textColumn("Címkék", 280, row -> row.tags));
+        table.getColumns().add(numberColumn("Darab", row -> row.count));
+        table.getColumns().add(numberColumn("Összesen", row -> row.total));
+        table.getColumns().add(numberColumn("Átlag", row -> row.mean));
+        table.getColumns().add(numberColumn("Max", row -> row.max));
+        table.getColumns().add(textColumn("Egység", 60, row -> row.unit));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        VBox content = new VBox(10, toolbar, table);
+        content.setPadding(new Insets(10));
+
+        dialogPane.setContent(content);
+        dialogPane.setPrefWidth(1000);
+        dialogPane.setPrefHeight(600);
+    }
+
+    /**
+     * Pillanatkép a regisztry aktuális állapotáról
+     */
+    private void refresh() {
+        rows.setAll(meterRegistry.getMeters().stream()
+                .map(DiagnosticsDialog::toRow)
+                .sorted(Comparator.comparing((MeterRow row) -> row.name).thenComparing(row -> row.tags))
+                .collect(Collectors.toList()));
+    }
+
+    private static MeterRow toRow(Meter meter) {
+        Meter.Id id = meter.getId();
+        String tags = id.getTags().stream()
+                .filter(tag -> !"application".equals(tag.getKey()))
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", "));
+        MeterRow row = new MeterRow(id.getName(), tags);
+
+        if (meter instanceof Timer timer) {
+            row.count = (double) timer.count();
+            row.total = timer.totalTime(TimeUnit.MILLISECONDS);
+            row.mean = timer.mean(TimeUnit.MILLISECONDS);
+            row.max = timer.max(TimeUnit.MILLISECONDS);
+            row.unit = "ms";
+        } else if (meter instanceof FunctionTimer timer) {
+            row.count = timer.count();
+            row.total = timer.totalTime(TimeUnit.MILLISECONDS);
+            row.mean = timer.mean(TimeUnit.MILLISECONDS);
+            row.unit = "ms";
+        } else if (meter instanceof LongTaskTimer timer) {
+            row.count = (double) timer.activeTasks();
+            row.total = timer.duration(TimeUnit.MILLISECONDS);
+            row.max = timer.max(TimeUnit.MILLISECONDS);
+            row.unit = "ms";
+        } else if (meter instanceof DistributionSummary summary) {
+            row.count = (double) summary.count();
+            row.total = summary.totalAmount();
+            row.mean = summary.mean();
+            row.max = summary.max();
+            row.unit = id.getBaseUnit();
+        } else if (meter instanceof Counter counter) {
+            row.count = counter.count();
+            row.unit = id.getBaseUnit();
+        } else if (meter instanceof FunctionCounter counter) {
+            row.count = counter.count();
+            row.unit = id.getBaseUnit();
+        } else if (meter instanceof TimeGauge gauge) {
+            row.total = gauge.value(TimeUnit.MILLISECONDS);
+            row.unit = "ms";
+        } else if (meter instanceof Gauge gauge) {
+            row.total = gauge.value();
+            row.unit = id.getBaseUnit();
+        }
+        return row;
+    }
+
+    private static TableColumn<MeterRow, String> textColumn(String title, double width,
+                                                           Function<MeterRow, String> getter) {
+        TableColumn<MeterRow, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(getter.apply(cellData.getValue())));
+        return column;
+    }
+
+    private static TableColumn<MeterRow, Double> numberColumn(String title,
+                                                             Function<MeterRow, Double> getter) {
+        TableColumn<MeterRow, Double> column = new TableColumn<>(title);
+        column.setPrefWidth(90);
+        column.setStyle("-fx-alignment: CENTER-RIGHT;");
+        column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(getter.apply(cellData.getValue())));
+        column.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Double value, boolean empty) {
+                super.updateItem(value, empty);
+                if (empty || value == null || value.isNaN()) {
+                    setText(null);
+                } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                    setText(String.format("%,d", value.longValue()));
+                } else {
+                    setText(String.format("%,.2f", value));
+                }
+            }
+        });
+        return column;
+    }
+
+    /**
+     * Egy metrika sora a táblázatban
+     */
+    private static final class MeterRow {
+        private final String name;
+        private final String tags;
+        private Double count;
+        private Double total;
+        private Double mean;
+        private Double max;
+        private String unit;
+
+        private MeterRow(String name, String tags) {
+            this.name = name;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.employeemanager.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Kötegelt NAV XML generálás eredménye és áteresztőképessége
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NavBatchResult {
+
+    private String target;
+    private int generatedCount;
+    private int failedCount;
+    private long totalXmlBytes;
+    private Duration elapsed;
+    private List<String> failures;  // "számlaszám: hibaüzenet"
+
+    public double getInvoicesPerSecond() {
+        if (elapsed == null || elapsed.isZero()) {
+            return 0;
+        }
+        return generatedCount * 1_000_000_000.0 / elapsed.toNanos();
+    }
+}
@@ -0,0 +1,23 @@
+package com.employeemanager.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Egy számla NAV beküldéshez előkészített adatai (manageInvoice invoiceOperation)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NavInvoicePayload {
+
+    private String invoiceNumber;
+    private String operation;       // CREATE / MODIFY / STORNO
+    private String invoiceData;     // Base64 kódolt számla XML
+    private String invoiceHash;     // SHA3-512(operation + invoiceData), nagybetűs hex
+    private int xmlSize;
+    private String outputName;      // Fájl vagy zip bejegyzés neve
+}
@@ -0,0 +1,50 @@
+package com.employeemanager.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * NAV beküldés eredménye számlánként, áteresztőképességgel
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NavSubmissionResult {
+
+    private List<InvoiceOutcome> outcomes;
+    private int requestCount;
+    private int retryCount;
+    private Duration elapsed;
+
+    public long countByStatus(String status) {
+        return outcomes.stream().filter(o -> status.equals(o.getStatus())).count();
+    }
+
+    public double getInvoicesPerSecond() {
+        if (elapsed == null || elapsed.isZero()) {
+            return 0;
+        }
+        return outcomes.size() * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    /**
+     * Egy számla feldolgozási állapota (DONE, ABORTED, PROCESSING, FAILED ...)
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InvoiceOutcome {
+        private String invoiceNumber;
+        private String transactionId;
+        private int index;
+        private String status;
+        private String message;
+    }
+}
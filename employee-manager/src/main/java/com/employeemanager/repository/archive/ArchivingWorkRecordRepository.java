@@ -0,0 +1,323 @@
+package com.employeemanager.repository.archive;
+
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.dto.Page;
+import com.employeemanager.model.dto.PageRequest;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * WorkRecordRepository dekorátor archív olvasással
+ *
+ * Dátumtartományos lekérdezésnél az archívum csak akkor kerül olvasásra, ha a tartomány a határ elé nyúlik;
+ * az eredmény ilyenkor a két réteg összefésülése az aktív réteg rendezése szerint. A findAll() és a count()
+ * mindkét réteget látja, a lapozás csak az aktív réteget.
+ * Archivált munkanapló mentése visszahelyezi azt az aktív rétegbe.
+ */
+@Slf4j
+public class ArchivingWorkRecordRepository implements WorkRecordRepository {
+
+    private static final Comparator<WorkRecord> BY_EMPLOYEE_NAME = Comparator.comparing(
+            record -> record.getEmployee() != null ? record.getEmployee().getName() : null,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final Comparator<WorkRecord> BY_WORK_DATE_DESC =
+            Comparator.comparing(WorkRecord::getWorkDate, Comparator.reverseOrder());
+
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+
+    private final WorkRecordRepository delegate;
+    private final WorkRecordArchive archive;
+
+    public ArchivingWorkRecordRepository(WorkRecordRepository delegate, WorkRecordArchive archive) {
+        this.delegate = delegate;
+        this.archive = archive;
+    }
+
+    public WorkRecordArchive getArchive() {
+        return archive;
+    }
+
+    @Override
+    public WorkRecord save(WorkRecord entity) throws ExecutionException, InterruptedException {
+        boolean archived = isArchived(entity);
+        WorkRecord saved = delegate.save(entity);
+        if (archived) {
+            restore(entity.getId());
+        }
+        return saved;
+    }
+
+    @Override
+    public List<WorkRecord> saveAll(List<WorkRecord> entities) throws ExecutionException, InterruptedException {
+        List<String> archivedIds = new ArrayList<>();
+        for (WorkRecord entity : entities) {
+            if (isArchived(entity)) {
+                archivedIds.add(entity.getId());
+            }
+        }
+        List<WorkRecord> saved = delegate.saveAll(entities);
+        for (String id : archivedIds) {
+            restore(id);
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<WorkRecord> findById(String id) throws ExecutionException, InterruptedException {
+        Optional<WorkRecord> record = delegate.findById(id);
+        if (record.isPresent() || archive.getBoundary() == null) {
+            return record;
+        }
+        return archive.findById(id);
+    }
+
+    @Override
+    public List<WorkRecord> findAll() throws ExecutionException, InterruptedException {
+        List<WorkRecord> hot = delegate.findAll();
+        LocalDate boundary = archive.getBoundary();
+        if (boundary == null) {
+            return hot;
+        }
+        return merge(hot, archive.findByWorkDateBetween(EARLIEST, boundary.minusDays(1)), BY_WORK_DATE_DESC);
+    }
+
+    @Override
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        // Előbb az archívumból: a replikáció a hot törlés után már egyik rétegben sem találja a munkanaplót
+        if (archive.getBoundary() != null) {
+            archive.deleteById(id);
+        }
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public void delete(String id) throws ExecutionException, InterruptedException {
+        deleteById(id);
+    }
+
+    /**
+     * Csak az aktív réteg lapjai: a két réteg közös lapozásához minden lapnál az archívum elejétől kellene olvasni
+     */
+    @Override
+    public Page<WorkRecord> findAll(PageRequest pageRequest) throws ExecutionException, InterruptedException {
+        return delegate.findAll(pageRequest);
+    }
+
+    @Override
+    public long count() throws ExecutionException, InterruptedException {
+        LocalDate boundary = archive.getBoundary();
+        if (boundary == null) {
+            return delegate.count();
+        }
+        LocalDate archiveEnd = boundary.minusDays(1);
+        return delegate.count() + archive.countByWorkDateBetween(EARLIEST, archiveEnd)
+                - countInBothTiers(EARLIEST, archiveEnd);
+    }
+
+    @Override
+    public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate,
+                                                               LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        List<WorkRecord> hot = delegate.findByEmployeeIdAndWorkDateBetween(employeeId, startDate, endDate);
+        if (!reachesArchive(startDate)) {
+            return hot;
+        }
+        return merge(hot, archive.findByEmployeeIdAndWorkDateBetween(employeeId, startDate, endDate),
+                BY_WORK_DATE_DESC);
+    }
+
+    @Override
+    public List<WorkRecord> findByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        List<WorkRecord> hot = delegate.findByWorkDateBetween(startDate, endDate);
+        if (!reachesArchive(startDate)) {
+            return hot;
+        }
+        return merge(hot, archive.findByWorkDateBetween(startDate, endDate),
+                BY_WORK_DATE_DESC.thenComparing(BY_EMPLOYEE_NAME));
+    }
+
+    @Override
+    public List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        List<WorkRecord> hot = delegate.findByNotificationDateBetween(startDate, endDate);
+        if (!reachesArchive(startDate)) {
+            return hot;
+        }
+        return merge(hot, archive.findByNotificationDateBetween(startDate, endDate),
+                Comparator.comparing(WorkRecord::getNotificationDate, Comparator.reverseOrder())
+                        .thenComparing(BY_EMPLOYEE_NAME));
+    }
+
+    @Override
+    public List<WorkRecord> findByNotificationDateAndWorkDateBetween(LocalDate notifStart, LocalDate notifEnd,
+                                                                     LocalDate workStart, LocalDate workEnd)
+            throws ExecutionException, InterruptedException {
+        List<WorkRecord> hot = delegate.findByNotificationDateAndWorkDateBetween(notifStart, notifEnd, workStart, workEnd);
+        // Archív munkanaplónak mindkét dátuma a határ előtt van
+        if (!reachesArchive(notifStart) || !reachesArchive(workStart)) {
+            return hot;
+        }
+        List<WorkRecord> archived = new ArrayList<>();
+        for (WorkRecord record : archive.findByWorkDateBetween(workStart, workEnd)) {
+            LocalDate notificationDate = record.getNotificationDate();
+            if (notificationDate != null && !notificationDate.isBefore(notifStart) && !notificationDate.isAfter(notifEnd)) {
+                archived.add(record);
+            }
+        }
+        return merge(hot, archived, BY_WORK_DATE_DESC.thenComparing(BY_EMPLOYEE_NAME));
+    }
+
+    /**
+     * Archívumba nyúló tartománynál a két réteg soronkénti összefésülése. Az archív sorok munkavégzési és
+     * bejelentési dátuma is a határ előtt van, így az aktív rétegből csak a határ előtti dátumú (kevés) sort
+     * kell a memóriában tartani; a többi a rétegek saját stream-jével jön.
+     */
+    @Override
+    public void streamByWorkDateBetween(LocalDate startDate, LocalDate endDate, StreamOrder order,
+                                        Consumer<WorkRecord> consumer)
+            throws ExecutionException, InterruptedException {
+        if (!reachesArchive(startDate)) {
+            delegate.streamByWorkDateBetween(startDate, endDate, order, consumer);
+            return;
+        }
+        LocalDate boundary = archive.getBoundary();
+        LocalDate archiveEnd = endDate.isBefore(boundary) ? endDate : boundary.minusDays(1);
+
+        switch (order) {
+            case NOTIFICATION -> {
+                // Határ előtti bejelentés: az archív sorok közé kerül, utána az aktív réteg többi sora
+                List<WorkRecord> interleaved = new ArrayList<>(delegate.findByNotificationDateAndWorkDateBetween(
+                        EARLIEST, boundary.minusDays(1), startDate, endDate));
+                interleaved.sort(order.comparator());
+                streamArchiveMerged(startDate, archiveEnd, order, interleaved, consumer);
+                delegate.streamByWorkDateBetween(startDate, endDate, order, record -> {
+                    if (record.getNotificationDate() == null || !record.getNotificationDate().isBefore(boundary)) {
+                        consumer.accept(record);
+                    }
+                });
+            }
+            case WORK_DATE_DESC -> {
+                // A határ utáni munkavégzés minden archív sor előtt jön
+                if (!endDate.isBefore(boundary)) {
+                    delegate.streamByWorkDateBetween(boundary, endDate, order, consumer);
+                }
+                List<WorkRecord> interleaved = new ArrayList<>();
+                delegate.streamByWorkDateBetween(startDate, archiveEnd, order, interleaved::add);
+                streamArchiveMerged(startDate, archiveEnd, order, interleaved, consumer);
+            }
+        }
+    }
+
+    /**
+     * A két réteg számának összege; a mindkét rétegben meglévő munkanapló egyszer számít
+     */
+    @Override
+    public long countByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        if (!reachesArchive(startDate)) {
+            return delegate.countByWorkDateBetween(startDate, endDate);
+        }
+        LocalDate boundary = archive.getBoundary();
+        LocalDate archiveEnd = endDate.isBefore(boundary) ? endDate : boundary.minusDays(1);
+        return delegate.countByWorkDateBetween(startDate, endDate)
+                + archive.countByWorkDateBetween(startDate, archiveEnd)
+                - countInBothTiers(startDate, archiveEnd);
+    }
+
+    private boolean reachesArchive(LocalDate startDate) throws ExecutionException {
+        LocalDate boundary = archive.getBoundary();
+        return boundary != null && startDate.isBefore(boundary);
+    }
+
+    private boolean isArchived(WorkRecord entity) throws ExecutionException {
+        return entity.getId() != null && !entity.getId().isEmpty()
+                && archive.getBoundary() != null && archive.contains(entity.getId());
+    }
+
+    /**
+     * Az aktív rétegbe mentett munkanapló törlése az archívumból (mentés után, hogy hiba esetén ne vesszen el)
+     */
+    private void restore(String id) throws ExecutionException {
+        log.info("Restored archived work record {} to the active tier", id);
+        archive.deleteById(id);
+    }
+
+    /**
+     * Az archív stream összefésülése az aktív réteg ugyanígy rendezett soraival;
+     * a mindkét rétegben meglévő munkanapló az aktív rétegből számít
+     */
+    private void streamArchiveMerged(LocalDate startDate, LocalDate endDate, StreamOrder order,
+                                     List<WorkRecord> hot, Consumer<WorkRecord> consumer)
+            throws ExecutionException, InterruptedException {
+        Set<String> hotIds = new HashSet<>();
+        for (WorkRecord record : hot) {
+            hotIds.add(record.getId());
+        }
+        Comparator<WorkRecord> comparator = order.comparator();
+        int[] next = {0};
+        archive.streamByWorkDateBetween(startDate, endDate, order, record -> {
+            if (hotIds.contains(record.getId())) {
+                return;
+            }
+            while (next[0] < hot.size() && comparator.compare(hot.get(next[0]), record) <= 0) {
+                consumer.accept(hot.get(next[0]++));
+            }
+            consumer.accept(record);
+        });
+        for (int i = next[0]; i < hot.size(); i++) {
+            consumer.accept(hot.get(i));
+        }
+    }
+
+    /**
+     * A határ előtti aktív munkanaplók közül az archívumban is meglévők száma (megszakadt archiválás után)
+     */
+    private long countInBothTiers(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        List<String> ids = new ArrayList<>();
+        delegate.streamByWorkDateBetween(startDate, endDate, StreamOrder.WORK_DATE_DESC,
+                record -> ids.add(record.getId()));
+        long count = 0;
+        for (String id : ids) {
+            if (archive.contains(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A két réteg összefésülése; egy megszakadt archiválás után mindkét rétegben meglévő munkanapló
+     * az aktív rétegből számít
+     */
+    private static List<WorkRecord> merge(List<WorkRecord> hot, List<WorkRecord> archived,
+                                          Comparator<WorkRecord> order) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Map<String, WorkRecord> byId = new LinkedHashMap<>();
+        for (WorkRecord record : archived) {
+            byId.put(record.getId(), record);
+        }
+        for (WorkRecord record : hot) {
+            byId.put(record.getId(), record);
+        }
+        List<WorkRecord> merged = new ArrayList<>(byId.values());
+        merged.sort(order);
+        return merged;
+    }
+}
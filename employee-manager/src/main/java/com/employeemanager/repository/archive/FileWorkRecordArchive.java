@@ -0,0 +1,347 @@
+package com.employeemanager.repository.archive;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.interfaces.EmployeeRepository;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tömörített helyi archívum Firebase kapcsolatokhoz
+ *
+ * Munkavégzés hónapja szerinti gzip NDJSON fájlok (work_records_yyyy_MM.ndjson.gz), soronként a
+ * WorkRecord Firebase map formátumával. A dolgozó adatai olvasáskor az aktuális repository-ból jönnek.
+ */
+@Slf4j
+public class FileWorkRecordArchive implements WorkRecordArchive {
+
+    private static final String BOUNDARY_FILE = "archive.properties";
+    private static final String FILE_PREFIX = "work_records_";
+    private static final String FILE_SUFFIX = ".ndjson.gz";
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final Path directory;
+    private final WorkRecordRepository hotRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private LocalDate boundary;
+    private boolean boundaryLoaded;
+    private Map<String, YearMonth> idIndex;
+
+    public FileWorkRecordArchive(Path directory, WorkRecordRepository hotRepository,
+                                 EmployeeRepository employeeRepository) {
+        this.directory = directory;
+        this.hotRepository = hotRepository;
+        this.employeeRepository = employeeRepository;
+    }
+
+    @Override
+    public synchronized LocalDate getBoundary() throws ExecutionException {
+        if (!boundaryLoaded) {
+            Path file = directory.resolve(BOUNDARY_FILE);
+            if (Files.exists(file)) {
+                Properties properties = new Properties();
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                } catch (IOException e) {
+                    log.error("Error reading archive boundary: {}", file, e);
+                    throw new ExecutionException("Archive error", e);
+                }
+                String value = properties.getProperty("boundary");
+                boundary = value != null ? LocalDate.parse(value) : null;
+            }
+            boundaryLoaded = true;
+        }
+        return boundary;
+    }
+
+    /**
+     * A fájlok és a határ kiírása után törlünk a Firestore-ból; megszakadt futás esetén a következő futás
+     * befejezi, addig az olvasás azonosító szerint szűri a mindkét rétegben meglévő munkanaplókat
+     */
+    @Override
+    public synchronized int archiveBefore(LocalDate cutoff) throws ExecutionException, InterruptedException {
+        List<WorkRecord> expired = new ArrayList<>();
+        for (WorkRecord record : hotRepository.findByWorkDateBetween(EARLIEST, cutoff.minusDays(1))) {
+            if (record.getNotificationDate() != null && record.getNotificationDate().isBefore(cutoff)) {
+                expired.add(record);
+            }
+        }
+
+        Map<YearMonth, List<WorkRecord>> byMonth = new TreeMap<>();
+        for (WorkRecord record : expired) {
+            byMonth.computeIfAbsent(YearMonth.from(record.getWorkDate()), month -> new ArrayList<>()).add(record);
+        }
+
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<YearMonth, List<WorkRecord>> entry : byMonth.entrySet()) {
+                Map<String, Map<String, Object>> rows = readMonth(entry.getKey());
+                for (WorkRecord record : entry.getValue()) {
+                    rows.put(record.getId(), record.toMap());
+                    if (idIndex != null) {
+                        idIndex.put(record.getId(), entry.getKey());
+                    }
+                }
+                writeMonth(entry.getKey(), rows.values());
+            }
+            LocalDate current = getBoundary();
+            if (current == null || cutoff.isAfter(current)) {
+                writeBoundary(cutoff);
+            }
+        } catch (IOException e) {
+            log.error("Error writing work record archive in {}", directory, e);
+            throw new ExecutionException("Archive error", e);
+        }
+
+        for (WorkRecord record : expired) {
+            hotRepository.deleteById(record.getId());
+        }
+        log.info("Archived {} work records before {} to {}", expired.size(), cutoff, directory);
+        return expired.size();
+    }
+
+    @Override
+    public synchronized Optional<WorkRecord> findById(String id) throws ExecutionException, InterruptedException {
+        if (getBoundary() == null) {
+            return Optional.empty();
+        }
+        YearMonth month = idIndex().get(id);
+        if (month == null) {
+            return Optional.empty();
+        }
+        try {
+            Map<String, Object> row = readMonth(month).get(id);
+            if (row == null) {
+                return Optional.empty();
+            }
+            WorkRecord record = WorkRecord.fromMap(row);
+            record.setEmployee(resolveEmployee(row, new HashMap<>()));
+            return Optional.of(record);
+        } catch (IOException e) {
+            log.error("Error reading archived work record: {}", id, e);
+            throw new ExecutionException("Archive error", e);
+        }
+    }
+
+    @Override
+    public List<WorkRecord> findByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return scan(startDate, endDate, null, record -> inRange(record.getWorkDate(), startDate, endDate));
+    }
+
+    @Override
+    public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return scan(startDate, endDate, employeeId, record -> inRange(record.getWorkDate(), startDate, endDate));
+    }
+
+    /**
+     * A bejelentés dátuma nem köti a munkavégzés hónapját, ezért itt minden archív fájlt olvasunk
+     */
+    @Override
+    public List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return scan(EARLIEST, LocalDate.MAX, null, record -> inRange(record.getNotificationDate(), startDate, endDate));
+    }
+
+    @Override
+    public synchronized boolean contains(String id) throws ExecutionException {
+        return getBoundary() != null && idIndex().containsKey(id);
+    }
+
+    @Override
+    public synchronized void deleteById(String id) throws ExecutionException {
+        if (getBoundary() == null) {
+            return;
+        }
+        YearMonth month = idIndex().remove(id);
+        if (month == null) {
+            return;
+        }
+        try {
+            Map<String, Map<String, Object>> rows = readMonth(month);
+            rows.remove(id);
+            writeMonth(month, rows.values());
+            log.debug("Deleted archived work record with ID: {}", id);
+        } catch (IOException e) {
+            log.error("Error deleting archived work record: {}", id, e);
+            throw new ExecutionException("Archive error", e);
+        }
+    }
+
+    /**
+     * Az érintett hónapfájlok olvasása; employeeId megadásakor a többi dolgozó sorai feloldás nélkül kimaradnak
+     */
+    private synchronized List<WorkRecord> scan(LocalDate startDate, LocalDate endDate, String employeeId,
+                                               Predicate<WorkRecord> filter)
+            throws ExecutionException, InterruptedException {
+        List<WorkRecord> records = new ArrayList<>();
+        LocalDate limit = getBoundary();
+        if (limit == null || !startDate.isBefore(limit)) {
+            return records;
+        }
+
+        Map<String, Employee> employees = new HashMap<>();
+        try {
+            for (YearMonth month : archivedMonths()) {
+                if (month.atEndOfMonth().isBefore(startDate) || month.atDay(1).isAfter(endDate)) {
+                    continue;
+                }
+                for (Map<String, Object> row : readMonth(month).values()) {
+                    if (employeeId != null && !employeeId.equals(row.get("employeeId"))) {
+                        continue;
+                    }
+                    WorkRecord record = WorkRecord.fromMap(row);
+                    record.setEmployee(resolveEmployee(row, employees));
+                    if (filter.test(record)) {
+                        records.add(record);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error reading work record archive in {}", directory, e);
+            throw new ExecutionException("Archive error", e);
+        }
+        log.debug("Found {} archived work records", records.size());
+        return records;
+    }
+
+    private Employee resolveEmployee(Map<String, Object> row, Map<String, Employee> employees)
+            throws ExecutionException, InterruptedException {
+        String employeeId = (String) row.get("employeeId");
+        Employee employee = employees.get(employeeId);
+        if (employee == null) {
+            Optional<Employee> current = employeeRepository.findById(employeeId);
+            if (current.isPresent()) {
+                employee = current.get();
+            } else {
+                // Minimális dolgozó adat az archiváláskori névvel
+                employee = new Employee();
+                employee.setId(employeeId);
+                employee.setName((String) row.get("employeeName"));
+            }
+            employees.put(employeeId, employee);
+        }
+        return employee;
+    }
+
+    private Map<String, YearMonth> idIndex() throws ExecutionException {
+        if (idIndex == null) {
+            Map<String, YearMonth> index = new HashMap<>();
+            try {
+                for (YearMonth month : archivedMonths()) {
+                    for (String id : readMonth(month).keySet()) {
+                        index.put(id, month);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Error indexing work record archive in {}", directory, e);
+                throw new ExecutionException("Archive error", e);
+            }
+            idIndex = index;
+        }
+        return idIndex;
+    }
+
+    private List<YearMonth> archivedMonths() throws IOException {
+        List<YearMonth> months = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return months;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                    .map(name -> name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()))
+                    .map(month -> YearMonth.parse(month, MONTH_FORMAT))
+                    .sorted()
+                    .forEach(months::add);
+        }
+        return months;
+    }
+
+    private Path monthFile(YearMonth month) {
+        return directory.resolve(FILE_PREFIX + month.format(MONTH_FORMAT) + FILE_SUFFIX);
+    }
+
+    private Map<String, Map<String, Object>> readMonth(YearMonth month) throws IOException {
+        Map<String, Map<String, Object>> rows = new LinkedHashMap<>();
+        Path file = monthFile(month);
+        if (!Files.exists(file)) {
+            return rows;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    Map<String, Object> row = objectMapper.readValue(line, MAP_TYPE);
+                    rows.put((String) row.get("id"), row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Ideiglenes fájlba írás, majd atomi csere, hogy egy megszakadt írás ne rontsa el a meglévő hónapot
+     */
+    private void writeMonth(YearMonth month, Iterable<Map<String, Object>> rows) throws IOException {
+        Path file = monthFile(month);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            for (Map<String, Object> row : rows) {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeBoundary(LocalDate cutoff) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("boundary", cutoff.toString());
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(BOUNDARY_FILE), StandardCharsets.UTF_8)) {
+            properties.store(writer, "Work record archive boundary (exclusive)");
+        }
+        boundary = cutoff;
+        boundaryLoaded = true;
+    }
+
+    private static boolean inRange(LocalDate date, LocalDate startDate, LocalDate endDate) {
+        return date != null && !date.isBefore(startDate) && !date.isAfter(endDate);
+    }
+}
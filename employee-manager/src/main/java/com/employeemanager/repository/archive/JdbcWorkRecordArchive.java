@@ -0,0 +1,308 @@
+package com.employeemanager.repository.archive;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.interfaces.WorkRecordRepository.StreamOrder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Archív réteg a work_records_archive táblában (séma 1.2)
+ * A határ a database_info táblában (archive_boundary) tárolódik
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JdbcWorkRecordArchive implements WorkRecordArchive {
+
+    private static final String BOUNDARY_KEY = "archive_boundary";
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String COLUMNS = "id, employee_id, notification_date, notification_time, ebev_serial_number,"
+            + " work_date, payment, hours_worked, created_at";
+
+    private static final String SELECT = """
+            SELECT wr.id, wr.employee_id, wr.notification_date, wr.notification_time, wr.ebev_serial_number,
+                   wr.work_date, wr.payment, wr.hours_worked, wr.created_at,
+                   e.name AS employee_name, e.birth_place, e.birth_date, e.mother_name,
+                   e.tax_number, e.social_security_number, e.address
+            FROM work_records_archive wr
+            JOIN employees e ON wr.employee_id = e.id
+            """;
+
+    private final DataSource dataSource;
+
+    private volatile LocalDate boundary;
+    private volatile boolean boundaryLoaded;
+
+    @Override
+    public LocalDate getBoundary() throws ExecutionException {
+        if (!boundaryLoaded) {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(
+                         "SELECT property_value FROM database_info WHERE property_key = ?")) {
+                ps.setString(1, BOUNDARY_KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    boundary = rs.next() ? LocalDate.parse(rs.getString(1)) : null;
+                }
+                boundaryLoaded = true;
+            } catch (SQLException e) {
+                log.error("Error reading archive boundary", e);
+                throw new ExecutionException("Database error", e);
+            }
+        }
+        return boundary;
+    }
+
+    /**
+     * Áthelyezés egy tranzakcióban: INSERT ... SELECT, majd DELETE ugyanarra a feltételre
+     */
+    @Override
+    public synchronized int archiveBefore(LocalDate cutoff) throws ExecutionException {
+        LocalDate current = getBoundary();
+        if (current != null && !cutoff.isAfter(current)) {
+            log.info("Work records before {} are already archived", current);
+            return 0;
+        }
+
+        String condition = " WHERE work_date < ? AND notification_date < ?";
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                int moved;
+                try (PreparedStatement insert = conn.prepareStatement("INSERT INTO work_records_archive (" + COLUMNS
+                        + ") SELECT " + COLUMNS + " FROM work_records" + condition)) {
+                    insert.setDate(1, Date.valueOf(cutoff));
+                    insert.setDate(2, Date.valueOf(cutoff));
+                    moved = insert.executeUpdate();
+                }
+                try (PreparedStatement delete = conn.prepareStatement("DELETE FROM work_records" + condition)) {
+                    delete.setDate(1, Date.valueOf(cutoff));
+                    delete.setDate(2, Date.valueOf(cutoff));
+                    delete.executeUpdate();
+                }
+                writeBoundary(conn, cutoff);
+                conn.commit();
+                boundary = cutoff;
+                boundaryLoaded = true;
+                log.info("Archived {} work records before {}", moved, cutoff);
+                return moved;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("Error archiving work records before {}", cutoff, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public Optional<WorkRecord> findById(String id) throws ExecutionException {
+        List<WorkRecord> records = query(SELECT + " WHERE wr.id = ?", id);
+        return records.isEmpty() ? Optional.empty() : Optional.of(records.get(0));
+    }
+
+    @Override
+    public List<WorkRecord> findByWorkDateBetween(LocalDate startDate, LocalDate endDate) throws ExecutionException {
+        return query(SELECT + " WHERE wr.work_date BETWEEN ? AND ?", startDate, endDate);
+    }
+
+    @Override
+    public void streamByWorkDateBetween(LocalDate startDate, LocalDate endDate, StreamOrder order,
+                                        Consumer<WorkRecord> consumer) throws ExecutionException {
+        String orderBy = switch (order) {
+            case NOTIFICATION -> "wr.notification_date, wr.notification_time, wr.ebev_serial_number, wr.work_date, e.name";
+            case WORK_DATE_DESC -> "wr.work_date DESC, e.name";
+        };
+        Map<String, Employee> employees = new HashMap<>();
+        long count = 0;
+
+        try (Connection conn = dataSource.getConnection()) {
+            // PostgreSQL csak tranzakción belül használ szerver oldali kurzort
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    SELECT + " WHERE wr.work_date BETWEEN ? AND ? ORDER BY " + orderBy,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(STREAM_FETCH_SIZE);
+                ps.setDate(1, Date.valueOf(startDate));
+                ps.setDate(2, Date.valueOf(endDate));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapRow(rs, employees));
+                        count++;
+                    }
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+            log.debug("Streamed {} archived work records", count);
+        } catch (SQLException e) {
+            log.error("Error streaming work record archive", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public long countByWorkDateBetween(LocalDate startDate, LocalDate endDate) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("""
+                     SELECT COUNT(*) FROM work_records_archive wr
+                     JOIN employees e ON wr.employee_id = e.id
+                     WHERE wr.work_date BETWEEN ? AND ?
+                     """)) {
+            ps.setDate(1, Date.valueOf(startDate));
+            ps.setDate(2, Date.valueOf(endDate));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            log.error("Error counting archived work records", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
+            throws ExecutionException {
+        return query(SELECT + " WHERE wr.employee_id = ? AND wr.work_date BETWEEN ? AND ?", employeeId, startDate, endDate);
+    }
+
+    @Override
+    public List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException {
+        return query(SELECT + " WHERE wr.notification_date BETWEEN ? AND ?", startDate, endDate);
+    }
+
+    @Override
+    public boolean contains(String id) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM work_records_archive WHERE id = ?")) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            log.error("Error looking up archived work record: {}", id, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @Override
+    public void deleteById(String id) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM work_records_archive WHERE id = ?")) {
+            ps.setString(1, id);
+            if (ps.executeUpdate() > 0) {
+                log.debug("Deleted archived work record with ID: {}", id);
+            }
+        } catch (SQLException e) {
+            log.error("Error deleting archived work record: {}", id, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    private List<WorkRecord> query(String sql, Object... params) throws ExecutionException {
+        List<WorkRecord> records = new ArrayList<>();
+        Map<String, Employee> employees = new HashMap<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                if (params[i] instanceof LocalDate) {
+                    ps.setDate(i + 1, Date.valueOf((LocalDate) params[i]));
+                } else {
+                    ps.setString(i + 1, (String) params[i]);
+                }
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    records.add(mapRow(rs, employees));
+                }
+            }
+            log.debug("Found {} archived work records", records.size());
+            return records;
+        } catch (SQLException e) {
+            log.error("Error reading work record archive", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    private WorkRecord mapRow(ResultSet rs, Map<String, Employee> employees) throws SQLException {
+        WorkRecord record = new WorkRecord();
+        record.setId(rs.getString("id"));
+
+        String employeeId = rs.getString("employee_id");
+        Employee employee = employees.get(employeeId);
+        if (employee == null) {
+            employee = new Employee();
+            employee.setId(employeeId);
+            employee.setName(rs.getString("employee_name"));
+            employee.setBirthPlace(rs.getString("birth_place"));
+            Date birthDate = rs.getDate("birth_date");
+            if (birthDate != null) {
+                employee.setBirthDate(birthDate.toLocalDate());
+            }
+            employee.setMotherName(rs.getString("mother_name"));
+            employee.setTaxNumber(rs.getString("tax_number"));
+            employee.setSocialSecurityNumber(rs.getString("social_security_number"));
+            employee.setAddress(rs.getString("address"));
+            employees.put(employeeId, employee);
+        }
+        record.setEmployee(employee);
+
+        record.setNotificationDate(rs.getDate("notification_date").toLocalDate());
+        Time notificationTime = rs.getTime("notification_time");
+        if (notificationTime != null) {
+            record.setNotificationTime(notificationTime.toLocalTime());
+        }
+        record.setEbevSerialNumber(rs.getString("ebev_serial_number"));
+        record.setWorkDate(rs.getDate("work_date").toLocalDate());
+        record.setPayment(rs.getBigDecimal("payment"));
+        record.setHoursWorked(rs.getInt("hours_worked"));
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            record.setCreatedAt(createdAt.toLocalDateTime());
+        }
+        return record;
+    }
+
+    private static void writeBoundary(Connection conn, LocalDate cutoff) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE database_info SET property_value = ?, updated_at = CURRENT_TIMESTAMP WHERE property_key = ?")) {
+            update.setString(1, cutoff.toString());
+            update.setString(2, BOUNDARY_KEY);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO database_info (property_key, property_value) VALUES (?, ?)")) {
+            insert.setString(1, BOUNDARY_KEY);
+            insert.setString(2, cutoff.toString());
+            insert.executeUpdate();
+        }
+    }
+}
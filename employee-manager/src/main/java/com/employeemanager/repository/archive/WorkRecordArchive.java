@@ -0,0 +1,68 @@
+package com.employeemanager.repository.archive;
+
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.interfaces.WorkRecordRepository.StreamOrder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Munkanaplók hideg rétege
+ *
+ * Az archívumban csak olyan munkanapló van, amelynek munkavégzési és bejelentési dátuma is a határ előtt van,
+ * így egy lekérdezésnek csak akkor kell az archívumot olvasnia, ha a kezdő dátuma a határ elé esik.
+ */
+public interface WorkRecordArchive {
+
+    /**
+     * Az archiválás határa (kizárólagos); null, ha még nincs archivált adat
+     */
+    LocalDate getBoundary() throws ExecutionException;
+
+    /**
+     * A határ előtti munkanaplók áthelyezése az archívumba
+     *
+     * @return az áthelyezett munkanaplók száma
+     */
+    int archiveBefore(LocalDate cutoff) throws ExecutionException, InterruptedException;
+
+    Optional<WorkRecord> findById(String id) throws ExecutionException, InterruptedException;
+
+    List<WorkRecord> findByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException;
+
+    /**
+     * Archív munkanaplók soronkénti átadása munkavégzés dátuma szerint, a megadott sorrendben.
+     * Az alapértelmezett megvalósítás a listás lekérdezésre épül.
+     */
+    default void streamByWorkDateBetween(LocalDate startDate, LocalDate endDate, StreamOrder order,
+                                         Consumer<WorkRecord> consumer)
+            throws ExecutionException, InterruptedException {
+        List<WorkRecord> records = new ArrayList<>(findByWorkDateBetween(startDate, endDate));
+        records.sort(order.comparator());
+        records.forEach(consumer);
+    }
+
+    /**
+     * Archív munkanaplók száma munkavégzés dátuma szerint.
+     * Az alapértelmezett megvalósítás a listás lekérdezésre épül.
+     */
+    default long countByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return findByWorkDateBetween(startDate, endDate).size();
+    }
+
+    List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException;
+
+    List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException;
+
+    boolean contains(String id) throws ExecutionException;
+
+    void deleteById(String id) throws ExecutionException;
+}
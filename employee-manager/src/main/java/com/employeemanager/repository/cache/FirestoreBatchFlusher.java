@@ -0,0 +1,147 @@
+package com.employeemanager.repository.cache;
+
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tartós sor háttérszálas, kötegelt kiírása a Firestore-ba
+ *
+ * Egy háttérszál időközönként kötegenként üríti a sort (writeBatch), amíg ki nem ürül; hibánál exponenciálisan
+ * növekvő várakozással újrapróbálja. A leszármazott csak a köteg összeállítását és nyugtázását adja
+ * (lásd FirestoreWriteBehindQueue, FirestoreReplicator).
+ */
+@Slf4j
+public abstract class FirestoreBatchFlusher implements AutoCloseable {
+
+    // Egy Firestore köteg legfeljebb 500 írás; a törlés a sírkővel együtt kettő
+    protected static final int MAX_BATCH_SIZE = 250;
+    private static final long COMMIT_TIMEOUT_SECONDS = 30;
+
+    protected final Firestore firestore;
+    protected final int batchSize;
+    private final String description;
+    private final long intervalMillis;
+    private final long maxBackoffMillis;
+    private final ScheduledExecutorService worker;
+
+    private volatile int consecutiveFailures;
+    private long nextAttemptMillis;
+
+    /**
+     * @param threadName  a háttérszál neve
+     * @param description a naplóüzenetekben használt megnevezés
+     */
+    protected FirestoreBatchFlusher(String threadName, String description, Firestore firestore, int batchSize,
+                                    Duration interval, Duration maxBackoff) {
+        this.firestore = firestore;
+        this.description = description;
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        this.intervalMillis = Math.max(1, interval.toMillis());
+        this.maxBackoffMillis = Math.max(intervalMillis, maxBackoff.toMillis());
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A háttérszál indítása; a leszármazott konstruktorának végén, a mezői beállítása után hívandó
+     */
+    protected final void start() {
+        worker.scheduleWithFixedDelay(this::scheduledDrain, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Egy legfeljebb batchSize méretű köteg kiírása és nyugtázása
+     *
+     * @return a feldolgozott bejegyzések száma, 0 ha a sor üres
+     */
+    protected abstract int writeBatch() throws ExecutionException, InterruptedException;
+
+    /**
+     * A még ki nem írt bejegyzések száma
+     */
+    protected abstract long pending() throws ExecutionException;
+
+    /**
+     * A sor kiírása kötegekben, amíg ki nem ürül
+     *
+     * @return a feldolgozott bejegyzések száma
+     */
+    protected final synchronized int drain() throws ExecutionException, InterruptedException {
+        int drained = 0;
+        int written;
+        while ((written = writeBatch()) > 0) {
+            drained += written;
+        }
+        return drained;
+    }
+
+    protected final void commit(WriteBatch batch) throws ExecutionException, InterruptedException {
+        try {
+            batch.commit().get(COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new ExecutionException("Firestore commit timed out", e);
+        }
+    }
+
+    /**
+     * A háttérszál leállítása egy utolsó kiírási kísérlettel; ami nem ment ki, a sorban marad
+     */
+    @Override
+    public void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            // Elérhetetlen Firestore esetén nem várakoztatjuk a leállítást
+            if (consecutiveFailures == 0) {
+                drain();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            // Pl. már lezárt Firestore kliens: a sor megmarad, a leállítás folytatódik
+            log.warn("Final {} attempt failed: {}", description, e.getMessage());
+        }
+        try {
+            long remaining = pending();
+            if (remaining > 0) {
+                log.warn("{} entries of {} remain and will be sent on next start", remaining, description);
+            }
+        } catch (ExecutionException e) {
+            log.warn("Could not count pending entries of {}: {}", description, e.getMessage());
+        }
+    }
+
+    private void scheduledDrain() {
+        long now = System.currentTimeMillis();
+        if (now < nextAttemptMillis) {
+            return;
+        }
+        try {
+            int drained = drain();
+            if (consecutiveFailures > 0) {
+                log.info("{} recovered, {} pending entries sent", description, drained);
+            }
+            consecutiveFailures = 0;
+            nextAttemptMillis = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            int failures = consecutiveFailures + 1;
+            consecutiveFailures = failures;
+            long backoff = Math.min(maxBackoffMillis, intervalMillis << Math.min(failures, 20));
+            nextAttemptMillis = now + backoff;
+            log.warn("{} failed ({} attempts), retrying in {} ms: {}", description, failures, backoff, e.getMessage());
+        }
+    }
+}
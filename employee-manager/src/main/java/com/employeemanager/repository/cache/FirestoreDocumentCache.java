@@ -0,0 +1,345 @@
+package com.employeemanager.repository.cache;
+
+import com.employeemanager.repository.cache.LocalDocumentStore.SyncState;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntConsumer;
+
+/**
+ * Firestore gyűjtemények helyi, tartós gyorsítótára (offline-first olvasás)
+ *
+ * A dokumentumok memóriában és egy H2 fájlban (LocalDocumentStore) is megvannak. Az első teljes letöltés után
+ * csak az utolsó szinkron óta módosult dokumentumok jönnek le: a mentések a _updatedAt mezőbe szerver
+ * időbélyeget írnak, a törlések pedig egy {@code <gyűjtemény>_deleted} sírkő dokumentumot. A régebbi kliensek
+ * által írt (időbélyeg nélküli) módosításokat és a sírkő nélküli törléseket az időszakos teljes letöltés hozza be.
+ * Ugyanezért a fullSyncInterval-nál (és az óraeltérésnél) régebbi sírköveket a teljes letöltés törli: az ennél
+ * régebben szinkronizált kliensek úgyis teljes letöltéssel kezdenek.
+ * Ha a Firestore nem érhető el, a helyi példány szolgálja ki az olvasásokat.
+ * Késleltetett írásnál (startWriteBehind) a még ki nem írt módosítások szinkron után is érvényben maradnak.
+ */
+@Slf4j
+public class FirestoreDocumentCache implements AutoCloseable {
+
+    /** Szerver időbélyeg a dokumentum utolsó módosításáról */
+    public static final String UPDATED_AT = "_updatedAt";
+
+    /** A törlések sírkő gyűjteményének utótagja */
+    public static final String TOMBSTONE_SUFFIX = "_deleted";
+
+    // Időbélyeg nélküli adatoknál ennyivel korábbról indul a változáskövetés (kliens és szerver óraeltérése)
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(5);
+
+    // Egy sírkő törlő köteg mérete (Firestore köteg legfeljebb 500 írás)
+    private static final int TOMBSTONE_PRUNE_BATCH_SIZE = 500;
+
+    private final Firestore firestore;
+    private final LocalDocumentStore store;
+    private final Duration syncInterval;
+    private final Duration fullSyncInterval;
+    private final Map<String, CachedCollection> collections = new ConcurrentHashMap<>();
+    private volatile FirestoreWriteBehindQueue writeBehind;
+
+    public FirestoreDocumentCache(Firestore firestore, Path directory, Duration syncInterval,
+                                  Duration fullSyncInterval) throws ExecutionException {
+        this.firestore = firestore;
+        this.store = new LocalDocumentStore(directory);
+        this.syncInterval = syncInterval;
+        this.fullSyncInterval = fullSyncInterval;
+    }
+
+    /**
+     * A gyűjtemény összes dokumentuma ("id" kulccsal), szükség esetén szinkronizálás után
+     *
+     * @param documentsRead a Firestore-ból olvasott dokumentumok száma (számlázás)
+     */
+    public List<Map<String, Object>> documents(String collection, IntConsumer documentsRead)
+            throws ExecutionException, InterruptedException {
+        CachedCollection cached = synced(collection, documentsRead);
+        List<Map<String, Object>> result = new ArrayList<>(cached.documents.size());
+        for (Map<String, Object> data : cached.documents.values()) {
+            result.add(new HashMap<>(data));
+        }
+        return result;
+    }
+
+    public Optional<Map<String, Object>> document(String collection, String id, IntConsumer documentsRead)
+            throws ExecutionException, InterruptedException {
+        Map<String, Object> data = synced(collection, documentsRead).documents.get(id);
+        return data != null ? Optional.of(new HashMap<>(data)) : Optional.empty();
+    }
+
+    public int size(String collection, IntConsumer documentsRead) throws ExecutionException, InterruptedException {
+        return synced(collection, documentsRead).documents.size();
+    }
+
+    /**
+     * Sikeres Firestore írás átvezetése a helyi példányra
+     */
+    public void put(String collection, String id, Map<String, Object> data) {
+        Map<String, Object> copy = new HashMap<>(data);
+        copy.remove(UPDATED_AT);
+        copy.put("id", id);
+        CachedCollection cached = collections.get(collection);
+        if (cached != null) {
+            cached.documents.put(id, copy);
+        }
+        try {
+            store.apply(collection, Map.of(id, copy), List.of(), null);
+        } catch (ExecutionException e) {
+            // A következő változáslekérdezés úgyis visszahozza a dokumentumot
+            log.warn("Could not write document {} of {} to the local cache: {}", id, collection, e.getMessage());
+        }
+    }
+
+    /**
+     * Sikeres Firestore törlés átvezetése a helyi példányra
+     */
+    public void remove(String collection, String id) {
+        CachedCollection cached = collections.get(collection);
+        if (cached != null) {
+            cached.documents.remove(id);
+        }
+        try {
+            store.apply(collection, Map.of(), List.of(id), null);
+        } catch (ExecutionException e) {
+            log.warn("Could not remove document {} of {} from the local cache: {}", id, collection, e.getMessage());
+        }
+    }
+
+    /**
+     * Késleltetett írás indítása a gyorsítótár naplójával
+     */
+    public synchronized FirestoreWriteBehindQueue startWriteBehind(int batchSize, Duration flushInterval,
+                                                                   Duration maxBackoff) {
+        if (writeBehind == null) {
+            writeBehind = new FirestoreWriteBehindQueue(firestore, store, batchSize, flushInterval, maxBackoff);
+        }
+        return writeBehind;
+    }
+
+    /**
+     * Az előző futásokból a naplóban maradt, ki nem írt módosítások száma
+     */
+    public int pendingWriteCount() throws ExecutionException {
+        return store.pendingWriteCount();
+    }
+
+    /**
+     * A késleltetett írás sora; null, ha az írások közvetlenül a Firestore-ba mennek
+     */
+    public FirestoreWriteBehindQueue getWriteBehind() {
+        return writeBehind;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writeBehind != null) {
+            writeBehind.close();
+            writeBehind = null;
+        }
+        store.close();
+    }
+
+    private CachedCollection synced(String collection, IntConsumer documentsRead)
+            throws ExecutionException, InterruptedException {
+        CachedCollection cached = collections.computeIfAbsent(collection, CachedCollection::new);
+        cached.syncIfDue(documentsRead);
+        return cached;
+    }
+
+    private static Timestamp later(Timestamp a, Timestamp b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.compareTo(a) > 0 ? b : a;
+    }
+
+    /**
+     * A dokumentum adatai "id" kulccsal, a módosítási időbélyeg nélkül
+     */
+    private static Map<String, Object> documentData(QueryDocumentSnapshot document) {
+        Map<String, Object> data = new HashMap<>(document.getData());
+        data.remove(UPDATED_AT);
+        data.put("id", document.getId());
+        return data;
+    }
+
+    private static Map<String, Object> localData(PendingWrite write) {
+        Map<String, Object> data = new HashMap<>(write.getData());
+        data.put("id", write.getId());
+        return data;
+    }
+
+    private final class CachedCollection {
+        final String name;
+        final Map<String, Map<String, Object>> documents = new ConcurrentHashMap<>();
+        SyncState state;
+        boolean loaded;
+        boolean synced;
+        long lastSyncNanos;
+
+        CachedCollection(String name) {
+            this.name = name;
+        }
+
+        synchronized void syncIfDue(IntConsumer documentsRead) throws ExecutionException, InterruptedException {
+            long now = System.nanoTime();
+            if (synced && now - lastSyncNanos < syncInterval.toNanos()) {
+                return;
+            }
+            if (!loaded) {
+                documents.putAll(store.load(name));
+                state = store.loadState(name).orElse(null);
+                loaded = true;
+                log.info("Loaded {} cached documents of {} from local store", documents.size(), name);
+            }
+            try {
+                if (state == null || state.getLastFullSync().plus(fullSyncInterval).isBefore(Instant.now())) {
+                    fullSync(documentsRead);
+                } else {
+                    deltaSync(documentsRead);
+                }
+            } catch (ExecutionException e) {
+                if (state == null) {
+                    throw e;
+                }
+                log.warn("Firestore sync of {} failed, serving {} cached documents: {}",
+                        name, documents.size(), e.getMessage());
+            }
+            // Sikertelen szinkron után is csak a következő intervallumban próbálkozunk újra
+            synced = true;
+            lastSyncNanos = now;
+        }
+
+        private void fullSync(IntConsumer documentsRead) throws ExecutionException, InterruptedException {
+            Instant started = Instant.now();
+            QuerySnapshot snapshot = firestore.collection(name).get().get();
+            documentsRead.accept(Math.max(1, snapshot.size()));
+
+            Map<String, Map<String, Object>> downloaded = new HashMap<>(snapshot.size() * 4 / 3 + 1);
+            Timestamp watermark = null;
+            for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                watermark = later(watermark, document.getTimestamp(UPDATED_AT));
+                downloaded.put(document.getId(), documentData(document));
+            }
+            if (watermark == null) {
+                watermark = Timestamp.ofTimeSecondsAndNanos(started.minus(CLOCK_SKEW).getEpochSecond(), 0);
+            }
+            // A még ki nem írt helyi módosítások felülírják a letöltött állapotot
+            for (PendingWrite write : store.pendingWrites(name)) {
+                if (write.isDelete()) {
+                    downloaded.remove(write.getId());
+                } else {
+                    downloaded.put(write.getId(), localData(write));
+                }
+            }
+
+            SyncState newState = new SyncState(watermark, started);
+            store.replaceAll(name, downloaded, newState);
+            documents.keySet().retainAll(downloaded.keySet());
+            documents.putAll(downloaded);
+            state = newState;
+            log.info("Full sync of {}: {} documents", name, downloaded.size());
+
+            pruneTombstones(started, documentsRead);
+        }
+
+        /**
+         * A fullSyncInterval-nál régebbi sírkövek törlése; hiba esetén a következő teljes letöltés próbálja újra
+         */
+        private void pruneTombstones(Instant now, IntConsumer documentsRead) throws InterruptedException {
+            Instant cutoff = now.minus(fullSyncInterval).minus(CLOCK_SKEW);
+            Timestamp before = Timestamp.ofTimeSecondsAndNanos(cutoff.getEpochSecond(), cutoff.getNano());
+            int pruned = 0;
+            try {
+                while (true) {
+                    QuerySnapshot expired = firestore.collection(name + TOMBSTONE_SUFFIX)
+                            .whereLessThan(UPDATED_AT, before)
+                            .limit(TOMBSTONE_PRUNE_BATCH_SIZE)
+                            .get()
+                            .get();
+                    documentsRead.accept(Math.max(1, expired.size()));
+                    if (expired.isEmpty()) {
+                        break;
+                    }
+                    WriteBatch batch = firestore.batch();
+                    for (QueryDocumentSnapshot tombstone : expired.getDocuments()) {
+                        batch.delete(tombstone.getReference());
+                    }
+                    batch.commit().get();
+                    pruned += expired.size();
+                    if (expired.size() < TOMBSTONE_PRUNE_BATCH_SIZE) {
+                        break;
+                    }
+                }
+            } catch (ExecutionException e) {
+                log.warn("Could not prune deletion tombstones of {}: {}", name, e.getMessage());
+            }
+            if (pruned > 0) {
+                log.info("Pruned {} deletion tombstones of {} older than {}", pruned, name, cutoff);
+            }
+        }
+
+        private void deltaSync(IntConsumer documentsRead) throws ExecutionException, InterruptedException {
+            Timestamp since = state.getWatermark();
+            QuerySnapshot deletedSnapshot = firestore.collection(name + TOMBSTONE_SUFFIX)
+                    .whereGreaterThanOrEqualTo(UPDATED_AT, since)
+                    .get()
+                    .get();
+            QuerySnapshot changedSnapshot = firestore.collection(name)
+                    .whereGreaterThanOrEqualTo(UPDATED_AT, since)
+                    .get()
+                    .get();
+            documentsRead.accept(Math.max(1, deletedSnapshot.size()) + Math.max(1, changedSnapshot.size()));
+
+            Timestamp watermark = since;
+            Set<String> deleted = new HashSet<>();
+            for (QueryDocumentSnapshot tombstone : deletedSnapshot.getDocuments()) {
+                watermark = later(watermark, tombstone.getTimestamp(UPDATED_AT));
+                deleted.add(tombstone.getId());
+            }
+            // Törlés utáni újramentésnél a dokumentum marad
+            Map<String, Map<String, Object>> changed = new HashMap<>();
+            for (QueryDocumentSnapshot document : changedSnapshot.getDocuments()) {
+                watermark = later(watermark, document.getTimestamp(UPDATED_AT));
+                changed.put(document.getId(), documentData(document));
+                deleted.remove(document.getId());
+            }
+            for (PendingWrite write : store.pendingWrites(name)) {
+                if (write.isDelete()) {
+                    changed.remove(write.getId());
+                    deleted.add(write.getId());
+                } else {
+                    changed.put(write.getId(), localData(write));
+                    deleted.remove(write.getId());
+                }
+            }
+
+            SyncState newState = new SyncState(watermark, state.getLastFullSync());
+            store.apply(name, changed, deleted, newState);
+            documents.keySet().removeAll(deleted);
+            documents.putAll(changed);
+            state = newState;
+            if (!changed.isEmpty() || !deleted.isEmpty()) {
+                log.info("Delta sync of {}: {} changed, {} deleted", name, changed.size(), deleted.size());
+            }
+        }
+    }
+}
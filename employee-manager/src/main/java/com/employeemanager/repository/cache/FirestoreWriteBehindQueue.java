@@ -0,0 +1,98 @@
+package com.employeemanager.repository.cache;
+
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Késleltetett (write-behind) Firestore írás
+ *
+ * A mentések és törlések a helyi naplóba kerülnek (LocalDocumentStore), és a hívó azonnal visszakapja a
+ * vezérlést. Egy háttérszál időközönként kötegekben írja ki őket (lásd FirestoreBatchFlusher). A napló
+ * összeomlás után is megmarad, a következő induláskor a kiírás folytatódik.
+ */
+@Slf4j
+public class FirestoreWriteBehindQueue extends FirestoreBatchFlusher {
+
+    private final LocalDocumentStore store;
+
+    public FirestoreWriteBehindQueue(Firestore firestore, LocalDocumentStore store, int batchSize,
+                                     Duration flushInterval, Duration maxBackoff) {
+        super("firestore-write-behind", "write-behind flush", firestore, batchSize, flushInterval, maxBackoff);
+        this.store = store;
+        start();
+    }
+
+    public void enqueueSet(String collection, String id, Map<String, Object> data) throws ExecutionException {
+        Map<String, Map<String, Object>> documents = new HashMap<>();
+        documents.put(id, data);
+        store.enqueue(collection, documents);
+    }
+
+    /**
+     * Több dokumentum mentése egy naplóbejegyzés-tranzakcióban
+     */
+    public void enqueueSetAll(String collection, Map<String, Map<String, Object>> documents)
+            throws ExecutionException {
+        store.enqueue(collection, documents);
+    }
+
+    public void enqueueDelete(String collection, String id) throws ExecutionException {
+        Map<String, Map<String, Object>> documents = new HashMap<>();
+        documents.put(id, null);
+        store.enqueue(collection, documents);
+    }
+
+    public int pendingCount() throws ExecutionException {
+        return store.pendingWriteCount();
+    }
+
+    /**
+     * A napló kiírása kötegekben, amíg ki nem ürül
+     *
+     * @return a kiírt módosítások száma
+     */
+    public int flush() throws ExecutionException, InterruptedException {
+        return drain();
+    }
+
+    @Override
+    protected int writeBatch() throws ExecutionException, InterruptedException {
+        List<PendingWrite> writes = store.pendingWrites(batchSize);
+        if (writes.isEmpty()) {
+            return 0;
+        }
+
+        WriteBatch batch = firestore.batch();
+        for (PendingWrite write : writes) {
+            if (write.isDelete()) {
+                batch.delete(firestore.collection(write.getCollection()).document(write.getId()));
+                batch.set(firestore.collection(write.getCollection() + FirestoreDocumentCache.TOMBSTONE_SUFFIX)
+                                .document(write.getId()),
+                        Map.of(FirestoreDocumentCache.UPDATED_AT, FieldValue.serverTimestamp()));
+            } else {
+                Map<String, Object> data = new LinkedHashMap<>(write.getData());
+                data.put(FirestoreDocumentCache.UPDATED_AT, FieldValue.serverTimestamp());
+                batch.set(firestore.collection(write.getCollection()).document(write.getId()), data);
+            }
+        }
+        commit(batch);
+
+        store.completeWrites(writes);
+        log.debug("Flushed {} pending writes to Firestore", writes.size());
+        return writes.size();
+    }
+
+    @Override
+    protected long pending() throws ExecutionException {
+        return store.pendingWriteCount();
+    }
+}
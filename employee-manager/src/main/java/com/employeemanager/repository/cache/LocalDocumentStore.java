@@ -0,0 +1,318 @@
+package com.employeemanager.repository.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Dokumentumok helyi tárolása beágyazott H2 fájl adatbázisban
+ *
+ * Gyűjteményenként a dokumentumok JSON formában és a szinkronizálás állapota (utolsó látott módosítási idő,
+ * utolsó teljes letöltés). Az alkalmazás indításakor innen töltődik vissza a gyorsítótár.
+ * A pending_writes tábla a késleltetett írás naplója: dokumentumonként egy sor, így az ismételt módosítások
+ * összevonódnak. A commit azonnal lemezre kerül (WRITE_DELAY=0), hogy a napló összeomlás után is megmaradjon.
+ */
+@Slf4j
+public class LocalDocumentStore implements AutoCloseable {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcConnectionPool pool;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public LocalDocumentStore(Path directory) throws ExecutionException {
+        String url = "jdbc:h2:file:" + directory.toAbsolutePath().resolve("documents") + ";DB_CLOSE_ON_EXIT=FALSE;WRITE_DELAY=0";
+        pool = JdbcConnectionPool.create(url, "sa", "");
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS cached_documents ("
+                    + "collection_name VARCHAR(100) NOT NULL, "
+                    + "id VARCHAR(255) NOT NULL, "
+                    + "data CLOB NOT NULL, "
+                    + "PRIMARY KEY (collection_name, id))");
+            statement.execute("CREATE TABLE IF NOT EXISTS cache_sync_state ("
+                    + "collection_name VARCHAR(100) PRIMARY KEY, "
+                    + "watermark_seconds BIGINT NOT NULL, "
+                    + "watermark_nanos INT NOT NULL, "
+                    + "last_full_sync TIMESTAMP WITH TIME ZONE NOT NULL)");
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS pending_write_seq");
+            statement.execute("CREATE TABLE IF NOT EXISTS pending_writes ("
+                    + "collection_name VARCHAR(100) NOT NULL, "
+                    + "id VARCHAR(255) NOT NULL, "
+                    + "data CLOB, "
+                    + "seq BIGINT NOT NULL, "
+                    + "PRIMARY KEY (collection_name, id))");
+        } catch (SQLException e) {
+            pool.dispose();
+            log.error("Error opening local document store: {}", directory, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * A gyűjtemény összes tárolt dokumentuma azonosító szerint
+     */
+    public Map<String, Map<String, Object>> load(String collection) throws ExecutionException {
+        String sql = "SELECT id, data FROM cached_documents WHERE collection_name = ?";
+        Map<String, Map<String, Object>> documents = new HashMap<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, collection);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    documents.put(rs.getString("id"), objectMapper.readValue(rs.getString("data"), MAP_TYPE));
+                }
+            }
+            return documents;
+        } catch (SQLException | JsonProcessingException e) {
+            log.error("Error loading cached documents of {}", collection, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * A gyűjtemény szinkronizálási állapota; üres, ha még nem volt teljes letöltés
+     */
+    public Optional<SyncState> loadState(String collection) throws ExecutionException {
+        String sql = "SELECT watermark_seconds, watermark_nanos, last_full_sync FROM cache_sync_state "
+                + "WHERE collection_name = ?";
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, collection);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
+                Timestamp watermark = Timestamp.ofTimeSecondsAndNanos(rs.getLong(1), rs.getInt(2));
+                Instant lastFullSync = rs.getObject(3, OffsetDateTime.class).toInstant();
+                return Optional.of(new SyncState(watermark, lastFullSync));
+            }
+        } catch (SQLException e) {
+            log.error("Error loading cache sync state of {}", collection, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * A gyűjtemény teljes cseréje (teljes letöltés után)
+     */
+    public void replaceAll(String collection, Map<String, Map<String, Object>> documents, SyncState state)
+            throws ExecutionException {
+        write(collection, documents, null, state, true);
+    }
+
+    /**
+     * Módosult és törölt dokumentumok alkalmazása; state null esetén az állapot nem változik
+     */
+    public void apply(String collection, Map<String, Map<String, Object>> changed, Collection<String> deleted,
+                      SyncState state) throws ExecutionException {
+        write(collection, changed, deleted, state, false);
+    }
+
+    private void write(String collection, Map<String, Map<String, Object>> changed, Collection<String> deleted,
+                       SyncState state, boolean replace) throws ExecutionException {
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (replace) {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "DELETE FROM cached_documents WHERE collection_name = ?")) {
+                        statement.setString(1, collection);
+                        statement.executeUpdate();
+                    }
+                }
+                if (deleted != null && !deleted.isEmpty()) {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "DELETE FROM cached_documents WHERE collection_name = ? AND id = ?")) {
+                        for (String id : deleted) {
+                            statement.setString(1, collection);
+                            statement.setString(2, id);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "MERGE INTO cached_documents (collection_name, id, data) KEY (collection_name, id) "
+                                    + "VALUES (?, ?, ?)")) {
+                        for (Map.Entry<String, Map<String, Object>> entry : changed.entrySet()) {
+                            statement.setString(1, collection);
+                            statement.setString(2, entry.getKey());
+                            statement.setString(3, objectMapper.writeValueAsString(entry.getValue()));
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+                if (state != null) {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "MERGE INTO cache_sync_state (collection_name, watermark_seconds, watermark_nanos, "
+                                    + "last_full_sync) KEY (collection_name) VALUES (?, ?, ?, ?)")) {
+                        statement.setString(1, collection);
+                        statement.setLong(2, state.getWatermark().getSeconds());
+                        statement.setInt(3, state.getWatermark().getNanos());
+                        statement.setObject(4, state.getLastFullSync().atOffset(ZoneOffset.UTC));
+                        statement.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | JsonProcessingException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            log.error("Error writing cached documents of {}", collection, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * Módosítások naplózása; a dokumentum korábbi, még ki nem írt módosítását felülírja
+     *
+     * @param documents azonosító -> adatok, törlésnél null érték
+     */
+    public void enqueue(String collection, Map<String, Map<String, Object>> documents) throws ExecutionException {
+        String sql = "MERGE INTO pending_writes (collection_name, id, data, seq) KEY (collection_name, id) "
+                + "VALUES (?, ?, ?, NEXT VALUE FOR pending_write_seq)";
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Map.Entry<String, Map<String, Object>> entry : documents.entrySet()) {
+                    statement.setString(1, collection);
+                    statement.setString(2, entry.getKey());
+                    statement.setString(3, entry.getValue() != null
+                            ? objectMapper.writeValueAsString(entry.getValue()) : null);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException | JsonProcessingException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            log.error("Error writing pending writes of {}", collection, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * A legrégebben naplózott módosítások
+     */
+    public List<PendingWrite> pendingWrites(int limit) throws ExecutionException {
+        return queryPendingWrites("SELECT collection_name, id, data, seq FROM pending_writes ORDER BY seq LIMIT ?",
+                statement -> statement.setInt(1, limit));
+    }
+
+    /**
+     * A gyűjtemény ki nem írt módosításai
+     */
+    public List<PendingWrite> pendingWrites(String collection) throws ExecutionException {
+        return queryPendingWrites("SELECT collection_name, id, data, seq FROM pending_writes "
+                + "WHERE collection_name = ? ORDER BY seq", statement -> statement.setString(1, collection));
+    }
+
+    public int pendingWriteCount() throws ExecutionException {
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM pending_writes")) {
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            log.error("Error counting pending writes", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * Kiírt módosítások törlése a naplóból; a közben újra módosult dokumentum bejegyzése marad
+     */
+    public void completeWrites(List<PendingWrite> writes) throws ExecutionException {
+        String sql = "DELETE FROM pending_writes WHERE collection_name = ? AND id = ? AND seq = ?";
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (PendingWrite write : writes) {
+                statement.setString(1, write.getCollection());
+                statement.setString(2, write.getId());
+                statement.setLong(3, write.getSequence());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            log.error("Error removing completed pending writes", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    private List<PendingWrite> queryPendingWrites(String sql, StatementBinder binder) throws ExecutionException {
+        List<PendingWrite> writes = new ArrayList<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String data = rs.getString("data");
+                    writes.add(new PendingWrite(rs.getString("collection_name"), rs.getString("id"),
+                            data != null ? objectMapper.readValue(data, MAP_TYPE) : null, rs.getLong("seq")));
+                }
+            }
+            return writes;
+        } catch (SQLException | JsonProcessingException e) {
+            log.error("Error loading pending writes", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+
+    /**
+     * Gyűjtemény szinkronizálási állapota
+     */
+    public static final class SyncState {
+        private final Timestamp watermark;
+        private final Instant lastFullSync;
+
+        public SyncState(Timestamp watermark, Instant lastFullSync) {
+            this.watermark = watermark;
+            this.lastFullSync = lastFullSync;
+        }
+
+        /** A legkésőbbi látott módosítási idő (szerver időbélyeg) */
+        public Timestamp getWatermark() {
+            return watermark;
+        }
+
+        public Instant getLastFullSync() {
+            return lastFullSync;
+        }
+    }
+}
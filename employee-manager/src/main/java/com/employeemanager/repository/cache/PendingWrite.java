@@ -0,0 +1,43 @@
+package com.employeemanager.repository.cache;
+
+import java.util.Map;
+
+/**
+ * A helyi naplóban Firestore-ba írásra váró módosítás (dokumentumonként a legutolsó)
+ */
+public final class PendingWrite {
+
+    private final String collection;
+    private final String id;
+    private final Map<String, Object> data;
+    private final long sequence;
+
+    public PendingWrite(String collection, String id, Map<String, Object> data, long sequence) {
+        this.collection = collection;
+        this.id = id;
+        this.data = data;
+        this.sequence = sequence;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** A mentendő adatok; törlésnél null */
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    /** Naplóbeli sorszám: a kiírás csak az azóta nem módosult bejegyzést törli */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isDelete() {
+        return data == null;
+    }
+}
@@ -0,0 +1,222 @@
+package com.employeemanager.repository.columnar;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * e-BEV bejelentések másodlagos indexe az oszlopos tárolón
+ *
+ * Egy bejelentés a (bejelentés dátuma, időpontja másodpercre pontosan, e-BEV sorszám) hármas; a bejelentések
+ * e szerint rendezettek, a tagjaik munkavégzési dátum szerint. Egy bejelentés tagjai vagy egy hónap
+ * bejelentései így újracsoportosítás nélkül, az eredmény méretével arányos idő alatt olvashatók.
+ */
+public final class EbevSubmissionIndex {
+
+    /** Nem létező bejelentés */
+    public static final int NOT_FOUND = -1;
+
+    private static final int EBEV_BITS = 21;
+    private static final int SECOND_BITS = 17;
+    private static final int DAY_SHIFT = EBEV_BITS + SECOND_BITS;
+    private static final int MAX_DAY_SPAN = 1 << (Long.SIZE - 1 - DAY_SHIFT);
+
+    private final WorkRecordColumnStore store;
+
+    // A legkorábbi bejelentési nap: a kulcsban a napok ehhez képest tárolódnak
+    private final int firstDay;
+
+    private final long[] keys;
+    private final int[] notificationDays;
+    private final int[] notificationSeconds;
+    private final int[] ebevNumbers;
+
+    // Bejelentésenkénti tagok (CSR): rows[offsets[s] .. offsets[s + 1])
+    private final int[] offsets;
+    private final int[] rows;
+
+    // e-BEV kód -> sorszám szerinti rang (0: nincs sorszám)
+    private final int[] ebevRanks;
+
+    EbevSubmissionIndex(WorkRecordColumnStore store) {
+        this.store = store;
+        int size = store.size();
+
+        StringDictionary dictionary = store.getEbevDictionary();
+        if (dictionary.size() >= (1 << EBEV_BITS) - 1) {
+            throw new IllegalStateException("Too many e-BEV serial numbers for the submission index: " + dictionary.size());
+        }
+        ebevRanks = rankByValue(dictionary);
+
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            int day = store.notificationDay(row);
+            if (day != WorkRecordColumnStore.NO_DATE) {
+                first = Math.min(first, day);
+                last = Math.max(last, day);
+            }
+        }
+        firstDay = first;
+        if (first <= last && (long) last - first + 1 >= MAX_DAY_SPAN) {
+            throw new IllegalStateException("Notification dates span too many days for the submission index");
+        }
+
+        long[] rowKeys = new long[size];
+        for (int row = 0; row < size; row++) {
+            rowKeys[row] = key(store.notificationDay(row), store.notificationSecond(row), store.ebevNumber(row));
+        }
+
+        long[] sorted = rowKeys.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        keys = Arrays.copyOf(sorted, count);
+
+        notificationDays = new int[count];
+        notificationSeconds = new int[count];
+        ebevNumbers = new int[count];
+        offsets = new int[count + 1];
+        int[] submissionOfRow = new int[size];
+        for (int row = 0; row < size; row++) {
+            int submission = Arrays.binarySearch(keys, rowKeys[row]);
+            submissionOfRow[row] = submission;
+            if (offsets[submission + 1]++ == 0) {
+                notificationDays[submission] = store.notificationDay(row);
+                notificationSeconds[submission] = store.notificationSecond(row);
+                ebevNumbers[submission] = store.ebevNumber(row);
+            }
+        }
+        for (int s = 0; s < count; s++) {
+            offsets[s + 1] += offsets[s];
+        }
+
+        // A tárolóban a sorok munkavégzési dátum szerint rendezettek, így a tagok is
+        rows = new int[size];
+        int[] next = Arrays.copyOf(offsets, count);
+        for (int row = 0; row < size; row++) {
+            rows[next[submissionOfRow[row]]++] = row;
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Az első bejelentés a megadott bejelentési naptól
+     */
+    public int from(LocalDate start) {
+        return lowerBound((int) start.toEpochDay());
+    }
+
+    /**
+     * Az első bejelentés a megadott bejelentési nap után
+     */
+    public int to(LocalDate end) {
+        return lowerBound((int) end.toEpochDay() + 1);
+    }
+
+    /**
+     * Bejelentés keresése, NOT_FOUND ha nincs ilyen
+     */
+    public int find(LocalDate notificationDate, LocalTime notificationTime, String ebevSerialNumber) {
+        int ebev = store.getEbevDictionary().code(ebevSerialNumber);
+        if (ebevSerialNumber != null && ebev == StringDictionary.NO_CODE) {
+            return NOT_FOUND;
+        }
+        int day = notificationDate != null ? (int) notificationDate.toEpochDay() : WorkRecordColumnStore.NO_DATE;
+        if (day != WorkRecordColumnStore.NO_DATE && (day < firstDay || (long) day - firstDay + 1 >= MAX_DAY_SPAN)) {
+            return NOT_FOUND;
+        }
+        int second = notificationTime != null ? notificationTime.toSecondOfDay() : WorkRecordColumnStore.NO_TIME;
+        int submission = Arrays.binarySearch(keys, key(day, second, ebev));
+        return submission >= 0 ? submission : NOT_FOUND;
+    }
+
+    public LocalDate notificationDate(int submission) {
+        int day = notificationDays[submission];
+        return day != WorkRecordColumnStore.NO_DATE ? LocalDate.ofEpochDay(day) : null;
+    }
+
+    public LocalTime notificationTime(int submission) {
+        int second = notificationSeconds[submission];
+        return second != WorkRecordColumnStore.NO_TIME ? LocalTime.ofSecondOfDay(second) : null;
+    }
+
+    public String ebevSerialNumber(int submission) {
+        return store.getEbevDictionary().decode(ebevNumbers[submission]);
+    }
+
+    public int memberCount(int submission) {
+        return offsets[submission + 1] - offsets[submission];
+    }
+
+    /**
+     * A bejelentés munkanaplóinak azonosítói munkavégzési dátum szerint
+     */
+    public List<String> recordIds(int submission) {
+        List<String> ids = new ArrayList<>(memberCount(submission));
+        for (int i = offsets[submission]; i < offsets[submission + 1]; i++) {
+            ids.add(store.recordId(rows[i]));
+        }
+        return ids;
+    }
+
+    /**
+     * A bejelentés munkanapjai (epoch-nap, növekvő, ismétlődés nélkül)
+     */
+    public int[] workDays(int submission) {
+        int[] days = new int[memberCount(submission)];
+        int count = 0;
+        for (int i = offsets[submission]; i < offsets[submission + 1]; i++) {
+            int day = store.workDay(rows[i]);
+            if (count == 0 || days[count - 1] != day) {
+                days[count++] = day;
+            }
+        }
+        return Arrays.copyOf(days, count);
+    }
+
+    private int lowerBound(int epochDay) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (notificationDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Rendezési kulcs: bejelentési nap a legkorábbi óta + 1 (hiányzó dátum: 0), másodperc + 1, e-BEV rang + 1
+     */
+    private long key(int day, int second, int ebev) {
+        long dayKey = day == WorkRecordColumnStore.NO_DATE ? 0 : (long) day - firstDay + 1;
+        long rank = ebev == StringDictionary.NO_CODE ? 0 : ebevRanks[ebev] + 1;
+        return (dayKey << DAY_SHIFT) | ((long) (second + 1) << EBEV_BITS) | rank;
+    }
+
+    private static int[] rankByValue(StringDictionary dictionary) {
+        Integer[] codes = new Integer[dictionary.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = i;
+        }
+        Arrays.sort(codes, (a, b) -> dictionary.decode(a).compareTo(dictionary.decode(b)));
+        int[] ranks = new int[codes.length];
+        for (int rank = 0; rank < codes.length; rank++) {
+            ranks[codes[rank]] = rank;
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,65 @@
+package com.employeemanager.repository.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Szöveges értékek tömör, 0-tól folytonos int kódolása
+ *
+ * Az oszlopos tárolók ismétlődő szöveges mezői (alkalmazott azonosító, e-BEV sorszám) kódként tárolódnak.
+ * Felépítés közben nem szálbiztos; a kész szótár csak olvasva osztható meg.
+ */
+public final class StringDictionary {
+
+    /** Hiányzó (null) vagy ismeretlen érték kódja */
+    public static final int NO_CODE = -1;
+
+    private final Map<String, Integer> codes;
+    private String[] values;
+    private int size;
+
+    public StringDictionary() {
+        this(16);
+    }
+
+    public StringDictionary(int expectedSize) {
+        codes = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+        values = new String[Math.max(16, expectedSize)];
+    }
+
+    /**
+     * Érték kódja; új érték a következő szabad kódot kapja
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Meglévő érték kódja, ismeretlen értéknél NO_CODE
+     */
+    public int code(String value) {
+        Integer code = value != null ? codes.get(value) : null;
+        return code != null ? code : NO_CODE;
+    }
+
+    public String decode(int code) {
+        return code == NO_CODE ? null : values[code];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,453 @@
+package com.employeemanager.repository.columnar;
+
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.archive.WorkRecordArchive;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.repository.interfaces.WorkRecordRepository.StreamOrder;
+import com.employeemanager.util.Money;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Munkanaplók oszlopos, primitív tömbös másolata elemzésekhez
+ *
+ * A dátumok epoch-napként, a bejelentés időpontja a nap másodperceként, a kifizetés fillérben, az alkalmazott és
+ * az e-BEV sorszám szótárkódként tárolódik. A sorok munkavégzési dátum szerint rendezettek, így egy
+ * dátumtartomány két bináris kereséssel egy összefüggő sorintervallum, amelyen az operátorok egyszerű
+ * tömbös ciklusokkal futnak. Betöltés után nem módosul; az e-BEV bejelentések indexe
+ * (EbevSubmissionIndex) ugyanerre a másolatra épül.
+ */
+@Slf4j
+public final class WorkRecordColumnStore {
+
+    /** Hiányzó dátum */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    /** Hiányzó időpont */
+    public static final int NO_TIME = -1;
+
+    private static final LocalDate LOAD_START = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LOAD_END = LocalDate.of(2100, 12, 31);
+
+    private final int size;
+    private final String[] ids;
+    private final int[] workDays;
+    private final int[] notificationDays;
+    private final int[] notificationSeconds;
+    private final long[] payments;
+    private final short[] hoursWorked;
+    private final int[] employees;
+    private final int[] ebevNumbers;
+
+    private final StringDictionary employeeIds;
+    private final String[] employeeNames;
+    private final StringDictionary ebevDictionary;
+
+    // Alkalmazottankénti sorindex (CSR): employeeRows[employeeOffsets[e] .. employeeOffsets[e + 1]), dátum szerint rendezve
+    private final int[] employeeOffsets;
+    private final int[] employeeRows;
+
+    private volatile EbevSubmissionIndex ebevIndex;
+
+    private WorkRecordColumnStore(Builder builder) {
+        size = builder.size;
+
+        // Rendezés munkavégzési dátum szerint: (nap, eredeti sor) párok egyetlen long tömbben
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) builder.workDays[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        ids = new String[size];
+        workDays = new int[size];
+        notificationDays = new int[size];
+        notificationSeconds = new int[size];
+        payments = new long[size];
+        hoursWorked = new short[size];
+        employees = new int[size];
+        ebevNumbers = new int[size];
+        for (int i = 0; i < size; i++) {
+            int row = (int) order[i];
+            ids[i] = builder.ids[row];
+            workDays[i] = builder.workDays[row];
+            notificationDays[i] = builder.notificationDays[row];
+            notificationSeconds[i] = builder.notificationSeconds[row];
+            payments[i] = builder.payments[row];
+            hoursWorked[i] = builder.hoursWorked[row];
+            employees[i] = builder.employees[row];
+            ebevNumbers[i] = builder.ebevNumbers[row];
+        }
+
+        employeeIds = builder.employeeIds;
+        employeeNames = Arrays.copyOf(builder.employeeNames, employeeIds.size());
+        ebevDictionary = builder.ebevDictionary;
+
+        int employeeCount = employeeIds.size();
+        employeeOffsets = new int[employeeCount + 1];
+        for (int i = 0; i < size; i++) {
+            employeeOffsets[employees[i] + 1]++;
+        }
+        for (int e = 0; e < employeeCount; e++) {
+            employeeOffsets[e + 1] += employeeOffsets[e];
+        }
+        employeeRows = new int[size];
+        int[] next = Arrays.copyOf(employeeOffsets, employeeCount);
+        for (int i = 0; i < size; i++) {
+            employeeRows[next[employees[i]]++] = i;
+        }
+    }
+
+    /**
+     * Teljes betöltés a repository-ból
+     *
+     * Az aktív réteg a határtól a saját stream-jével jön; archív réteg esetén egy második menet hozza a határ
+     * előtti sorokat. A sorrend mindkét menetben munkavégzés szerinti, a dolgozók a tároló szótárán keresztül
+     * azonosító szerint egyszer kerülnek felvételre.
+     *
+     * @param archive az aktív kapcsolat archív rétege, vagy null
+     */
+    public static WorkRecordColumnStore load(WorkRecordRepository repository, WorkRecordArchive archive)
+            throws ExecutionException, InterruptedException {
+        Builder builder = new Builder();
+        LocalDate boundary = archive != null ? archive.getBoundary() : null;
+        repository.streamByWorkDateBetween(boundary != null ? boundary : LOAD_START, LOAD_END,
+                StreamOrder.WORK_DATE_DESC, builder::add);
+        if (boundary != null) {
+            repository.streamByWorkDateBetween(LOAD_START, boundary.minusDays(1),
+                    StreamOrder.WORK_DATE_DESC, builder::add);
+        }
+        if (builder.skipped > 0) {
+            log.debug("Skipped {} work records without work date or employee", builder.skipped);
+        }
+        return new WorkRecordColumnStore(builder);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int employeeCount() {
+        return employeeIds.size();
+    }
+
+    /**
+     * Alkalmazott kódja, ismeretlen alkalmazottnál StringDictionary.NO_CODE
+     */
+    public int employeeCode(String employeeId) {
+        return employeeIds.code(employeeId);
+    }
+
+    public String employeeId(int employee) {
+        return employeeIds.decode(employee);
+    }
+
+    public String employeeName(int employee) {
+        return employeeNames[employee];
+    }
+
+    /**
+     * Egy alkalmazott összes sorának száma
+     */
+    public int recordCount(int employee) {
+        return employeeOffsets[employee + 1] - employeeOffsets[employee];
+    }
+
+    public StringDictionary getEbevDictionary() {
+        return ebevDictionary;
+    }
+
+    /**
+     * e-BEV bejelentések indexe; első használatkor épül, és a tárolóval együtt érvényes
+     */
+    public EbevSubmissionIndex getEbevIndex() {
+        EbevSubmissionIndex index = ebevIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = ebevIndex;
+                if (index == null) {
+                    index = new EbevSubmissionIndex(this);
+                    ebevIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    public String recordId(int row) {
+        return ids[row];
+    }
+
+    public int workDay(int row) {
+        return workDays[row];
+    }
+
+    public int notificationDay(int row) {
+        return notificationDays[row];
+    }
+
+    public int notificationSecond(int row) {
+        return notificationSeconds[row];
+    }
+
+    public long payment(int row) {
+        return payments[row];
+    }
+
+    public int hoursWorked(int row) {
+        return hoursWorked[row];
+    }
+
+    public int employee(int row) {
+        return employees[row];
+    }
+
+    public int ebevNumber(int row) {
+        return ebevNumbers[row];
+    }
+
+    /**
+     * Az első sor, amelynek munkavégzési napja legalább a megadott
+     */
+    public int lowerBound(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (workDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A [start, end] tartomány első sora
+     */
+    public int from(LocalDate start) {
+        return lowerBound((int) start.toEpochDay());
+    }
+
+    /**
+     * A [start, end] tartomány utáni első sor
+     */
+    public int to(LocalDate end) {
+        return lowerBound((int) end.toEpochDay() + 1);
+    }
+
+    /**
+     * Kifizetések összege fillérben a [from, to) sorokra
+     */
+    public long sumPayment(int from, int to) {
+        return Money.sum(payments, from, to);
+    }
+
+    /**
+     * Ledolgozott órák összege a [from, to) sorokra
+     */
+    public int sumHoursWorked(int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += hoursWorked[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Alkalmazottankénti összesítés egy dátumtartományra, egyetlen soros bejárással
+     */
+    public EmployeeTotals totalsByEmployee(LocalDate start, LocalDate end) {
+        int employeeCount = employeeIds.size();
+        EmployeeTotals totals = new EmployeeTotals(employeeCount);
+        int[] lastDay = new int[employeeCount];
+        Arrays.fill(lastDay, NO_DATE);
+
+        int to = to(end);
+        for (int i = from(start); i < to; i++) {
+            int employee = employees[i];
+            totals.records[employee]++;
+            totals.hoursWorked[employee] += hoursWorked[i];
+            totals.payments[employee] = Money.add(totals.payments[employee], payments[i]);
+            // A sorok nap szerint rendezettek: új nap = új munkanap
+            if (lastDay[employee] != workDays[i]) {
+                lastDay[employee] = workDays[i];
+                totals.workDays[employee]++;
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Egy alkalmazott összesítése egy dátumtartományra az alkalmazott sorindexén keresztül
+     */
+    public EmployeeTotals totalsOf(int employee, LocalDate start, LocalDate end) {
+        EmployeeTotals totals = new EmployeeTotals(employeeIds.size());
+        int finish = employeeOffsets[employee + 1];
+        int endDay = (int) end.toEpochDay();
+        int lastDay = NO_DATE;
+        for (int i = firstEmployeeRow(employeeOffsets[employee], finish, (int) start.toEpochDay()); i < finish; i++) {
+            int row = employeeRows[i];
+            if (workDays[row] > endDay) {
+                break;
+            }
+            totals.records[employee]++;
+            totals.hoursWorked[employee] += hoursWorked[row];
+            totals.payments[employee] = Money.add(totals.payments[employee], payments[row]);
+            if (lastDay != workDays[row]) {
+                lastDay = workDays[row];
+                totals.workDays[employee]++;
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Egy alkalmazott különböző munkanapjai (epoch-nap, növekvő) a [start, end] tartományban
+     */
+    public int[] distinctWorkDays(int employee, LocalDate start, LocalDate end) {
+        int begin = employeeOffsets[employee];
+        int finish = employeeOffsets[employee + 1];
+        int startDay = (int) start.toEpochDay();
+        int endDay = (int) end.toEpochDay();
+
+        int[] days = new int[finish - begin];
+        int count = 0;
+        for (int i = firstEmployeeRow(begin, finish, startDay); i < finish; i++) {
+            int day = workDays[employeeRows[i]];
+            if (day > endDay) {
+                break;
+            }
+            if (count == 0 || days[count - 1] != day) {
+                days[count++] = day;
+            }
+        }
+        return Arrays.copyOf(days, count);
+    }
+
+    private int firstEmployeeRow(int begin, int finish, int epochDay) {
+        int low = begin;
+        int high = finish;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (workDays[employeeRows[mid]] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Alkalmazottankénti összesítés oszloposan, alkalmazott kód szerint indexelve
+     */
+    public static final class EmployeeTotals {
+        private final int[] records;
+        private final int[] workDays;
+        private final int[] hoursWorked;
+        private final long[] payments;
+
+        private EmployeeTotals(int employeeCount) {
+            records = new int[employeeCount];
+            workDays = new int[employeeCount];
+            hoursWorked = new int[employeeCount];
+            payments = new long[employeeCount];
+        }
+
+        public int records(int employee) {
+            return records[employee];
+        }
+
+        public int workDays(int employee) {
+            return workDays[employee];
+        }
+
+        public int hoursWorked(int employee) {
+            return hoursWorked[employee];
+        }
+
+        /** Kifizetések összege fillérben */
+        public long payment(int employee) {
+            return payments[employee];
+        }
+    }
+
+    /**
+     * Betöltés közbeni, bővülő oszlopok
+     */
+    private static final class Builder {
+        private int size;
+        private int skipped;
+        private String[] ids = new String[1024];
+        private int[] workDays = new int[1024];
+        private int[] notificationDays = new int[1024];
+        private int[] notificationSeconds = new int[1024];
+        private long[] payments = new long[1024];
+        private short[] hoursWorked = new short[1024];
+        private int[] employees = new int[1024];
+        private int[] ebevNumbers = new int[1024];
+
+        private final StringDictionary employeeIds = new StringDictionary();
+        private String[] employeeNames = new String[16];
+        private final StringDictionary ebevDictionary = new StringDictionary(1024);
+
+        void add(WorkRecord record) {
+            if (record.getWorkDate() == null || record.getEmployee() == null || record.getEmployee().getId() == null) {
+                skipped++;
+                return;
+            }
+            if (size == workDays.length) {
+                grow();
+            }
+
+            int employee = employeeIds.encode(record.getEmployee().getId());
+            if (employee == employeeNames.length) {
+                employeeNames = Arrays.copyOf(employeeNames, employee * 2);
+            }
+            if (employeeNames[employee] == null) {
+                employeeNames[employee] = record.getEmployee().getName();
+            }
+
+            ids[size] = record.getId();
+            workDays[size] = (int) record.getWorkDate().toEpochDay();
+            LocalDate notificationDate = record.getNotificationDate();
+            notificationDays[size] = notificationDate != null ? (int) notificationDate.toEpochDay() : NO_DATE;
+            LocalTime notificationTime = record.getNotificationTime();
+            notificationSeconds[size] = notificationTime != null
+                    ? notificationTime.toSecondOfDay() : NO_TIME;
+            payments[size] = Money.toFiller(record.getPayment());
+            hoursWorked[size] = toHours(record.getHoursWorked());
+            employees[size] = employee;
+            ebevNumbers[size] = ebevDictionary.encode(record.getEbevSerialNumber());
+            size++;
+        }
+
+        private void grow() {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            workDays = Arrays.copyOf(workDays, capacity);
+            notificationDays = Arrays.copyOf(notificationDays, capacity);
+            notificationSeconds = Arrays.copyOf(notificationSeconds, capacity);
+            payments = Arrays.copyOf(payments, capacity);
+            hoursWorked = Arrays.copyOf(hoursWorked, capacity);
+            employees = Arrays.copyOf(employees, capacity);
+            ebevNumbers = Arrays.copyOf(ebevNumbers, capacity);
+        }
+
+        private static short toHours(Integer hours) {
+            if (hours == null) {
+                return 0;
+            }
+            if (hours < 0 || hours > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Hours worked out of range: " + hours);
+            }
+            return hours.shortValue();
+        }
+    }
+}
@@ -2,27 +2,53 @@ package com.employeemanager.repository.impl;
 
 import com.employeemanager.model.dto.Page;
 import com.employeemanager.model.dto.PageRequest;
+import com.employeemanager.repository.cache.FirestoreDocumentCache;
+import com.employeemanager.repository.cache.FirestoreWriteBehindQueue;
 import com.employeemanager.repository.interfaces.BaseRepository;
 import com.google.cloud.firestore.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
+/**
+ * Firestore repository alap
+ *
+ * A mentések a FirestoreDocumentCache.UPDATED_AT mezőbe szerver időbélyeget, a törlések sírkő dokumentumot
+ * írnak, így a helyi gyorsítótárak csak a változásokat töltik le. Gyorsítótárral az olvasások helyben futnak,
+ * késleltetett írásnál (FirestoreWriteBehindQueue) a mentés és törlés is csak a helyi naplóig vár.
+ */
 @Slf4j
-public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, String> {
+public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, String>, MeterBinder {
     protected final Firestore firestore;
     protected final String collectionName;
     protected final Class<T> entityClass;
+    protected final FirestoreDocumentCache cache;
+    private volatile Counter documentsRead;
 
     protected BaseFirebaseRepository(Firestore firestore, String collectionName, Class<T> entityClass) {
+        this(firestore, collectionName, entityClass, null);
+    }
+
+    /**
+     * @param cache helyi gyorsítótár, null esetén minden olvasás a Firestore-ból történik
+     */
+    protected BaseFirebaseRepository(Firestore firestore, String collectionName, Class<T> entityClass,
+                                     FirestoreDocumentCache cache) {
         this.firestore = firestore;
         this.collectionName = collectionName;
         this.entityClass = entityClass;
+        this.cache = cache;
     }
 
     @Override
@@ -43,15 +69,30 @@ public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, Str
 
         // Entitás konvertálása Map-re a mentéshez
         Map<String, Object> data = convertToMap(entity);
+        FirestoreWriteBehindQueue writeBehind = writeBehind();
+        if (writeBehind != null) {
+            writeBehind.enqueueSet(collectionName, docRef.getId(), data);
+            cache.put(collectionName, docRef.getId(), data);
+            return entity;
+        }
+        data.put(FirestoreDocumentCache.UPDATED_AT, FieldValue.serverTimestamp());
         docRef.set(data).get();
 
+        if (cache != null) {
+            cache.put(collectionName, docRef.getId(), data);
+        }
         return entity;
     }
 
     @Override
     public List<T> saveAll(List<T> entities) throws ExecutionException, InterruptedException {
+        FirestoreWriteBehindQueue writeBehind = writeBehind();
+        if (writeBehind != null) {
+            return saveAllWriteBehind(entities, writeBehind);
+        }
         WriteBatch batch = firestore.batch();
         List<T> savedEntities = new ArrayList<>();
+        List<Map<String, Object>> savedData = new ArrayList<>();
 
         for (T entity : entities) {
             String id = getEntityId(entity);
@@ -65,21 +106,50 @@ public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, Str
             }
 
             Map<String, Object> data = convertToMap(entity);
+            data.put(FirestoreDocumentCache.UPDATED_AT, FieldValue.serverTimestamp());
             batch.set(docRef, data);
             savedEntities.add(entity);
+            savedData.add(data);
         }
 
         batch.commit().get();
+        if (cache != null) {
+            for (int i = 0; i < savedEntities.size(); i++) {
+                cache.put(collectionName, getEntityId(savedEntities.get(i)), savedData.get(i));
+            }
+        }
         log.debug("Batch saved {} entities to collection: {}", savedEntities.size(), collectionName);
         return savedEntities;
     }
 
+    private List<T> saveAllWriteBehind(List<T> entities, FirestoreWriteBehindQueue writeBehind)
+            throws ExecutionException {
+        Map<String, Map<String, Object>> documents = new LinkedHashMap<>();
+        for (T entity : entities) {
+            String id = getEntityId(entity);
+            if (id == null || id.isEmpty()) {
+                setEntityId(entity, firestore.collection(collectionName).document().getId());
+            }
+            documents.put(getEntityId(entity), convertToMap(entity));
+        }
+        writeBehind.enqueueSetAll(collectionName, documents);
+        for (Map.Entry<String, Map<String, Object>> document : documents.entrySet()) {
+            cache.put(collectionName, document.getKey(), document.getValue());
+        }
+        log.debug("Queued {} entities for collection: {}", documents.size(), collectionName);
+        return new ArrayList<>(entities);
+    }
+
     @Override
     public Optional<T> findById(String id) throws ExecutionException, InterruptedException {
+        if (cache != null) {
+            return cache.document(collectionName, id, this::recordDocumentsRead).map(this::convertFromMap);
+        }
         DocumentSnapshot document = firestore.collection(collectionName)
                 .document(id)
                 .get()
                 .get();
+        recordDocumentsRead(1);
 
         if (document.exists()) {
             Map<String, Object> data = document.getData();
@@ -94,31 +164,39 @@ public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, Str
 
     @Override
     public List<T> findAll() throws ExecutionException, InterruptedException {
-        QuerySnapshot querySnapshot = firestore.collection(collectionName).get().get();
-
-        return querySnapshot.getDocuments().stream()
-                .map(doc -> {
-                    Map<String, Object> data = doc.getData();
-                    {
-                        data.put("id", doc.getId()); // Ensure ID is included
-                        return convertFromMap(data);
-                    }
-                })
+        return fetchDocuments().stream()
+                .map(this::convertFromMap)
                 .filter(entity -> entity != null)
                 .collect(Collectors.toList());
     }
 
     @Override
     public void deleteById(String id) throws ExecutionException, InterruptedException {
-        firestore.collection(collectionName)
-                .document(id)
-                .delete()
-                .get();
+        FirestoreWriteBehindQueue writeBehind = writeBehind();
+        if (writeBehind != null) {
+            writeBehind.enqueueDelete(collectionName, id);
+            cache.remove(collectionName, id);
+            log.debug("Queued deletion of ID: {} from collection: {}", id, collectionName);
+            return;
+        }
+        // A törlés és a sírkő (a gyorsítótárak változáskövetéséhez) egy kötegben
+        WriteBatch batch = firestore.batch();
+        batch.delete(firestore.collection(collectionName).document(id));
+        batch.set(firestore.collection(collectionName + FirestoreDocumentCache.TOMBSTONE_SUFFIX).document(id),
+                Map.of(FirestoreDocumentCache.UPDATED_AT, FieldValue.serverTimestamp()));
+        batch.commit().get();
+
+        if (cache != null) {
+            cache.remove(collectionName, id);
+        }
         log.debug("Deleted entity with ID: {} from collection: {}", id, collectionName);
     }
 
     @Override
     public Page<T> findAll(PageRequest pageRequest) throws ExecutionException, InterruptedException {
+        if (cache != null) {
+            return findPageInCache(pageRequest);
+        }
         Query query = firestore.collection(collectionName);
 
         // Rendezés
@@ -136,6 +214,7 @@ public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, Str
         query = query.offset(pageRequest.getOffset()).limit(pageRequest.getPageSize());
 
         QuerySnapshot querySnapshot = query.get().get();
+        recordQueryReads(querySnapshot);
 
         List<T> content = querySnapshot.getDocuments().stream()
             .map(doc -> {
@@ -154,10 +233,119 @@ public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, Str
 
     @Override
     public long count() throws ExecutionException, InterruptedException {
+        if (cache != null) {
+            return cache.size(collectionName, this::recordDocumentsRead);
+        }
         QuerySnapshot querySnapshot = firestore.collection(collectionName).get().get();
+        recordQueryReads(querySnapshot);
         return querySnapshot.size();
     }
 
+    private FirestoreWriteBehindQueue writeBehind() {
+        return cache != null ? cache.getWriteBehind() : null;
+    }
+
+    /**
+     * A gyűjtemény összes dokumentuma ("id" kulccsal); gyorsítótárral helyből
+     */
+    protected List<Map<String, Object>> fetchDocuments() throws ExecutionException, InterruptedException {
+        if (cache != null) {
+            return cache.documents(collectionName, this::recordDocumentsRead);
+        }
+        QuerySnapshot querySnapshot = firestore.collection(collectionName).get().get();
+        recordQueryReads(querySnapshot);
+        return documentData(querySnapshot);
+    }
+
+    /**
+     * A mező értékével egyező dokumentumok ("id" kulccsal); gyorsítótárral helyből
+     */
+    protected List<Map<String, Object>> fetchDocumentsWhereEqualTo(String field, Object value)
+            throws ExecutionException, InterruptedException {
+        return fetchDocumentsWhereEqualTo(field, value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Legfeljebb limit egyező dokumentum; gyorsítótár nélkül a lekérdezés is korlátozott (ennyi olvasás)
+     */
+    protected List<Map<String, Object>> fetchDocumentsWhereEqualTo(String field, Object value, int limit)
+            throws ExecutionException, InterruptedException {
+        if (cache != null) {
+            return cache.documents(collectionName, this::recordDocumentsRead).stream()
+                    .filter(data -> Objects.equals(value, data.get(field)))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+        Query query = firestore.collection(collectionName).whereEqualTo(field, value);
+        if (limit < Integer.MAX_VALUE) {
+            query = query.limit(limit);
+        }
+        QuerySnapshot querySnapshot = query.get().get();
+        recordQueryReads(querySnapshot);
+        return documentData(querySnapshot);
+    }
+
+    private static List<Map<String, Object>> documentData(QuerySnapshot querySnapshot) {
+        List<Map<String, Object>> documents = new ArrayList<>(querySnapshot.size());
+        for (QueryDocumentSnapshot doc : querySnapshot.getDocuments()) {
+            Map<String, Object> data = doc.getData();
+            data.remove(FirestoreDocumentCache.UPDATED_AT);
+            data.put("id", doc.getId());
+            documents.add(data);
+        }
+        return documents;
+    }
+
+    /**
+     * Lapozás a helyi példányon, a Firestore orderBy-hoz hasonlóan (a hiányzó érték előre kerül)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Page<T> findPageInCache(PageRequest pageRequest) throws ExecutionException, InterruptedException {
+        List<Map<String, Object>> documents = fetchDocuments();
+        String sortBy = pageRequest.getSortBy();
+        if (sortBy != null && !sortBy.isEmpty()) {
+            Comparator<Map<String, Object>> comparator = Comparator.comparing(
+                    data -> (Comparable) data.get(sortBy), Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (pageRequest.getSortDirection() == PageRequest.SortDirection.DESC) {
+                comparator = comparator.reversed();
+            }
+            documents.sort(comparator);
+        }
+
+        int from = Math.min(pageRequest.getOffset(), documents.size());
+        int to = Math.min(from + pageRequest.getPageSize(), documents.size());
+        List<T> content = documents.subList(from, to).stream()
+                .map(this::convertFromMap)
+                .filter(entity -> entity != null)
+                .collect(Collectors.toList());
+        return Page.of(content, pageRequest, documents.size());
+    }
+
+    /**
+     * Olvasott (számlázott) Firestore dokumentumok számlálója gyűjteményenként
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        documentsRead = Counter.builder("employeemanager.firestore.documents.read")
+                .description("Firestore documents read")
+                .tag("collection", collectionName)
+                .register(registry);
+    }
+
+    /**
+     * Lekérdezés olvasásainak rögzítése; az üres eredményű lekérdezés is egy olvasásnak számít
+     */
+    protected void recordQueryReads(QuerySnapshot snapshot) {
+        recordDocumentsRead(Math.max(1, snapshot.size()));
+    }
+
+    protected void recordDocumentsRead(int count) {
+        Counter counter = documentsRead;
+        if (counter != null) {
+            counter.increment(count);
+        }
+    }
+
     /**
      * Get entity ID - to be implemented by subclasses
      */
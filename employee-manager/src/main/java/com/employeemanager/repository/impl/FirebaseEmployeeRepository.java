@@ -1,11 +1,12 @@
 package com.employeemanager.repository.impl;
 
 import com.employeemanager.model.Employee;
+import com.employeemanager.repository.cache.FirestoreDocumentCache;
 import com.employeemanager.repository.interfaces.EmployeeRepository;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
@@ -15,7 +16,11 @@ import java.util.concurrent.ExecutionException;
 public class FirebaseEmployeeRepository extends BaseFirebaseRepository<Employee> implements EmployeeRepository {
 
     public FirebaseEmployeeRepository(Firestore firestore) {
-        super(firestore, "employees", Employee.class);
+        this(firestore, null);
+    }
+
+    public FirebaseEmployeeRepository(Firestore firestore, FirestoreDocumentCache cache) {
+        super(firestore, "employees", Employee.class, cache);
     }
 
     @Override
@@ -40,39 +45,13 @@ public class FirebaseEmployeeRepository extends BaseFirebaseRepository<Employee>
 
     @Override
     public Optional<Employee> findByTaxNumber(String taxNumber) throws ExecutionException, InterruptedException {
-        QuerySnapshot query = firestore.collection(collectionName)
-                .whereEqualTo("taxNumber", taxNumber)
-                .limit(1)
-                .get()
-                .get();
-
-        if (!query.isEmpty()) {
-            Map<String, Object> data = query.getDocuments().get(0).getData();
-            if (data != null) {
-                data.put("id", query.getDocuments().get(0).getId());
-                return Optional.ofNullable(convertFromMap(data));
-            }
-        }
-
-        return Optional.empty();
+        List<Map<String, Object>> documents = fetchDocumentsWhereEqualTo("taxNumber", taxNumber, 1);
+        return documents.stream().findFirst().map(this::convertFromMap);
     }
 
     @Override
     public Optional<Employee> findBySocialSecurityNumber(String ssn) throws ExecutionException, InterruptedException {
-        QuerySnapshot query = firestore.collection(collectionName)
-                .whereEqualTo("socialSecurityNumber", ssn)
-                .limit(1)
-                .get()
-                .get();
-
-        if (!query.isEmpty()) {
-            Map<String, Object> data = query.getDocuments().get(0).getData();
-            if (data != null) {
-                data.put("id", query.getDocuments().get(0).getId());
-                return Optional.ofNullable(convertFromMap(data));
-            }
-        }
-
-        return Optional.empty();
+        List<Map<String, Object>> documents = fetchDocumentsWhereEqualTo("socialSecurityNumber", ssn, 1);
+        return documents.stream().findFirst().map(this::convertFromMap);
     }
 }
\ No newline at end of file
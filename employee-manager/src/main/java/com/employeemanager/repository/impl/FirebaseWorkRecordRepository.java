@@ -1,13 +1,13 @@
 package com.employeemanager.repository.impl;
 
+import com.employeemanager.diagnostics.QueryTrace;
 import com.employeemanager.model.Employee;
 import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.cache.FirestoreDocumentCache;
 import com.employeemanager.repository.interfaces.EmployeeRepository;
 import com.employeemanager.repository.interfaces.WorkRecordRepository;
 import com.employeemanager.util.FirebaseDateConverter;
-import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,11 +23,18 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRecord> implements WorkRecordRepository {
 
+    private static final String BACKEND = "FIREBASE";
+
     private final EmployeeRepository employeeRepository;
 
     // @Autowired
     public FirebaseWorkRecordRepository(Firestore firestore, EmployeeRepository employeeRepository) {
-        super(firestore, "workrecords", WorkRecord.class);
+        this(firestore, employeeRepository, null);
+    }
+
+    public FirebaseWorkRecordRepository(Firestore firestore, EmployeeRepository employeeRepository,
+                                        FirestoreDocumentCache cache) {
+        super(firestore, "workrecords", WorkRecord.class, cache);
         this.employeeRepository = employeeRepository;
     }
 
@@ -79,21 +86,13 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
     public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
             throws ExecutionException, InterruptedException {
 
+        QueryTrace trace = QueryTrace.begin(BACKEND, "findByEmployeeIdAndWorkDateBetween", startDate, endDate);
         try {
             // Először csak az employeeId alapján szűrünk, majd Java-ban szűrjük a dátumokat
-            QuerySnapshot querySnapshot = firestore.collection(collectionName)
-                    .whereEqualTo("employeeId", employeeId)
-                    .get()
-                    .get();
-
-            return querySnapshot.getDocuments().stream()
-                    .map(doc -> {
-                        Map<String, Object> data = doc.getData();
-                        {
-                            data.put("id", doc.getId());
-                            return convertFromMap(data);
-                        }
-                    })
+            List<Map<String, Object>> documents = fetchDocumentsWhereEqualTo("employeeId", employeeId);
+
+            List<WorkRecord> records = documents.stream()
+                    .map(this::convertFromMap)
                     .filter(Objects::nonNull)
                     .filter(record -> {
                         // Szűrés dátum alapján Java oldalon
@@ -111,7 +110,10 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
                         return d2.compareTo(d1);
                     })
                     .collect(Collectors.toList());
+            trace.end(records.size(), documents.size());
+            return records;
         } catch (Exception e) {
+            trace.failed();
             log.error("Error fetching work records for employee {}: {}", employeeId, e.getMessage(), e);
             throw new ExecutionException("Failed to fetch work records", e);
         }
@@ -126,20 +128,13 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
 
         log.debug("Querying work records between {} and {}", startDateStr, endDateStr);
 
+        QueryTrace trace = QueryTrace.begin(BACKEND, "findByWorkDateBetween", startDate, endDate);
         try {
             // Egyszerű lekérdezés index nélkül
-            QuerySnapshot querySnapshot = firestore.collection(collectionName)
-                    .get()
-                    .get();
-
-            return querySnapshot.getDocuments().stream()
-                    .map(doc -> {
-                        Map<String, Object> data = doc.getData();
-                        {
-                            data.put("id", doc.getId());
-                            return convertFromMap(data);
-                        }
-                    })
+            List<Map<String, Object>> documents = fetchDocuments();
+
+            List<WorkRecord> records = documents.stream()
+                    .map(this::convertFromMap)
                     .filter(Objects::nonNull)
                     .filter(record -> {
                         // Szűrés dátum alapján Java oldalon
@@ -157,7 +152,10 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
                         return d2.compareTo(d1);
                     })
                     .collect(Collectors.toList());
+            trace.end(records.size(), documents.size());
+            return records;
         } catch (Exception e) {
+            trace.failed();
             log.error("Error fetching work records between dates: {}", e.getMessage(), e);
             throw new ExecutionException("Failed to fetch work records", e);
         }
@@ -167,19 +165,12 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
     public List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate)
             throws ExecutionException, InterruptedException {
 
+        QueryTrace trace = QueryTrace.begin(BACKEND, "findByNotificationDateBetween", startDate, endDate);
         try {
-            QuerySnapshot querySnapshot = firestore.collection(collectionName)
-                    .get()
-                    .get();
-
-            return querySnapshot.getDocuments().stream()
-                    .map(doc -> {
-                        Map<String, Object> data = doc.getData();
-                        {
-                            data.put("id", doc.getId());
-                            return convertFromMap(data);
-                        }
-                    })
+            List<Map<String, Object>> documents = fetchDocuments();
+
+            List<WorkRecord> records = documents.stream()
+                    .map(this::convertFromMap)
                     .filter(Objects::nonNull)
                     .filter(record -> {
                         LocalDate notificationDate = record.getNotificationDate();
@@ -195,7 +186,10 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
                         return d2.compareTo(d1);
                     })
                     .collect(Collectors.toList());
+            trace.end(records.size(), documents.size());
+            return records;
         } catch (Exception e) {
+            trace.failed();
             log.error("Error fetching work records by notification date: {}", e.getMessage(), e);
             throw new ExecutionException("Failed to fetch work records", e);
         }
@@ -207,19 +201,12 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
             LocalDate workStart, LocalDate workEnd)
             throws ExecutionException, InterruptedException {
 
+        QueryTrace trace = QueryTrace.begin(BACKEND, "findByNotificationDateAndWorkDateBetween", workStart, workEnd);
         try {
-            QuerySnapshot querySnapshot = firestore.collection(collectionName)
-                    .get()
-                    .get();
-
-            return querySnapshot.getDocuments().stream()
-                    .map(doc -> {
-                        Map<String, Object> data = doc.getData();
-                        {
-                            data.put("id", doc.getId());
-                            return convertFromMap(data);
-                        }
-                    })
+            List<Map<String, Object>> documents = fetchDocuments();
+
+            List<WorkRecord> records = documents.stream()
+                    .map(this::convertFromMap)
                     .filter(Objects::nonNull)
                     .filter(record -> {
                         LocalDate notificationDate = record.getNotificationDate();
@@ -243,7 +230,10 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
                         return d2.compareTo(d1);
                     })
                     .collect(Collectors.toList());
+            trace.end(records.size(), documents.size());
+            return records;
         } catch (Exception e) {
+            trace.failed();
             log.error("Error fetching work records by both dates: {}", e.getMessage(), e);
             throw new ExecutionException("Failed to fetch work records", e);
         }
@@ -256,26 +246,24 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
 
     @Override
     public List<WorkRecord> findAll() throws ExecutionException, InterruptedException {
+        QueryTrace trace = QueryTrace.begin(BACKEND, "findAll", null, null);
         try {
-            // Használjuk a firestore.collection(collectionName) hívást
-            QuerySnapshot querySnapshot = firestore.collection(collectionName).get().get();
+            List<Map<String, Object>> documents = fetchDocuments();
             List<WorkRecord> records = new ArrayList<>();
             
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                Map<String, Object> data = doc.getData();
-                if (data != null) {
-                    data.put("id", doc.getId()); // Biztosítjuk, hogy az ID benne legyen
-                    WorkRecord record = convertFromMap(data);
-                    if (record != null) {
-                        records.add(record);
-                    }
+            for (Map<String, Object> data : documents) {
+                WorkRecord record = convertFromMap(data);
+                if (record != null) {
+                    records.add(record);
                 }
             }
             
             log.debug("Found {} work records in collection: {}", records.size(), collectionName);
+            trace.end(records.size(), documents.size());
             return records;
             
         } catch (Exception e) {
+            trace.failed();
             log.error("Failed to fetch all work records", e);
             throw new ExecutionException("Failed to fetch all work records", e);
         }
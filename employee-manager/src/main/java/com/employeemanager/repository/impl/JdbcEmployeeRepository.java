@@ -1,9 +1,11 @@
 package com.employeemanager.repository.impl;
 
+import com.employeemanager.database.config.ReadReplicaRouter;
 import com.employeemanager.model.Employee;
 import com.employeemanager.model.dto.Page;
 import com.employeemanager.model.dto.PageRequest;
 import com.employeemanager.repository.interfaces.EmployeeRepository;
+import com.employeemanager.repository.replication.ReplicationOutbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -15,12 +17,31 @@ import java.util.concurrent.ExecutionException;
 
 /**
  * JDBC alapú Employee repository implementáció
+ *
+ * Kimenő naplóval (ReplicationOutbox) minden mentés és törlés a replikációs bejegyzéssel együtt véglegesül.
+ * Olvasási replikákkal (ReadReplicaRouter) a lekérdezések a replikákra, az írások az elsődlegesre mennek.
  */
 @Slf4j
 @RequiredArgsConstructor
 public class JdbcEmployeeRepository implements EmployeeRepository {
     
     protected final DataSource dataSource;
+
+    // Replikációs kimenő napló; null, ha nincs replika
+    private ReplicationOutbox outbox;
+
+    // Olvasási replikák; null esetén minden az elsődlegesre megy
+    private ReadReplicaRouter readRouter;
+
+    public JdbcEmployeeRepository(DataSource dataSource, ReplicationOutbox outbox) {
+        this(dataSource, outbox, null);
+    }
+
+    public JdbcEmployeeRepository(DataSource dataSource, ReplicationOutbox outbox, ReadReplicaRouter readRouter) {
+        this(dataSource);
+        this.outbox = outbox;
+        this.readRouter = readRouter;
+    }
     
     @Override
     public Employee save(Employee employee) throws ExecutionException, InterruptedException {
@@ -30,8 +51,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
             return insert(employee);
         } else {
             // Ellenőrizzük, hogy létezik-e már
-            Optional<Employee> existing = findById(employee.getId());
-            if (existing.isPresent()) {
+            if (existsOnPrimary(employee.getId())) {
                 return update(employee);
             } else {
                 return insert(employee);
@@ -49,6 +69,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
+            beginReplicated(conn);
             ps.setString(1, employee.getId());
             ps.setString(2, employee.getName());
             ps.setString(3, employee.getBirthPlace());
@@ -61,6 +82,8 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
             
             int affected = ps.executeUpdate();
             if (affected > 0) {
+                commitReplicated(conn, employee.getId(), ReplicationOutbox.Operation.UPSERT);
+                markWrite();
                 log.debug("Inserted employee with ID: {}", employee.getId());
                 return employee;
             } else {
@@ -84,6 +107,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
+            beginReplicated(conn);
             ps.setString(1, employee.getName());
             ps.setString(2, employee.getBirthPlace());
             ps.setDate(3, employee.getBirthDate() != null ? 
@@ -96,6 +120,8 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
             
             int affected = ps.executeUpdate();
             if (affected > 0) {
+                commitReplicated(conn, employee.getId(), ReplicationOutbox.Operation.UPSERT);
+                markWrite();
                 log.debug("Updated employee with ID: {}", employee.getId());
                 return employee;
             } else {
@@ -112,7 +138,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
     public Optional<Employee> findById(String id) throws ExecutionException, InterruptedException {
         String sql = "SELECT * FROM employees WHERE id = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setString(1, id);
@@ -135,7 +161,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
         String sql = "SELECT * FROM employees ORDER BY name";
         List<Employee> employees = new ArrayList<>();
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -159,9 +185,16 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
+            beginReplicated(conn);
+            if (outbox != null) {
+                // A munkanaplók kaszkádolt törlése a replikában is
+                outbox.recordEmployeeWorkRecordsDeleted(conn, id);
+            }
             ps.setString(1, id);
             
             int affected = ps.executeUpdate();
+            commitReplicated(conn, id, ReplicationOutbox.Operation.DELETE);
+            markWrite();
             if (affected > 0) {
                 log.debug("Deleted employee with ID: {}", id);
             } else {
@@ -210,7 +243,12 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
                 }
                 
                 ps.executeBatch();
+                if (outbox != null) {
+                    outbox.recordAll(conn, ReplicationOutbox.EntityType.EMPLOYEE,
+                            savedEmployees.stream().map(Employee::getId).toList(), ReplicationOutbox.Operation.UPSERT);
+                }
                 conn.commit(); // Tranzakció véglegesítése
+                markWrite();
                 
                 log.debug("Saved {} employees in batch", savedEmployees.size());
                 
@@ -231,7 +269,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
     public Optional<Employee> findByTaxNumber(String taxNumber) throws ExecutionException, InterruptedException {
         String sql = "SELECT * FROM employees WHERE tax_number = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setString(1, taxNumber);
@@ -253,7 +291,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
     public Optional<Employee> findBySocialSecurityNumber(String ssn) throws ExecutionException, InterruptedException {
         String sql = "SELECT * FROM employees WHERE social_security_number = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setString(1, ssn);
@@ -287,7 +325,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
 
         List<Employee> employees = new ArrayList<>();
 
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, pageRequest.getPageSize());
@@ -312,7 +350,7 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
     public long count() throws ExecutionException, InterruptedException {
         String sql = "SELECT COUNT(*) FROM employees";
 
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -327,6 +365,53 @@ public class JdbcEmployeeRepository implements EmployeeRepository {
         }
     }
 
+    /**
+     * Olvasó kapcsolat: replikák esetén a router választ (írás utáni ablakban az elsődleges)
+     */
+    private Connection readConnection() throws SQLException {
+        return readRouter != null ? readRouter.getReadConnection() : dataSource.getConnection();
+    }
+
+    private void markWrite() {
+        if (readRouter != null) {
+            readRouter.markWrite();
+        }
+    }
+
+    /**
+     * Létezés ellenőrzése a mentéshez mindig az elsődlegesen: a replika lemaradhat
+     */
+    private boolean existsOnPrimary(String id) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM employees WHERE id = ?")) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            log.error("Error checking employee existence: {}", id, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * Kimenő napló esetén az írás és a naplóbejegyzés egy tranzakcióban fut;
+     * hibánál a lezárt kapcsolat el nem véglegesített tranzakcióját a pool visszagörgeti
+     */
+    private void beginReplicated(Connection conn) throws SQLException {
+        if (outbox != null) {
+            conn.setAutoCommit(false);
+        }
+    }
+
+    private void commitReplicated(Connection conn, String id, ReplicationOutbox.Operation operation)
+            throws SQLException {
+        if (outbox != null) {
+            outbox.record(conn, ReplicationOutbox.EntityType.EMPLOYEE, id, operation);
+            conn.commit();
+        }
+    }
+
     /**
      * ResultSet-ből Employee objektum létrehozása
      */
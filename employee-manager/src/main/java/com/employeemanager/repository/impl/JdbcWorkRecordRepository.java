@@ -1,11 +1,15 @@
 package com.employeemanager.repository.impl;
 
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.config.ReadReplicaRouter;
+import com.employeemanager.diagnostics.QueryTrace;
 import com.employeemanager.model.Employee;
 import com.employeemanager.model.WorkRecord;
 import com.employeemanager.model.dto.Page;
 import com.employeemanager.model.dto.PageRequest;
 import com.employeemanager.repository.interfaces.EmployeeRepository;
 import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.repository.replication.ReplicationOutbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -15,16 +19,48 @@ import java.sql.Date;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * JDBC alapú WorkRecord repository implementáció
+ *
+ * A munkavégzés dátumára szűrő lekérdezések a work_date oszlopot függvény és típuskonverzió nélkül,
+ * DATE paraméterekkel hasonlítják: particionált PostgreSQL táblán így csak az érintett partíciók olvasódnak.
+ * Kimenő naplóval (ReplicationOutbox) minden mentés és törlés a replikációs bejegyzéssel együtt véglegesül.
+ * Olvasási replikákkal (ReadReplicaRouter) a lekérdezések a replikákra, az írások az elsődlegesre mennek.
  */
 @Slf4j
 @RequiredArgsConstructor
 public class JdbcWorkRecordRepository implements WorkRecordRepository {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
     
     protected final DataSource dataSource;
     protected final EmployeeRepository employeeRepository;
+
+    // Replikációs kimenő napló; null, ha nincs replika
+    private ReplicationOutbox outbox;
+
+    // Olvasási replikák; null esetén minden az elsődlegesre megy
+    private ReadReplicaRouter readRouter;
+
+    // Az adatbázis típusa a JFR eseményekhez; ismeretlen típusnál "JDBC"
+    private String backend = "JDBC";
+
+    public JdbcWorkRecordRepository(DataSource dataSource, EmployeeRepository employeeRepository,
+                                    ReplicationOutbox outbox) {
+        this(dataSource, employeeRepository, outbox, null, null);
+    }
+
+    public JdbcWorkRecordRepository(DataSource dataSource, EmployeeRepository employeeRepository,
+                                    ReplicationOutbox outbox, ReadReplicaRouter readRouter, DatabaseType type) {
+        this(dataSource, employeeRepository);
+        this.outbox = outbox;
+        this.readRouter = readRouter;
+        if (type != null) {
+            this.backend = type.name();
+        }
+    }
     
     @Override
     public WorkRecord save(WorkRecord workRecord) throws ExecutionException, InterruptedException {
@@ -33,10 +69,10 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             workRecord.setId(UUID.randomUUID().toString());
             return insert(workRecord);
         } else {
-            // Ellenőrizzük, hogy létezik-e már
-            Optional<WorkRecord> existing = findById(workRecord.getId());
-            if (existing.isPresent()) {
-                return update(workRecord);
+            // Ellenőrizzük, hogy létezik-e már; a tárolt munkavégzési dátummal a módosítás egy partícióra szűkül
+            LocalDate storedWorkDate = storedWorkDateOnPrimary(workRecord.getId());
+            if (storedWorkDate != null) {
+                return update(workRecord, storedWorkDate);
             } else {
                 return insert(workRecord);
             }
@@ -54,6 +90,7 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
+            beginReplicated(conn);
             ps.setString(1, workRecord.getId());
             ps.setString(2, workRecord.getEmployee().getId());
             ps.setDate(3, Date.valueOf(workRecord.getNotificationDate()));
@@ -66,6 +103,8 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             
             int affected = ps.executeUpdate();
             if (affected > 0) {
+                commitReplicated(conn, workRecord.getId(), ReplicationOutbox.Operation.UPSERT);
+                markWrite();
                 log.debug("Inserted work record with ID: {}", workRecord.getId());
                 return workRecord;
             } else {
@@ -78,17 +117,21 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
         }
     }
     
-    private WorkRecord update(WorkRecord workRecord) throws ExecutionException {
+    /**
+     * Módosítás a tárolt munkavégzési dátummal is szűrve: particionált táblán csak egy partíciót érint
+     */
+    private WorkRecord update(WorkRecord workRecord, LocalDate storedWorkDate) throws ExecutionException {
         String sql = """
             UPDATE work_records SET 
             employee_id = ?, notification_date = ?, notification_time = ?, 
             ebev_serial_number = ?, work_date = ?, payment = ?, hours_worked = ?
-            WHERE id = ?
+            WHERE id = ? AND work_date = ?
             """;
         
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
+            beginReplicated(conn);
             ps.setString(1, workRecord.getEmployee().getId());
             ps.setDate(2, Date.valueOf(workRecord.getNotificationDate()));
             ps.setTime(3, workRecord.getNotificationTime() != null ? 
@@ -98,9 +141,12 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             ps.setBigDecimal(6, workRecord.getPayment());
             ps.setInt(7, workRecord.getHoursWorked());
             ps.setString(8, workRecord.getId());
+            ps.setDate(9, Date.valueOf(storedWorkDate));
             
             int affected = ps.executeUpdate();
             if (affected > 0) {
+                commitReplicated(conn, workRecord.getId(), ReplicationOutbox.Operation.UPSERT);
+                markWrite();
                 log.debug("Updated work record with ID: {}", workRecord.getId());
                 return workRecord;
             } else {
@@ -113,6 +159,9 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
         }
     }
     
+    /**
+     * Csak azonosító szerint: particionált táblán minden partíció (id, work_date) kulcsindexét érinti
+     */
     @Override
     public Optional<WorkRecord> findById(String id) throws ExecutionException, InterruptedException {
         String sql = """
@@ -122,7 +171,7 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             WHERE wr.id = ?
             """;
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setString(1, id);
@@ -145,8 +194,9 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
         String sql = "SELECT * FROM work_records ORDER BY work_date DESC";
         
         List<WorkRecord> workRecords = new ArrayList<>();
+        QueryTrace trace = QueryTrace.begin(backend, "findAll", null, null);
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
             PreparedStatement ps = conn.prepareStatement(sql)) {
             
             try (ResultSet rs = ps.executeQuery()) {
@@ -156,14 +206,20 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             }
             
             log.debug("Found {} work records", workRecords.size());
+            trace.end(workRecords.size());
             return workRecords;
             
         } catch (SQLException e) {
+            trace.failed();
             log.error("Error finding all work records", e);
             throw new ExecutionException("Database error", e);
         }
     }
     
+    /**
+     * Csak azonosító szerint: a munkavégzési dátum itt nem ismert, így particionált táblán minden
+     * partíció (id, work_date) kulcsindexét érinti
+     */
     @Override
     public void deleteById(String id) throws ExecutionException, InterruptedException {
         String sql = "DELETE FROM work_records WHERE id = ?";
@@ -171,9 +227,13 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
+            beginReplicated(conn);
             ps.setString(1, id);
             
+            // Archivált munkanaplónál itt nincs érintett sor, a replikából akkor is törölni kell
             int affected = ps.executeUpdate();
+            commitReplicated(conn, id, ReplicationOutbox.Operation.DELETE);
+            markWrite();
             if (affected > 0) {
                 log.debug("Deleted work record with ID: {}", id);
             } else {
@@ -222,7 +282,12 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
                 }
                 
                 ps.executeBatch();
+                if (outbox != null) {
+                    outbox.recordAll(conn, ReplicationOutbox.EntityType.WORK_RECORD,
+                            savedRecords.stream().map(WorkRecord::getId).toList(), ReplicationOutbox.Operation.UPSERT);
+                }
                 conn.commit(); // Tranzakció véglegesítése
+                markWrite();
                 
                 log.debug("Saved {} work records in batch", savedRecords.size());
                 
@@ -252,8 +317,9 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             """;
         
         List<WorkRecord> workRecords = new ArrayList<>();
+        QueryTrace trace = QueryTrace.begin(backend, "findByEmployeeIdAndWorkDateBetween", startDate, endDate);
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setString(1, employeeId);
@@ -268,9 +334,11 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             
             log.debug("Found {} work records for employee {} between {} and {}", 
                 workRecords.size(), employeeId, startDate, endDate);
+            trace.end(workRecords.size());
             return workRecords;
             
         } catch (SQLException e) {
+            trace.failed();
             log.error("Error finding work records by employee and date range", e);
             throw new ExecutionException("Database error", e);
         }
@@ -289,8 +357,9 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             """;
         
         List<WorkRecord> workRecords = new ArrayList<>();
+        QueryTrace trace = QueryTrace.begin(backend, "findByWorkDateBetween", startDate, endDate);
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setDate(1, Date.valueOf(startDate));
@@ -304,9 +373,11 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             
             log.debug("Found {} work records between {} and {}", 
                 workRecords.size(), startDate, endDate);
+            trace.end(workRecords.size());
             return workRecords;
             
         } catch (SQLException e) {
+            trace.failed();
             log.error("Error finding work records by date range", e);
             throw new ExecutionException("Database error", e);
         }
@@ -325,8 +396,9 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             """;
         
         List<WorkRecord> workRecords = new ArrayList<>();
+        QueryTrace trace = QueryTrace.begin(backend, "findByNotificationDateBetween", startDate, endDate);
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setDate(1, Date.valueOf(startDate));
@@ -340,9 +412,11 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             
             log.debug("Found {} work records by notification date between {} and {}", 
                 workRecords.size(), startDate, endDate);
+            trace.end(workRecords.size());
             return workRecords;
             
         } catch (SQLException e) {
+            trace.failed();
             log.error("Error finding work records by notification date range", e);
             throw new ExecutionException("Database error", e);
         }
@@ -364,8 +438,9 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             """;
         
         List<WorkRecord> workRecords = new ArrayList<>();
+        QueryTrace trace = QueryTrace.begin(backend, "findByNotificationDateAndWorkDateBetween", workStart, workEnd);
         
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setDate(1, Date.valueOf(notifStart));
@@ -380,14 +455,174 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
             }
             
             log.debug("Found {} work records by both date ranges", workRecords.size());
+            trace.end(workRecords.size());
             return workRecords;
             
         } catch (SQLException e) {
+            trace.failed();
             log.error("Error finding work records by both date ranges", e);
             throw new ExecutionException("Database error", e);
         }
     }
     
+    @Override
+    public void streamByWorkDateBetween(LocalDate startDate, LocalDate endDate, StreamOrder order,
+                                        Consumer<WorkRecord> consumer)
+            throws ExecutionException, InterruptedException {
+
+        String orderBy = switch (order) {
+            case NOTIFICATION -> "wr.notification_date, wr.notification_time, wr.ebev_serial_number, wr.work_date, e.name";
+            case WORK_DATE_DESC -> "wr.work_date DESC, e.name";
+        };
+        // A dolgozó adatai a JOIN-ból jönnek, így soronként nincs külön lekérdezés
+        String sql = String.format(
+            """
+            SELECT wr.id, wr.employee_id, wr.notification_date, wr.notification_time, wr.ebev_serial_number,
+                   wr.work_date, wr.payment, wr.hours_worked, wr.created_at,
+                   e.name AS employee_name, e.birth_place, e.birth_date, e.mother_name,
+                   e.tax_number, e.social_security_number, e.address, e.created_at AS employee_created_at
+            FROM work_records wr
+            JOIN employees e ON wr.employee_id = e.id
+            WHERE wr.work_date BETWEEN ? AND ?
+            ORDER BY %s
+            """,
+            orderBy
+        );
+
+        Map<String, Employee> employees = new HashMap<>();
+        long count = 0;
+        QueryTrace trace = QueryTrace.begin(backend, "streamByWorkDateBetween", startDate, endDate);
+
+        try (Connection conn = readConnection()) {
+            // PostgreSQL csak tranzakción belül használ szerver oldali kurzort
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement ps = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                ps.setFetchSize(STREAM_FETCH_SIZE);
+                ps.setDate(1, Date.valueOf(startDate));
+                ps.setDate(2, Date.valueOf(endDate));
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapStreamedWorkRecord(rs, employees));
+                        count++;
+                    }
+                }
+            } finally {
+                // Csak olvasó tranzakció: a fogyasztó hibája esetén sem kerülhet nyitott tranzakcióval a pool-ba
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+
+            log.debug("Streamed {} work records between {} and {}", count, startDate, endDate);
+            trace.end(count);
+
+        } catch (SQLException e) {
+            trace.failed();
+            log.error("Error streaming work records by date range", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * Olvasó kapcsolat: replikák esetén a router választ (írás utáni ablakban az elsődleges)
+     */
+    private Connection readConnection() throws SQLException {
+        return readRouter != null ? readRouter.getReadConnection() : dataSource.getConnection();
+    }
+
+    private void markWrite() {
+        if (readRouter != null) {
+            readRouter.markWrite();
+        }
+    }
+
+    /**
+     * Létezés ellenőrzése a mentéshez mindig az elsődlegesen (a replika lemaradhat);
+     * a tárolt munkavégzési dátum, vagy null, ha nincs ilyen munkanapló
+     */
+    private LocalDate storedWorkDateOnPrimary(String id) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT work_date FROM work_records WHERE id = ?")) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getDate(1).toLocalDate() : null;
+            }
+        } catch (SQLException e) {
+            log.error("Error checking work record existence: {}", id, e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * Kimenő napló esetén az írás és a naplóbejegyzés egy tranzakcióban fut;
+     * hibánál a lezárt kapcsolat el nem véglegesített tranzakcióját a pool visszagörgeti
+     */
+    private void beginReplicated(Connection conn) throws SQLException {
+        if (outbox != null) {
+            conn.setAutoCommit(false);
+        }
+    }
+
+    private void commitReplicated(Connection conn, String id, ReplicationOutbox.Operation operation)
+            throws SQLException {
+        if (outbox != null) {
+            outbox.record(conn, ReplicationOutbox.EntityType.WORK_RECORD, id, operation);
+            conn.commit();
+        }
+    }
+
+    /**
+     * Stream lekérdezés sorának leképezése, a dolgozó példányokat azonosító szerint újrahasznosítva
+     */
+    private WorkRecord mapStreamedWorkRecord(ResultSet rs, Map<String, Employee> employees) throws SQLException {
+        WorkRecord record = new WorkRecord();
+        record.setId(rs.getString("id"));
+
+        String employeeId = rs.getString("employee_id");
+        Employee employee = employees.get(employeeId);
+        if (employee == null) {
+            employee = new Employee();
+            employee.setId(employeeId);
+            employee.setName(rs.getString("employee_name"));
+            employee.setBirthPlace(rs.getString("birth_place"));
+            Date birthDate = rs.getDate("birth_date");
+            if (birthDate != null) {
+                employee.setBirthDate(birthDate.toLocalDate());
+            }
+            employee.setMotherName(rs.getString("mother_name"));
+            employee.setTaxNumber(rs.getString("tax_number"));
+            employee.setSocialSecurityNumber(rs.getString("social_security_number"));
+            employee.setAddress(rs.getString("address"));
+            Timestamp employeeCreatedAt = rs.getTimestamp("employee_created_at");
+            if (employeeCreatedAt != null) {
+                employee.setCreatedAt(employeeCreatedAt.toLocalDateTime().toLocalDate());
+            }
+            employees.put(employeeId, employee);
+        }
+        record.setEmployee(employee);
+
+        record.setNotificationDate(rs.getDate("notification_date").toLocalDate());
+        Time notificationTime = rs.getTime("notification_time");
+        if (notificationTime != null) {
+            record.setNotificationTime(notificationTime.toLocalTime());
+        }
+        record.setEbevSerialNumber(rs.getString("ebev_serial_number"));
+        record.setWorkDate(rs.getDate("work_date").toLocalDate());
+        record.setPayment(rs.getBigDecimal("payment"));
+        record.setHoursWorked(rs.getInt("hours_worked"));
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            record.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        return record;
+    }
+
     /**
      * ResultSet-ből WorkRecord objektum létrehozása
      */
@@ -455,7 +690,7 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
 
         List<WorkRecord> workRecords = new ArrayList<>();
 
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, pageRequest.getPageSize());
@@ -476,11 +711,38 @@ public class JdbcWorkRecordRepository implements WorkRecordRepository {
         }
     }
 
+    @Override
+    public long countByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        // Ugyanaz a JOIN, mint a stream-nél, hogy a szám a kiírt sorokkal egyezzen
+        String sql = """
+            SELECT COUNT(*)
+            FROM work_records wr
+            JOIN employees e ON wr.employee_id = e.id
+            WHERE wr.work_date BETWEEN ? AND ?
+            """;
+
+        try (Connection conn = readConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(startDate));
+            ps.setDate(2, Date.valueOf(endDate));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            log.error("Error counting work records by date range", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
     @Override
     public long count() throws ExecutionException, InterruptedException {
         String sql = "SELECT COUNT(*) FROM work_records";
 
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -2,8 +2,11 @@ package com.employeemanager.repository.interfaces;
 
 import com.employeemanager.model.WorkRecord;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 public interface WorkRecordRepository extends BaseRepository<WorkRecord, String> {
     List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
@@ -21,4 +24,59 @@ public interface WorkRecordRepository extends BaseRepository<WorkRecord, String>
             throws ExecutionException, InterruptedException;
             void delete(String id) throws ExecutionException, InterruptedException;
             List<WorkRecord> findAll() throws ExecutionException, InterruptedException;
+
+    /**
+     * Munkanaplók soronkénti átadása munkavégzés dátuma szerint, bejelentés (dátum, időpont, e-BEV sorszám)
+     * és munkavégzés dátuma szerinti sorrendben
+     */
+    default void streamByWorkDateBetween(LocalDate startDate, LocalDate endDate, Consumer<WorkRecord> consumer)
+            throws ExecutionException, InterruptedException {
+        streamByWorkDateBetween(startDate, endDate, StreamOrder.NOTIFICATION, consumer);
+    }
+
+    /**
+     * Munkanaplók soronkénti átadása munkavégzés dátuma szerint, a megadott sorrendben.
+     * Az alapértelmezett megvalósítás a listás lekérdezésre épül.
+     */
+    default void streamByWorkDateBetween(LocalDate startDate, LocalDate endDate, StreamOrder order,
+                                         Consumer<WorkRecord> consumer)
+            throws ExecutionException, InterruptedException {
+        List<WorkRecord> records = new ArrayList<>(findByWorkDateBetween(startDate, endDate));
+        records.sort(order.comparator());
+        records.forEach(consumer);
+    }
+
+    /**
+     * Munkanaplók száma munkavégzés dátuma szerint (a streamByWorkDateBetween sorainak száma).
+     * Az alapértelmezett megvalósítás a listás lekérdezésre épül.
+     */
+    default long countByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return findByWorkDateBetween(startDate, endDate).size();
+    }
+
+    /**
+     * A soronkénti átadás sorrendje
+     */
+    enum StreamOrder {
+        /** Bejelentés dátuma, időpontja, e-BEV sorszáma, majd munkavégzés dátuma szerint (e-BEV export) */
+        NOTIFICATION(Comparator.comparing(WorkRecord::getNotificationDate)
+                .thenComparing(WorkRecord::getNotificationTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(WorkRecord::getEbevSerialNumber, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(WorkRecord::getWorkDate)),
+        /** Munkavégzés dátuma szerint csökkenő, azon belül a dolgozó neve szerint, mint a findByWorkDateBetween */
+        WORK_DATE_DESC(Comparator.comparing(WorkRecord::getWorkDate, Comparator.<LocalDate>reverseOrder())
+                .thenComparing(record -> record.getEmployee() != null ? record.getEmployee().getName() : null,
+                        Comparator.nullsLast(Comparator.<String>naturalOrder())));
+
+        private final Comparator<WorkRecord> comparator;
+
+        StreamOrder(Comparator<WorkRecord> comparator) {
+            this.comparator = comparator;
+        }
+
+        public Comparator<WorkRecord> comparator() {
+            return comparator;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.employeemanager.repository.metrics;
+
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.dto.Page;
+import com.employeemanager.model.dto.PageRequest;
+import com.employeemanager.repository.interfaces.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Mért EmployeeRepository dekorátor
+ */
+public class MeteredEmployeeRepository implements EmployeeRepository {
+
+    private final EmployeeRepository delegate;
+    private final RepositoryMetrics metrics;
+
+    public MeteredEmployeeRepository(EmployeeRepository delegate, MeterRegistry registry, DatabaseType backend) {
+        this.delegate = delegate;
+        this.metrics = new RepositoryMetrics(registry, backend, "employee");
+    }
+
+    @Override
+    public Employee save(Employee entity) throws ExecutionException, InterruptedException {
+        return metrics.record("save", () -> delegate.save(entity));
+    }
+
+    @Override
+    public Optional<Employee> findById(String id) throws ExecutionException, InterruptedException {
+        return metrics.record("findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public List<Employee> findAll() throws ExecutionException, InterruptedException {
+        return metrics.record("findAll", delegate::findAll);
+    }
+
+    @Override
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        metrics.run("deleteById", () -> delegate.deleteById(id));
+    }
+
+    @Override
+    public List<Employee> saveAll(List<Employee> entities) throws ExecutionException, InterruptedException {
+        return metrics.record("saveAll", () -> delegate.saveAll(entities));
+    }
+
+    @Override
+    public Page<Employee> findAll(PageRequest pageRequest) throws ExecutionException, InterruptedException {
+        return metrics.record("findAllPaged", () -> delegate.findAll(pageRequest));
+    }
+
+    @Override
+    public long count() throws ExecutionException, InterruptedException {
+        return metrics.record("count", delegate::count);
+    }
+
+    @Override
+    public Optional<Employee> findByTaxNumber(String taxNumber) throws ExecutionException, InterruptedException {
+        return metrics.record("findByTaxNumber", () -> delegate.findByTaxNumber(taxNumber));
+    }
+
+    @Override
+    public Optional<Employee> findBySocialSecurityNumber(String ssn) throws ExecutionException, InterruptedException {
+        return metrics.record("findBySocialSecurityNumber", () -> delegate.findBySocialSecurityNumber(ssn));
+    }
+
+    /**
+     * Az eredeti (nem mért) repository, pl. típus specifikus funkciókhoz
+     */
+    public EmployeeRepository getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,122 @@
+package com.employeemanager.repository.metrics;
+
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.dto.Page;
+import com.employeemanager.model.dto.PageRequest;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Mért WorkRecordRepository dekorátor
+ */
+public class MeteredWorkRecordRepository implements WorkRecordRepository {
+
+    private final WorkRecordRepository delegate;
+    private final RepositoryMetrics metrics;
+
+    public MeteredWorkRecordRepository(WorkRecordRepository delegate, MeterRegistry registry, DatabaseType backend) {
+        this.delegate = delegate;
+        this.metrics = new RepositoryMetrics(registry, backend, "workRecord");
+    }
+
+    @Override
+    public WorkRecord save(WorkRecord entity) throws ExecutionException, InterruptedException {
+        return metrics.record("save", () -> delegate.save(entity));
+    }
+
+    @Override
+    public Optional<WorkRecord> findById(String id) throws ExecutionException, InterruptedException {
+        return metrics.record("findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public List<WorkRecord> findAll() throws ExecutionException, InterruptedException {
+        return metrics.record("findAll", delegate::findAll);
+    }
+
+    @Override
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        metrics.run("deleteById", () -> delegate.deleteById(id));
+    }
+
+    @Override
+    public void delete(String id) throws ExecutionException, InterruptedException {
+        metrics.run("delete", () -> delegate.delete(id));
+    }
+
+    @Override
+    public List<WorkRecord> saveAll(List<WorkRecord> entities) throws ExecutionException, InterruptedException {
+        return metrics.record("saveAll", () -> delegate.saveAll(entities));
+    }
+
+    @Override
+    public Page<WorkRecord> findAll(PageRequest pageRequest) throws ExecutionException, InterruptedException {
+        return metrics.record("findAllPaged", () -> delegate.findAll(pageRequest));
+    }
+
+    @Override
+    public long count() throws ExecutionException, InterruptedException {
+        return metrics.record("count", delegate::count);
+    }
+
+    @Override
+    public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate,
+                                                               LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.record("findByEmployeeIdAndWorkDateBetween",
+                () -> delegate.findByEmployeeIdAndWorkDateBetween(employeeId, startDate, endDate));
+    }
+
+    @Override
+    public List<WorkRecord> findByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.record("findByWorkDateBetween", () -> delegate.findByWorkDateBetween(startDate, endDate));
+    }
+
+    @Override
+    public List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.record("findByNotificationDateBetween",
+                () -> delegate.findByNotificationDateBetween(startDate, endDate));
+    }
+
+    @Override
+    public List<WorkRecord> findByNotificationDateAndWorkDateBetween(LocalDate notifStart, LocalDate notifEnd,
+                                                                     LocalDate workStart, LocalDate workEnd)
+            throws ExecutionException, InterruptedException {
+        return metrics.record("findByNotificationDateAndWorkDateBetween",
+                () -> delegate.findByNotificationDateAndWorkDateBetween(notifStart, notifEnd, workStart, workEnd));
+    }
+
+    @Override
+    public long countByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.record("countByWorkDateBetween", () -> delegate.countByWorkDateBetween(startDate, endDate));
+    }
+
+    @Override
+    public void streamByWorkDateBetween(LocalDate startDate, LocalDate endDate, StreamOrder order,
+                                        Consumer<WorkRecord> consumer)
+            throws ExecutionException, InterruptedException {
+        long[] rows = new long[1];
+        metrics.run("streamByWorkDateBetween", () -> delegate.streamByWorkDateBetween(startDate, endDate, order, record -> {
+            rows[0]++;
+            consumer.accept(record);
+        }));
+        metrics.recordRows("streamByWorkDateBetween", rows[0]);
+    }
+
+    /**
+     * Az eredeti (nem mért) repository, pl. típus specifikus funkciókhoz
+     */
+    public WorkRecordRepository getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,106 @@
+package com.employeemanager.repository.metrics;
+
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.model.dto.Page;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository hívások mérése: futási idő (backend, repository, művelet, kimenet szerint)
+ * és a visszaadott sorok száma
+ */
+public class RepositoryMetrics {
+
+    public static final String TIMER_NAME = "employeemanager.repository";
+    public static final String ROWS_NAME = "employeemanager.repository.rows";
+
+    private final MeterRegistry registry;
+    private final String backend;
+    private final String repository;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    public RepositoryMetrics(MeterRegistry registry, DatabaseType backend, String repository) {
+        this.registry = registry;
+        this.backend = backend.name();
+        this.repository = repository;
+    }
+
+    /**
+     * Mért repository hívás; a kivétel változatlanul továbbmegy, "error" kimenettel rögzítve
+     */
+    public <T> T record(String operation, RepositoryCall<T> call) throws ExecutionException, InterruptedException {
+        long started = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.execute();
+            outcome = "success";
+            recordRows(operation, result);
+            return result;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Visszatérési érték nélküli hívás mérése
+     */
+    public void run(String operation, RepositoryAction action) throws ExecutionException, InterruptedException {
+        record(operation, () -> {
+            action.execute();
+            return null;
+        });
+    }
+
+    /**
+     * Sorok számának rögzítése olyan műveleteknél, ahol az eredmény nem gyűjtemény (pl. stream)
+     */
+    public void recordRows(String operation, long rows) {
+        rowSummaries.computeIfAbsent(operation, op -> DistributionSummary.builder(ROWS_NAME)
+                .description("Rows returned by repository operations")
+                .baseUnit("rows")
+                .tag("backend", backend)
+                .tag("repository", repository)
+                .tag("operation", op)
+                .register(registry)).record(rows);
+    }
+
+    private void recordRows(String operation, Object result) {
+        if (result instanceof Collection<?> collection) {
+            recordRows(operation, collection.size());
+        } else if (result instanceof Optional<?> optional) {
+            recordRows(operation, optional.isPresent() ? 1 : 0);
+        } else if (result instanceof Page<?> page && page.getContent() != null) {
+            recordRows(operation, page.getContent().size());
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + ':' + outcome, key -> Timer.builder(TIMER_NAME)
+                .description("Repository operation latency")
+                .tag("backend", backend)
+                .tag("repository", repository)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram(false)
+                .register(registry));
+    }
+
+    @FunctionalInterface
+    public interface RepositoryCall<T> {
+        T execute() throws ExecutionException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    public interface RepositoryAction {
+        void execute() throws ExecutionException, InterruptedException;
+    }
+}
@@ -0,0 +1,302 @@
+package com.employeemanager.repository.replication;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.cache.FirestoreBatchFlusher;
+import com.employeemanager.repository.cache.FirestoreDocumentCache;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A kimenő napló (ReplicationOutbox) kiírása a Firestore replikába
+ *
+ * Egy háttérszál seq szerint olvassa a naplót, és kötegenként dokumentumonként egyszer írja ki az elsődleges
+ * adatbázis aktuális állapotát: létező sor mentés, hiányzó sor törlés (sírkővel, mint a Firebase repository-k).
+ * Így egy dokumentum több módosítása sem kerülhet felcserélve a replikába, és a sikertelen köteg ismételt
+ * kiírása ugyanazt az eredményt adja. A kiírt bejegyzések pontos seq szerint törlődnek; az ütemezést és
+ * az újrapróbálást a FirestoreBatchFlusher végzi. Az elsődleges írásokat a replika elérhetősége nem befolyásolja.
+ */
+@Slf4j
+public class FirestoreReplicator extends FirestoreBatchFlusher {
+
+    public static final String EMPLOYEES_COLLECTION = "employees";
+    public static final String WORK_RECORDS_COLLECTION = "workrecords";
+
+    private static final String SELECT_OUTBOX_SQL =
+            "SELECT seq, entity_type, entity_id FROM replication_outbox ORDER BY seq LIMIT ?";
+
+    private static final String SELECT_EMPLOYEES_SQL = """
+            SELECT id, name, birth_place, birth_date, mother_name, tax_number, social_security_number,
+                   address, created_at
+            FROM employees WHERE id IN (%s)
+            """;
+
+    // Az archivált munkanapló is létező dokumentum a replikában
+    private static final String SELECT_WORK_RECORDS_SQL = """
+            SELECT wr.id, wr.employee_id, wr.notification_date, wr.notification_time, wr.ebev_serial_number,
+                   wr.work_date, wr.payment, wr.hours_worked, wr.created_at, e.name AS employee_name
+            FROM work_records wr
+            LEFT JOIN employees e ON wr.employee_id = e.id
+            WHERE wr.id IN (%1$s)
+            UNION ALL
+            SELECT wa.id, wa.employee_id, wa.notification_date, wa.notification_time, wa.ebev_serial_number,
+                   wa.work_date, wa.payment, wa.hours_worked, wa.created_at, e.name AS employee_name
+            FROM work_records_archive wa
+            LEFT JOIN employees e ON wa.employee_id = e.id
+            WHERE wa.id IN (%1$s)
+            """;
+
+    private final DataSource dataSource;
+
+    public FirestoreReplicator(DataSource dataSource, Firestore firestore, int batchSize,
+                               Duration pollInterval, Duration maxBackoff) {
+        super("firestore-replicator", "Firestore replication", firestore, batchSize, pollInterval, maxBackoff);
+        this.dataSource = dataSource;
+        start();
+    }
+
+    public long pendingCount() throws ExecutionException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM replication_outbox")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            log.error("Error counting replication outbox entries", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    /**
+     * A napló kiírása kötegekben, amíg ki nem ürül
+     *
+     * @return a feldolgozott naplóbejegyzések száma
+     */
+    public int replicate() throws ExecutionException, InterruptedException {
+        return drain();
+    }
+
+    @Override
+    protected int writeBatch() throws ExecutionException, InterruptedException {
+        List<OutboxEntry> entries = readOutbox();
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        // Dokumentumonként egy írás: ugyanazon dokumentum bejegyzései az aktuális állapotba olvadnak
+        Set<String> employeeIds = new LinkedHashSet<>();
+        Set<String> workRecordIds = new LinkedHashSet<>();
+        for (OutboxEntry entry : entries) {
+            if (ReplicationOutbox.EntityType.EMPLOYEE.name().equals(entry.entityType)) {
+                employeeIds.add(entry.entityId);
+            } else if (ReplicationOutbox.EntityType.WORK_RECORD.name().equals(entry.entityType)) {
+                workRecordIds.add(entry.entityId);
+            } else {
+                log.warn("Skipping replication outbox entry {} with unknown entity type {}",
+                        entry.seq, entry.entityType);
+            }
+        }
+
+        WriteBatch batch = firestore.batch();
+        stage(batch, EMPLOYEES_COLLECTION, employeeIds, loadEmployees(employeeIds));
+        stage(batch, WORK_RECORDS_COLLECTION, workRecordIds, loadWorkRecords(workRecordIds));
+        commit(batch);
+
+        // A kiírás közben érkezett újabb bejegyzések (nagyobb seq) megmaradnak
+        deleteEntries(entries);
+        log.debug("Replicated {} documents from {} outbox entries to Firestore",
+                employeeIds.size() + workRecordIds.size(), entries.size());
+        return entries.size();
+    }
+
+    @Override
+    protected long pending() throws ExecutionException {
+        return pendingCount();
+    }
+
+    private void stage(WriteBatch batch, String collection, Set<String> ids, Map<String, Map<String, Object>> current) {
+        for (String id : ids) {
+            Map<String, Object> data = current.get(id);
+            if (data != null) {
+                data.put(FirestoreDocumentCache.UPDATED_AT, FieldValue.serverTimestamp());
+                batch.set(firestore.collection(collection).document(id), data);
+            } else {
+                batch.delete(firestore.collection(collection).document(id));
+                batch.set(firestore.collection(collection + FirestoreDocumentCache.TOMBSTONE_SUFFIX).document(id),
+                        Map.of(FirestoreDocumentCache.UPDATED_AT, FieldValue.serverTimestamp()));
+            }
+        }
+    }
+
+    private List<OutboxEntry> readOutbox() throws ExecutionException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_OUTBOX_SQL)) {
+            ps.setInt(1, batchSize);
+            List<OutboxEntry> entries = new ArrayList<>(batchSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new OutboxEntry(rs.getLong("seq"), rs.getString("entity_type"),
+                            rs.getString("entity_id")));
+                }
+            }
+            return entries;
+        } catch (SQLException e) {
+            log.error("Error reading replication outbox", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    private void deleteEntries(List<OutboxEntry> entries) throws ExecutionException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM replication_outbox WHERE seq = ?")) {
+                for (OutboxEntry entry : entries) {
+                    ps.setLong(1, entry.seq);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error deleting replicated outbox entries", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    private Map<String, Map<String, Object>> loadEmployees(Collection<String> ids) throws ExecutionException {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Map<String, Object>> employees = new HashMap<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     String.format(SELECT_EMPLOYEES_SQL, placeholders(ids.size())))) {
+            int index = 1;
+            for (String id : ids) {
+                ps.setString(index++, id);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Employee employee = mapEmployee(rs);
+                    employees.put(employee.getId(), employee.toMap());
+                }
+            }
+            return employees;
+        } catch (SQLException e) {
+            log.error("Error loading employees for replication", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    private Map<String, Map<String, Object>> loadWorkRecords(Collection<String> ids) throws ExecutionException {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Map<String, Object>> records = new HashMap<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     String.format(SELECT_WORK_RECORDS_SQL, placeholders(ids.size())))) {
+            int index = 1;
+            for (int i = 0; i < 2; i++) {
+                for (String id : ids) {
+                    ps.setString(index++, id);
+                }
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    WorkRecord record = mapWorkRecord(rs);
+                    records.put(record.getId(), record.toMap());
+                }
+            }
+            return records;
+        } catch (SQLException e) {
+            log.error("Error loading work records for replication", e);
+            throw new ExecutionException("Database error", e);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Employee mapEmployee(ResultSet rs) throws SQLException {
+        Employee employee = new Employee();
+        employee.setId(rs.getString("id"));
+        employee.setName(rs.getString("name"));
+        employee.setBirthPlace(rs.getString("birth_place"));
+        Date birthDate = rs.getDate("birth_date");
+        if (birthDate != null) {
+            employee.setBirthDate(birthDate.toLocalDate());
+        }
+        employee.setMotherName(rs.getString("mother_name"));
+        employee.setTaxNumber(rs.getString("tax_number"));
+        employee.setSocialSecurityNumber(rs.getString("social_security_number"));
+        employee.setAddress(rs.getString("address"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            employee.setCreatedAt(createdAt.toLocalDateTime().toLocalDate());
+        }
+        return employee;
+    }
+
+    private static WorkRecord mapWorkRecord(ResultSet rs) throws SQLException {
+        WorkRecord record = new WorkRecord();
+        record.setId(rs.getString("id"));
+
+        Employee employee = new Employee();
+        employee.setId(rs.getString("employee_id"));
+        employee.setName(rs.getString("employee_name"));
+        record.setEmployee(employee);
+
+        record.setNotificationDate(rs.getDate("notification_date").toLocalDate());
+        Time notificationTime = rs.getTime("notification_time");
+        if (notificationTime != null) {
+            record.setNotificationTime(notificationTime.toLocalTime());
+        }
+        record.setEbevSerialNumber(rs.getString("ebev_serial_number"));
+        record.setWorkDate(rs.getDate("work_date").toLocalDate());
+        record.setPayment(rs.getBigDecimal("payment"));
+        record.setHoursWorked(rs.getInt("hours_worked"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            record.setCreatedAt(createdAt.toLocalDateTime());
+        }
+        return record;
+    }
+
+    private static final class OutboxEntry {
+        final long seq;
+        final String entityType;
+        final String entityId;
+
+        OutboxEntry(long seq, String entityType, String entityId) {
+            this.seq = seq;
+            this.entityType = entityType;
+            this.entityId = entityId;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.employeemanager.repository.replication;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * A replikára még ki nem írt módosítások naplója (replication_outbox tábla)
+ *
+ * A JDBC repository-k a bejegyzést ugyanabban a tranzakcióban írják, mint magát a módosítást, így a napló
+ * pontosan a véglegesített írásokat tartalmazza. A bejegyzés csak a dokumentum azonosítóját hordozza: a kiíráskor
+ * az aktuális állapot kerül a replikába (lásd FirestoreReplicator), ezért az ismételt kiírás is ártalmatlan.
+ */
+public class ReplicationOutbox {
+
+    public enum EntityType {
+        EMPLOYEE,
+        WORK_RECORD
+    }
+
+    public enum Operation {
+        UPSERT,
+        DELETE
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO replication_outbox (entity_type, entity_id, operation) VALUES (?, ?, ?)";
+
+    // Az alkalmazott törlése kaszkádolva a munkanaplóit is törli, az archívumból is
+    private static final String INSERT_EMPLOYEE_WORK_RECORDS_SQL = """
+            INSERT INTO replication_outbox (entity_type, entity_id, operation)
+            SELECT 'WORK_RECORD', id, 'DELETE' FROM work_records WHERE employee_id = ?
+            UNION ALL
+            SELECT 'WORK_RECORD', id, 'DELETE' FROM work_records_archive WHERE employee_id = ?
+            """;
+
+    public void record(Connection conn, EntityType type, String id, Operation operation) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            ps.setString(1, type.name());
+            ps.setString(2, id);
+            ps.setString(3, operation.name());
+            ps.executeUpdate();
+        }
+    }
+
+    public void recordAll(Connection conn, EntityType type, Collection<String> ids, Operation operation)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            for (String id : ids) {
+                ps.setString(1, type.name());
+                ps.setString(2, id);
+                ps.setString(3, operation.name());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Az alkalmazott munkanaplóinak törlése a replikából; az alkalmazott törlése előtt kell hívni
+     */
+    public void recordEmployeeWorkRecordsDeleted(Connection conn, String employeeId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_EMPLOYEE_WORK_RECORDS_SQL)) {
+            ps.setString(1, employeeId);
+            ps.setString(2, employeeId);
+            ps.executeUpdate();
+        }
+    }
+}
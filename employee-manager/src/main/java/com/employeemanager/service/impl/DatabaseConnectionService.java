@@ -10,7 +10,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -52,8 +51,8 @@ public class DatabaseConnectionService {
             log.info("Restoring last active connection: {} ({})",
                     activeConnectionName, activeConfig.getType());
 
-            // Kapcsolat tesztelése
-            if (connectionManager.testConnection(activeConfig)) {
+            // Kapcsolat tesztelése; a tesztelt pool-ra épülnek a repository-k
+            if (connectionManager.prepareConnection(activeConfig)) {
                 connectionManager.setActiveConnection(activeConfig);
                 repositoryFactory.switchConnection(activeConfig);
                 activeConfig.setActive(true);
@@ -84,11 +83,6 @@ public class DatabaseConnectionService {
         }
     }
     
-    @PreDestroy
-    public void cleanup() {
-        connectionManager.closeAll();
-    }
-    
     /**
      * Kapcsolatok betöltése fájlból
      */
@@ -272,8 +266,8 @@ public class DatabaseConnectionService {
             return false;
         }
         
-        // Kapcsolat tesztelése
-        if (!connectionManager.testConnection(config)) {
+        // Kapcsolat tesztelése; a tesztelt pool váltja a régit a repository-k újraépítésekor
+        if (!connectionManager.prepareConnection(config)) {
             log.error("Failed to activate connection: {}", name);
             return false;
         }
@@ -341,6 +335,13 @@ public class DatabaseConnectionService {
             .maxPoolSize(original.getMaxPoolSize())
             .minIdle(original.getMinIdle())
             .connectionTimeout(original.getConnectionTimeout())
+            .tuningProfile(original.getTuningProfile())
+            .sslMode(original.getSslMode())
+            .adaptivePoolSizing(original.isAdaptivePoolSizing())
+            .workRecordPartitioning(original.getWorkRecordPartitioning())
+            .replicaHosts(original.getReplicaHosts() != null
+                    ? new ArrayList<>(original.getReplicaHosts()) : new ArrayList<>())
+            .readAfterWriteWindow(original.getReadAfterWriteWindow())
             .build();
     }
     
@@ -9,6 +9,7 @@ import com.employeemanager.service.exception.ServiceException;
 import com.employeemanager.service.interfaces.EmployeeService;
 import com.employeemanager.service.interfaces.WorkRecordService;
 import com.employeemanager.util.ValidationHelper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +22,7 @@ import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 @Service
+@Timed("employeemanager.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class EmployeeServiceImpl implements EmployeeService {
@@ -29,6 +31,7 @@ public class EmployeeServiceImpl implements EmployeeService {
     // VÁLTOZÁS: RepositoryFactory injektálása a statikus repository-k helyett
     private final RepositoryFactory repositoryFactory;
     private final WorkRecordService workRecordService;
+    private final WorkRecordColumnStoreService columnStore;
 
     /**
      * Dinamikus EmployeeRepository lekérése
@@ -75,6 +78,9 @@ public class EmployeeServiceImpl implements EmployeeService {
         } catch (ExecutionException | InterruptedException e) {
             logger.error("Error saving employee", e);
             throw new ServiceException("Failed to save employee", e);
+        } finally {
+            // A munkanaplók oszlopos másolata az alkalmazott nevét is tartalmazza
+            columnStore.invalidate();
         }
     }
 
@@ -129,6 +135,8 @@ public class EmployeeServiceImpl implements EmployeeService {
         } catch (ExecutionException | InterruptedException e) {
             logger.error("Error saving multiple employees", e);
             throw new ServiceException("Failed to save employees", e);
+        } finally {
+            columnStore.invalidate();
         }
     }
 
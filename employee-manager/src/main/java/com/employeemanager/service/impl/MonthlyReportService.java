@@ -3,7 +3,11 @@ package com.employeemanager.service.impl;
 import com.employeemanager.model.WorkRecord;
 import com.employeemanager.model.dto.EmployeeMonthlySummary;
 import com.employeemanager.model.dto.MonthlyWorkSummary;
+import com.employeemanager.repository.columnar.StringDictionary;
+import com.employeemanager.repository.columnar.WorkRecordColumnStore;
 import com.employeemanager.service.interfaces.WorkRecordService;
+import com.employeemanager.util.Money;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,11 +22,13 @@ import java.util.stream.Collectors;
  * Havi kimutatások és összesítések kezelése
  */
 @Service
+@Timed("employeemanager.service")
 @RequiredArgsConstructor
 @Slf4j
 public class MonthlyReportService {
 
     private final WorkRecordService workRecordService;
+    private final WorkRecordColumnStoreService columnStore;
 
     /**
      * Havi összesítő egy alkalmazotthoz
@@ -31,13 +37,13 @@ public class MonthlyReportService {
         LocalDate startDate = month.atDay(1);
         LocalDate endDate = month.atEndOfMonth();
 
-        List<WorkRecord> records = workRecordService.findAll().stream()
-            .filter(r -> r.getEmployee() != null && r.getEmployee().getId().equals(employeeId))
-            .filter(r -> r.getWorkDate() != null)
-            .filter(r -> !r.getWorkDate().isBefore(startDate) && !r.getWorkDate().isAfter(endDate))
-            .collect(Collectors.toList());
+        WorkRecordColumnStore store = columnStore.getStore();
+        int employee = store.employeeCode(employeeId);
+        int[] days = employee != StringDictionary.NO_CODE
+            ? store.distinctWorkDays(employee, startDate, endDate)
+            : new int[0];
 
-        if (records.isEmpty()) {
+        if (days.length == 0) {
             return EmployeeMonthlySummary.builder()
                 .employeeId(employeeId)
                 .month(month)
@@ -47,28 +53,8 @@ public class MonthlyReportService {
                 .build();
         }
 
-        Set<LocalDate> workDates = records.stream()
-            .map(WorkRecord::getWorkDate)
-            .collect(Collectors.toSet());
-
-        Integer totalHours = records.stream()
-            .map(WorkRecord::getHoursWorked)
-            .filter(Objects::nonNull)
-            .reduce(0, Integer::sum);
-
-        BigDecimal totalPayment = records.stream()
-            .map(WorkRecord::getPayment)
-            .filter(Objects::nonNull)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return EmployeeMonthlySummary.builder()
-            .employeeId(employeeId)
-            .employeeName(records.get(0).getEmployee().getName())
-            .month(month)
-            .workDates(workDates)
-            .totalHoursWorked(totalHours)
-            .totalPayment(totalPayment)
-            .build();
+        WorkRecordColumnStore.EmployeeTotals totals = store.totalsOf(employee, startDate, endDate);
+        return summary(store, employee, totals, days, month);
     }
 
     /**
@@ -78,52 +64,44 @@ public class MonthlyReportService {
         LocalDate startDate = month.atDay(1);
         LocalDate endDate = month.atEndOfMonth();
 
-        List<WorkRecord> allRecords = workRecordService.findAll().stream()
-            .filter(r -> r.getEmployee() != null)
-            .filter(r -> r.getWorkDate() != null)
-            .filter(r -> !r.getWorkDate().isBefore(startDate) && !r.getWorkDate().isAfter(endDate))
-            .collect(Collectors.toList());
-
-        // Csoportosítás alkalmazott szerint
-        Map<String, List<WorkRecord>> recordsByEmployee = allRecords.stream()
-            .collect(Collectors.groupingBy(r -> r.getEmployee().getId()));
+        // Egyetlen bejárás a hónap soraira, alkalmazott kód szerint összesítve
+        WorkRecordColumnStore store = columnStore.getStore();
+        WorkRecordColumnStore.EmployeeTotals totals = store.totalsByEmployee(startDate, endDate);
 
         List<EmployeeMonthlySummary> summaries = new ArrayList<>();
-
-        recordsByEmployee.forEach((employeeId, records) -> {
-            Set<LocalDate> workDates = records.stream()
-                .map(WorkRecord::getWorkDate)
-                .collect(Collectors.toSet());
-
-            Integer totalHours = records.stream()
-                .map(WorkRecord::getHoursWorked)
-                .filter(Objects::nonNull)
-                .reduce(0, Integer::sum);
-
-            BigDecimal totalPayment = records.stream()
-                .map(WorkRecord::getPayment)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            EmployeeMonthlySummary summary = EmployeeMonthlySummary.builder()
-                .employeeId(employeeId)
-                .employeeName(records.get(0).getEmployee().getName())
-                .month(month)
-                .workDates(workDates)
-                .totalHoursWorked(totalHours)
-                .totalPayment(totalPayment)
-                .build();
-
-            summaries.add(summary);
-        });
+        for (int employee = 0; employee < store.employeeCount(); employee++) {
+            if (totals.records(employee) > 0) {
+                summaries.add(summary(store, employee, totals,
+                    store.distinctWorkDays(employee, startDate, endDate), month));
+            }
+        }
 
         // Rendezés név szerint
-        summaries.sort(Comparator.comparing(EmployeeMonthlySummary::getEmployeeName));
+        summaries.sort(Comparator.comparing(EmployeeMonthlySummary::getEmployeeName,
+            Comparator.nullsLast(Comparator.naturalOrder())));
 
         log.info("Generated monthly summary for {} employees in {}", summaries.size(), month);
         return summaries;
     }
 
+    private static EmployeeMonthlySummary summary(WorkRecordColumnStore store, int employee,
+                                                  WorkRecordColumnStore.EmployeeTotals totals,
+                                                  int[] days, YearMonth month) {
+        Set<LocalDate> workDates = new HashSet<>();
+        for (int day : days) {
+            workDates.add(LocalDate.ofEpochDay(day));
+        }
+
+        return EmployeeMonthlySummary.builder()
+            .employeeId(store.employeeId(employee))
+            .employeeName(store.employeeName(employee))
+            .month(month)
+            .workDates(workDates)
+            .totalHoursWorked(totals.hoursWorked(employee))
+            .totalPayment(Money.toBigDecimal(totals.payment(employee)))
+            .build();
+    }
+
     /**
      * Több hónap összesítése egy alkalmazotthoz
      */
@@ -157,10 +135,7 @@ public class MonthlyReportService {
         LocalDate startDate = month.atDay(1);
         LocalDate endDate = month.atEndOfMonth();
 
-        List<WorkRecord> records = workRecordService.findAll().stream()
-            .filter(r -> r.getWorkDate() != null)
-            .filter(r -> !r.getWorkDate().isBefore(startDate) && !r.getWorkDate().isAfter(endDate))
-            .collect(Collectors.toList());
+        List<WorkRecord> records = workRecordService.getMonthlyRecords(startDate, endDate);
 
         return records.stream()
             .collect(Collectors.groupingBy(
@@ -184,9 +159,11 @@ public class MonthlyReportService {
             .map(EmployeeMonthlySummary::getTotalHoursWorked)
             .reduce(0, Integer::sum);
 
-        BigDecimal totalPayment = summaries.stream()
-            .map(EmployeeMonthlySummary::getTotalPayment)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long totalPaymentFiller = 0;
+        for (EmployeeMonthlySummary summary : summaries) {
+            totalPaymentFiller = Money.add(totalPaymentFiller, Money.toFiller(summary.getTotalPayment()));
+        }
+        BigDecimal totalPayment = Money.toBigDecimal(totalPaymentFiller);
 
         Map<String, Object> statistics = new HashMap<>();
         statistics.put("month", month);
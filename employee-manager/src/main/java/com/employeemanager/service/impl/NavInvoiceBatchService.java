@@ -0,0 +1,211 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.Invoice;
+import com.employeemanager.model.dto.NavBatchResult;
+import com.employeemanager.model.dto.NavInvoicePayload;
+import com.employeemanager.service.exception.ServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Havi zárás: számlák NAV XML-jeinek kötegelt, párhuzamos előállítása
+ * A kimenet könyvtár, vagy ha a cél ".zip" végű, zip archívum.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NavInvoiceBatchService {
+
+    private static final String OPERATION_CREATE = "CREATE";
+    private static final int QUEUE_CAPACITY_PER_THREAD = 4;
+
+    private final NavInvoiceXmlGenerator xmlGenerator;
+
+    private static final ThreadLocal<MessageDigest> SHA3_512 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA3-512");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA3-512 is not available", e);
+        }
+    });
+
+    public NavBatchResult generateBatch(Collection<Invoice> invoices, CompanySettings settings, Path target,
+                                        Consumer<NavInvoicePayload> payloadConsumer) throws ServiceException {
+        return generateBatch(invoices.stream(), settings, target, payloadConsumer);
+    }
+
+    /**
+     * Számlák feldolgozása korlátos szálkészleten; a payload fogyasztót több szál hívhatja egyszerre
+     */
+    public NavBatchResult generateBatch(Stream<Invoice> invoices, CompanySettings settings, Path target,
+                                        Consumer<NavInvoicePayload> payloadConsumer) throws ServiceException {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+        boolean zipOutput = target.getFileName().toString().toLowerCase().endsWith(".zip");
+
+        // Korlátos sor + CallerRunsPolicy: a forrás stream nem szalad el a feldolgozás elől
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_CAPACITY_PER_THREAD),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        AtomicInteger generated = new AtomicInteger();
+        AtomicLong totalBytes = new AtomicLong();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        Set<String> usedNames = ConcurrentHashMap.newKeySet();
+        Set<String> usedNumbers = ConcurrentHashMap.newKeySet();
+        long started = System.nanoTime();
+
+        try (FileSystem zipFs = zipOutput ? openZip(target) : null) {
+            Path outputRoot = zipOutput ? zipFs.getPath("/") : Files.createDirectories(target);
+
+            invoices.forEach(invoice -> executor.execute(() -> {
+                try {
+                    NavInvoicePayload payload = processInvoice(invoice, settings, outputRoot, zipFs,
+                            usedNumbers, usedNames);
+                    generated.incrementAndGet();
+                    totalBytes.addAndGet(payload.getXmlSize());
+                    if (payloadConsumer != null) {
+                        payloadConsumer.accept(payload);
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to generate NAV XML for invoice {}", invoice.getInvoiceNumber(), e);
+                    failures.add(invoice.getInvoiceNumber() + ": " + e.getMessage());
+                }
+            }));
+
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+                // A futó feladatok még a zip-be írhatnak: leállítjuk őket, mielőtt a zip lezárul
+                executor.shutdownNow();
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+                throw new ServiceException("NAV batch generation timed out");
+            }
+        } catch (IOException e) {
+            throw new ServiceException("Failed to write NAV batch output: " + target, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("NAV batch generation interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        NavBatchResult result = NavBatchResult.builder()
+                .target(target.toString())
+                .generatedCount(generated.get())
+                .failedCount(failures.size())
+                .totalXmlBytes(totalBytes.get())
+                .elapsed(Duration.ofNanos(System.nanoTime() - started))
+                .failures(new ArrayList<>(failures))
+                .build();
+
+        log.info("NAV batch finished: {} invoices ({} failed, {} KB) in {} ms, {} invoices/s -> {}",
+                result.getGeneratedCount(), result.getFailedCount(), result.getTotalXmlBytes() / 1024,
+                result.getElapsed().toMillis(), String.format("%.0f", result.getInvoicesPerSecond()), target);
+        return result;
+    }
+
+    private NavInvoicePayload processInvoice(Invoice invoice, CompanySettings settings, Path outputRoot,
+                                             FileSystem zipFs, Set<String> usedNumbers,
+                                             Set<String> usedNames) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        try (Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+            xmlGenerator.writeInvoiceXml(invoice, settings, writer);
+        }
+        byte[] xml = buffer.toByteArray();
+
+        String invoiceData = Base64.getEncoder().encodeToString(xml);
+        String outputName = claimFileName(invoice.getInvoiceNumber(), usedNumbers, usedNames) + ".xml";
+        Path outputPath = outputRoot.resolve(outputName);
+
+        if (zipFs != null) {
+            // A zip fájlrendszerbe egyszerre csak egy szál ír
+            synchronized (zipFs) {
+                Files.write(outputPath, xml);
+            }
+        } else {
+            Files.write(outputPath, xml);
+        }
+
+        return NavInvoicePayload.builder()
+                .invoiceNumber(invoice.getInvoiceNumber())
+                .operation(OPERATION_CREATE)
+                .invoiceData(invoiceData)
+                .invoiceHash(invoiceHash(OPERATION_CREATE, invoiceData))
+                .xmlSize(xml.length)
+                .outputName(outputName)
+                .build();
+    }
+
+    /**
+     * NAV 3.0 részleges hash: SHA3-512(operation + base64 számla adat), nagybetűs hex formában
+     */
+    static String invoiceHash(String operation, String invoiceData) {
+        MessageDigest digest = SHA3_512.get();
+        digest.reset();
+        digest.update(operation.getBytes(StandardCharsets.UTF_8));
+        digest.update(invoiceData.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().withUpperCase().formatHex(digest.digest());
+    }
+
+    private FileSystem openZip(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Files.deleteIfExists(target);
+        return FileSystems.newFileSystem(target, Map.of("create", "true"));
+    }
+
+    /**
+     * Egyedi kimeneti név: ha a tisztítás megváltoztatta a számlaszámot, vagy a név (kis-nagybetűtől
+     * függetlenül) már foglalt, a számlaszám hash-ének elejét kapja utótagként ("2024/1" és "2024_1" így
+     * nem írja felül egymást). A köteg minden további, már látott számlaszámú számlája hibára fut.
+     */
+    private String claimFileName(String invoiceNumber, Set<String> usedNumbers, Set<String> usedNames) {
+        if (!usedNumbers.add(invoiceNumber)) {
+            throw new ServiceException("Duplicate invoice number in batch: " + invoiceNumber);
+        }
+        String name = invoiceNumber.replaceAll("[^A-Za-z0-9._-]", "_");
+        String suffixed = name + "_" + shortHash(invoiceNumber);
+        if (!name.equals(invoiceNumber) || !usedNames.add(name.toLowerCase(Locale.ROOT))) {
+            name = suffixed;
+            if (!usedNames.add(name.toLowerCase(Locale.ROOT))) {
+                throw new ServiceException("Duplicate output name for invoice " + invoiceNumber + ": " + name);
+            }
+        }
+        return name;
+    }
+
+    private static String shortHash(String value) {
+        MessageDigest digest = SHA3_512.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)), 0, 4);
+    }
+}
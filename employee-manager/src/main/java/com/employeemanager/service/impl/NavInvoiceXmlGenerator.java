@@ -6,18 +6,13 @@ import com.employeemanager.model.Invoice;
 import com.employeemanager.model.InvoiceItem;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.format.DateTimeFormatter;
@@ -31,223 +26,230 @@ import java.time.format.DateTimeFormatter;
 public class NavInvoiceXmlGenerator {
 
     private static final String NAV_VERSION = "3.0";
+    private static final String NAV_DATA_NAMESPACE = "http://schemas.nav.gov.hu/OSA/3.0/data";
+    private static final String XSI_NAMESPACE = "http://www.w3.org/2001/XMLSchema-instance";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    // A factory a konfigurálás után szálbiztos, ezért egyszer hozzuk létre
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    // Behúzások előre elkészítve: sortörés + 2 szóköz szintenként
+    private static final String[] INDENTS = new String[8];
+
+    static {
+        for (int depth = 0; depth < INDENTS.length; depth++) {
+            INDENTS[depth] = "\n" + "  ".repeat(depth);
+        }
+    }
+
     /**
      * Számla XML generálása NAV 3.0 formátumban
      */
     public String generateInvoiceXml(Invoice invoice, CompanySettings companySettings) throws Exception {
-        DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-        Document doc = docBuilder.newDocument();
-
-        // Root element: InvoiceData
-        Element rootElement = doc.createElement("InvoiceData");
-        doc.appendChild(rootElement);
-
-        // Namespace és verzió
-        rootElement.setAttribute("xmlns", "http://schemas.nav.gov.hu/OSA/3.0/data");
-        rootElement.setAttribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
-
-        // Invoice Exchange
-        Element invoiceExchange = doc.createElement("invoiceExchange");
-        rootElement.appendChild(invoiceExchange);
-
-        // Invoice Header
-        Element invoiceHead = doc.createElement("invoiceHead");
-        invoiceExchange.appendChild(invoiceHead);
-
-        // Supplier info (Eladó)
-        addSupplierInfo(doc, invoiceHead, companySettings);
-
-        // Customer info (Vevő)
-        addCustomerInfo(doc, invoiceHead, invoice.getCustomer());
-
-        // Invoice Detail
-        addInvoiceDetail(doc, invoiceHead, invoice);
-
-        // Invoice Lines (Tételek)
-        Element invoiceLines = doc.createElement("invoiceLines");
-        invoiceExchange.appendChild(invoiceLines);
+        StringWriter writer = new StringWriter(4096);
+        writeInvoiceXml(invoice, companySettings, writer);
+        return writer.toString();
+    }
 
-        int lineNumber = 1;
-        for (InvoiceItem item : invoice.getItems()) {
-            addInvoiceLine(doc, invoiceLines, item, lineNumber++);
+    /**
+     * Számla XML írása közvetlenül a megadott Writer-be (kötegelt feldolgozáshoz)
+     */
+    public void writeInvoiceXml(Invoice invoice, CompanySettings companySettings, Writer out)
+            throws IOException, XMLStreamException {
+        out.write(XML_DECLARATION);
+
+        XMLStreamWriter xml = OUTPUT_FACTORY.createXMLStreamWriter(out);
+        try {
+            // Root element: InvoiceData
+            xml.writeStartElement("InvoiceData");
+            xml.writeDefaultNamespace(NAV_DATA_NAMESPACE);
+            xml.writeNamespace("xsi", XSI_NAMESPACE);
+
+            // Invoice Exchange
+            startElement(xml, "invoiceExchange", 1);
+
+            // Invoice Header
+            startElement(xml, "invoiceHead", 2);
+
+            // Supplier info (Eladó)
+            writeSupplierInfo(xml, companySettings);
+
+            // Customer info (Vevő)
+            writeCustomerInfo(xml, invoice.getCustomer());
+
+            // Invoice Detail
+            writeInvoiceDetail(xml, invoice);
+
+            endElement(xml, 2);
+
+            // Invoice Lines (Tételek)
+            startElement(xml, "invoiceLines", 2);
+            int lineNumber = 1;
+            for (InvoiceItem item : invoice.getItems()) {
+                writeInvoiceLine(xml, item, lineNumber++);
+            }
+            endElement(xml, 2);
+
+            // Invoice Summary (Összesítők)
+            writeInvoiceSummary(xml, invoice);
+
+            endElement(xml, 1);
+            endElement(xml, 0);
+            xml.writeCharacters("\n");
+            xml.flush();
+        } finally {
+            xml.close();
         }
-
-        // Invoice Summary (Összesítők)
-        addInvoiceSummary(doc, invoiceExchange, invoice);
-
-        // XML konvertálás String-gé
-        return convertDocumentToString(doc);
     }
 
     /**
-     * Eladó adatok hozzáadása
+     * Eladó adatok írása
      */
-    private void addSupplierInfo(Document doc, Element parent, CompanySettings settings) {
-        Element supplierInfo = doc.createElement("supplierInfo");
-        parent.appendChild(supplierInfo);
+    private void writeSupplierInfo(XMLStreamWriter xml, CompanySettings settings) throws XMLStreamException {
+        startElement(xml, "supplierInfo", 3);
 
         // Adószám
-        Element supplierTaxNumber = doc.createElement("supplierTaxNumber");
-        supplierInfo.appendChild(supplierTaxNumber);
-
-        Element taxpayerId = doc.createElement("taxpayerId");
-        taxpayerId.setTextContent(cleanTaxNumber(settings.getCompanyTaxNumber()));
-        supplierTaxNumber.appendChild(taxpayerId);
+        startElement(xml, "supplierTaxNumber", 4);
+        textElement(xml, "taxpayerId", cleanTaxNumber(settings.getCompanyTaxNumber()), 5);
+        endElement(xml, 4);
 
         // Név
-        Element supplierName = doc.createElement("supplierName");
-        supplierName.setTextContent(settings.getCompanyName());
-        supplierInfo.appendChild(supplierName);
+        textElement(xml, "supplierName", settings.getCompanyName(), 4);
 
         // Cím
-        Element supplierAddress = doc.createElement("supplierAddress");
-        supplierInfo.appendChild(supplierAddress);
-
-        Element simpleAddress = doc.createElement("simpleAddress");
-        supplierAddress.appendChild(simpleAddress);
-
-        addTextElement(doc, simpleAddress, "countryCode", "HU");
-        addTextElement(doc, simpleAddress, "region", "");
-        addTextElement(doc, simpleAddress, "postalCode", settings.getCompanyZipCode());
-        addTextElement(doc, simpleAddress, "city", settings.getCompanyCity());
-        addTextElement(doc, simpleAddress, "additionalAddressDetail", settings.getCompanyAddress());
+        startElement(xml, "supplierAddress", 4);
+        startElement(xml, "simpleAddress", 5);
+        textElement(xml, "countryCode", "HU", 6);
+        textElement(xml, "region", "", 6);
+        textElement(xml, "postalCode", settings.getCompanyZipCode(), 6);
+        textElement(xml, "city", settings.getCompanyCity(), 6);
+        textElement(xml, "additionalAddressDetail", settings.getCompanyAddress(), 6);
+        endElement(xml, 5);
+        endElement(xml, 4);
 
         // Bankszámla
         if (settings.getCompanyBankAccount() != null) {
-            Element supplierBankAccount = doc.createElement("supplierBankAccountNumber");
-            supplierBankAccount.setTextContent(settings.getCompanyBankAccount().replaceAll("[^0-9]", ""));
-            supplierInfo.appendChild(supplierBankAccount);
+            textElement(xml, "supplierBankAccountNumber",
+                    settings.getCompanyBankAccount().replaceAll("[^0-9]", ""), 4);
         }
+
+        endElement(xml, 3);
     }
 
     /**
-     * Vevő adatok hozzáadása
+     * Vevő adatok írása
      */
-    private void addCustomerInfo(Document doc, Element parent, Customer customer) {
-        Element customerInfo = doc.createElement("customerInfo");
-        parent.appendChild(customerInfo);
+    private void writeCustomerInfo(XMLStreamWriter xml, Customer customer) throws XMLStreamException {
+        startElement(xml, "customerInfo", 3);
 
         // Adószám (ha van)
         if (customer.getTaxNumber() != null && !customer.getTaxNumber().isEmpty()) {
-            Element customerTaxNumber = doc.createElement("customerTaxNumber");
-            customerInfo.appendChild(customerTaxNumber);
-
-            Element taxpayerId = doc.createElement("taxpayerId");
-            taxpayerId.setTextContent(cleanTaxNumber(customer.getTaxNumber()));
-            customerTaxNumber.appendChild(taxpayerId);
+            startElement(xml, "customerTaxNumber", 4);
+            textElement(xml, "taxpayerId", cleanTaxNumber(customer.getTaxNumber()), 5);
+            endElement(xml, 4);
         }
 
         // Név
-        Element customerName = doc.createElement("customerName");
-        customerName.setTextContent(customer.getName());
-        customerInfo.appendChild(customerName);
+        textElement(xml, "customerName", customer.getName(), 4);
 
         // Cím
-        Element customerAddress = doc.createElement("customerAddress");
-        customerInfo.appendChild(customerAddress);
-
-        Element simpleAddress = doc.createElement("simpleAddress");
-        customerAddress.appendChild(simpleAddress);
-
+        startElement(xml, "customerAddress", 4);
+        startElement(xml, "simpleAddress", 5);
         String country = customer.getCountry() != null ? customer.getCountry() : "HU";
-        addTextElement(doc, simpleAddress, "countryCode", country);
-        addTextElement(doc, simpleAddress, "region", "");
-        addTextElement(doc, simpleAddress, "postalCode", customer.getZipCode());
-        addTextElement(doc, simpleAddress, "city", customer.getCity());
-        addTextElement(doc, simpleAddress, "additionalAddressDetail", customer.getAddress());
+        textElement(xml, "countryCode", country, 6);
+        textElement(xml, "region", "", 6);
+        textElement(xml, "postalCode", customer.getZipCode(), 6);
+        textElement(xml, "city", customer.getCity(), 6);
+        textElement(xml, "additionalAddressDetail", customer.getAddress(), 6);
+        endElement(xml, 5);
+        endElement(xml, 4);
+
+        endElement(xml, 3);
     }
 
     /**
-     * Számla részletek hozzáadása
+     * Számla részletek írása
      */
-    private void addInvoiceDetail(Document doc, Element parent, Invoice invoice) {
-        Element invoiceDetail = doc.createElement("invoiceDetail");
-        parent.appendChild(invoiceDetail);
+    private void writeInvoiceDetail(XMLStreamWriter xml, Invoice invoice) throws XMLStreamException {
+        startElement(xml, "invoiceDetail", 3);
 
         // Számla kategória
-        addTextElement(doc, invoiceDetail, "invoiceCategory", "NORMAL");
+        textElement(xml, "invoiceCategory", "NORMAL", 4);
 
         // Dátumok
-        addTextElement(doc, invoiceDetail, "invoiceIssueDate",
-            invoice.getInvoiceDate().format(DATE_FORMATTER));
-        addTextElement(doc, invoiceDetail, "invoiceDeliveryDate",
-            invoice.getDeliveryDate() != null ?
-                invoice.getDeliveryDate().format(DATE_FORMATTER) :
-                invoice.getInvoiceDate().format(DATE_FORMATTER));
+        textElement(xml, "invoiceIssueDate", invoice.getInvoiceDate().format(DATE_FORMATTER), 4);
+        textElement(xml, "invoiceDeliveryDate",
+                invoice.getDeliveryDate() != null ?
+                        invoice.getDeliveryDate().format(DATE_FORMATTER) :
+                        invoice.getInvoiceDate().format(DATE_FORMATTER), 4);
 
         // Pénznem
-        addTextElement(doc, invoiceDetail, "currencyCode",
-            invoice.getCurrency() != null ? invoice.getCurrency() : "HUF");
+        textElement(xml, "currencyCode", invoice.getCurrency() != null ? invoice.getCurrency() : "HUF", 4);
 
         // Fizetési mód
-        addTextElement(doc, invoiceDetail, "paymentMethod", "TRANSFER");
+        textElement(xml, "paymentMethod", "TRANSFER", 4);
 
         // Fizetési határidő
         if (invoice.getPaymentDeadline() != null) {
-            addTextElement(doc, invoiceDetail, "paymentDate",
-                invoice.getPaymentDeadline().format(DATE_FORMATTER));
+            textElement(xml, "paymentDate", invoice.getPaymentDeadline().format(DATE_FORMATTER), 4);
         }
 
         // Számlaszám
-        addTextElement(doc, invoiceDetail, "invoiceNumber", invoice.getInvoiceNumber());
+        textElement(xml, "invoiceNumber", invoice.getInvoiceNumber(), 4);
+
+        endElement(xml, 3);
     }
 
     /**
-     * Számla tétel hozzáadása
+     * Számla tétel írása
      */
-    private void addInvoiceLine(Document doc, Element parent, InvoiceItem item, int lineNumber) {
-        Element line = doc.createElement("line");
-        parent.appendChild(line);
+    private void writeInvoiceLine(XMLStreamWriter xml, InvoiceItem item, int lineNumber) throws XMLStreamException {
+        startElement(xml, "line", 3);
 
         // Sorszám
-        addTextElement(doc, line, "lineNumber", String.valueOf(lineNumber));
+        textElement(xml, "lineNumber", String.valueOf(lineNumber), 4);
 
         // Megnevezés
-        Element lineDescription = doc.createElement("lineDescription");
-        lineDescription.setTextContent(item.getDescription());
-        line.appendChild(lineDescription);
+        textElement(xml, "lineDescription", item.getDescription(), 4);
 
         // Mennyiség
-        addTextElement(doc, line, "quantity", item.getQuantity().setScale(4, RoundingMode.HALF_UP).toString());
-        addTextElement(doc, line, "unitOfMeasure", item.getUnitOfMeasure());
+        textElement(xml, "quantity", scaled(item.getQuantity(), 4), 4);
+        textElement(xml, "unitOfMeasure", item.getUnitOfMeasure(), 4);
 
         // Egységár
-        addTextElement(doc, line, "unitPrice", item.getUnitPrice().setScale(2, RoundingMode.HALF_UP).toString());
+        textElement(xml, "unitPrice", scaled(item.getUnitPrice(), 2), 4);
 
         // ÁFA kulcs
-        Element lineVatData = doc.createElement("lineVatData");
-        line.appendChild(lineVatData);
-
-        addTextElement(doc, lineVatData, "lineVatContent", "true");
-        addTextElement(doc, lineVatData, "lineVatRate", item.getVatRate().setScale(2, RoundingMode.HALF_UP).toString());
+        startElement(xml, "lineVatData", 4);
+        textElement(xml, "lineVatContent", "true", 5);
+        textElement(xml, "lineVatRate", scaled(item.getVatRate(), 2), 5);
+        endElement(xml, 4);
 
         // Nettó érték
-        addTextElement(doc, line, "lineNetAmount", item.getNetAmount().setScale(2, RoundingMode.HALF_UP).toString());
+        textElement(xml, "lineNetAmount", scaled(item.getNetAmount(), 2), 4);
 
         // ÁFA összeg
-        addTextElement(doc, line, "lineVatAmount", item.getVatAmount().setScale(2, RoundingMode.HALF_UP).toString());
+        textElement(xml, "lineVatAmount", scaled(item.getVatAmount(), 2), 4);
 
         // Bruttó érték
-        addTextElement(doc, line, "lineGrossAmount", item.getGrossAmount().setScale(2, RoundingMode.HALF_UP).toString());
+        textElement(xml, "lineGrossAmount", scaled(item.getGrossAmount(), 2), 4);
+
+        endElement(xml, 3);
     }
 
     /**
-     * Számla összesítő hozzáadása
+     * Számla összesítő írása
      */
-    private void addInvoiceSummary(Document doc, Element parent, Invoice invoice) {
-        Element invoiceSummary = doc.createElement("invoiceSummary");
-        parent.appendChild(invoiceSummary);
+    private void writeInvoiceSummary(XMLStreamWriter xml, Invoice invoice) throws XMLStreamException {
+        startElement(xml, "invoiceSummary", 2);
 
         // Összesített értékek
-        addTextElement(doc, invoiceSummary, "invoiceNetAmount",
-            invoice.getNetAmount().setScale(2, RoundingMode.HALF_UP).toString());
-        addTextElement(doc, invoiceSummary, "invoiceVatAmount",
-            invoice.getVatAmount().setScale(2, RoundingMode.HALF_UP).toString());
-        addTextElement(doc, invoiceSummary, "invoiceGrossAmount",
-            invoice.getGrossAmount().setScale(2, RoundingMode.HALF_UP).toString());
+        textElement(xml, "invoiceNetAmount", scaled(invoice.getNetAmount(), 2), 3);
+        textElement(xml, "invoiceVatAmount", scaled(invoice.getVatAmount(), 2), 3);
+        textElement(xml, "invoiceGrossAmount", scaled(invoice.getGrossAmount(), 2), 3);
+
+        endElement(xml, 2);
     }
 
     /**
@@ -258,27 +260,37 @@ public class NavInvoiceXmlGenerator {
         return taxNumber.replaceAll("[^0-9]", "");
     }
 
+    private String scaled(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_UP).toString();
+    }
+
     /**
-     * Szöveges elem hozzáadása
+     * Gyermekelemeket tartalmazó elem nyitása a megadott mélységben
      */
-    private void addTextElement(Document doc, Element parent, String name, String value) {
-        Element element = doc.createElement(name);
-        element.setTextContent(value != null ? value : "");
-        parent.appendChild(element);
+    private void startElement(XMLStreamWriter xml, String name, int depth) throws XMLStreamException {
+        xml.writeCharacters(INDENTS[depth]);
+        xml.writeStartElement(name);
     }
 
     /**
-     * Document konvertálása String-gé
+     * Gyermekelemeket tartalmazó elem zárása a megadott mélységben
      */
-    private String convertDocumentToString(Document doc) throws Exception {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-
-        StringWriter writer = new StringWriter();
-        transformer.transform(new DOMSource(doc), new StreamResult(writer));
-        return writer.toString();
+    private void endElement(XMLStreamWriter xml, int depth) throws XMLStreamException {
+        xml.writeCharacters(INDENTS[depth]);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Szöveges elem írása; üres érték esetén üres elem, ahogy a DOM szerializáló is írta
+     */
+    private void textElement(XMLStreamWriter xml, String name, String value, int depth) throws XMLStreamException {
+        xml.writeCharacters(INDENTS[depth]);
+        if (value == null || value.isEmpty()) {
+            xml.writeEmptyElement(name);
+        } else {
+            xml.writeStartElement(name);
+            xml.writeCharacters(value);
+            xml.writeEndElement();
+        }
     }
 }
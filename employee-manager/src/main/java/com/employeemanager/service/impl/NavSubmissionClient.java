@@ -0,0 +1,666 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.Invoice;
+import com.employeemanager.model.dto.NavInvoicePayload;
+import com.employeemanager.model.dto.NavSubmissionResult;
+import com.employeemanager.model.dto.NavSubmissionResult.InvoiceOutcome;
+import com.employeemanager.service.exception.ServiceException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * NAV Online Számla 3.0 beküldő kliens
+ * A számlákat kérésenként legfeljebb 100-as kötegekben, több párhuzamos kéréssel (pipelining) küldi be,
+ * majd a tranzakciók állapotát a queryTransactionStatus végponton követi.
+ * Újrapróbáláskor minden kérés új azonosítóval, időbélyeggel és aláírással, a manageInvoice friss exchange tokennel
+ * megy; elveszett válasz esetén a köteget a tranzakciólistában keresi meg, mielőtt újra beküldené.
+ */
+@Slf4j
+public class NavSubmissionClient implements AutoCloseable {
+
+    public static final int MAX_INVOICES_PER_REQUEST = 100;
+
+    private static final String TEST_API_URL = "https://api-test.onlineszamla.nav.gov.hu/invoiceService/v3/";
+    private static final String PRODUCTION_API_URL = "https://api.onlineszamla.nav.gov.hu/invoiceService/v3/";
+    private static final String API_NAMESPACE = "http://schemas.nav.gov.hu/OSA/3.0/api";
+    private static final String COMMON_NAMESPACE = "http://schemas.nav.gov.hu/NTCA/1.0/common";
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+    private static final DateTimeFormatter SIGNATURE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    private static final int MAX_RETRIES = 3;
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(200);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+    private static final int MAX_STATUS_POLLS = 20;
+    // Az ügyfél és a NAV órája közti eltérés tűrése a tranzakciólista lekérdezésénél
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+
+    private final URI baseUri;
+    private final int maxInFlight;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    public NavSubmissionClient(URI baseUri, int maxInFlight) {
+        this.baseUri = baseUri.toString().endsWith("/") ? baseUri : URI.create(baseUri + "/");
+        this.maxInFlight = maxInFlight;
+        this.executor = Executors.newFixedThreadPool(Math.max(2, maxInFlight));
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Kliens a cég beállításaiban megadott (teszt vagy éles) NAV környezethez
+     */
+    public static NavSubmissionClient forSettings(CompanySettings settings) {
+        boolean testMode = settings.getNavTestMode() == null || settings.getNavTestMode();
+        return new NavSubmissionClient(URI.create(testMode ? TEST_API_URL : PRODUCTION_API_URL), 4);
+    }
+
+    /**
+     * Számlák beküldése és a feldolgozás megvárása
+     */
+    public NavSubmissionResult submit(List<NavInvoicePayload> payloads, CompanySettings settings,
+                                      String technicalUserPassword) throws ServiceException {
+        long started = System.nanoTime();
+        ZonedDateTime submittedFrom = ZonedDateTime.now(ZoneOffset.UTC).minus(CLOCK_SKEW);
+        Credentials credentials = new Credentials(settings, sha512Hex(technicalUserPassword));
+        AtomicInteger requestCount = new AtomicInteger();
+        AtomicInteger retryCount = new AtomicInteger();
+
+        List<List<NavInvoicePayload>> chunks = new ArrayList<>();
+        for (int i = 0; i < payloads.size(); i += MAX_INVOICES_PER_REQUEST) {
+            chunks.add(payloads.subList(i, Math.min(i + MAX_INVOICES_PER_REQUEST, payloads.size())));
+        }
+
+        // 1. Beküldés: egyszerre legfeljebb maxInFlight kérés van úton
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<String>> transactions = new ArrayList<>(chunks.size());
+        try {
+            for (List<NavInvoicePayload> chunk : chunks) {
+                inFlight.acquire();
+                transactions.add(submitChunk(chunk, credentials, requestCount, retryCount)
+                        .whenComplete((transactionId, error) -> inFlight.release()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("NAV submission interrupted", e);
+        }
+
+        // 2. Állapot lekérdezés tranzakciónként
+        List<InvoiceOutcome> outcomes = new ArrayList<>(payloads.size());
+        Map<String, List<InvoiceOutcome>> pending = new LinkedHashMap<>();
+        for (int c = 0; c < chunks.size(); c++) {
+            List<NavInvoicePayload> chunk = chunks.get(c);
+            String transactionId = null;
+            String error = null;
+            try {
+                try {
+                    transactionId = transactions.get(c).join();
+                } catch (CompletionException e) {
+                    if (!(unwrap(e) instanceof UnknownOutcomeException)) {
+                        throw e;
+                    }
+                    log.warn("NAV manageInvoice outcome unknown for chunk {}: {}", c, rootMessage(e));
+                    transactionId = recoverUnknownOutcome(chunk, submittedFrom, credentials, requestCount, retryCount);
+                }
+            } catch (CompletionException | ServiceException e) {
+                error = rootMessage(e);
+                log.error("NAV manageInvoice failed for chunk {}: {}", c, error);
+            }
+
+            List<InvoiceOutcome> chunkOutcomes = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                chunkOutcomes.add(InvoiceOutcome.builder()
+                        .invoiceNumber(chunk.get(i).getInvoiceNumber())
+                        .transactionId(transactionId)
+                        .index(i + 1)
+                        .status(transactionId != null ? "RECEIVED" : "FAILED")
+                        .message(error)
+                        .build());
+            }
+            outcomes.addAll(chunkOutcomes);
+            if (transactionId != null) {
+                pending.put(transactionId, chunkOutcomes);
+            }
+        }
+
+        pollTransactionStatuses(pending, credentials, requestCount, retryCount);
+
+        NavSubmissionResult result = NavSubmissionResult.builder()
+                .outcomes(outcomes)
+                .requestCount(requestCount.get())
+                .retryCount(retryCount.get())
+                .elapsed(Duration.ofNanos(System.nanoTime() - started))
+                .build();
+
+        log.info("NAV submission finished: {} invoices in {} requests ({} retries), {} DONE, {} ABORTED, {} FAILED, {} ms, {} invoices/s",
+                outcomes.size(), result.getRequestCount(), result.getRetryCount(),
+                result.countByStatus("DONE"), result.countByStatus("ABORTED"), result.countByStatus("FAILED"),
+                result.getElapsed().toMillis(), String.format("%.0f", result.getInvoicesPerSecond()));
+        return result;
+    }
+
+    /**
+     * Sikeresen befogadott számlák NAV mezőinek kitöltése
+     */
+    public void applyResults(Collection<Invoice> invoices, NavSubmissionResult result) {
+        Map<String, InvoiceOutcome> byNumber = new HashMap<>();
+        result.getOutcomes().forEach(o -> byNumber.put(o.getInvoiceNumber(), o));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Invoice invoice : invoices) {
+            InvoiceOutcome outcome = byNumber.get(invoice.getInvoiceNumber());
+            if (outcome != null && "DONE".equals(outcome.getStatus())) {
+                invoice.setIsSentToNav(true);
+                invoice.setNavTransactionId(outcome.getTransactionId());
+                invoice.setNavSentAt(now);
+            }
+        }
+    }
+
+    private CompletableFuture<String> submitChunk(List<NavInvoicePayload> chunk, Credentials credentials,
+                                                  AtomicInteger requestCount, AtomicInteger retryCount) {
+        return submitChunkAttempt(chunk, credentials, 1, requestCount, retryCount);
+    }
+
+    /**
+     * tokenExchange + manageInvoice; szerver oldali hibánál az egész sorozat ismétlődik, mert az exchange token
+     * egyszer használható. A manageInvoice I/O hibája után a beküldés sorsa ismeretlen (UnknownOutcomeException).
+     */
+    private CompletableFuture<String> submitChunkAttempt(List<NavInvoicePayload> chunk, Credentials credentials,
+                                                         int attempt, AtomicInteger requestCount,
+                                                         AtomicInteger retryCount) {
+        return send("tokenExchange", () -> buildTokenExchangeRequest(credentials), requestCount, retryCount)
+                .thenApply(response -> decodeExchangeToken(response.get("encodedExchangeToken"),
+                        credentials.settings.getNavReplacementKey()))
+                .thenCompose(token -> sendOnce("manageInvoice", buildManageInvoiceRequest(chunk, token, credentials),
+                        requestCount)
+                        .handle((response, error) -> {
+                            if (error == null) {
+                                String transactionId = response.get("transactionId");
+                                return transactionId != null ? CompletableFuture.completedFuture(transactionId)
+                                        : CompletableFuture.<String>failedFuture(
+                                                new ServiceException("Missing transactionId in NAV response"));
+                            }
+                            Throwable cause = unwrap(error);
+                            if (cause instanceof ServerErrorException && attempt < MAX_RETRIES) {
+                                retryCount.incrementAndGet();
+                                return backoff(attempt).thenCompose(ignored -> submitChunkAttempt(chunk, credentials,
+                                        attempt + 1, requestCount, retryCount));
+                            }
+                            if (cause instanceof IOException) {
+                                return CompletableFuture.<String>failedFuture(new UnknownOutcomeException(
+                                        "No response to NAV manageInvoice: " + cause.getMessage(), cause));
+                            }
+                            return CompletableFuture.<String>failedFuture(cause);
+                        })
+                        .thenCompose(future -> future));
+    }
+
+    /**
+     * Elveszett manageInvoice válasz után a köteg tranzakciójának megkeresése; csak ha a NAV nem kapta meg,
+     * akkor küldi be újra (friss tokennel)
+     */
+    private String recoverUnknownOutcome(List<NavInvoicePayload> chunk, ZonedDateTime submittedFrom,
+                                         Credentials credentials, AtomicInteger requestCount,
+                                         AtomicInteger retryCount) {
+        for (int attempt = 1; ; attempt++) {
+            String transactionId = findSubmittedTransaction(chunk, submittedFrom, credentials, requestCount, retryCount);
+            if (transactionId != null) {
+                log.info("NAV received the chunk of {} as transaction {} despite the lost response",
+                        chunk.get(0).getInvoiceNumber(), transactionId);
+                return transactionId;
+            }
+            if (attempt >= MAX_RETRIES) {
+                throw new ServiceException("NAV manageInvoice outcome unknown after " + attempt + " attempts");
+            }
+            retryCount.incrementAndGet();
+            try {
+                return submitChunk(chunk, credentials, requestCount, retryCount).join();
+            } catch (CompletionException e) {
+                if (!(unwrap(e) instanceof UnknownOutcomeException)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * A beküldés óta érkezett, azonos tételszámú tranzakciók közül az, amelyik első számlája megegyezik
+     * a köteg első számlájával (queryTransactionStatus returnOriginalRequest)
+     */
+    private String findSubmittedTransaction(List<NavInvoicePayload> chunk, ZonedDateTime submittedFrom,
+                                            Credentials credentials, AtomicInteger requestCount,
+                                            AtomicInteger retryCount) {
+        ZonedDateTime submittedTo = ZonedDateTime.now(ZoneOffset.UTC).plus(CLOCK_SKEW);
+        int availablePages = 1;
+        for (int page = 1; page <= availablePages; page++) {
+            int currentPage = page;
+            ParsedResponse list = send("queryTransactionList",
+                    () -> buildQueryTransactionListRequest(currentPage, submittedFrom, submittedTo, credentials),
+                    requestCount, retryCount).join();
+            for (Map.Entry<String, Integer> transaction : list.transactionItemCounts.entrySet()) {
+                if (transaction.getValue() != chunk.size()) {
+                    continue;
+                }
+                ParsedResponse status = send("queryTransactionStatus",
+                        () -> buildQueryStatusRequest(transaction.getKey(), true, credentials),
+                        requestCount, retryCount).join();
+                if (chunk.get(0).getInvoiceData().equals(status.originalRequests.get(1))) {
+                    return transaction.getKey();
+                }
+            }
+            String available = list.get("availablePage");
+            availablePages = available != null ? Integer.parseInt(available) : 1;
+        }
+        return null;
+    }
+
+    private void pollTransactionStatuses(Map<String, List<InvoiceOutcome>> pending, Credentials credentials,
+                                         AtomicInteger requestCount, AtomicInteger retryCount) {
+        for (int poll = 0; poll < MAX_STATUS_POLLS && !pending.isEmpty(); poll++) {
+            sleep(POLL_INTERVAL);
+
+            Semaphore inFlight = new Semaphore(maxInFlight);
+            Map<String, CompletableFuture<ParsedResponse>> queries = new LinkedHashMap<>();
+            for (String transactionId : pending.keySet()) {
+                inFlight.acquireUninterruptibly();
+                queries.put(transactionId, send("queryTransactionStatus",
+                        () -> buildQueryStatusRequest(transactionId, false, credentials), requestCount, retryCount)
+                        .whenComplete((response, error) -> inFlight.release()));
+            }
+
+            for (Map.Entry<String, CompletableFuture<ParsedResponse>> query : queries.entrySet()) {
+                List<InvoiceOutcome> chunkOutcomes = pending.get(query.getKey());
+                try {
+                    Map<Integer, String> statuses = query.getValue().join().invoiceStatuses;
+                    boolean finished = true;
+                    for (InvoiceOutcome outcome : chunkOutcomes) {
+                        String status = statuses.getOrDefault(outcome.getIndex(), "PROCESSING");
+                        outcome.setStatus(status);
+                        finished &= "DONE".equals(status) || "ABORTED".equals(status);
+                    }
+                    if (finished) {
+                        pending.remove(query.getKey());
+                    }
+                } catch (CompletionException e) {
+                    log.warn("NAV status query failed for transaction {}: {}", query.getKey(), rootMessage(e));
+                }
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            log.warn("{} NAV transactions still processing after {} polls", pending.size(), MAX_STATUS_POLLS);
+        }
+    }
+
+    /**
+     * POST kérés küldése, szerver oldali hiba vagy I/O hiba esetén visszalépéses újrapróbálással.
+     * Csak ismételhető műveletekhez; minden próbálkozás újraépíti a kérést (új requestId, időbélyeg, aláírás).
+     */
+    private CompletableFuture<ParsedResponse> send(String operation, Supplier<String> requestBuilder,
+                                                   AtomicInteger requestCount, AtomicInteger retryCount) {
+        return sendAttempt(operation, requestBuilder, 1, requestCount, retryCount);
+    }
+
+    private CompletableFuture<ParsedResponse> sendAttempt(String operation, Supplier<String> requestBuilder,
+                                                          int attempt, AtomicInteger requestCount,
+                                                          AtomicInteger retryCount) {
+        return sendOnce(operation, requestBuilder.get(), requestCount)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    Throwable cause = unwrap(error);
+                    boolean retryable = cause instanceof IOException || cause instanceof ServerErrorException;
+                    if (retryable && attempt < MAX_RETRIES) {
+                        retryCount.incrementAndGet();
+                        return backoff(attempt).thenCompose(ignored -> sendAttempt(operation, requestBuilder,
+                                attempt + 1, requestCount, retryCount));
+                    }
+                    return CompletableFuture.<ParsedResponse>failedFuture(cause);
+                })
+                .thenCompose(future -> future);
+    }
+
+    /**
+     * Egyetlen POST kérés; HTTP 5xx esetén ServerErrorException, I/O hibánál a kliens IOException-je
+     */
+    private CompletableFuture<ParsedResponse> sendOnce(String operation, String body, AtomicInteger requestCount) {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(operation))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/xml; charset=UTF-8")
+                .header("Accept", "application/xml")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        requestCount.incrementAndGet();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> {
+                    if (response.statusCode() >= 500) {
+                        throw new CompletionException(new ServerErrorException(
+                                String.format("NAV %s failed (HTTP %d)", operation, response.statusCode())));
+                    }
+                    ParsedResponse parsed;
+                    try {
+                        parsed = parseResponse(response.body());
+                    } catch (XMLStreamException e) {
+                        throw new CompletionException(new ServiceException("Invalid NAV response for " + operation, e));
+                    }
+                    if (response.statusCode() != 200 || !"OK".equals(parsed.get("funcCode"))) {
+                        throw new CompletionException(new ServiceException(
+                                String.format("NAV %s failed (HTTP %d): %s %s", operation, response.statusCode(),
+                                        parsed.get("errorCode"), parsed.get("message"))));
+                    }
+                    return parsed;
+                });
+    }
+
+    private CompletableFuture<Void> backoff(int attempt) {
+        Executor delayed = CompletableFuture.delayedExecutor(
+                RETRY_BACKOFF.toMillis() * attempt, TimeUnit.MILLISECONDS, executor);
+        return CompletableFuture.runAsync(() -> {
+        }, delayed);
+    }
+
+    private String buildTokenExchangeRequest(Credentials credentials) {
+        return buildRequest("TokenExchangeRequest", credentials, List.of(), xml -> {
+        });
+    }
+
+    private String buildManageInvoiceRequest(List<NavInvoicePayload> chunk, String exchangeToken,
+                                             Credentials credentials) {
+        List<String> invoiceHashes = chunk.stream().map(NavInvoicePayload::getInvoiceHash).toList();
+        return buildRequest("ManageInvoiceRequest", credentials, invoiceHashes, xml -> {
+            writeText(xml, API_NAMESPACE, "exchangeToken", exchangeToken);
+            xml.writeStartElement(API_NAMESPACE, "invoiceOperations");
+            writeText(xml, API_NAMESPACE, "compressedContent", "false");
+            int index = 1;
+            for (NavInvoicePayload payload : chunk) {
+                xml.writeStartElement(API_NAMESPACE, "invoiceOperation");
+                writeText(xml, API_NAMESPACE, "index", String.valueOf(index++));
+                writeText(xml, API_NAMESPACE, "invoiceOperation", payload.getOperation());
+                writeText(xml, API_NAMESPACE, "invoiceData", payload.getInvoiceData());
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        });
+    }
+
+    private String buildQueryStatusRequest(String transactionId, boolean returnOriginalRequest,
+                                           Credentials credentials) {
+        return buildRequest("QueryTransactionStatusRequest", credentials, List.of(), xml -> {
+            writeText(xml, API_NAMESPACE, "transactionId", transactionId);
+            if (returnOriginalRequest) {
+                writeText(xml, API_NAMESPACE, "returnOriginalRequest", "true");
+            }
+        });
+    }
+
+    private String buildQueryTransactionListRequest(int page, ZonedDateTime from, ZonedDateTime to,
+                                                    Credentials credentials) {
+        return buildRequest("QueryTransactionListRequest", credentials, List.of(), xml -> {
+            writeText(xml, API_NAMESPACE, "page", String.valueOf(page));
+            xml.writeStartElement(API_NAMESPACE, "insDate");
+            writeText(xml, API_NAMESPACE, "dateTimeFrom", from.format(TIMESTAMP_FORMATTER));
+            writeText(xml, API_NAMESPACE, "dateTimeTo", to.format(TIMESTAMP_FORMATTER));
+            xml.writeEndElement();
+        });
+    }
+
+    /**
+     * Közös fejléc (header, user, software) és a kérés specifikus törzs összeállítása
+     */
+    private String buildRequest(String rootName, Credentials credentials, List<String> invoiceHashes,
+                                BodyWriter bodyWriter) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String requestId = "EM" + UUID.randomUUID().toString().replace("-", "").substring(0, 28).toUpperCase();
+
+        StringBuilder signatureBase = new StringBuilder(256 + invoiceHashes.size() * 128)
+                .append(requestId)
+                .append(now.format(SIGNATURE_TIME_FORMATTER))
+                .append(credentials.settings.getNavSignatureKey());
+        invoiceHashes.forEach(signatureBase::append);
+
+        StringWriter out = new StringWriter(4096);
+        try {
+            XMLStreamWriter xml = OUTPUT_FACTORY.createXMLStreamWriter(out);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.setDefaultNamespace(API_NAMESPACE);
+            xml.setPrefix("common", COMMON_NAMESPACE);
+            xml.writeStartElement(API_NAMESPACE, rootName);
+            xml.writeDefaultNamespace(API_NAMESPACE);
+            xml.writeNamespace("common", COMMON_NAMESPACE);
+
+            xml.writeStartElement(COMMON_NAMESPACE, "header");
+            writeText(xml, COMMON_NAMESPACE, "requestId", requestId);
+            writeText(xml, COMMON_NAMESPACE, "timestamp", now.format(TIMESTAMP_FORMATTER));
+            writeText(xml, COMMON_NAMESPACE, "requestVersion", "3.0");
+            writeText(xml, COMMON_NAMESPACE, "headerVersion", "1.0");
+            xml.writeEndElement();
+
+            xml.writeStartElement(COMMON_NAMESPACE, "user");
+            writeText(xml, COMMON_NAMESPACE, "login", credentials.settings.getNavTechnicalUser());
+            xml.writeStartElement(COMMON_NAMESPACE, "passwordHash");
+            xml.writeAttribute("cryptoType", "SHA-512");
+            xml.writeCharacters(credentials.passwordHash);
+            xml.writeEndElement();
+            writeText(xml, COMMON_NAMESPACE, "taxNumber", credentials.taxNumber);
+            xml.writeStartElement(COMMON_NAMESPACE, "requestSignature");
+            xml.writeAttribute("cryptoType", "SHA3-512");
+            xml.writeCharacters(hashHex("SHA3-512", signatureBase.toString()));
+            xml.writeEndElement();
+            xml.writeEndElement();
+
+            xml.writeStartElement(API_NAMESPACE, "software");
+            writeText(xml, API_NAMESPACE, "softwareId", "HU00000000EMPMAN01");
+            writeText(xml, API_NAMESPACE, "softwareName", "EmployeeManager");
+            writeText(xml, API_NAMESPACE, "softwareOperation", "LOCAL_SOFTWARE");
+            writeText(xml, API_NAMESPACE, "softwareMainVersion", "1.7");
+            writeText(xml, API_NAMESPACE, "softwareDevName", "EmployeeManager");
+            writeText(xml, API_NAMESPACE, "softwareDevContact", "info@employeemanager.hu");
+            xml.writeEndElement();
+
+            bodyWriter.write(xml);
+
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new ServiceException("Failed to build NAV request " + rootName, e);
+        }
+        return out.toString();
+    }
+
+    private static void writeText(XMLStreamWriter xml, String namespace, String name, String value)
+            throws XMLStreamException {
+        xml.writeStartElement(namespace, name);
+        xml.writeCharacters(value != null ? value : "");
+        xml.writeEndElement();
+    }
+
+    /**
+     * A válasz számunkra fontos mezőinek kigyűjtése (névtértől függetlenül, helyi név alapján)
+     */
+    private ParsedResponse parseResponse(String body) throws XMLStreamException {
+        ParsedResponse parsed = new ParsedResponse();
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(body));
+        try {
+            Integer currentIndex = null;
+            String currentTransaction = null;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String name = reader.getLocalName();
+                switch (name) {
+                    case "funcCode", "errorCode", "message", "encodedExchangeToken", "availablePage" ->
+                            parsed.fields.putIfAbsent(name, reader.getElementText().trim());
+                    case "transactionId" -> {
+                        currentTransaction = reader.getElementText().trim();
+                        parsed.fields.putIfAbsent(name, currentTransaction);
+                    }
+                    case "itemCount" -> {
+                        if (currentTransaction != null) {
+                            parsed.transactionItemCounts.put(currentTransaction,
+                                    Integer.valueOf(reader.getElementText().trim()));
+                        }
+                    }
+                    case "index" -> currentIndex = Integer.valueOf(reader.getElementText().trim());
+                    case "invoiceStatus" -> {
+                        if (currentIndex != null) {
+                            parsed.invoiceStatuses.put(currentIndex, reader.getElementText().trim());
+                        }
+                    }
+                    case "originalRequest" -> {
+                        if (currentIndex != null) {
+                            parsed.originalRequests.put(currentIndex, reader.getElementText().trim());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return parsed;
+    }
+
+    /**
+     * Az exchange token AES/ECB kódolással, a cserekulccsal titkosítva érkezik
+     */
+    private String decodeExchangeToken(String encodedToken, String replacementKey) {
+        if (encodedToken == null) {
+            throw new CompletionException(new ServiceException("Missing exchange token in NAV response"));
+        }
+        try {
+            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+            cipher.init(Cipher.DECRYPT_MODE,
+                    new SecretKeySpec(replacementKey.getBytes(StandardCharsets.UTF_8), "AES"));
+            return new String(cipher.doFinal(Base64.getDecoder().decode(encodedToken)), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new CompletionException(new ServiceException("Failed to decode NAV exchange token", e));
+        }
+    }
+
+    private static String sha512Hex(String value) {
+        return hashHex("SHA-512", value != null ? value : "");
+    }
+
+    private static String hashHex(String algorithm, String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(algorithm);
+            return HexFormat.of().withUpperCase().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        return unwrap(e).getMessage();
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && (cause instanceof CompletionException || cause instanceof ExecutionException)) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("NAV status polling interrupted", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(XMLStreamWriter xml) throws XMLStreamException;
+    }
+
+    private static final class Credentials {
+        private final CompanySettings settings;
+        private final String passwordHash;
+        private final String taxNumber;
+
+        private Credentials(CompanySettings settings, String passwordHash) {
+            this.settings = settings;
+            this.passwordHash = passwordHash;
+            // A NAV felé az adószám első 8 számjegye (törzsszám) megy
+            String digits = settings.getCompanyTaxNumber() != null
+                    ? settings.getCompanyTaxNumber().replaceAll("[^0-9]", "") : "";
+            this.taxNumber = digits.length() > 8 ? digits.substring(0, 8) : digits;
+        }
+    }
+
+    /**
+     * HTTP 5xx: a NAV nem dolgozta fel a kérést, újraküldhető
+     */
+    private static final class ServerErrorException extends ServiceException {
+        private ServerErrorException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A manageInvoice válasza elveszett, nem tudni, befogadta-e a NAV a köteget
+     */
+    private static final class UnknownOutcomeException extends ServiceException {
+        private UnknownOutcomeException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private static final class ParsedResponse {
+        private final Map<String, String> fields = new HashMap<>();
+        private final Map<Integer, String> invoiceStatuses = new HashMap<>();
+        private final Map<Integer, String> originalRequests = new HashMap<>();
+        private final Map<String, Integer> transactionItemCounts = new LinkedHashMap<>();
+
+        private String get(String name) {
+            return fields.get(name);
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.employeemanager.service.impl;
 
+import com.employeemanager.diagnostics.ExportEvent;
 import com.employeemanager.model.Employee;
-import com.employeemanager.model.WorkRecord;
 import com.employeemanager.service.exception.ServiceException;
 import com.employeemanager.service.interfaces.EmployeeService;
 import com.employeemanager.service.interfaces.WorkRecordService;
+import com.employeemanager.service.interfaces.WorkRecordService.RecordOrder;
+import com.employeemanager.util.Money;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -20,103 +26,154 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed("employeemanager.service")
 @RequiredArgsConstructor
 public class ReportService {
     private final EmployeeService employeeService;
     private final WorkRecordService workRecordService;
     private static final String REPORTS_DIRECTORY = "reports";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String SEPARATOR_LINE = "----------------------------------------\n";
 
     public String generateReport(LocalDate startDate, LocalDate endDate,
                                  boolean includeEmployeeDetails,
                                  boolean includeWorkRecords,
                                  boolean includeSummary) throws ServiceException {
+        Path reportPath = null;
+        ReportTotals totals = null;
+        ExportEvent event = new ExportEvent();
+        event.begin();
         try {
-            StringBuilder report = new StringBuilder();
-            report.append("Időszaki jelentés\n");
-            report.append("Időszak: ").append(startDate.format(DATE_FORMATTER))
-                    .append(" - ").append(endDate.format(DATE_FORMATTER)).append("\n\n");
-
-            if (includeEmployeeDetails) {
-                appendEmployeeDetails(report);
-            }
-
-            if (includeWorkRecords) {
-                appendWorkRecords(report, startDate, endDate);
-            }
+            createReportsDirectory();
 
-            if (includeSummary) {
-                appendSummary(report, startDate, endDate);
+            String fileName = String.format("report_%s_%s.txt",
+                    startDate.format(DateTimeFormatter.BASIC_ISO_DATE),
+                    endDate.format(DateTimeFormatter.BASIC_ISO_DATE));
+            reportPath = Paths.get(REPORTS_DIRECTORY, fileName);
+
+            // A jelentés soronként, pufferelten íródik ki, a munkanaplókat egyszer olvassuk végig
+            try (BufferedWriter writer = Files.newBufferedWriter(reportPath)) {
+                writer.write("Időszaki jelentés\n");
+                writer.write("Időszak: " + startDate.format(DATE_FORMATTER)
+                        + " - " + endDate.format(DATE_FORMATTER) + "\n\n");
+
+                if (includeEmployeeDetails) {
+                    appendEmployeeDetails(writer);
+                }
+
+                if (includeWorkRecords || includeSummary) {
+                    totals = appendWorkRecords(writer, startDate, endDate, includeWorkRecords);
+                    if (includeSummary) {
+                        appendSummary(writer, totals);
+                    }
+                }
             }
 
-            return saveReport(report.toString(), startDate, endDate);
+            commitExportEvent(event, reportPath, startDate, endDate, totals, false);
+            return reportPath.toString();
         } catch (Exception e) {
             log.error("Error generating report", e);
+            commitExportEvent(event, reportPath, startDate, endDate, totals, true);
+            deleteIncompleteReport(reportPath);
             throw new ServiceException("Failed to generate report", e);
         }
     }
 
-    private void appendEmployeeDetails(StringBuilder report) {
+    private void commitExportEvent(ExportEvent event, Path reportPath, LocalDate startDate, LocalDate endDate,
+                                   ReportTotals totals, boolean failed) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.format = "TXT";
+        event.file = reportPath != null ? reportPath.toString() : null;
+        event.startDate = startDate.toString();
+        event.endDate = endDate.toString();
+        event.rowCount = totals != null ? totals.recordCount : 0;
+        event.failed = failed;
+        if (!failed) {
+            try {
+                event.fileSize = Files.size(reportPath);
+            } catch (IOException e) {
+                log.debug("Could not read report size: {}", reportPath, e);
+            }
+        }
+        event.commit();
+    }
+
+    private void appendEmployeeDetails(Writer writer) throws IOException {
         List<Employee> employees = employeeService.findAll();
-        report.append("Alkalmazottak listája (").append(employees.size()).append(" fő)\n");
-        report.append("----------------------------------------\n");
+        writer.write("Alkalmazottak listája (" + employees.size() + " fő)\n");
+        writer.write(SEPARATOR_LINE);
 
         for (Employee employee : employees) {
-            report.append("Név: ").append(employee.getName()).append("\n");
-            report.append("Adószám: ").append(employee.getTaxNumber()).append("\n");
-            report.append("TAJ szám: ").append(employee.getSocialSecurityNumber()).append("\n");
-            report.append("Lakcím: ").append(employee.getAddress()).append("\n");
-            report.append("----------------------------------------\n");
+            writer.write("Név: " + employee.getName() + "\n");
+            writer.write("Adószám: " + employee.getTaxNumber() + "\n");
+            writer.write("TAJ szám: " + employee.getSocialSecurityNumber() + "\n");
+            writer.write("Lakcím: " + employee.getAddress() + "\n");
+            writer.write(SEPARATOR_LINE);
         }
-        report.append("\n");
+        writer.write("\n");
     }
 
-    private void appendWorkRecords(StringBuilder report, LocalDate startDate, LocalDate endDate) {
-        List<WorkRecord> records = workRecordService.getMonthlyRecords(startDate, endDate);
-        report.append("Munkanaplók (").append(records.size()).append(" db)\n");
-        report.append("----------------------------------------\n");
-
-        for (WorkRecord record : records) {
-            report.append("Alkalmazott: ").append(record.getEmployee().getName()).append("\n");
-            report.append("Dátum: ").append(record.getWorkDate().format(DATE_FORMATTER)).append("\n");
-            report.append("Munkaórák: ").append(record.getHoursWorked()).append("\n");
-            report.append("Bérezés: ").append(String.format("%,d Ft", record.getPayment().longValue())).append("\n");
-            report.append("----------------------------------------\n");
+    /**
+     * Munkanaplók kiírása a stream olvasás közben, az összesítők ugyanebben a menetben gyűlnek.
+     * A sorrend a korábbi listás lekérdezésé: munkavégzés dátuma szerint csökkenő, azon belül név szerint.
+     */
+    private ReportTotals appendWorkRecords(Writer writer, LocalDate startDate, LocalDate endDate,
+                                           boolean writeRecords) throws IOException {
+        ReportTotals totals = new ReportTotals();
+
+        if (writeRecords) {
+            // A fejléc darabszáma előre, egy COUNT lekérdezéssel
+            writer.write("Munkanaplók (" + workRecordService.countMonthlyRecords(startDate, endDate) + " db)\n");
+            writer.write(SEPARATOR_LINE);
         }
-        report.append("\n");
-    }
-
-    private void appendSummary(StringBuilder report, LocalDate startDate, LocalDate endDate) {
-        List<WorkRecord> records = workRecordService.getMonthlyRecords(startDate, endDate);
 
-        int totalHours = records.stream()
-                .mapToInt(WorkRecord::getHoursWorked)
-                .sum();
+        try {
+            workRecordService.streamMonthlyRecords(startDate, endDate, RecordOrder.WORK_DATE_DESC, record -> {
+                totals.recordCount++;
+                totals.totalHours += record.getHoursWorked();
+                long payment = Money.toFiller(record.getPayment());
+                totals.totalPayment = Money.add(totals.totalPayment, payment);
+
+                if (writeRecords) {
+                    try {
+                        writer.write("Alkalmazott: " + record.getEmployee().getName() + "\n");
+                        writer.write("Dátum: " + record.getWorkDate().format(DATE_FORMATTER) + "\n");
+                        writer.write("Munkaórák: " + record.getHoursWorked() + "\n");
+                        writer.write("Bérezés: " + Money.format(payment) + "\n");
+                        writer.write(SEPARATOR_LINE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
 
-        long totalPayment = records.stream()
-                .mapToLong(r -> r.getPayment().longValue())
-                .sum();
+        if (writeRecords) {
+            writer.write("\n");
+        }
+        return totals;
+    }
 
-        report.append("Összesítés\n");
-        report.append("----------------------------------------\n");
-        report.append("Összes munkaóra: ").append(totalHours).append(" óra\n");
-        report.append("Összes kifizetés: ").append(String.format("%,d Ft", totalPayment)).append("\n");
+    private void appendSummary(Writer writer, ReportTotals totals) throws IOException {
+        writer.write("Összesítés\n");
+        writer.write(SEPARATOR_LINE);
+        writer.write("Összes munkaóra: " + totals.totalHours + " óra\n");
+        writer.write("Összes kifizetés: " + Money.format(totals.totalPayment) + "\n");
     }
 
-    private String saveReport(String content, LocalDate startDate, LocalDate endDate) throws ServiceException {
+    private void deleteIncompleteReport(Path reportPath) {
+        if (reportPath == null) {
+            return;
+        }
         try {
-            createReportsDirectory();
-
-            String fileName = String.format("report_%s_%s.txt",
-                    startDate.format(DateTimeFormatter.BASIC_ISO_DATE),
-                    endDate.format(DateTimeFormatter.BASIC_ISO_DATE));
-
-            Path reportPath = Paths.get(REPORTS_DIRECTORY, fileName);
-            Files.writeString(reportPath, content);
-
-            return reportPath.toString();
+            Files.deleteIfExists(reportPath);
         } catch (IOException e) {
-            throw new ServiceException("Failed to save report", e);
+            log.warn("Could not delete incomplete report: {}", reportPath, e);
         }
     }
 
@@ -142,4 +199,14 @@ public class ReportService {
             throw new ServiceException("Failed to get available reports", e);
         }
     }
+
+    /**
+     * Egy menetben gyűjtött összesítő adatok
+     */
+    private static final class ReportTotals {
+        private long recordCount;
+        private int totalHours;
+        /** Fillérben */
+        private long totalPayment;
+    }
 }
\ No newline at end of file
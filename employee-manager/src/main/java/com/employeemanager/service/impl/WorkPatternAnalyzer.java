@@ -1,17 +1,18 @@
 package com.employeemanager.service.impl;
 
+import com.employeemanager.diagnostics.AnalyzerRunEvent;
 import com.employeemanager.model.Employee;
 import com.employeemanager.model.WarningLevel;
-import com.employeemanager.model.WorkRecord;
-import com.employeemanager.service.interfaces.EmployeeService;
+import com.employeemanager.repository.columnar.StringDictionary;
+import com.employeemanager.repository.columnar.WorkRecordColumnStore;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Munkaidő minták elemzésére szolgáló service
@@ -19,36 +20,44 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@Timed("employeemanager.service")
 @RequiredArgsConstructor
 public class WorkPatternAnalyzer {
     
-    private final EmployeeService employeeService;
+    private final WorkRecordColumnStoreService columnStore;
     
     /**
      * Egy alkalmazott munkaidő mintáinak teljes elemzése
      */
     public WarningAnalysis analyzeEmployee(Employee employee) {
+        AnalyzerRunEvent event = new AnalyzerRunEvent();
+        event.begin();
+        WarningAnalysis analysis = analyze(employee, event);
+        commitRunEvent(event, "employee", 1);
+        return analysis;
+    }
+
+    /**
+     * Elemzés futtatása; a feldolgozott munkanaplók és figyelmeztetések száma a JFR eseménybe kerül
+     */
+    private WarningAnalysis analyze(Employee employee, AnalyzerRunEvent event) {
         try {
-            // Az EmployeeService-en keresztül kérjük le a munkanaplókat
-            // Széles dátum intervallummal, hogy minden rekordot megkapjunk
+            // Széles dátum intervallum, hogy minden rekordot megkapjunk
             LocalDate startDate = LocalDate.of(2000, 1, 1);
             LocalDate endDate = LocalDate.now().plusYears(1);
             
-            List<WorkRecord> allRecords = employeeService.getEmployeeMonthlyRecords(
-                employee.getId(), startDate, endDate
-            );
-            
-            if (allRecords.isEmpty()) {
+            // Az oszlopos másolatból: különböző munkanapok epoch-napként, növekvő sorrendben
+            WorkRecordColumnStore store = columnStore.getStore();
+            int code = store.employeeCode(employee.getId());
+            if (code == StringDictionary.NO_CODE) {
                 return new WarningAnalysis(WarningLevel.NONE, "");
             }
+            event.recordCount += store.recordCount(code);
             
-            // Munkanapok kinyerése és rendezése
-            List<LocalDate> workDates = allRecords.stream()
-                    .map(WorkRecord::getWorkDate)
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .sorted()
-                    .collect(Collectors.toList());
+            int[] workDates = store.distinctWorkDays(code, startDate, endDate);
+            if (workDates.length == 0) {
+                return new WarningAnalysis(WarningLevel.NONE, "");
+            }
             
             // Elemzések futtatása
             ConsecutiveDaysResult consecutiveResult = checkConsecutiveWorkDays(workDates);
@@ -77,6 +86,9 @@ public class WorkPatternAnalyzer {
                 }
             }
             
+            if (highestLevel != WarningLevel.NONE) {
+                event.warningCount++;
+            }
             return new WarningAnalysis(highestLevel, message.toString().trim());
             
         } catch (Exception e) {
@@ -88,21 +100,20 @@ public class WorkPatternAnalyzer {
     /**
      * Egymást követő munkanapok ellenőrzése
      */
-    private ConsecutiveDaysResult checkConsecutiveWorkDays(List<LocalDate> sortedDates) {
-        if (sortedDates.isEmpty()) {
+    private ConsecutiveDaysResult checkConsecutiveWorkDays(int[] sortedDays) {
+        if (sortedDays.length == 0) {
             return new ConsecutiveDaysResult(WarningLevel.NONE, "", 0);
         }
         
         int maxConsecutive = 1;
         int currentConsecutive = 1;
-        LocalDate lastDate = sortedDates.get(0);
+        int lastDay = sortedDays[0];
         
-        // Végigmegyünk a rendezett dátumokon
-        for (int i = 1; i < sortedDates.size(); i++) {
-            LocalDate currentDate = sortedDates.get(i);
-            long daysBetween = ChronoUnit.DAYS.between(lastDate, currentDate);
+        // Végigmegyünk a rendezett napokon
+        for (int i = 1; i < sortedDays.length; i++) {
+            int currentDay = sortedDays[i];
             
-            if (daysBetween == 1) {
+            if (currentDay - lastDay == 1) {
                 // Egymást követő napok
                 currentConsecutive++;
                 maxConsecutive = Math.max(maxConsecutive, currentConsecutive);
@@ -111,13 +122,14 @@ public class WorkPatternAnalyzer {
                 currentConsecutive = 1;
             }
             
-            lastDate = currentDate;
+            lastDay = currentDay;
         }
         
         // Ellenőrzés, hogy az aktuális sorozat folytatódik-e ma
-        if (!sortedDates.isEmpty()) {
-            LocalDate lastWorkDate = sortedDates.get(sortedDates.size() - 1);
-            if (lastWorkDate.equals(LocalDate.now()) || lastWorkDate.equals(LocalDate.now().minusDays(1))) {
+        if (sortedDays.length > 0) {
+            long lastWorkDay = sortedDays[sortedDays.length - 1];
+            long today = LocalDate.now().toEpochDay();
+            if (lastWorkDay == today || lastWorkDay == today - 1) {
                 // Ha ma vagy tegnap volt az utolsó munkanap, akkor az aktuális sorozatot használjuk
                 maxConsecutive = Math.max(maxConsecutive, currentConsecutive);
             }
@@ -141,15 +153,11 @@ public class WorkPatternAnalyzer {
     /**
      * Havi munkanapok ellenőrzése
      */
-    private MonthlyDaysResult checkMonthlyWorkDays(List<LocalDate> dates) {
-        LocalDate now = LocalDate.now();
-        int currentMonth = now.getMonthValue();
-        int currentYear = now.getYear();
+    private MonthlyDaysResult checkMonthlyWorkDays(int[] days) {
+        YearMonth currentMonth = YearMonth.now();
         
         // Aktuális hónap munkanapjainak számolása
-        long monthlyDays = dates.stream()
-                .filter(date -> date.getMonthValue() == currentMonth && date.getYear() == currentYear)
-                .count();
+        long monthlyDays = countDaysBetween(days, currentMonth.atDay(1), currentMonth.atEndOfMonth());
         
         // Figyelmeztetési szint meghatározása
         WarningLevel level = WarningLevel.NONE;
@@ -169,14 +177,11 @@ public class WorkPatternAnalyzer {
     /**
      * Éves munkanapok ellenőrzése
      */
-    private YearlyDaysResult checkYearlyWorkDays(List<LocalDate> dates) {
+    private YearlyDaysResult checkYearlyWorkDays(int[] days) {
         LocalDate now = LocalDate.now();
-        int currentYear = now.getYear();
         
         // Aktuális év munkanapjainak számolása
-        long yearlyDays = dates.stream()
-                .filter(date -> date.getYear() == currentYear)
-                .count();
+        long yearlyDays = countDaysBetween(days, now.withDayOfYear(1), now.withDayOfYear(now.lengthOfYear()));
         
         // Figyelmeztetési szint meghatározása
         WarningLevel level = WarningLevel.NONE;
@@ -193,19 +198,46 @@ public class WorkPatternAnalyzer {
         return new YearlyDaysResult(level, message, (int) yearlyDays);
     }
     
+    /**
+     * A [from, to] tartományba eső napok száma
+     */
+    private static long countDaysBetween(int[] days, LocalDate from, LocalDate to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        long count = 0;
+        for (int day : days) {
+            if (day >= fromDay && day <= toDay) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
     /**
      * Összes alkalmazott elemzése
      */
     public Map<String, WarningAnalysis> analyzeAllEmployees(List<Employee> employees) {
         Map<String, WarningAnalysis> results = new HashMap<>();
+        AnalyzerRunEvent event = new AnalyzerRunEvent();
+        event.begin();
         
         for (Employee employee : employees) {
-            WarningAnalysis analysis = analyzeEmployee(employee);
+            WarningAnalysis analysis = analyze(employee, event);
             results.put(employee.getId(), analysis);
         }
         
+        commitRunEvent(event, "all", employees.size());
         return results;
     }
+
+    private void commitRunEvent(AnalyzerRunEvent event, String scope, int employeeCount) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.scope = scope;
+            event.employeeCount = employeeCount;
+            event.commit();
+        }
+    }
     
     // Belső osztályok az eredmények tárolására
     
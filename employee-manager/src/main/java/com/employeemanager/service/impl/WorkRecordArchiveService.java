@@ -0,0 +1,52 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.config.ArchiveProperties;
+import com.employeemanager.database.factory.RepositoryFactory;
+import com.employeemanager.repository.archive.WorkRecordArchive;
+import com.employeemanager.service.exception.ServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Régi munkanaplók áthelyezése a hideg rétegbe
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkRecordArchiveService {
+
+    private final RepositoryFactory repositoryFactory;
+    private final ArchiveProperties archiveProperties;
+
+    /**
+     * Az archiválás határa: a megőrzési idővel korábbi hónap első napja
+     */
+    public LocalDate getCutoff() {
+        return LocalDate.now().minusYears(archiveProperties.getRetentionYears()).withDayOfMonth(1);
+    }
+
+    /**
+     * A megőrzési időnél régebbi munkanaplók archiválása
+     *
+     * @return az áthelyezett munkanaplók száma
+     */
+    public int archiveExpiredRecords() throws ServiceException {
+        WorkRecordArchive archive = repositoryFactory.getWorkRecordArchive();
+        if (archive == null) {
+            throw new ServiceException("Work record archive is disabled");
+        }
+        LocalDate cutoff = getCutoff();
+        try {
+            int moved = archive.archiveBefore(cutoff);
+            log.info("Archived {} work records older than {}", moved, cutoff);
+            return moved;
+        } catch (ExecutionException | InterruptedException e) {
+            log.error("Error archiving work records before {}", cutoff, e);
+            throw new ServiceException("Failed to archive work records", e);
+        }
+    }
+}
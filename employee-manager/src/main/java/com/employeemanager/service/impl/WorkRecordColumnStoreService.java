@@ -0,0 +1,118 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.database.factory.RepositoryFactory;
+import com.employeemanager.repository.columnar.WorkRecordColumnStore;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.service.exception.ServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Az aktív kapcsolat munkanaplóinak oszlopos másolata
+ *
+ * Első használatkor töltődik be, és a munkanapló/alkalmazott mentésekig, illetve kapcsolatváltásig érvényes.
+ * Más kliens által végzett módosítás az adatok frissítése (invalidate) után látszik.
+ * A felületi szál a getLoadedStore()-t használja, a betöltést a preload() a háttérben indítja.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkRecordColumnStoreService {
+
+    private final RepositoryFactory repositoryFactory;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "column-store-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WorkRecordColumnStore getStore() throws ServiceException {
+        WorkRecordRepository repository = repositoryFactory.getWorkRecordRepository();
+        Snapshot current = snapshot;
+        if (current != null && current.repository == repository) {
+            return current.store;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && current.repository == repository) {
+                return current.store;
+            }
+            long loadedGeneration = generation.get();
+            long start = System.nanoTime();
+            WorkRecordColumnStore store;
+            try {
+                store = WorkRecordColumnStore.load(repository, repositoryFactory.getWorkRecordArchive());
+            } catch (ExecutionException | InterruptedException e) {
+                log.error("Error loading work record column store", e);
+                throw new ServiceException("Failed to load work records for analysis", e);
+            }
+            log.info("Loaded column store with {} work records of {} employees in {} ms",
+                    store.size(), store.employeeCount(), (System.nanoTime() - start) / 1_000_000);
+
+            // Betöltés közbeni módosításnál a másolat már elavult: csak ez a hívás használja
+            if (generation.get() == loadedGeneration) {
+                snapshot = new Snapshot(repository, store);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Az aktív kapcsolat már betöltött másolata, betöltés nélkül; null, ha még nincs ilyen
+     */
+    public WorkRecordColumnStore getLoadedStore() {
+        Snapshot current = snapshot;
+        if (current != null && current.repository == repositoryFactory.getWorkRecordRepository()) {
+            return current.store;
+        }
+        return null;
+    }
+
+    /**
+     * Betöltés (és az e-BEV index felépítése) a háttérszálon, ha még nincs érvényes másolat
+     */
+    public void preload() {
+        loader.execute(() -> {
+            try {
+                // Az e-BEV index is itt épül, hogy az exportálás a felületi szálon már kész indexet kapjon
+                getStore().getEbevIndex();
+            } catch (ServiceException e) {
+                log.warn("Background column store load failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * A másolat eldobása; a következő lekérdezés újratölti
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private static final class Snapshot {
+        final WorkRecordRepository repository;
+        final WorkRecordColumnStore store;
+
+        Snapshot(WorkRecordRepository repository, WorkRecordColumnStore store) {
+            this.repository = repository;
+            this.store = store;
+        }
+    }
+}
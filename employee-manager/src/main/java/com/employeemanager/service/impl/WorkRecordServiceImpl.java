@@ -4,9 +4,11 @@ import com.employeemanager.database.factory.RepositoryFactory;
 import com.employeemanager.model.Employee;
 import com.employeemanager.model.WorkRecord;
 import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.repository.interfaces.WorkRecordRepository.StreamOrder;
 import com.employeemanager.service.exception.ServiceException;
 import com.employeemanager.service.interfaces.WorkRecordService;
 import com.employeemanager.util.ValidationHelper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,9 +18,11 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("employeemanager.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class WorkRecordServiceImpl implements WorkRecordService {
@@ -26,6 +30,7 @@ public class WorkRecordServiceImpl implements WorkRecordService {
 
     // VÁLTOZÁS: RepositoryFactory injektálása a statikus repository helyett
     private final RepositoryFactory repositoryFactory;
+    private final WorkRecordColumnStoreService columnStore;
 
     /**
      * Dinamikus WorkRecordRepository lekérése
@@ -47,6 +52,8 @@ public class WorkRecordServiceImpl implements WorkRecordService {
         } catch (ExecutionException | InterruptedException e) {
             logger.error("Error saving work record", e);
             throw new ServiceException("Failed to save work record", e);
+        } finally {
+            columnStore.invalidate();
         }
     }
 
@@ -78,6 +85,8 @@ public class WorkRecordServiceImpl implements WorkRecordService {
         } catch (ExecutionException | InterruptedException e) {
             logger.error("Error deleting work record with id: " + id, e);
             throw new ServiceException("Failed to delete work record", e);
+        } finally {
+            columnStore.invalidate();
         }
     }
 
@@ -92,6 +101,8 @@ public class WorkRecordServiceImpl implements WorkRecordService {
         } catch (ExecutionException | InterruptedException e) {
             logger.error("Error saving multiple work records", e);
             throw new ServiceException("Failed to save work records", e);
+        } finally {
+            columnStore.invalidate();
         }
     }
 
@@ -105,6 +116,37 @@ public class WorkRecordServiceImpl implements WorkRecordService {
         }
     }
 
+    @Override
+    public long countMonthlyRecords(LocalDate startDate, LocalDate endDate) throws ServiceException {
+        try {
+            return getWorkRecordRepository().countByWorkDateBetween(startDate, endDate);
+        } catch (ExecutionException | InterruptedException e) {
+            logger.error("Error counting monthly records", e);
+            throw new ServiceException("Failed to count monthly records", e);
+        }
+    }
+
+    @Override
+    public void streamMonthlyRecords(LocalDate startDate, LocalDate endDate, Consumer<WorkRecord> consumer)
+            throws ServiceException {
+        streamMonthlyRecords(startDate, endDate, RecordOrder.NOTIFICATION, consumer);
+    }
+
+    @Override
+    public void streamMonthlyRecords(LocalDate startDate, LocalDate endDate, RecordOrder order,
+                                     Consumer<WorkRecord> consumer) throws ServiceException {
+        StreamOrder streamOrder = switch (order) {
+            case NOTIFICATION -> StreamOrder.NOTIFICATION;
+            case WORK_DATE_DESC -> StreamOrder.WORK_DATE_DESC;
+        };
+        try {
+            getWorkRecordRepository().streamByWorkDateBetween(startDate, endDate, streamOrder, consumer);
+        } catch (ExecutionException | InterruptedException e) {
+            logger.error("Error streaming monthly records", e);
+            throw new ServiceException("Failed to stream monthly records", e);
+        }
+    }
+
     @Override
     public List<WorkRecord> getEmployeeMonthlyRecords(String employeeId, LocalDate startDate, LocalDate endDate)
             throws ServiceException {
@@ -6,10 +6,24 @@ import com.employeemanager.service.exception.ServiceException;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface WorkRecordService extends BaseService<WorkRecord, String> {
     List<WorkRecord> getMonthlyRecords(LocalDate startDate, LocalDate endDate) throws ServiceException;
     List<WorkRecord> getEmployeeMonthlyRecords(String employeeId, LocalDate startDate, LocalDate endDate) throws ServiceException;
+    long countMonthlyRecords(LocalDate startDate, LocalDate endDate) throws ServiceException;
+    void streamMonthlyRecords(LocalDate startDate, LocalDate endDate, Consumer<WorkRecord> consumer) throws ServiceException;
+    void streamMonthlyRecords(LocalDate startDate, LocalDate endDate, RecordOrder order, Consumer<WorkRecord> consumer) throws ServiceException;
     boolean validateWorkRecord(WorkRecord workRecord);
     List<WorkRecord> findByEmployee(Employee employee) throws ServiceException;
+
+    /**
+     * A munkanaplók soronkénti átadásának sorrendje
+     */
+    enum RecordOrder {
+        /** Bejelentés dátuma, időpontja, e-BEV sorszáma, majd munkavégzés dátuma szerint (e-BEV export) */
+        NOTIFICATION,
+        /** Munkavégzés dátuma szerint csökkenő, azon belül a dolgozó neve szerint (jelentések) */
+        WORK_DATE_DESC
+    }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.employeemanager.tools;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.loader.BulkLoader;
+import com.employeemanager.database.loader.BulkLoaderFactory;
+import com.employeemanager.model.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grafikus felület nélkül futtatható terheléses teszt adat generátor
+ *
+ * Példa:
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=com.employeemanager.tools.DataGeneratorTool \
+ *     -Dexec.args="--type=POSTGRESQL --host=localhost --port=5432 --database=employees \
+ *                  --username=postgres --password=secret --employees=5000 --records=5000000"
+ * </pre>
+ * Firebase esetén: --type=FIREBASE --firebase-project=... --firebase-url=... --firebase-service-account=...
+ */
+@Slf4j
+public class DataGeneratorTool {
+
+    private static final int EMPLOYEE_CHUNK_SIZE = 1_000;
+    private static final int RECORD_CHUNK_SIZE = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArguments(args);
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        ConnectionConfig config = buildConfig(options);
+        if (!config.isValid()) {
+            printUsage();
+            throw new IllegalArgumentException("Invalid connection options: " + options.keySet());
+        }
+
+        int employeeCount = Integer.parseInt(options.getOrDefault("employees", "5000"));
+        long recordCount = Long.parseLong(options.getOrDefault("records", "1000000"));
+        // Minden dátum a referencia dátumból származik, így azonos seed mellett a futások megegyeznek
+        LocalDate referenceDate = LocalDate.parse(options.getOrDefault("reference-date",
+                SyntheticDataGenerator.DEFAULT_REFERENCE_DATE.toString()));
+        LocalDate to = LocalDate.parse(options.getOrDefault("to", referenceDate.minusDays(1).toString()));
+        LocalDate from = LocalDate.parse(options.getOrDefault("from", to.minusYears(2).plusDays(1).toString()));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        if (to.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Work dates cannot be in the future: " + to);
+        }
+
+        DatabaseConnectionManager connectionManager = new DatabaseConnectionManager(new SimpleMeterRegistry(), new DiagnosticsProperties());
+        try {
+            if (config.getType() != DatabaseType.FIREBASE) {
+                connectionManager.getVerifiedDataSource(config);
+            }
+
+            try (BulkLoader loader = BulkLoaderFactory.create(config, connectionManager)) {
+                run(loader, new SyntheticDataGenerator(seed, referenceDate), employeeCount, recordCount, from, to);
+            }
+        } finally {
+            connectionManager.closeAll();
+        }
+    }
+
+    private static void run(BulkLoader loader, SyntheticDataGenerator generator, int employeeCount,
+                            long recordCount, LocalDate from, LocalDate to) throws Exception {
+        log.info("Generating {} employees and {} work records ({} - {}) via {}",
+                employeeCount, recordCount, from, to, loader.getName());
+
+        long started = System.nanoTime();
+        List<Employee> employees = generator.generateEmployees(employeeCount);
+        for (int i = 0; i < employees.size(); i += EMPLOYEE_CHUNK_SIZE) {
+            loader.loadEmployees(employees.subList(i, Math.min(i + EMPLOYEE_CHUNK_SIZE, employees.size())));
+        }
+        log.info("Loaded {} employees in {} ms", employees.size(), (System.nanoTime() - started) / 1_000_000);
+
+        long recordsStarted = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        long reportEvery = Math.max(RECORD_CHUNK_SIZE, recordCount / 20);
+        long generated = generator.generateWorkRecords(employees, from, to, recordCount, RECORD_CHUNK_SIZE, chunk -> {
+            long before = loaded.get();
+            long after = loaded.addAndGet(loader.loadWorkRecords(chunk));
+            if (after / reportEvery != before / reportEvery) {
+                log.info("Loaded {} / {} work records ({} records/s)", after, recordCount,
+                        recordsPerSecond(after, recordsStarted));
+            }
+        });
+
+        log.info("Finished: {} employees, {} of {} generated work records loaded in {} s ({} records/s)",
+                employees.size(), loaded.get(), generated, (System.nanoTime() - started) / 1_000_000_000,
+                recordsPerSecond(loaded.get(), recordsStarted));
+    }
+
+    private static long recordsPerSecond(long records, long startedNanos) {
+        long elapsed = Math.max(1, System.nanoTime() - startedNanos);
+        return records * 1_000_000_000L / elapsed;
+    }
+
+    private static ConnectionConfig buildConfig(Map<String, String> options) {
+        DatabaseType type = DatabaseType.valueOf(options.getOrDefault("type", "H2").toUpperCase());
+        String port = options.get("port");
+
+        return ConnectionConfig.builder()
+                .name(options.getOrDefault("name", "datagen-" + type.name().toLowerCase()))
+                .type(type)
+                .host(options.get("host"))
+                .port(port != null ? Integer.valueOf(port) : ConnectionConfig.getDefaultPort(type))
+                .database(options.get("database"))
+                .username(options.get("username"))
+                .password(options.get("password"))
+                .firebaseProjectId(options.get("firebase-project"))
+                .firebaseDatabaseUrl(options.get("firebase-url"))
+                .firebaseServiceAccountPath(options.get("firebase-service-account"))
+                .build();
+    }
+
+    /**
+     * --kulcs=érték alakú argumentumok; az érték nélküli kapcsolók értéke "true"
+     */
+    static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    private static void printUsage() {
+        System.out.println("""
+                Usage: DataGeneratorTool --type=H2|MYSQL|POSTGRESQL|FIREBASE [options]
+                  --host=HOST --port=PORT --database=NAME --username=USER --password=PASS
+                  --firebase-project=ID --firebase-url=URL --firebase-service-account=PATH
+                  --employees=5000        number of employees
+                  --records=1000000       number of work records
+                  --reference-date=YYYY-MM-DD  date the generated ages are based on (default: 2025-01-01)
+                  --from=YYYY-MM-DD       first work date (default: two years before --to)
+                  --to=YYYY-MM-DD         last work date (default: the day before --reference-date)
+                  --seed=42               random seed""");
+    }
+}
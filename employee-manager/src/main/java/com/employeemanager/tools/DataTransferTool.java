@@ -0,0 +1,108 @@
+package com.employeemanager.tools;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.loader.BulkLoader;
+import com.employeemanager.database.loader.BulkLoaderFactory;
+import com.employeemanager.database.transfer.DataTransfer;
+import com.employeemanager.database.transfer.RecordSource;
+import com.employeemanager.database.transfer.RecordSourceFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Adatok átvitele két adatbázis között (Firebase, H2, MySQL, PostgreSQL), grafikus felület nélkül
+ *
+ * Példa:
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=com.employeemanager.tools.DataTransferTool \
+ *     -Dexec.args="--source-type=FIREBASE --source-firebase-project=... --source-firebase-url=... \
+ *                  --source-firebase-service-account=... \
+ *                  --target-type=POSTGRESQL --target-host=localhost --target-database=employees \
+ *                  --target-username=postgres --target-password=secret"
+ * </pre>
+ * Megszakítás után ugyanazokkal a paraméterekkel indítva az ellenőrzőponttól folytatja (--restart: elölről).
+ */
+@Slf4j
+public class DataTransferTool {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = DataGeneratorTool.parseArguments(args);
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        ConnectionConfig sourceConfig = buildConfig(options, "source");
+        ConnectionConfig targetConfig = buildConfig(options, "target");
+        if (!sourceConfig.isValid() || !targetConfig.isValid()) {
+            printUsage();
+            throw new IllegalArgumentException("Invalid connection options: " + options.keySet());
+        }
+
+        int pageSize = Integer.parseInt(options.getOrDefault("page-size", "1000"));
+        int inFlight = Integer.parseInt(options.getOrDefault("in-flight", "4"));
+        Path checkpoint = Paths.get(options.getOrDefault("checkpoint",
+                "transfer-" + sourceConfig.getName() + "-to-" + targetConfig.getName() + ".checkpoint"));
+        if (options.containsKey("restart")) {
+            Files.deleteIfExists(checkpoint);
+        }
+
+        DatabaseConnectionManager connectionManager =
+                new DatabaseConnectionManager(new SimpleMeterRegistry(), new DiagnosticsProperties());
+        try {
+            for (ConnectionConfig config : new ConnectionConfig[]{sourceConfig, targetConfig}) {
+                if (config.getType() != DatabaseType.FIREBASE) {
+                    connectionManager.getVerifiedDataSource(config);
+                }
+            }
+
+            try (RecordSource source = RecordSourceFactory.create(sourceConfig, connectionManager);
+                 RecordSource targetReader = RecordSourceFactory.create(targetConfig, connectionManager);
+                 BulkLoader target = BulkLoaderFactory.create(targetConfig, connectionManager)) {
+                new DataTransfer(source, target, targetReader, checkpoint, pageSize, inFlight).run();
+            }
+        } finally {
+            connectionManager.closeAll();
+        }
+    }
+
+    private static ConnectionConfig buildConfig(Map<String, String> options, String prefix) {
+        DatabaseType type = DatabaseType.valueOf(options.getOrDefault(prefix + "-type", "H2").toUpperCase());
+        String port = options.get(prefix + "-port");
+
+        return ConnectionConfig.builder()
+                .name(options.getOrDefault(prefix + "-name", prefix + "-" + type.name().toLowerCase()))
+                .type(type)
+                .host(options.get(prefix + "-host"))
+                .port(port != null ? Integer.valueOf(port) : ConnectionConfig.getDefaultPort(type))
+                .database(options.get(prefix + "-database"))
+                .username(options.get(prefix + "-username"))
+                .password(options.get(prefix + "-password"))
+                .firebaseProjectId(options.get(prefix + "-firebase-project"))
+                .firebaseDatabaseUrl(options.get(prefix + "-firebase-url"))
+                .firebaseServiceAccountPath(options.get(prefix + "-firebase-service-account"))
+                .build();
+    }
+
+    private static void printUsage() {
+        System.out.println("""
+                Usage: DataTransferTool --source-type=TYPE [source options] --target-type=TYPE [target options]
+                  TYPE: H2|MYSQL|POSTGRESQL|FIREBASE
+                  --source-host=HOST --source-port=PORT --source-database=NAME
+                  --source-username=USER --source-password=PASS
+                  --source-firebase-project=ID --source-firebase-url=URL --source-firebase-service-account=PATH
+                  (the same options with --target- prefix for the target)
+                  --page-size=1000        records read per page
+                  --in-flight=4           pages buffered between reader and writer
+                  --checkpoint=PATH       checkpoint file (default: transfer-SOURCE-to-TARGET.checkpoint)
+                  --restart               ignore the existing checkpoint and start over""");
+    }
+}
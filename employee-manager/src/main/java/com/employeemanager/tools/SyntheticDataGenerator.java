@@ -0,0 +1,265 @@
+package com.employeemanager.tools;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Valósághű, a ValidationHelper ellenőrzésein átmenő szintetikus alkalmazott és munkanapló adatok
+ * - adóazonosító jel: 8 + születés óta eltelt napok (1867.01.01-től) + 3 jegyű sorszám + mod 11 ellenőrző jegy
+ * - TAJ szám: 8 jegy + CDV ellenőrző jegy (páratlan helyiértékek ×3, párosak ×7, összeg mod 10)
+ * - munkanaplók: hétköznap/hétvége és szezonális eloszlás, e-BEV bejelentésenként csoportosítva
+ * A generálás determinisztikus az adott seed és referencia dátum mellett (a rendszeridőtől független).
+ */
+@Slf4j
+public class SyntheticDataGenerator {
+
+    private static final LocalDate TAX_NUMBER_EPOCH = LocalDate.of(1867, 1, 1);
+    /** Alapértelmezett referencia dátum (a születési dátumok ehhez képest számítanak) */
+    public static final LocalDate DEFAULT_REFERENCE_DATE = LocalDate.of(2025, 1, 1);
+    private static final int MAX_EBEV_GROUP_SIZE = 12;
+    private static final long FIRST_EBEV_SERIAL = 10_000_000L;
+
+    private static final String[] LAST_NAMES = {"Nagy", "Kovács", "Tóth", "Szabó", "Horváth", "Varga", "Kiss",
+            "Molnár", "Németh", "Farkas", "Balogh", "Papp", "Takács", "Juhász", "Lakatos", "Mészáros", "Oláh",
+            "Simon", "Rácz", "Fekete", "Szilágyi", "Török", "Fehér", "Balázs", "Gál", "Kis", "Szűcs", "Kocsis"};
+    private static final String[] FIRST_NAMES = {"Anna", "Béla", "Csilla", "Dénes", "Erzsébet", "Ferenc",
+            "Gábor", "Hajnalka", "István", "Judit", "Katalin", "László", "Márta", "Nándor", "Orsolya", "Péter",
+            "Zoltán", "Éva", "József", "Ilona", "Sándor", "Zsuzsanna", "Attila", "Ágnes", "Tamás", "Mária"};
+    private static final String[] CITIES = {"Budapest", "Debrecen", "Szeged", "Miskolc", "Pécs", "Győr",
+            "Nyíregyháza", "Kecskemét", "Székesfehérvár", "Szombathely", "Szolnok", "Eger", "Kalocsa", "Makó"};
+    private static final String[] STREETS = {"Fő utca", "Kossuth Lajos utca", "Petőfi Sándor utca", "Rákóczi út",
+            "Ady Endre utca", "Dózsa György út", "Arany János utca", "Széchenyi tér", "Jókai Mór utca"};
+    /** Havi szezonális súlyok (január..december) - nyári és őszi mezőgazdasági csúcs */
+    private static final double[] MONTH_WEIGHTS = {0.55, 0.6, 0.75, 0.9, 1.0, 1.2, 1.3, 1.35, 1.4, 1.25, 0.8, 0.6};
+
+    private final Random random;
+    private final LocalDate referenceDate;
+    private final Set<String> usedTaxNumbers = new HashSet<>();
+    private final Set<String> usedSocialSecurityNumbers = new HashSet<>();
+    private long nextEbevSerial = FIRST_EBEV_SERIAL;
+
+    public SyntheticDataGenerator(long seed) {
+        this(seed, DEFAULT_REFERENCE_DATE);
+    }
+
+    public SyntheticDataGenerator(long seed, LocalDate referenceDate) {
+        this.random = new Random(seed);
+        this.referenceDate = referenceDate;
+    }
+
+    /**
+     * Munkanapló köteg feldolgozó (a betöltő kivételeit továbbengedi)
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer<T> {
+        void accept(List<T> chunk) throws Exception;
+    }
+
+    /**
+     * Alkalmazottak generálása egyedi adóazonosító jellel és TAJ számmal
+     */
+    public List<Employee> generateEmployees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            // 18-65 éves kor a referencia dátumon
+            LocalDate birthDate = referenceDate.minusYears(18).minusDays(random.nextInt(47 * 365));
+
+            Employee employee = new Employee();
+            employee.setName(pick(LAST_NAMES) + " " + pick(FIRST_NAMES));
+            employee.setBirthPlace(pick(CITIES));
+            employee.setBirthDate(birthDate);
+            employee.setMotherName(pick(LAST_NAMES) + " " + pick(FIRST_NAMES));
+            employee.setTaxNumber(nextTaxNumber(birthDate));
+            employee.setSocialSecurityNumber(nextSocialSecurityNumber());
+            employee.setAddress(String.format("%04d %s, %s %d.", 1000 + random.nextInt(9000), pick(CITIES),
+                    pick(STREETS), 1 + random.nextInt(150)));
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    /**
+     * Munkanaplók generálása a megadott időszakra, chunkSize méretű kötegekben átadva
+     * Egy alkalmazott naponta legfeljebb egyszer dolgozik; ha a napi igény meghaladja
+     * az alkalmazottak számát, a többlet elmarad. Visszaadja a ténylegesen generált darabszámot.
+     */
+    public long generateWorkRecords(List<Employee> employees, LocalDate from, LocalDate to, long recordCount,
+                                    int chunkSize, ChunkConsumer<WorkRecord> consumer) throws Exception {
+        if (employees.isEmpty() || to.isBefore(from)) {
+            return 0;
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        double[] weights = new double[days];
+        double totalWeight = 0;
+        for (int d = 0; d < days; d++) {
+            weights[d] = dayWeight(from.plusDays(d));
+            totalWeight += weights[d];
+        }
+
+        // Alkalmazottanként állandó órabér (1 500 - 3 500 Ft, 50 Ft-ra kerekítve)
+        int[] hourlyRates = new int[employees.size()];
+        for (int i = 0; i < hourlyRates.length; i++) {
+            hourlyRates[i] = 1500 + random.nextInt(41) * 50;
+        }
+
+        int[] order = new int[employees.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        List<WorkRecord> chunk = new ArrayList<>(chunkSize);
+        long generated = 0;
+        long skipped = 0;
+        double cumulative = 0;
+        long emittedTarget = 0;
+
+        for (int d = 0; d < days; d++) {
+            // Kumulatív kerekítés: a napi darabszámok összege pontosan recordCount
+            cumulative += weights[d];
+            long target = Math.round(recordCount * cumulative / totalWeight);
+            int dailyCount = (int) (target - emittedTarget);
+            emittedTarget = target;
+
+            if (dailyCount > order.length) {
+                skipped += dailyCount - order.length;
+                dailyCount = order.length;
+            }
+
+            // Részleges Fisher-Yates keverés: az első dailyCount elem a napi dolgozók köre
+            for (int i = 0; i < dailyCount; i++) {
+                int j = i + random.nextInt(order.length - i);
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+
+            LocalDate workDate = from.plusDays(d);
+            int index = 0;
+            while (index < dailyCount) {
+                int groupSize = Math.min(dailyCount - index, ebevGroupSize());
+                String serial = Long.toString(nextEbevSerial++);
+                // A bejelentés a munkavégzés napján reggel vagy előző nap délután/este történik
+                boolean sameDay = random.nextInt(10) < 7;
+                LocalDate notificationDate = sameDay ? workDate : workDate.minusDays(1);
+                LocalTime notificationTime = sameDay
+                        ? LocalTime.of(5 + random.nextInt(4), random.nextInt(60))
+                        : LocalTime.of(12 + random.nextInt(10), random.nextInt(60));
+                int baseHours = 6 + random.nextInt(5);
+
+                for (int g = 0; g < groupSize; g++, index++) {
+                    int employeeIndex = order[index];
+                    int hours = Math.max(1, Math.min(12, baseHours + random.nextInt(3) - 1));
+
+                    WorkRecord record = new WorkRecord();
+                    record.setEmployee(employees.get(employeeIndex));
+                    record.setWorkDate(workDate);
+                    record.setNotificationDate(notificationDate);
+                    record.setNotificationTime(notificationTime);
+                    record.setEbevSerialNumber(serial);
+                    record.setHoursWorked(hours);
+                    record.setPayment(BigDecimal.valueOf((long) hours * hourlyRates[employeeIndex]));
+                    record.setCreatedAt(notificationDate.atTime(notificationTime));
+                    chunk.add(record);
+
+                    if (chunk.size() == chunkSize) {
+                        consumer.accept(chunk);
+                        generated += chunk.size();
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            consumer.accept(chunk);
+            generated += chunk.size();
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} work records: daily demand exceeded {} employees", skipped, employees.size());
+        }
+        return generated;
+    }
+
+    /**
+     * Adóazonosító jel ellenőrző jegye; 10 esetén az azonosító nem kiadható (-1)
+     */
+    public static int taxNumberCheckDigit(String firstNineDigits) {
+        int sum = 0;
+        for (int i = 0; i < 9; i++) {
+            sum += (firstNineDigits.charAt(i) - '0') * (i + 1);
+        }
+        int check = sum % 11;
+        return check == 10 ? -1 : check;
+    }
+
+    /**
+     * TAJ szám CDV ellenőrző jegye
+     */
+    public static int socialSecurityCheckDigit(String firstEightDigits) {
+        int sum = 0;
+        for (int i = 0; i < 8; i++) {
+            sum += (firstEightDigits.charAt(i) - '0') * (i % 2 == 0 ? 3 : 7);
+        }
+        return sum % 10;
+    }
+
+    private String nextTaxNumber(LocalDate birthDate) {
+        long daysSinceEpoch = ChronoUnit.DAYS.between(TAX_NUMBER_EPOCH, birthDate);
+        while (true) {
+            String base = String.format("8%05d%03d", daysSinceEpoch, random.nextInt(1000));
+            int check = taxNumberCheckDigit(base);
+            if (check >= 0) {
+                String taxNumber = base + check;
+                if (usedTaxNumbers.add(taxNumber)) {
+                    return taxNumber;
+                }
+            }
+        }
+    }
+
+    private String nextSocialSecurityNumber() {
+        while (true) {
+            String base = String.format("%08d", random.nextInt(100_000_000));
+            String ssn = base + socialSecurityCheckDigit(base);
+            if (usedSocialSecurityNumbers.add(ssn)) {
+                return ssn;
+            }
+        }
+    }
+
+    private double dayWeight(LocalDate date) {
+        double weight = MONTH_WEIGHTS[date.getMonthValue() - 1];
+        if (date.getDayOfWeek() == DayOfWeek.SATURDAY) {
+            weight *= 0.45;
+        } else if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            weight *= 0.15;
+        }
+        return weight;
+    }
+
+    /**
+     * Egy e-BEV bejelentésben szereplő dolgozók száma: többnyire 1-3, ritkán nagyobb csoport
+     */
+    private int ebevGroupSize() {
+        double size = 1 - Math.log(1 - random.nextDouble()) * 2.5;
+        return Math.min(MAX_EBEV_GROUP_SIZE, (int) size);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
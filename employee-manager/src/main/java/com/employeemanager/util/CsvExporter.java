@@ -0,0 +1,357 @@
+package com.employeemanager.util;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.fx.WorkRecordFX;
+import com.employeemanager.service.interfaces.WorkRecordService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * E-BEV adatok CSV exportálása ("e-bev" munkalap oszlopaival), POI nélkül
+ */
+@Slf4j
+@Component
+public class CsvExporter {
+
+    private static final String EXPORT_DIRECTORY = "exports";
+    private static final String[] EBEV_HEADERS = {"bejelentés dátuma", "bejelentés időpontja", "e-BEV sorszáma",
+            "munkavégzés dátuma", "dolgozó neve", "TAJ", "kifizetett összeg", "ledolgozott óra"};
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final Path exportDirectory;
+
+    public CsvExporter() {
+        this(Paths.get(EXPORT_DIRECTORY));
+    }
+
+    CsvExporter(Path exportDirectory) {
+        this.exportDirectory = exportDirectory;
+    }
+
+    /**
+     * Képernyőn lévő munkanaplók exportálása
+     */
+    public String exportWorkRecords(List<WorkRecordFX> records, LocalDate startDate, LocalDate endDate) throws IOException {
+        Path filePath = createExportFile(startDate, endDate);
+
+        try (CsvChannelWriter writer = new CsvChannelWriter(filePath)) {
+            writer.writeHeader();
+            for (WorkRecordFX record : records) {
+                writer.writeRow(record.getNotificationDate(), record.getNotificationTime(),
+                        record.getEbevSerialNumber(), record.getWorkDate(), record.getEmployeeName(),
+                        record.getEmployee() != null ? record.getEmployee().getSocialSecurityNumber() : null,
+                        record.getPayment(), record.getHoursWorked());
+            }
+            log.info("Exported {} work records to {}", writer.getRowCount(), filePath);
+        }
+
+        return filePath.toString();
+    }
+
+    /**
+     * Munkanaplók exportálása a repository stream olvasásán keresztül, a teljes lista memóriába töltése nélkül
+     */
+    public String exportWorkRecords(WorkRecordService workRecordService, LocalDate startDate, LocalDate endDate)
+            throws IOException {
+        Path filePath = createExportFile(startDate, endDate);
+
+        try (CsvChannelWriter writer = new CsvChannelWriter(filePath)) {
+            writer.writeHeader();
+            try {
+                workRecordService.streamMonthlyRecords(startDate, endDate, record -> {
+                    Employee employee = record.getEmployee();
+                    writer.writeRow(record.getNotificationDate(), record.getNotificationTime(),
+                            record.getEbevSerialNumber(), record.getWorkDate(),
+                            employee != null ? employee.getName() : null,
+                            employee != null ? employee.getSocialSecurityNumber() : null,
+                            record.getPayment(), record.getHoursWorked());
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            log.info("Streamed {} work records to {}", writer.getRowCount(), filePath);
+        }
+
+        return filePath.toString();
+    }
+
+    private Path createExportFile(LocalDate startDate, LocalDate endDate) throws IOException {
+        Files.createDirectories(exportDirectory);
+
+        String fileName = String.format("munkanaplok_ebev_%s_%s.csv",
+                startDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")),
+                endDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")));
+        return exportDirectory.resolve(fileName);
+    }
+
+    /**
+     * Pontosvesszővel tagolt, UTF-8 (BOM-mal) kimenet egyetlen újrahasznosított pufferen keresztül
+     */
+    static final class CsvChannelWriter implements Closeable {
+
+        private static final byte SEPARATOR = ';';
+        private static final byte QUOTE = '"';
+        private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        private static final byte[] LINE_END = {'\r', '\n'};
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final byte[] digits = new byte[20];
+        private long rowCount;
+
+        CsvChannelWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        long getRowCount() {
+            return rowCount;
+        }
+
+        void writeHeader() throws IOException {
+            ensure(BOM.length);
+            buffer.put(BOM);
+            for (int i = 0; i < EBEV_HEADERS.length; i++) {
+                if (i > 0) {
+                    putByte(SEPARATOR);
+                }
+                putText(EBEV_HEADERS[i]);
+            }
+            putBytes(LINE_END);
+        }
+
+        /**
+         * Egy sor kiírása; az I/O hibát a stream callback miatt unchecked kivételként adja tovább
+         */
+        void writeRow(LocalDate notificationDate, LocalTime notificationTime, String ebevSerialNumber,
+                      LocalDate workDate, String employeeName, String socialSecurityNumber,
+                      BigDecimal payment, Integer hoursWorked) {
+            try {
+                putDate(notificationDate);
+                putByte(SEPARATOR);
+                putTime(notificationTime);
+                putByte(SEPARATOR);
+                putText(ebevSerialNumber);
+                putByte(SEPARATOR);
+                putDate(workDate);
+                putByte(SEPARATOR);
+                putText(employeeName);
+                putByte(SEPARATOR);
+                putSocialSecurityNumber(socialSecurityNumber);
+                putByte(SEPARATOR);
+                putAmount(payment);
+                putByte(SEPARATOR);
+                if (hoursWorked != null) {
+                    putLong(hoursWorked);
+                }
+                putBytes(LINE_END);
+                rowCount++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void putDate(LocalDate date) throws IOException {
+            if (date == null) {
+                return;
+            }
+            // yyyy.MM.dd - megegyezik az Excel export formátumával
+            ensure(10);
+            putPadded(date.getYear(), 4);
+            buffer.put((byte) '.');
+            putPadded(date.getMonthValue(), 2);
+            buffer.put((byte) '.');
+            putPadded(date.getDayOfMonth(), 2);
+        }
+
+        private void putTime(LocalTime time) throws IOException {
+            if (time == null) {
+                return;
+            }
+            // LocalTime.toString() formátum: HH:mm, illetve HH:mm:ss ha vannak másodpercek
+            ensure(8);
+            putPadded(time.getHour(), 2);
+            buffer.put((byte) ':');
+            putPadded(time.getMinute(), 2);
+            if (time.getSecond() != 0) {
+                buffer.put((byte) ':');
+                putPadded(time.getSecond(), 2);
+            }
+        }
+
+        private void putSocialSecurityNumber(String ssn) throws IOException {
+            if (ssn == null) {
+                return;
+            }
+            if (!isNineDigits(ssn)) {
+                putText(ssn);
+                return;
+            }
+            // Formátum: 000-000-000
+            ensure(11);
+            for (int i = 0; i < 9; i++) {
+                if (i == 3 || i == 6) {
+                    buffer.put((byte) '-');
+                }
+                buffer.put((byte) ssn.charAt(i));
+            }
+        }
+
+        private static boolean isNineDigits(String value) {
+            if (value.length() != 9) {
+                return false;
+            }
+            for (int i = 0; i < 9; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void putAmount(BigDecimal amount) throws IOException {
+            if (amount == null) {
+                return;
+            }
+            long minorUnits = Money.toFiller(amount);
+            long units = minorUnits / 100;
+            int fraction = (int) Math.abs(minorUnits % 100);
+            if (minorUnits < 0 && units == 0) {
+                putByte((byte) '-');
+            }
+            putLong(units);
+            if (fraction != 0) {
+                ensure(3);
+                buffer.put((byte) '.');
+                putPadded(fraction, 2);
+            }
+        }
+
+        private void putLong(long value) throws IOException {
+            ensure(20);
+            if (value == 0) {
+                buffer.put((byte) '0');
+                return;
+            }
+            boolean negative = value < 0;
+            int pos = digits.length;
+            // Negatív tartományban számolunk, hogy Long.MIN_VALUE is kezelhető legyen
+            long v = negative ? value : -value;
+            while (v != 0) {
+                digits[--pos] = (byte) ('0' - (v % 10));
+                v /= 10;
+            }
+            if (negative) {
+                buffer.put((byte) '-');
+            }
+            buffer.put(digits, pos, digits.length - pos);
+        }
+
+        private void putPadded(int value, int width) {
+            for (int i = width - 1; i >= 0; i--) {
+                digits[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            buffer.put(digits, 0, width);
+        }
+
+        private void putText(String text) throws IOException {
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            boolean quoted = needsQuoting(text);
+            if (quoted) {
+                putByte(QUOTE);
+            }
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                ensure(4);
+                if (c < 0x80) {
+                    if (c == '"') {
+                        buffer.put(QUOTE);
+                    }
+                    buffer.put((byte) c);
+                } else if (c < 0x800) {
+                    buffer.put((byte) (0xC0 | (c >> 6)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) (0xE0 | (c >> 12)));
+                    buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+            if (quoted) {
+                putByte(QUOTE);
+            }
+        }
+
+        private static boolean needsQuoting(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void putByte(byte b) throws IOException {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.employeemanager.util;
 
+import com.employeemanager.diagnostics.ExportEvent;
 import com.employeemanager.model.fx.WorkRecordFX;
+import com.employeemanager.repository.columnar.EbevSubmissionIndex;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Component;
 
 import java.io.FileOutputStream;
-import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -23,12 +24,52 @@ public class ExcelExporter {
     private static final DateTimeFormatter YEAR_MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.");
 
     public String exportWorkRecords(List<WorkRecordFX> records, LocalDate startDate, LocalDate endDate) throws Exception {
+        return exportWorkRecords(records, startDate, endDate, null);
+    }
+
+    /**
+     * Exportálás az e-BEV bejelentések indexével: az "e-bev" munkalap csoportjai az indexből jönnek
+     */
+    public String exportWorkRecords(List<WorkRecordFX> records, LocalDate startDate, LocalDate endDate,
+                                    EbevSubmissionIndex ebevIndex) throws Exception {
+        ExportEvent event = new ExportEvent();
+        event.begin();
+        try {
+            Path filePath = writeWorkbook(records, startDate, endDate, ebevIndex);
+            event.end();
+            if (event.shouldCommit()) {
+                event.file = filePath.toString();
+                event.fileSize = Files.size(filePath);
+                commitExportEvent(event, records, startDate, endDate, false);
+            }
+            return filePath.toString();
+        } catch (Exception e) {
+            event.end();
+            if (event.shouldCommit()) {
+                commitExportEvent(event, records, startDate, endDate, true);
+            }
+            throw e;
+        }
+    }
+
+    private void commitExportEvent(ExportEvent event, List<WorkRecordFX> records,
+                                   LocalDate startDate, LocalDate endDate, boolean failed) {
+        event.format = "XLSX";
+        event.startDate = startDate.toString();
+        event.endDate = endDate.toString();
+        event.rowCount = records.size();
+        event.failed = failed;
+        event.commit();
+    }
+
+    private Path writeWorkbook(List<WorkRecordFX> records, LocalDate startDate, LocalDate endDate,
+                               EbevSubmissionIndex ebevIndex) throws Exception {
         createExportDirectory();
 
         try (Workbook workbook = new XSSFWorkbook()) {
 
             // 1. "e-bev" munkalap - részletes lista
-            createEbevWorksheet(workbook, records);
+            createEbevWorksheet(workbook, records, ebevIndex);
 
             // 2. "dátum szerint" munkalap - dátum szerinti összesítés
             createDateBasedWorksheet(workbook, records);
@@ -49,14 +90,14 @@ public class ExcelExporter {
                 workbook.write(fileOut);
             }
 
-            return filePath.toString();
+            return filePath;
         }
     }
 
     /**
      * 1. "e-bev" munkalap - részletes munkanaplók
      */
-    private void createEbevWorksheet(Workbook workbook, List<WorkRecordFX> records) {
+    private void createEbevWorksheet(Workbook workbook, List<WorkRecordFX> records, EbevSubmissionIndex ebevIndex) {
         Sheet sheet = workbook.createSheet("e-bev");
 
         // Stílusok
@@ -76,19 +117,9 @@ public class ExcelExporter {
             cell.setCellStyle(headerStyle);
         }
 
-        // Adatok csoportosítása bejelentés szerint (dátum + időpont + e-BEV szám)
-        Map<String, List<WorkRecordFX>> groupedRecords = records.stream()
-                .collect(Collectors.groupingBy(record ->
-                        record.getNotificationDate().toString() + "_" +
-                                (record.getNotificationTime() != null ? record.getNotificationTime().toString() : "") + "_" +
-                                (record.getEbevSerialNumber() != null ? record.getEbevSerialNumber() : "")
-                ));
-
         int rowNum = 1;
 
-        for (Map.Entry<String, List<WorkRecordFX>> entry : groupedRecords.entrySet()) {
-            List<WorkRecordFX> groupRecords = entry.getValue();
-            groupRecords.sort(Comparator.comparing(WorkRecordFX::getWorkDate));
+        for (List<WorkRecordFX> groupRecords : groupBySubmission(records, ebevIndex)) {
 
             for (int i = 0; i < groupRecords.size(); i++) {
                 WorkRecordFX record = groupRecords.get(i);
@@ -155,6 +186,77 @@ public class ExcelExporter {
         }
     }
 
+    /**
+     * Munkanaplók csoportosítása bejelentés szerint (dátum + időpont + e-BEV szám), csoporton belül
+     * munkavégzés dátuma szerint
+     *
+     * Indexszel a bejelentések és tagjaik sorrendje az indexből jön; az indexben nem (vagy eltérő
+     * bejelentési adatokkal) szereplő munkanaplók a régi, kulcs szerinti csoportosítással kerülnek a végére.
+     */
+    private List<List<WorkRecordFX>> groupBySubmission(List<WorkRecordFX> records, EbevSubmissionIndex ebevIndex) {
+        List<List<WorkRecordFX>> groups = new ArrayList<>();
+        List<WorkRecordFX> remaining = records;
+
+        if (ebevIndex != null && !records.isEmpty()) {
+            remaining = new ArrayList<>();
+            Map<String, WorkRecordFX> byId = new HashMap<>(records.size() * 4 / 3 + 1);
+            LocalDate firstNotification = null;
+            LocalDate lastNotification = null;
+            for (WorkRecordFX record : records) {
+                LocalDate notificationDate = record.getNotificationDate();
+                if (record.getId() == null || notificationDate == null) {
+                    remaining.add(record);
+                    continue;
+                }
+                WorkRecordFX duplicate = byId.put(record.getId(), record);
+                if (duplicate != null) {
+                    remaining.add(duplicate);
+                }
+                if (firstNotification == null || notificationDate.isBefore(firstNotification)) {
+                    firstNotification = notificationDate;
+                }
+                if (lastNotification == null || notificationDate.isAfter(lastNotification)) {
+                    lastNotification = notificationDate;
+                }
+            }
+
+            if (firstNotification != null) {
+                int to = ebevIndex.to(lastNotification);
+                for (int submission = ebevIndex.from(firstNotification); submission < to; submission++) {
+                    List<WorkRecordFX> group = null;
+                    for (String id : ebevIndex.recordIds(submission)) {
+                        WorkRecordFX record = byId.get(id);
+                        if (record != null && ebevIndex.find(record.getNotificationDate(),
+                                record.getNotificationTime(), record.getEbevSerialNumber()) == submission) {
+                            byId.remove(id);
+                            if (group == null) {
+                                group = new ArrayList<>();
+                            }
+                            group.add(record);
+                        }
+                    }
+                    if (group != null) {
+                        groups.add(group);
+                    }
+                }
+            }
+
+            remaining.addAll(byId.values());
+        }
+
+        Map<String, List<WorkRecordFX>> groupedRecords = remaining.stream()
+                .collect(Collectors.groupingBy(record ->
+                        record.getNotificationDate().toString() + "_" +
+                                (record.getNotificationTime() != null ? record.getNotificationTime().toString() : "") + "_" +
+                                (record.getEbevSerialNumber() != null ? record.getEbevSerialNumber() : "")
+                ));
+        for (List<WorkRecordFX> groupRecords : groupedRecords.values()) {
+            groupRecords.sort(Comparator.comparing(WorkRecordFX::getWorkDate));
+            groups.add(groupRecords);
+        }
+        return groups;
+    }
+
     /**
      * 2. "dátum szerint" munkalap - dátum szerinti összesítés
      */
@@ -189,7 +291,7 @@ public class ExcelExporter {
             LocalDate date = dateEntry.getKey();
             List<WorkRecordFX> dayRecords = dateEntry.getValue();
 
-            BigDecimal dayTotal = BigDecimal.ZERO;
+            long dayTotal = 0;
 
             for (int i = 0; i < dayRecords.size(); i++) {
                 WorkRecordFX record = dayRecords.get(i);
@@ -208,17 +310,18 @@ public class ExcelExporter {
 
                 // Összeg
                 Cell amountCell = row.createCell(4);
-                amountCell.setCellValue(record.getPayment().doubleValue());
+                long payment = Money.toFiller(record.getPayment());
+                amountCell.setCellValue(Money.toDouble(payment));
                 amountCell.setCellStyle(currencyStyle);
 
-                dayTotal = dayTotal.add(record.getPayment());
+                dayTotal = Money.add(dayTotal, payment);
             }
 
             // Napi összeg az első sorban
             Row firstRow = sheet.getRow(rowNum - dayRecords.size());
             if (firstRow != null) {
                 Cell totalCell = firstRow.createCell(5);
-                totalCell.setCellValue(dayTotal.doubleValue());
+                totalCell.setCellValue(Money.toDouble(dayTotal));
                 totalCell.setCellStyle(currencyStyle);
             }
 
@@ -344,7 +447,7 @@ public class ExcelExporter {
             employeeRecords.sort(Comparator.comparing(WorkRecordFX::getWorkDate));
 
             int totalHours = 0;
-            BigDecimal totalPayment = BigDecimal.ZERO;
+            long totalPayment = 0;
 
             for (WorkRecordFX record : employeeRecords) {
                 Row workRow = sheet.createRow(rowNum++);
@@ -360,11 +463,12 @@ public class ExcelExporter {
 
                 // Összeg
                 Cell amountCell = workRow.createCell(3);
-                amountCell.setCellValue(record.getPayment().doubleValue());
+                long payment = Money.toFiller(record.getPayment());
+                amountCell.setCellValue(Money.toDouble(payment));
                 amountCell.setCellStyle(currencyStyle);
 
                 totalHours += record.getHoursWorked();
-                totalPayment = totalPayment.add(record.getPayment());
+                totalPayment = Money.add(totalPayment, payment);
             }
 
             // Összesítő sor - félkövér
@@ -374,7 +478,7 @@ public class ExcelExporter {
             totalHoursCell.setCellStyle(boldStyle);
 
             Cell totalAmountCell = totalRow.createCell(3);
-            totalAmountCell.setCellValue(totalPayment.doubleValue());
+            totalAmountCell.setCellValue(Money.toDouble(totalPayment));
             totalAmountCell.setCellStyle(currencyBoldStyle);
 
             rowNum += 2; // Üres sorok a következő dolgozó előtt
@@ -416,6 +520,7 @@ public class ExcelExporter {
             col++;
             currentMonth = currentMonth.plusMonths(1);
         }
+        int monthCount = col - 2;
 
         // Összesen oszlopok
         Cell totalPaymentHeader = row1.createCell(col);
@@ -447,25 +552,27 @@ public class ExcelExporter {
             Cell emptyNameCell = daysRow.createCell(1);
             emptyNameCell.setCellStyle(bottomDashedBorderStyle);
 
-            // Havi adatok számítása
-            Map<String, BigDecimal> monthlyPayments = new HashMap<>();
-            Map<String, Integer> monthlyDays = new HashMap<>();
+            // Havi adatok számítása, hónap index szerint (a kezdő év januárjától), fillérben
+            long[] monthlyPayments = new long[monthCount];
+            int[] monthlyDays = new int[monthCount];
 
             for (WorkRecordFX record : employeeRecords) {
-                String monthKey = record.getWorkDate().format(YEAR_MONTH_FORMATTER);
-
-                monthlyPayments.merge(monthKey, record.getPayment(), BigDecimal::add);
-                monthlyDays.merge(monthKey, 1, Integer::sum);
+                int month = monthIndex(startDate.getYear(), record.getWorkDate());
+                if (month < 0 || month >= monthCount) {
+                    continue;
+                }
+                monthlyPayments[month] = Money.add(monthlyPayments[month], Money.toFiller(record.getPayment()));
+                monthlyDays[month]++;
             }
 
             // Havi oszlopok kitöltése
             currentMonth = LocalDate.of(startDate.getYear(), 1, 1);
             col = 2;
-            BigDecimal totalPayment = BigDecimal.ZERO;
+            long totalPayment = 0;
             int totalDays = 0;
 
             while (!currentMonth.isAfter(yearEnd)) {
-                String monthKey = currentMonth.format(YEAR_MONTH_FORMATTER);
+                int month = col - 2;
 
                 Cell paymentCell = dataRow.createCell(col);
                 Cell daysCell = daysRow.createCell(col);
@@ -474,15 +581,12 @@ public class ExcelExporter {
                 paymentCell.setCellStyle(topDashedBorderStyle);
                 daysCell.setCellStyle(bottomDashedBorderStyle);
 
-                if (monthlyPayments.containsKey(monthKey)) {
-                    BigDecimal monthPayment = monthlyPayments.get(monthKey);
-                    paymentCell.setCellValue(monthPayment.doubleValue());
-
-                    int monthDays = monthlyDays.get(monthKey);
-                    daysCell.setCellValue(monthDays);
+                if (monthlyDays[month] > 0) {
+                    paymentCell.setCellValue(Money.toDouble(monthlyPayments[month]));
+                    daysCell.setCellValue(monthlyDays[month]);
 
-                    totalPayment = totalPayment.add(monthPayment);
-                    totalDays += monthDays;
+                    totalPayment = Money.add(totalPayment, monthlyPayments[month]);
+                    totalDays += monthlyDays[month];
                 }
 
                 col++;
@@ -491,7 +595,7 @@ public class ExcelExporter {
 
             // Összesen oszlopok - szaggatott keret továbbra is
             Cell totalPaymentCell = dataRow.createCell(col);
-            totalPaymentCell.setCellValue(totalPayment.doubleValue());
+            totalPaymentCell.setCellValue(Money.toDouble(totalPayment));
             totalPaymentCell.setCellStyle(currencyBoldStyle);
             // Felső keret hozzáadása a bérkifizetés összesen-hez
             CellStyle currencyBoldTopStyle = workbook.createCellStyle();
@@ -553,6 +657,13 @@ public class ExcelExporter {
         return style;
     }
 
+    /**
+     * Hónap sorszáma a kezdő év januárjától
+     */
+    private static int monthIndex(int startYear, LocalDate date) {
+        return (date.getYear() - startYear) * 12 + date.getMonthValue() - 1;
+    }
+
     private CellStyle createCurrencyBoldStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
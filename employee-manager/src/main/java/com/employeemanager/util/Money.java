@@ -0,0 +1,94 @@
+package com.employeemanager.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Pénzösszegek fillérben (long) az összesítésekhez
+ *
+ * A BigDecimal csak a határokon (modell, megjelenítés) jelenik meg; az összegzés primitív long-on,
+ * túlcsordulás-ellenőrzéssel fut, így nagy időszakok összesítése sem foglal memóriát lépésenként.
+ */
+public final class Money {
+
+    public static final int FILLER_PER_FORINT = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Összeg fillérben; a fillér alatti rész felfelé kerekítve, null esetén 0
+     *
+     * @throws ArithmeticException ha az összeg nem fér el long-ban
+     */
+    public static long toFiller(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        // Két tizedesjegynél a fillérérték maga a skálázatlan érték; legfeljebb 18 jegyig
+        // long-ban tárolt, így BigInteger nélkül, ellenőrzés nélkül kiolvasható
+        if (amount.scale() == 2) {
+            BigDecimal filler = amount.movePointRight(2);
+            return amount.precision() <= 18 ? filler.longValue() : filler.longValueExact();
+        }
+        if (amount.scale() == 0) {
+            return Math.multiplyExact(amount.longValueExact(), FILLER_PER_FORINT);
+        }
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Fillérben tárolt összeg forintban, két tizedesjeggyel
+     */
+    public static BigDecimal toBigDecimal(long filler) {
+        return BigDecimal.valueOf(filler, 2);
+    }
+
+    /**
+     * Összeg Excel cellához
+     */
+    public static double toDouble(long filler) {
+        return filler / (double) FILLER_PER_FORINT;
+    }
+
+    /**
+     * Kerekített egész forint (fél fillértől felfelé, mint a "%,.0f" formátum)
+     */
+    public static long toForint(long filler) {
+        long forint = filler / FILLER_PER_FORINT;
+        long rest = filler % FILLER_PER_FORINT;
+        if (rest >= FILLER_PER_FORINT / 2) {
+            forint++;
+        } else if (rest <= -FILLER_PER_FORINT / 2) {
+            forint--;
+        }
+        return forint;
+    }
+
+    /**
+     * Összeadás túlcsordulás-ellenőrzéssel
+     *
+     * @throws ArithmeticException túlcsordulás esetén
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * A [from, to) elemek összege túlcsordulás-ellenőrzéssel
+     */
+    public static long sum(long[] filler, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum = Math.addExact(sum, filler[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Megjelenítés egész forintra kerekítve, pl. "12 500 Ft"
+     */
+    public static String format(long filler) {
+        return String.format("%,d Ft", toForint(filler));
+    }
+}
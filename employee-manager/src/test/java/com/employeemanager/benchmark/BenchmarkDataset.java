@@ -0,0 +1,111 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.config.ArchiveProperties;
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.config.FirebaseCacheProperties;
+import com.employeemanager.config.ReplicationProperties;
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.factory.RepositoryFactory;
+import com.employeemanager.database.loader.BulkLoader;
+import com.employeemanager.database.loader.JdbcBatchBulkLoader;
+import com.employeemanager.model.Employee;
+import com.employeemanager.service.impl.EmployeeServiceImpl;
+import com.employeemanager.service.impl.WorkRecordColumnStoreService;
+import com.employeemanager.service.impl.WorkRecordServiceImpl;
+import com.employeemanager.tools.SyntheticDataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarkokhoz feltöltött H2 adatbázis a valódi lánccal
+ * (DatabaseConnectionManager -> RepositoryFactory -> service implementációk),
+ * a SyntheticDataGenerator adataival
+ */
+public final class BenchmarkDataset implements AutoCloseable {
+
+    /** A munkanaplók éve; a tartomány lekérdezések ehhez igazodnak */
+    public static final int YEAR = 2024;
+    public static final int RECORDS_PER_EMPLOYEE = 40;
+
+    private static final int INSERT_BATCH_SIZE = 5000;
+
+    private final DatabaseConnectionManager connectionManager = new DatabaseConnectionManager(new SimpleMeterRegistry(), new DiagnosticsProperties());
+    private final RepositoryFactory repositoryFactory = new RepositoryFactory(connectionManager, new ArchiveProperties(),
+            new FirebaseCacheProperties(), new ReplicationProperties());
+    private final WorkRecordColumnStoreService columnStore = new WorkRecordColumnStoreService(repositoryFactory);
+    private final WorkRecordServiceImpl workRecordService = new WorkRecordServiceImpl(repositoryFactory, columnStore);
+    private final EmployeeServiceImpl employeeService = new EmployeeServiceImpl(repositoryFactory, workRecordService, columnStore);
+    private final List<Employee> employees = new ArrayList<>();
+    private ConnectionConfig config;
+
+    private BenchmarkDataset() {
+    }
+
+    /**
+     * Új, külön in-memory H2 adatbázis körülbelül recordCount munkanaplóval
+     */
+    public static BenchmarkDataset create(int recordCount) throws Exception {
+        return create(recordCount, Math.max(1, recordCount / RECORDS_PER_EMPLOYEE));
+    }
+
+    /**
+     * Új adatbázis megadott dolgozószámmal (sűrűbb dolgozónkénti munkanaplókhoz)
+     */
+    public static BenchmarkDataset create(int recordCount, int employeeCount) throws Exception {
+        BenchmarkDataset dataset = new BenchmarkDataset();
+        dataset.populate(recordCount, employeeCount);
+        return dataset;
+    }
+
+    private void populate(int recordCount, int employeeCount) throws Exception {
+        config = ConnectionConfig.builder()
+                .name("benchmark-" + recordCount + "-" + System.nanoTime())
+                .type(DatabaseType.H2)
+                .database("bench" + recordCount + "_" + System.nanoTime())
+                .build();
+        repositoryFactory.switchConnection(config);
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(recordCount);
+        employees.addAll(generator.generateEmployees(employeeCount));
+
+        BulkLoader loader = new JdbcBatchBulkLoader(connectionManager.getDataSource(config));
+        loader.loadEmployees(employees);
+        generator.generateWorkRecords(employees, LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 31),
+                recordCount, INSERT_BATCH_SIZE, loader::loadWorkRecords);
+    }
+
+    public DataSource getDataSource() {
+        return connectionManager.getDataSource(config);
+    }
+
+    public RepositoryFactory getRepositoryFactory() {
+        return repositoryFactory;
+    }
+
+    public WorkRecordColumnStoreService getColumnStore() {
+        return columnStore;
+    }
+
+    public WorkRecordServiceImpl getWorkRecordService() {
+        return workRecordService;
+    }
+
+    public EmployeeServiceImpl getEmployeeService() {
+        return employeeService;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    @Override
+    public void close() {
+        connectionManager.closeAll();
+    }
+}
@@ -0,0 +1,65 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.model.fx.WorkRecordFX;
+import com.employeemanager.util.ExcelExporter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Négy munkalapos Excel export egy teljes évre
+ * Az exporter a munkakönyvtár "exports" mappájába ír, ezért a benchmarks profil a target alól futtatja.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExcelExporterBenchmark {
+
+    @Param({"1000", "10000"})
+    public int recordCount;
+
+    private static final LocalDate START = LocalDate.of(BenchmarkDataset.YEAR, 1, 1);
+    private static final LocalDate END = LocalDate.of(BenchmarkDataset.YEAR, 12, 31);
+
+    private final ExcelExporter exporter = new ExcelExporter();
+    private List<WorkRecordFX> records;
+    private String lastExport;
+
+    @Setup
+    public void setUp() throws Exception {
+        try (BenchmarkDataset dataset = BenchmarkDataset.create(recordCount)) {
+            records = dataset.getWorkRecordService().getMonthlyRecords(START, END).stream()
+                    .map(WorkRecordFX::new)
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public String exportWorkRecords() throws Exception {
+        lastExport = exporter.exportWorkRecords(records, START, END);
+        return lastExport;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (lastExport != null) {
+            Files.deleteIfExists(Paths.get(lastExport));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExcelExporterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.model.dto.EmployeeMonthlySummary;
+import com.employeemanager.service.impl.MonthlyReportService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Havi összesítők és statisztikák a MonthlyReportService-en keresztül
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonthlyReportBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int recordCount;
+
+    private static final YearMonth MONTH = YearMonth.of(BenchmarkDataset.YEAR, 3);
+
+    private BenchmarkDataset dataset;
+    private MonthlyReportService reportService;
+    private String employeeId;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataset = BenchmarkDataset.create(recordCount);
+        reportService = new MonthlyReportService(dataset.getWorkRecordService(), dataset.getColumnStore());
+        employeeId = dataset.getEmployees().get(0).getId();
+    }
+
+    @Benchmark
+    public EmployeeMonthlySummary employeeMonthlySummary() {
+        return reportService.getEmployeeMonthlySummary(employeeId, MONTH);
+    }
+
+    @Benchmark
+    public List<EmployeeMonthlySummary> allEmployeesMonthlySummary() {
+        return reportService.getAllEmployeesMonthlySummary(MONTH);
+    }
+
+    @Benchmark
+    public Map<String, Object> monthlyStatistics() {
+        return reportService.getMonthlyStatistics(MONTH);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataset.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MonthlyReportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
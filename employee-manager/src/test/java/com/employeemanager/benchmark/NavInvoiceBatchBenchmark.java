@@ -0,0 +1,62 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.Invoice;
+import com.employeemanager.service.impl.NavInvoiceBatchService;
+import com.employeemanager.service.impl.NavInvoiceTestData;
+import com.employeemanager.service.impl.NavInvoiceXmlGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Havi zárás méretű NAV XML köteg előállítása zip kimenettel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NavInvoiceBatchBenchmark {
+
+    @Param({"1000", "10000"})
+    public int invoiceCount;
+
+    private final NavInvoiceBatchService batchService = new NavInvoiceBatchService(new NavInvoiceXmlGenerator());
+    private final CompanySettings settings = NavInvoiceTestData.companySettings();
+
+    private List<Invoice> invoices;
+    private Path workDir;
+
+    @Setup
+    public void setUp() throws IOException {
+        invoices = IntStream.rangeClosed(1, invoiceCount).mapToObj(NavInvoiceTestData::invoice).toList();
+        workDir = Files.createTempDirectory("nav-batch-bench");
+    }
+
+    @Benchmark
+    public int zipBatch() {
+        return batchService.generateBatch(invoices, settings, workDir.resolve("batch.zip"), null).getGeneratedCount();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(workDir.resolve("batch.zip"));
+        Files.deleteIfExists(workDir);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NavInvoiceBatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,53 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.Invoice;
+import com.employeemanager.service.impl.DomNavInvoiceXmlGenerator;
+import com.employeemanager.service.impl.NavInvoiceTestData;
+import com.employeemanager.service.impl.NavInvoiceXmlGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NAV számla XML generálás: DOM referencia és StAX generátor összehasonlítása
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NavInvoiceXmlBenchmark {
+
+    private final NavInvoiceXmlGenerator staxGenerator = new NavInvoiceXmlGenerator();
+    private final DomNavInvoiceXmlGenerator domGenerator = new DomNavInvoiceXmlGenerator();
+
+    private Invoice invoice;
+    private CompanySettings settings;
+
+    @Setup
+    public void setUp() {
+        invoice = NavInvoiceTestData.invoice(4);
+        settings = NavInvoiceTestData.companySettings();
+    }
+
+    @Benchmark
+    public String dom() throws Exception {
+        return domGenerator.generateInvoiceXml(invoice, settings);
+    }
+
+    @Benchmark
+    public String stax() throws Exception {
+        return staxGenerator.generateInvoiceXml(invoice, settings);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NavInvoiceXmlBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
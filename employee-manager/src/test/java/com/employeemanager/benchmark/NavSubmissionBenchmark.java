@@ -0,0 +1,81 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.dto.NavInvoicePayload;
+import com.employeemanager.nav.NavStubServer;
+import com.employeemanager.service.impl.NavInvoiceBatchService;
+import com.employeemanager.service.impl.NavInvoiceTestData;
+import com.employeemanager.service.impl.NavInvoiceXmlGenerator;
+import com.employeemanager.service.impl.NavSubmissionClient;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Beküldési áteresztőképesség a helyi NAV helyettesítő szerver ellen,
+ * kérésenkénti késleltetéssel és a párhuzamos kérések számának változtatásával
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class NavSubmissionBenchmark {
+
+    @Param({"1000"})
+    public int invoiceCount;
+
+    @Param({"1", "4", "8"})
+    public int maxInFlight;
+
+    @Param({"50"})
+    public long latencyMillis;
+
+    private final CompanySettings settings = NavInvoiceTestData.companySettings();
+
+    private NavStubServer server;
+    private List<NavInvoicePayload> payloads;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new NavStubServer(settings.getNavReplacementKey(), 16).withLatency(latencyMillis);
+
+        Path workDir = Files.createTempDirectory("nav-submit-bench");
+        List<NavInvoicePayload> generated = Collections.synchronizedList(new ArrayList<>());
+        new NavInvoiceBatchService(new NavInvoiceXmlGenerator()).generateBatch(
+                IntStream.rangeClosed(1, invoiceCount).mapToObj(NavInvoiceTestData::invoice),
+                settings, workDir.resolve("batch.zip"), generated::add);
+        payloads = new ArrayList<>(generated);
+        Files.deleteIfExists(workDir.resolve("batch.zip"));
+        Files.deleteIfExists(workDir);
+    }
+
+    @Benchmark
+    public long submit() {
+        try (NavSubmissionClient client = new NavSubmissionClient(server.getBaseUri(), maxInFlight)) {
+            return client.submit(payloads, settings, "password").countByStatus("DONE");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NavSubmissionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.service.impl.WorkPatternAnalyzer;
+import com.employeemanager.service.impl.WorkPatternAnalyzer.WarningAnalysis;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Figyelmeztetések számítása az összes alkalmazottra (alkalmazottanként egy lekérdezés)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkPatternAnalyzerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int recordCount;
+
+    private BenchmarkDataset dataset;
+    private WorkPatternAnalyzer analyzer;
+    private List<Employee> employees;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataset = BenchmarkDataset.create(recordCount);
+        analyzer = new WorkPatternAnalyzer(dataset.getColumnStore());
+        employees = dataset.getEmployees();
+    }
+
+    @Benchmark
+    public Map<String, WarningAnalysis> analyzeAllEmployees() {
+        return analyzer.analyzeAllEmployees(employees);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataset.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WorkPatternAnalyzerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A séma 1.1 összetett indexeinek hatása: "1.0" esetén az új indexeket eldobjuk,
+ * így csak az egyoszlopos indexek maradnak
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkRecordIndexBenchmark {
+
+    @Param({"1.0", "1.1"})
+    public String schemaVersion;
+
+    @Param({"100000"})
+    public int recordCount;
+
+    /** Kevés dolgozó: dolgozónként ~250 munkanapló, ahol az employee_id index önmagában gyengén szűr */
+    @Param({"400"})
+    public int employeeCount;
+
+    private static final LocalDate MONTH_START = LocalDate.of(BenchmarkDataset.YEAR, 3, 1);
+    private static final LocalDate MONTH_END = LocalDate.of(BenchmarkDataset.YEAR, 3, 31);
+    private static final String[] COMPOSITE_INDEXES = {
+            "idx_work_records_employee_work_date",
+            "idx_work_records_work_date_employee",
+            "idx_work_records_notification_work_date"
+    };
+
+    private BenchmarkDataset dataset;
+    private WorkRecordRepository repository;
+    private String employeeId;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataset = BenchmarkDataset.create(recordCount, employeeCount);
+        repository = dataset.getRepositoryFactory().getWorkRecordRepository();
+        employeeId = dataset.getEmployees().get(dataset.getEmployees().size() / 2).getId();
+
+        if ("1.0".equals(schemaVersion)) {
+            try (Connection conn = dataSource().getConnection();
+                 Statement stmt = conn.createStatement()) {
+                for (String index : COMPOSITE_INDEXES) {
+                    stmt.execute("DROP INDEX IF EXISTS " + index);
+                }
+                stmt.execute("ANALYZE");
+            }
+        }
+    }
+
+    private DataSource dataSource() {
+        return dataset.getDataSource();
+    }
+
+    @Benchmark
+    public List<WorkRecord> employeeMonth() throws Exception {
+        return repository.findByEmployeeIdAndWorkDateBetween(employeeId, MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public List<WorkRecord> employeeYear() throws Exception {
+        return repository.findByEmployeeIdAndWorkDateBetween(employeeId,
+                LocalDate.of(BenchmarkDataset.YEAR, 1, 1), LocalDate.of(BenchmarkDataset.YEAR, 12, 31));
+    }
+
+    @Benchmark
+    public List<WorkRecord> notificationAndWorkDateMonth() throws Exception {
+        return repository.findByNotificationDateAndWorkDateBetween(MONTH_START, MONTH_END.plusDays(5),
+                MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public List<WorkRecord> workDateMonth() throws Exception {
+        return repository.findByWorkDateBetween(MONTH_START, MONTH_END);
+    }
+
+    /**
+     * Havi összesítő dolgozónként: csak az index oszlopait és a két összegzett oszlopot olvassa
+     */
+    @Benchmark
+    public long employeeMonthSummary() throws Exception {
+        try (Connection conn = dataSource().getConnection();
+             PreparedStatement ps = conn.prepareStatement("""
+                     SELECT COUNT(*), SUM(payment), SUM(hours_worked) FROM work_records
+                     WHERE employee_id = ? AND work_date BETWEEN ? AND ?
+                     """)) {
+            ps.setString(1, employeeId);
+            ps.setDate(2, Date.valueOf(MONTH_START));
+            ps.setDate(3, Date.valueOf(MONTH_END));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1) + rs.getLong(3);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataset.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WorkRecordIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.employeemanager.benchmark;
+
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdbcWorkRecordRepository tartomány lekérdezései H2 adatbázison
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkRecordRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int recordCount;
+
+    private static final LocalDate MONTH_START = LocalDate.of(BenchmarkDataset.YEAR, 3, 1);
+    private static final LocalDate MONTH_END = LocalDate.of(BenchmarkDataset.YEAR, 3, 31);
+
+    private BenchmarkDataset dataset;
+    private WorkRecordRepository repository;
+    private String employeeId;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataset = BenchmarkDataset.create(recordCount);
+        repository = dataset.getRepositoryFactory().getWorkRecordRepository();
+        employeeId = dataset.getEmployees().get(dataset.getEmployees().size() / 2).getId();
+    }
+
+    @Benchmark
+    public List<WorkRecord> findByWorkDateBetween() throws Exception {
+        return repository.findByWorkDateBetween(MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public List<WorkRecord> findByNotificationDateBetween() throws Exception {
+        return repository.findByNotificationDateBetween(MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public List<WorkRecord> findByEmployeeIdAndWorkDateBetween() throws Exception {
+        return repository.findByEmployeeIdAndWorkDateBetween(employeeId,
+                LocalDate.of(BenchmarkDataset.YEAR, 1, 1), LocalDate.of(BenchmarkDataset.YEAR, 12, 31));
+    }
+
+    @Benchmark
+    public void streamByWorkDateBetween(Blackhole blackhole) throws Exception {
+        repository.streamByWorkDateBetween(MONTH_START, MONTH_END, blackhole::consume);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataset.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WorkRecordRepositoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
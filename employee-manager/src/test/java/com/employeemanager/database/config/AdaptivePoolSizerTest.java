@@ -0,0 +1,38 @@
+package com.employeemanager.database.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptivePoolSizerTest {
+
+    @Test
+    void growsOnWaitsAndShrinksAfterSustainedLowUtilization() {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(null, new SimpleMeterRegistry(), 2, 10);
+
+        // Várakozó szálak és hosszú várakozás: nő, de legfeljebb a felső korlátig
+        assertEquals(5, sizer.nextSize(2, 2, 3, 0));
+        assertEquals(6, sizer.nextSize(5, 5, 0, 12.5));
+        assertEquals(10, sizer.nextSize(9, 9, 4, 30));
+        assertEquals(10, sizer.nextSize(10, 10, 4, 30));
+
+        // Alacsony kihasználtságnál csak tartósan, lépésenként csökken
+        for (int i = 1; i < AdaptivePoolSizer.SHRINK_AFTER_SAMPLES; i++) {
+            assertEquals(10, sizer.nextSize(10, 1, 0, 0));
+        }
+        assertEquals(9, sizer.nextSize(10, 1, 0, 0));
+
+        // Közepes terhelés megszakítja a csökkenést
+        for (int i = 1; i < AdaptivePoolSizer.SHRINK_AFTER_SAMPLES; i++) {
+            assertEquals(9, sizer.nextSize(9, 1, 0, 0));
+        }
+        assertEquals(9, sizer.nextSize(9, 5, 0, 0));
+        assertEquals(9, sizer.nextSize(9, 1, 0, 0));
+
+        // Az alsó korlát alá nem megy
+        for (int i = 1; i <= AdaptivePoolSizer.SHRINK_AFTER_SAMPLES; i++) {
+            assertEquals(2, sizer.nextSize(2, 0, 0, 0));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.employeemanager.database.config;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseConnectionManagerPoolTest {
+
+    @Test
+    void testedPoolIsReusedUntilPoolSettingsChange() throws Exception {
+        DatabaseConnectionManager manager = new DatabaseConnectionManager(new SimpleMeterRegistry(), new DiagnosticsProperties());
+        ConnectionConfig config = ConnectionConfig.builder()
+                .name("pool-reuse")
+                .type(DatabaseType.H2)
+                .database("pool_reuse_" + System.nanoTime())
+                .build();
+
+        try {
+            // A sikeres teszt pool-ja lesz a kapcsolat pool-ja, az ismételt teszt is ezt használja
+            assertTrue(manager.testConnection(config));
+            DataSource pooled = manager.getDataSource(config);
+            assertTrue(manager.testConnection(config));
+            assertSame(pooled, manager.getDataSource(config));
+
+            // Módosított beállítás tesztje nem zárja be az élő pool-t
+            ConnectionConfig changed = config.toBuilder().maxPoolSize(3).build();
+            assertTrue(manager.testConnection(changed));
+            assertSame(pooled, manager.getDataSource(config));
+            try (Connection conn = pooled.getConnection()) {
+                assertTrue(conn.isValid(1));
+            }
+
+            // Aktiváláskor a tesztelt pool váltja a régit
+            assertTrue(manager.prepareConnection(changed));
+            DataSource replaced = manager.getDataSource(changed);
+            assertNotSame(pooled, replaced);
+            assertThrows(Exception.class, pooled::getConnection);
+            try (Connection conn = replaced.getConnection()) {
+                assertTrue(conn.isValid(1));
+            }
+        } finally {
+            manager.closeAll();
+        }
+    }
+
+    @Test
+    void promotedPoolKeepsAdaptiveSizingAndMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DatabaseConnectionManager manager = new DatabaseConnectionManager(meterRegistry, new DiagnosticsProperties());
+        ConnectionConfig config = ConnectionConfig.builder()
+                .name("pool-adaptive")
+                .type(DatabaseType.H2)
+                .database("pool_adaptive_" + System.nanoTime())
+                .adaptivePoolSizing(true)
+                .build();
+
+        try {
+            assertTrue(manager.testConnection(config));
+            assertTrue(manager.isAdaptiveSizingScheduled(config));
+
+            // Az aktiváláskor átvett pool a régi bezárása után is megtartja a méretezést és a metrikákat
+            ConnectionConfig changed = config.toBuilder().maxPoolSize(4).build();
+            assertTrue(manager.prepareConnection(changed));
+            assertTrue(manager.isAdaptiveSizingScheduled(config));
+            manager.getDataSource(changed);
+            assertTrue(manager.isAdaptiveSizingScheduled(changed));
+            assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "EmployeeManager-pool-adaptive").gauge());
+
+            // Sikertelen teszt pool bezárása nem érinti az élő pool-t
+            ConnectionConfig broken = changed.toBuilder().type(DatabaseType.POSTGRESQL)
+                    .host("127.0.0.1").port(1).connectionTimeout(1000L).build();
+            assertFalse(manager.testConnection(broken));
+            assertTrue(manager.isAdaptiveSizingScheduled(changed));
+            assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "EmployeeManager-pool-adaptive").gauge());
+        } finally {
+            manager.closeAll();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.employeemanager.database.config;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.migration.SchemaVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseConnectionManagerSchemaTest {
+
+    @Test
+    void schemaIsVerifiedOncePerDataSource() throws Exception {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.getSchema().setBackgroundVerification(false);
+        DatabaseConnectionManager manager = new DatabaseConnectionManager(new SimpleMeterRegistry(), properties);
+        ConnectionConfig config = ConnectionConfig.builder()
+                .name("schema-readiness")
+                .type(DatabaseType.H2)
+                .database("schema_readiness_" + System.nanoTime())
+                .build();
+
+        try {
+            assertFalse(manager.isSchemaVerified(config));
+            DataSource dataSource = manager.getVerifiedDataSource(config);
+            assertTrue(manager.isSchemaVerified(config));
+
+            // A tárolt verzió törlése után az ismételt hívás nem futtat migrációt
+            try (Connection conn = dataSource.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("DELETE FROM database_info");
+            }
+            manager.getVerifiedDataSource(config);
+            try (Connection conn = dataSource.getConnection()) {
+                assertNull(SchemaVersion.read(conn));
+            }
+        } finally {
+            manager.closeAll();
+        }
+
+        // A kapcsolatok bezárása után az új DataSource újra ellenőrzésre kerül
+        assertFalse(manager.isSchemaVerified(config));
+        try {
+            DataSource dataSource = manager.getVerifiedDataSource(config);
+            try (Connection conn = dataSource.getConnection()) {
+                assertEquals("1.3", SchemaVersion.read(conn));
+            }
+        } finally {
+            manager.closeAll();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.employeemanager.database.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadReplicaRouterTest {
+
+    @Test
+    void readsGoToReplicasExceptAfterWrites() throws Exception {
+        DataSource primary = h2("router_primary");
+        DataSource replica = h2("router_replica");
+        ReadReplicaRouter router = new ReadReplicaRouter("router", primary, List.of(replica), Duration.ofMillis(200));
+
+        assertEquals("router_replica", database(router));
+
+        router.markWrite();
+        assertEquals("router_primary", database(router));
+
+        Thread.sleep(250);
+        assertEquals("router_replica", database(router));
+    }
+
+    @Test
+    void unavailableReplicaIsSkipped() throws Exception {
+        DataSource primary = h2("router_fallback_primary");
+        JdbcDataSource down = new JdbcDataSource();
+        down.setURL("jdbc:h2:mem:router_down;IFEXISTS=TRUE");
+        DataSource replica = h2("router_fallback_replica");
+        ReadReplicaRouter router = new ReadReplicaRouter("router", primary, List.of(down, replica), Duration.ZERO);
+
+        // A hibás replika kimarad, a körbeforgás a működőre esik
+        for (int i = 0; i < 4; i++) {
+            assertEquals("router_fallback_replica", database(router));
+        }
+
+        router = new ReadReplicaRouter("router", primary, List.of(down), Duration.ZERO);
+        assertEquals("router_fallback_primary", database(router));
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private static String database(ReadReplicaRouter router) throws SQLException {
+        try (Connection conn = router.getReadConnection()) {
+            return conn.getCatalog().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.employeemanager.database.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WorkRecordPartitioningTest {
+
+    @Test
+    void partitionNamesRoundTripToPeriodStart() {
+        LocalDate date = LocalDate.of(2024, 2, 29);
+
+        LocalDate month = WorkRecordPartitioning.MONTHLY.periodStart(date);
+        assertEquals(LocalDate.of(2024, 2, 1), month);
+        assertEquals(LocalDate.of(2024, 3, 1), WorkRecordPartitioning.MONTHLY.nextPeriod(month));
+        assertEquals("work_records_p2024_02", WorkRecordPartitioning.MONTHLY.partitionName("work_records", month));
+        assertEquals(month, WorkRecordPartitioning.MONTHLY.parsePeriodStart("work_records", "work_records_p2024_02"));
+
+        LocalDate year = WorkRecordPartitioning.YEARLY.periodStart(date);
+        assertEquals(LocalDate.of(2024, 1, 1), year);
+        assertEquals("work_records_p2024", WorkRecordPartitioning.YEARLY.partitionName("work_records", year));
+        assertEquals(year, WorkRecordPartitioning.YEARLY.parsePeriodStart("work_records", "work_records_p2024"));
+    }
+
+    @Test
+    void foreignPartitionNamesAreNotParsed() {
+        assertNull(WorkRecordPartitioning.MONTHLY.parsePeriodStart("work_records", "work_records_default"));
+        assertNull(WorkRecordPartitioning.MONTHLY.parsePeriodStart("work_records", "work_records_p2024"));
+        assertNull(WorkRecordPartitioning.YEARLY.parsePeriodStart("work_records", "work_records_p2024_02"));
+        assertNull(WorkRecordPartitioning.MONTHLY.parsePeriodStart("work_records", "work_records_p2024_13"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.employeemanager.database.factory;
+
+import com.employeemanager.config.ArchiveProperties;
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.config.FirebaseCacheProperties;
+import com.employeemanager.config.ReplicationProperties;
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.model.Employee;
+import com.employeemanager.repository.cache.LocalDocumentStore;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RepositoryFactoryShutdownTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicBoolean connectionsClosed = new AtomicBoolean();
+    private final AtomicInteger commits = new AtomicInteger();
+
+    @Test
+    void writeBehindJournalIsFlushedBeforeConnectionsClose() throws Exception {
+        FirebaseCacheProperties cacheProperties = new FirebaseCacheProperties();
+        cacheProperties.setDirectory(directory.toString());
+        cacheProperties.getWriteBehind().setEnabled(true);
+        cacheProperties.getWriteBehind().setFlushInterval(Duration.ofHours(1));
+
+        DatabaseConnectionManager manager = connectionManager(firestore());
+        AnnotationConfigApplicationContext context = context(manager, cacheProperties, new ReplicationProperties());
+        manager.setActiveConnection(ConnectionConfig.builder()
+                .name("shutdown")
+                .type(DatabaseType.FIREBASE)
+                .firebaseProjectId("shutdown-test")
+                .build());
+
+        Employee employee = new Employee();
+        employee.setId("e1");
+        employee.setName("Teszt Elek");
+        context.getBean(RepositoryFactory.class).getEmployeeRepository().save(employee);
+
+        // A leállításkori kiírás még a kapcsolatok bezárása előtt fut
+        context.close();
+
+        assertTrue(connectionsClosed.get());
+        assertTrue(commits.get() > 0);
+        try (LocalDocumentStore store = new LocalDocumentStore(directory.resolve("shutdown"))) {
+            assertEquals(0, store.pendingWriteCount());
+        }
+    }
+
+    @Test
+    void replicationOutboxIsDrainedBeforeConnectionsClose() throws Exception {
+        ReplicationProperties replicationProperties = new ReplicationProperties();
+        replicationProperties.setEnabled(true);
+        replicationProperties.setFirebaseProjectId("shutdown-replica");
+        replicationProperties.setPollInterval(Duration.ofHours(1));
+        ConnectionConfig config = ConnectionConfig.builder()
+                .name("shutdown-jdbc")
+                .type(DatabaseType.H2)
+                .database("shutdown_" + System.nanoTime())
+                .build();
+
+        DatabaseConnectionManager manager = connectionManager(firestore());
+        AnnotationConfigApplicationContext context = context(manager, new FirebaseCacheProperties(),
+                replicationProperties);
+        manager.setActiveConnection(config);
+
+        Employee employee = new Employee();
+        employee.setName("Teszt Elek");
+        employee.setTaxNumber("8123456789");
+        employee.setSocialSecurityNumber("123456789");
+        context.getBean(RepositoryFactory.class).getEmployeeRepository().save(employee);
+
+        context.close();
+
+        assertTrue(connectionsClosed.get());
+        assertTrue(commits.get() > 0);
+        // A memóriabeli adatbázis a pool bezárása után is megmarad (DB_CLOSE_DELAY=-1)
+        try (Connection conn = DriverManager.getConnection(config.getJdbcUrl(), config.getUsername(),
+                config.getPassword());
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM replication_outbox")) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getLong(1));
+        }
+    }
+
+    private AnnotationConfigApplicationContext context(DatabaseConnectionManager manager,
+                                                       FirebaseCacheProperties cacheProperties,
+                                                       ReplicationProperties replicationProperties) {
+        ArchiveProperties archiveProperties = new ArchiveProperties();
+        archiveProperties.setEnabled(false);
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(DatabaseConnectionManager.class, () -> manager);
+        context.registerBean(ArchiveProperties.class, () -> archiveProperties);
+        context.registerBean(FirebaseCacheProperties.class, () -> cacheProperties);
+        context.registerBean(ReplicationProperties.class, () -> replicationProperties);
+        context.registerBean(RepositoryFactory.class);
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * A bezárt kapcsolatok után a Firestore már nem használható (mint a törölt FirebaseApp esetén)
+     */
+    private DatabaseConnectionManager connectionManager(Firestore firestore) {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.getSchema().setBackgroundVerification(false);
+        return new DatabaseConnectionManager(new SimpleMeterRegistry(), properties) {
+            @Override
+            public Firestore getFirestore(ConnectionConfig config) {
+                return firestore;
+            }
+
+            @Override
+            public void closeAll() {
+                connectionsClosed.set(true);
+                super.closeAll();
+            }
+        };
+    }
+
+    private Firestore firestore() {
+        Firestore firestore = mock(Firestore.class);
+        CollectionReference collection = mock(CollectionReference.class);
+        when(firestore.collection(anyString())).thenReturn(collection);
+        when(collection.document(anyString())).thenAnswer(invocation -> {
+            DocumentReference document = mock(DocumentReference.class);
+            when(document.getId()).thenReturn(invocation.getArgument(0));
+            return document;
+        });
+        WriteBatch batch = mock(WriteBatch.class);
+        when(batch.commit()).thenAnswer(invocation -> {
+            commits.incrementAndGet();
+            return ApiFutures.immediateFuture(List.of());
+        });
+        when(firestore.batch()).thenAnswer(invocation -> {
+            if (connectionsClosed.get()) {
+                throw new IllegalStateException("Firestore client has already been closed");
+            }
+            return batch;
+        });
+        return firestore;
+    }
+}
@@ -0,0 +1,97 @@
+package com.employeemanager.database.migration;
+
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.schema.SchemaInitializerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MigrationRunnerTest {
+
+    @Test
+    void existingSchemaIsUpgradedToCurrentVersion() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:schema_upgrade_test;DB_CLOSE_DELAY=-1");
+
+        SchemaInitializerFactory.initializeDatabase(dataSource, DatabaseType.H2);
+
+        // 1.0 állapot visszaállítása: összetett indexek nélkül
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP INDEX idx_work_records_employee_work_date");
+            stmt.execute("DROP INDEX idx_work_records_work_date_employee");
+            stmt.execute("DROP INDEX idx_work_records_notification_work_date");
+            stmt.execute("UPDATE database_info SET property_value = '1.0' WHERE property_key = 'schema_version'");
+        }
+
+        SchemaInitializerFactory.initializeDatabase(dataSource, DatabaseType.H2);
+
+        try (Connection conn = dataSource.getConnection()) {
+            assertEquals("1.3", SchemaVersion.read(conn));
+            Set<String> indexes = workRecordIndexes(conn);
+            assertTrue(indexes.contains("IDX_WORK_RECORDS_EMPLOYEE_WORK_DATE"), indexes.toString());
+            assertTrue(indexes.contains("IDX_WORK_RECORDS_WORK_DATE_EMPLOYEE"), indexes.toString());
+            assertTrue(indexes.contains("IDX_WORK_RECORDS_NOTIFICATION_WORK_DATE"), indexes.toString());
+        }
+    }
+
+    @Test
+    void onlyMissingMigrationsRunInOrder() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migration_order_test;DB_CLOSE_DELAY=-1");
+        List<String> applied = new ArrayList<>();
+
+        MigrationRunner first = new MigrationRunner(DatabaseType.H2, List.of(
+                SchemaMigration.of("1.0", "base",
+                        MigrationStep.sql("CREATE TABLE IF NOT EXISTS database_info (property_key VARCHAR(50) PRIMARY KEY,"
+                                + " property_value VARCHAR(200), updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)"),
+                        conn -> applied.add("1.0")),
+                SchemaMigration.of("1.2", "second", conn -> applied.add("1.2"))));
+        assertEquals("1.2", first.migrate(dataSource));
+
+        MigrationRunner second = new MigrationRunner(DatabaseType.H2, List.of(
+                SchemaMigration.of("1.0", "base", conn -> applied.add("1.0 again")),
+                SchemaMigration.of("1.2", "second", conn -> applied.add("1.2 again")),
+                SchemaMigration.of("1.10", "third", conn -> applied.add("1.10"))));
+        assertEquals("1.10", second.migrate(dataSource));
+
+        assertEquals(List.of("1.0", "1.2", "1.10"), applied);
+    }
+
+    @Test
+    void versionsAreComparedNumerically() {
+        assertTrue(SchemaVersion.isOlder("1.0", "1.1"));
+        assertTrue(SchemaVersion.isOlder("1.9", "1.10"));
+        assertFalse(SchemaVersion.isOlder("1.1", "1.1"));
+        assertFalse(SchemaVersion.isOlder("2.0", "1.1"));
+    }
+
+    @Test
+    void migrationsMustStartAtTheBaseline() {
+        assertThrows(IllegalArgumentException.class, () -> new MigrationRunner(DatabaseType.H2, List.of(
+                SchemaMigration.of("1.1", "no baseline", conn -> { }))));
+    }
+
+    private static Set<String> workRecordIndexes(Connection conn) throws SQLException {
+        Set<String> indexes = new HashSet<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, "WORK_RECORDS", false, false)) {
+            while (rs.next()) {
+                indexes.add(rs.getString("INDEX_NAME"));
+            }
+        }
+        return indexes;
+    }
+}
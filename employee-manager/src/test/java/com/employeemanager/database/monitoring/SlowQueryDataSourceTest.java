@@ -0,0 +1,72 @@
+package com.employeemanager.database.monitoring;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.config.DatabaseType;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryDataSourceTest {
+
+    @Test
+    void slowSelectIsExplainedIntoPlanFile(@TempDir Path tempDir) throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slow_query_test;DB_CLOSE_DELAY=-1");
+
+        DiagnosticsProperties.SlowQuery settings = new DiagnosticsProperties.SlowQuery();
+        settings.setThreshold(Duration.ZERO);
+        settings.setExplain(true);
+        settings.setPlanFile(tempDir.resolve("plans.log").toString());
+
+        try (SlowQueryDataSource dataSource = new SlowQueryDataSource(h2,
+                new SlowQueryLog("test", DatabaseType.H2, h2, settings))) {
+            try (Connection conn = dataSource.getConnection();
+                 Statement statement = conn.createStatement()) {
+                statement.execute("CREATE TABLE work_records (id VARCHAR(36), work_date DATE)");
+                statement.execute("CREATE INDEX idx_work_records_work_date ON work_records(work_date)");
+            }
+
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(
+                         "SELECT id FROM work_records WHERE work_date BETWEEN ? AND ? AND id <> 'secret'")) {
+                ps.setDate(1, Date.valueOf("2024-01-01"));
+                ps.setDate(2, Date.valueOf("2024-12-31"));
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertFalse(rs.next());
+                }
+            }
+        }
+
+        String plans = Files.readString(tempDir.resolve("plans.log"));
+        assertTrue(plans.contains("params: [1=Date, 2=Date]"), plans);
+        assertTrue(plans.contains("IDX_WORK_RECORDS_WORK_DATE"), plans);
+        assertTrue(plans.contains("AND id <> '***'\nparams:"), plans);
+        assertFalse(plans.contains("2024-01-01"), plans);
+    }
+
+    @Test
+    void parametersAndLiteralsAreRedacted() {
+        Map<Integer, Object> parameters = new LinkedHashMap<>();
+        parameters.put(1, "8123456789");
+        parameters.put(2, null);
+
+        assertEquals("[1=String, 2=NULL]", SlowQueryLog.redactParameters(parameters));
+        assertEquals("SELECT * FROM employees WHERE tax_number = '***' AND name = '***'",
+                SlowQueryLog.redact("SELECT *\n  FROM employees WHERE tax_number = '8123456789' AND name = 'O''Brien'"));
+    }
+}
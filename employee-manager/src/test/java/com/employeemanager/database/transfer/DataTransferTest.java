@@ -0,0 +1,200 @@
+package com.employeemanager.database.transfer;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.loader.BulkLoader;
+import com.employeemanager.database.loader.JdbcBatchBulkLoader;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.archive.JdbcWorkRecordArchive;
+import com.employeemanager.tools.SyntheticDataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataTransferTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void interruptedTransferResumesFromCheckpoint() throws Exception {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.getSchema().setBackgroundVerification(false);
+        DatabaseConnectionManager manager = new DatabaseConnectionManager(new SimpleMeterRegistry(), properties);
+        ConnectionConfig sourceConfig = h2("transfer_source_" + System.nanoTime());
+        ConnectionConfig targetConfig = h2("transfer_target_" + System.nanoTime());
+        Path checkpoint = directory.resolve("transfer.checkpoint");
+
+        try {
+            DataSource sourceData = manager.getVerifiedDataSource(sourceConfig);
+            DataSource targetData = manager.getVerifiedDataSource(targetConfig);
+
+            JdbcBatchBulkLoader sourceLoader = new JdbcBatchBulkLoader(sourceData);
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(7);
+            List<Employee> employees = generator.generateEmployees(30);
+            sourceLoader.loadEmployees(employees);
+            generator.generateWorkRecords(employees, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30),
+                    1_000, 500, sourceLoader::loadWorkRecords);
+
+            // Az archivált munkanaplók is átkerülnek, a célon is az archívumba
+            LocalDate boundary = LocalDate.of(2024, 3, 1);
+            int archived = new JdbcWorkRecordArchive(sourceData).archiveBefore(boundary);
+            assertTrue(archived > 0);
+
+            // Az ötödik munkanapló köteg kiíródik, de az ellenőrzőpont előtt megszakad
+            BulkLoader crashing = new CrashingLoader(new JdbcBatchBulkLoader(targetData), 5);
+            DataTransfer interrupted = new DataTransfer(new JdbcRecordSource(sourceData), crashing,
+                    new JdbcRecordSource(targetData), checkpoint, 64, 2);
+            assertThrows(ExecutionException.class, interrupted::run);
+            assertEquals(TransferCheckpoint.Phase.WORK_RECORDS, TransferCheckpoint.load(checkpoint).get().getPhase());
+
+            TransferCheckpoint result = new DataTransfer(new JdbcRecordSource(sourceData),
+                    new JdbcBatchBulkLoader(targetData), new JdbcRecordSource(targetData), checkpoint, 64, 2).run();
+
+            assertEquals(TransferCheckpoint.Phase.DONE, result.getPhase());
+            assertEquals(30, result.getEmployees());
+            assertEquals(1_000, result.getWorkRecords());
+            assertEquals(0, result.getSkipped());
+            assertEquals(30, count(targetData, "employees"));
+            assertEquals(1_000 - archived, count(targetData, "work_records"));
+            assertEquals(archived, count(targetData, "work_records_archive"));
+            assertEquals(boundary, new JdbcWorkRecordArchive(targetData).getBoundary());
+        } finally {
+            manager.closeAll();
+        }
+    }
+
+    @Test
+    void permanentlyFailedRowsHoldBackTheCheckpoint() throws Exception {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.getSchema().setBackgroundVerification(false);
+        DatabaseConnectionManager manager = new DatabaseConnectionManager(new SimpleMeterRegistry(), properties);
+        ConnectionConfig sourceConfig = h2("transfer_failed_source_" + System.nanoTime());
+        ConnectionConfig targetConfig = h2("transfer_failed_target_" + System.nanoTime());
+        Path checkpoint = directory.resolve("failed.checkpoint");
+
+        try {
+            DataSource sourceData = manager.getVerifiedDataSource(sourceConfig);
+            DataSource targetData = manager.getVerifiedDataSource(targetConfig);
+
+            JdbcBatchBulkLoader sourceLoader = new JdbcBatchBulkLoader(sourceData);
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(11);
+            List<Employee> employees = generator.generateEmployees(10);
+            sourceLoader.loadEmployees(employees);
+            generator.generateWorkRecords(employees, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31),
+                    300, 300, sourceLoader::loadWorkRecords);
+
+            // A harmadik munkanapló köteg sorai (pl. kimerült újrapróbálkozás után) nem íródnak ki
+            BulkLoader failing = new FailingLoader(new JdbcBatchBulkLoader(targetData), 3);
+            DataTransfer first = new DataTransfer(new JdbcRecordSource(sourceData), failing,
+                    new JdbcRecordSource(targetData), checkpoint, 64, 2);
+            assertThrows(ExecutionException.class, first::run);
+
+            TransferCheckpoint held = TransferCheckpoint.load(checkpoint).get();
+            assertEquals(TransferCheckpoint.Phase.WORK_RECORDS, held.getPhase());
+            assertEquals(64, held.getFailed());
+            assertEquals(128, held.getWorkRecords());
+            assertEquals(0, held.getSkipped());
+
+            TransferCheckpoint result = new DataTransfer(new JdbcRecordSource(sourceData),
+                    new JdbcBatchBulkLoader(targetData), new JdbcRecordSource(targetData), checkpoint, 64, 2).run();
+
+            assertEquals(TransferCheckpoint.Phase.DONE, result.getPhase());
+            assertEquals(0, result.getFailed());
+            assertEquals(300, result.getWorkRecords());
+            assertEquals(300, count(targetData, "work_records"));
+        } finally {
+            manager.closeAll();
+        }
+    }
+
+    private static ConnectionConfig h2(String database) {
+        return ConnectionConfig.builder()
+                .name(database)
+                .type(DatabaseType.H2)
+                .database(database)
+                .build();
+    }
+
+    private static long count(DataSource dataSource, String table) throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static final class CrashingLoader implements BulkLoader {
+        private final BulkLoader delegate;
+        private int remainingBatches;
+
+        CrashingLoader(BulkLoader delegate, int workRecordBatches) {
+            this.delegate = delegate;
+            this.remainingBatches = workRecordBatches;
+        }
+
+        @Override
+        public int loadEmployees(List<Employee> employees) throws ExecutionException, InterruptedException {
+            return delegate.loadEmployees(employees);
+        }
+
+        @Override
+        public int loadWorkRecords(List<WorkRecord> workRecords) throws ExecutionException, InterruptedException {
+            int loaded = delegate.loadWorkRecords(workRecords);
+            if (--remainingBatches == 0) {
+                throw new ExecutionException("Simulated crash", null);
+            }
+            return loaded;
+        }
+
+        @Override
+        public String getName() {
+            return "crashing";
+        }
+    }
+
+    private static final class FailingLoader implements BulkLoader {
+        private final BulkLoader delegate;
+        private int remainingBatches;
+
+        FailingLoader(BulkLoader delegate, int failingWorkRecordBatch) {
+            this.delegate = delegate;
+            this.remainingBatches = failingWorkRecordBatch;
+        }
+
+        @Override
+        public int loadEmployees(List<Employee> employees) throws ExecutionException, InterruptedException {
+            return delegate.loadEmployees(employees);
+        }
+
+        @Override
+        public int loadWorkRecords(List<WorkRecord> workRecords) throws ExecutionException, InterruptedException {
+            if (--remainingBatches == 0) {
+                return 0;
+            }
+            return delegate.loadWorkRecords(workRecords);
+        }
+
+        @Override
+        public String getName() {
+            return "failing";
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.employeemanager.diagnostics;
+
+import com.employeemanager.benchmark.BenchmarkDataset;
+import com.employeemanager.service.impl.WorkPatternAnalyzer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderEventsTest {
+
+    private static final LocalDate FROM = LocalDate.of(BenchmarkDataset.YEAR, 1, 1);
+    private static final LocalDate TO = LocalDate.of(BenchmarkDataset.YEAR, 12, 31);
+
+    @Test
+    void repositoryAndAnalyzerEmitEvents(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("events.jfr");
+
+        try (BenchmarkDataset dataset = BenchmarkDataset.create(400);
+             Recording recording = new Recording()) {
+            recording.enable(WorkRecordQueryEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(SlowQueryEvent.class).withThreshold(Duration.ofDays(1));
+            recording.enable(AnalyzerRunEvent.class);
+            recording.start();
+
+            int found = dataset.getWorkRecordService().getMonthlyRecords(FROM, TO).size();
+            new WorkPatternAnalyzer(dataset.getColumnStore()).analyzeAllEmployees(dataset.getEmployees());
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            RecordedEvent query = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("com.employeemanager.WorkRecordQuery"))
+                    .filter(e -> "findByWorkDateBetween".equals(e.getString("queryType")))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("H2", query.getString("backend"));
+            assertEquals(FROM.toString(), query.getString("startDate"));
+            assertEquals(found, query.getLong("rowCount"));
+            assertFalse(query.getBoolean("failed"));
+
+            assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("com.employeemanager.SlowQuery")),
+                    "queries below the slow query threshold are filtered out");
+
+            RecordedEvent analysis = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("com.employeemanager.AnalyzerRun"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("all", analysis.getString("scope"));
+            assertEquals(dataset.getEmployees().size(), analysis.getInt("employeeCount"));
+            assertEquals(400, analysis.getLong("recordCount"));
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.employeemanager.nav;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Beágyazható, hálózat nélkül futó NAV Online Számla 3.0 helyettesítő
+ * (tokenExchange, manageInvoice, queryTransactionStatus, queryTransactionList) állítható késleltetéssel és hibaaránnyal.
+ * Az ismételt requestId-t és exchange tokent a hibainjektálás előtt elutasítja, így a változatlanul
+ * újraküldött kérés is kiderül.
+ */
+public class NavStubServer implements AutoCloseable {
+
+    private static final Pattern INDEX_PATTERN = Pattern.compile("<(?:\\w+:)?index>");
+    private static final Pattern INVOICE_DATA_PATTERN = Pattern.compile("<(?:\\w+:)?invoiceData>([^<]*)</");
+    private static final int MAX_INVOICES_PER_REQUEST = 100;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String replacementKey;
+
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private volatile double abortRate;
+    private volatile long processingMillis;
+    private final AtomicLong forcedFailures = new AtomicLong();
+    private final AtomicLong forcedInvoiceFailures = new AtomicLong();
+    private final AtomicLong droppedInvoiceResponses = new AtomicLong();
+
+    private final Set<String> requestIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> issuedTokens = ConcurrentHashMap.newKeySet();
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong invoiceCount = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    public NavStubServer(String replacementKey, int threads) throws IOException {
+        this.replacementKey = replacementKey;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/invoiceService/v3/tokenExchange",
+                exchange -> handle(exchange, false, this::tokenExchange));
+        server.createContext("/invoiceService/v3/manageInvoice",
+                exchange -> handle(exchange, true, this::manageInvoice));
+        server.createContext("/invoiceService/v3/queryTransactionStatus",
+                exchange -> handle(exchange, false, this::queryTransactionStatus));
+        server.createContext("/invoiceService/v3/queryTransactionList",
+                exchange -> handle(exchange, false, this::queryTransactionList));
+        server.start();
+    }
+
+    public URI getBaseUri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/invoiceService/v3/");
+    }
+
+    /** Minden kérésre alkalmazott késleltetés */
+    public NavStubServer withLatency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    /** HTTP 500 válaszok aránya (0..1) */
+    public NavStubServer withErrorRate(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    /** A következő n kérés mindenképp HTTP 500-zal tér vissza */
+    public NavStubServer failNext(int requests) {
+        this.forcedFailures.set(requests);
+        return this;
+    }
+
+    /** A következő n manageInvoice kérés az exchange token felhasználása után HTTP 500-zal tér vissza */
+    public NavStubServer failNextInvoices(int requests) {
+        this.forcedInvoiceFailures.set(requests);
+        return this;
+    }
+
+    /** A következő n manageInvoice kérést feldolgozza, de a választ félbeszakítja (elveszett válasz) */
+    public NavStubServer dropNextInvoiceResponses(int requests) {
+        this.droppedInvoiceResponses.set(requests);
+        return this;
+    }
+
+    /** ABORTED állapotú számlák aránya (0..1) */
+    public NavStubServer withAbortRate(double rate) {
+        this.abortRate = rate;
+        return this;
+    }
+
+    /** Ennyi ideig marad PROCESSING állapotban egy tranzakció */
+    public NavStubServer withProcessingTime(long millis) {
+        this.processingMillis = millis;
+        return this;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getInvoiceCount() {
+        return invoiceCount.get();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    private void handle(HttpExchange exchange, boolean invoiceOperation, Handler handler) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            Response rejected = validate(body);
+            if (rejected != null) {
+                respond(exchange, rejected.status, rejected.body);
+                return;
+            }
+            boolean forced = forcedFailures.getAndUpdate(NavStubServer::countDown) > 0
+                    || invoiceOperation && forcedInvoiceFailures.getAndUpdate(NavStubServer::countDown) > 0;
+            if (forced || errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, 500, errorResponse("OPERATION_FAILED", "Injected stub failure"));
+                return;
+            }
+            Response response = handler.handle(body);
+            if (invoiceOperation && response.status == 200
+                    && droppedInvoiceResponses.getAndUpdate(NavStubServer::countDown) > 0) {
+                injectedErrors.incrementAndGet();
+                abort(exchange, response.body);
+                return;
+            }
+            respond(exchange, response.status, response.body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, errorResponse("OPERATION_FAILED", "Interrupted"));
+        } catch (Exception e) {
+            respond(exchange, 500, errorResponse("OPERATION_FAILED", e.getMessage()));
+        }
+    }
+
+    /**
+     * Minden requestId és exchange token csak egyszer használható fel, a token akkor is elhasználódik,
+     * ha a kérés utána hibára fut
+     */
+    private Response validate(String body) {
+        String requestId = extract(body, "requestId");
+        if (requestId == null || !requestIds.add(requestId)) {
+            return new Response(400, errorResponse("INVALID_REQUEST", "Missing or reused requestId: " + requestId));
+        }
+        String token = extract(body, "exchangeToken");
+        if (token != null && !issuedTokens.remove(token)) {
+            return new Response(400, errorResponse("INVALID_EXCHANGE_TOKEN", "Unknown or reused exchange token"));
+        }
+        return null;
+    }
+
+    private Response tokenExchange(String body) throws Exception {
+        String token = UUID.randomUUID().toString();
+        issuedTokens.add(token);
+
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(replacementKey.getBytes(StandardCharsets.UTF_8), "AES"));
+        String encoded = Base64.getEncoder().encodeToString(cipher.doFinal(token.getBytes(StandardCharsets.UTF_8)));
+
+        return ok("TokenExchangeResponse", "<encodedExchangeToken>" + encoded + "</encodedExchangeToken>");
+    }
+
+    private Response manageInvoice(String body) {
+        // A token érvényességét a validate már ellenőrizte és fel is használta
+        if (extract(body, "exchangeToken") == null) {
+            return new Response(400, errorResponse("INVALID_EXCHANGE_TOKEN", "Missing exchange token"));
+        }
+
+        int count = 0;
+        Matcher matcher = INDEX_PATTERN.matcher(body);
+        while (matcher.find()) {
+            count++;
+        }
+        if (count == 0 || count > MAX_INVOICES_PER_REQUEST) {
+            return new Response(400, errorResponse("INVALID_REQUEST", "Invoice count must be 1-100: " + count));
+        }
+
+        String transactionId = UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
+        List<String> invoiceData = new ArrayList<>(count);
+        Matcher data = INVOICE_DATA_PATTERN.matcher(body);
+        while (data.find()) {
+            invoiceData.add(data.group(1));
+        }
+        transactions.put(transactionId, new Transaction(count, System.currentTimeMillis(), invoiceData));
+        invoiceCount.addAndGet(count);
+
+        return ok("ManageInvoiceResponse", "<transactionId>" + transactionId + "</transactionId>");
+    }
+
+    private Response queryTransactionStatus(String body) {
+        String transactionId = extract(body, "transactionId");
+        Transaction transaction = transactionId != null ? transactions.get(transactionId) : null;
+        if (transaction == null) {
+            return new Response(400, errorResponse("INVALID_REQUEST", "Unknown transaction: " + transactionId));
+        }
+
+        boolean processed = transaction.processed();
+        boolean returnOriginalRequest = "true".equals(extract(body, "returnOriginalRequest"));
+        StringBuilder results = new StringBuilder("<processingResults>");
+        for (int index = 1; index <= transaction.invoiceCount; index++) {
+            String status = !processed ? "PROCESSING" : transaction.aborted(index) ? "ABORTED" : "DONE";
+            results.append("<processingResult><index>").append(index).append("</index>")
+                    .append("<invoiceStatus>").append(status).append("</invoiceStatus>");
+            if (returnOriginalRequest && index <= transaction.invoiceData.size()) {
+                results.append("<originalRequest>").append(transaction.invoiceData.get(index - 1))
+                        .append("</originalRequest>");
+            }
+            results.append("</processingResult>");
+        }
+        results.append("</processingResults>");
+
+        return ok("QueryTransactionStatusResponse", results.toString());
+    }
+
+    /**
+     * A befogadás ideje szerinti szűrés, egyetlen oldalon
+     */
+    private Response queryTransactionList(String body) {
+        String from = extract(body, "dateTimeFrom");
+        String to = extract(body, "dateTimeTo");
+        if (from == null || to == null) {
+            return new Response(400, errorResponse("INVALID_REQUEST", "Missing insDate range"));
+        }
+        long fromMillis = Instant.parse(from).toEpochMilli();
+        long toMillis = Instant.parse(to).toEpochMilli();
+
+        StringBuilder result = new StringBuilder("<transactionListResult>")
+                .append("<currentPage>1</currentPage><availablePage>1</availablePage>");
+        transactions.forEach((transactionId, transaction) -> {
+            if (transaction.receivedAt >= fromMillis && transaction.receivedAt <= toMillis) {
+                result.append("<transaction><transactionId>").append(transactionId).append("</transactionId>")
+                        .append("<requestStatus>").append(transaction.processed() ? "FINISHED" : "RECEIVED")
+                        .append("</requestStatus>")
+                        .append("<itemCount>").append(transaction.invoiceCount).append("</itemCount>")
+                        .append("<insDate>").append(Instant.ofEpochMilli(transaction.receivedAt))
+                        .append("</insDate></transaction>");
+            }
+        });
+        result.append("</transactionListResult>");
+
+        return ok("QueryTransactionListResponse", result.toString());
+    }
+
+    private Response ok(String rootName, String content) {
+        return new Response(200, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<" + rootName + " xmlns=\"http://schemas.nav.gov.hu/OSA/3.0/api\""
+                + " xmlns:common=\"http://schemas.nav.gov.hu/NTCA/1.0/common\">"
+                + "<common:header><common:requestId>STUB</common:requestId></common:header>"
+                + "<common:result><common:funcCode>OK</common:funcCode></common:result>"
+                + content
+                + "</" + rootName + ">");
+    }
+
+    private String errorResponse(String errorCode, String message) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<GeneralErrorResponse xmlns=\"http://schemas.nav.gov.hu/OSA/3.0/api\""
+                + " xmlns:common=\"http://schemas.nav.gov.hu/NTCA/1.0/common\">"
+                + "<common:result><common:funcCode>ERROR</common:funcCode>"
+                + "<common:errorCode>" + errorCode + "</common:errorCode>"
+                + "<common:message>" + message + "</common:message></common:result>"
+                + "</GeneralErrorResponse>";
+    }
+
+    private static long countDown(long remaining) {
+        return remaining > 0 ? remaining - 1 : 0;
+    }
+
+    private static String extract(String body, String localName) {
+        Matcher matcher = Pattern.compile("<(?:\\w+:)?" + localName + ">([^<]*)</").matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A válasz felének elküldése után a kapcsolat lezárása: a kliens I/O hibát kap
+     */
+    private static void abort(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes, 0, bytes.length / 2);
+        out.flush();
+        exchange.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(String body) throws Exception;
+    }
+
+    private record Response(int status, String body) {
+    }
+
+    private final class Transaction {
+        private final int invoiceCount;
+        private final long receivedAt;
+        private final List<String> invoiceData;
+        private final boolean[] aborted;
+
+        private Transaction(int invoiceCount, long receivedAt, List<String> invoiceData) {
+            this.invoiceCount = invoiceCount;
+            this.receivedAt = receivedAt;
+            this.invoiceData = invoiceData;
+            this.aborted = new boolean[invoiceCount + 1];
+            for (int i = 1; i <= invoiceCount; i++) {
+                aborted[i] = abortRate > 0 && ThreadLocalRandom.current().nextDouble() < abortRate;
+            }
+        }
+
+        private boolean aborted(int index) {
+            return aborted[index];
+        }
+
+        private boolean processed() {
+            return System.currentTimeMillis() - receivedAt >= processingMillis;
+        }
+    }
+}
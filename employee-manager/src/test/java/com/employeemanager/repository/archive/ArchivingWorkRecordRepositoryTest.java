@@ -0,0 +1,163 @@
+package com.employeemanager.repository.archive;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.impl.JdbcEmployeeRepository;
+import com.employeemanager.repository.impl.JdbcWorkRecordRepository;
+import com.employeemanager.repository.interfaces.WorkRecordRepository.StreamOrder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchivingWorkRecordRepositoryTest {
+
+    @Test
+    void archivedRecordsAreReadThroughAndRestoredOnSave() throws Exception {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.getSchema().setBackgroundVerification(false);
+        DatabaseConnectionManager manager = new DatabaseConnectionManager(new SimpleMeterRegistry(), properties);
+        ConnectionConfig config = ConnectionConfig.builder()
+                .name("archive")
+                .type(DatabaseType.H2)
+                .database("archive_" + System.nanoTime())
+                .build();
+
+        try {
+            DataSource dataSource = manager.getVerifiedDataSource(config);
+            JdbcEmployeeRepository employees = new JdbcEmployeeRepository(dataSource);
+            JdbcWorkRecordArchive archive = new JdbcWorkRecordArchive(dataSource);
+            ArchivingWorkRecordRepository repository = new ArchivingWorkRecordRepository(
+                    new JdbcWorkRecordRepository(dataSource, employees), archive);
+
+            Employee employee = new Employee();
+            employee.setName("Teszt Elek");
+            employee.setBirthPlace("Budapest");
+            employee.setBirthDate(LocalDate.of(1980, 1, 1));
+            employee.setMotherName("Minta Anna");
+            employee.setTaxNumber("8123456789");
+            employee.setSocialSecurityNumber("123456789");
+            employee.setAddress("Budapest");
+            employees.save(employee);
+
+            WorkRecord old = repository.save(record(employee, LocalDate.of(2020, 3, 10)));
+            WorkRecord recent = repository.save(record(employee, LocalDate.of(2024, 3, 10)));
+
+            assertEquals(1, archive.archiveBefore(LocalDate.of(2023, 1, 1)));
+            assertEquals(LocalDate.of(2023, 1, 1), archive.getBoundary());
+
+            // A számlálás és a tartományos lekérdezés mindkét réteget látja
+            assertEquals(2, repository.count());
+            assertEquals(2, repository.findAll().size());
+            List<WorkRecord> all = repository.findByWorkDateBetween(LocalDate.of(2020, 1, 1), LocalDate.of(2024, 12, 31));
+            assertEquals(List.of(recent.getId(), old.getId()), all.stream().map(WorkRecord::getId).toList());
+            assertEquals("Teszt Elek", all.get(1).getEmployee().getName());
+            assertEquals(1, repository.findByEmployeeIdAndWorkDateBetween(employee.getId(),
+                    LocalDate.of(2020, 3, 1), LocalDate.of(2020, 3, 31)).size());
+            assertTrue(repository.findById(old.getId()).isPresent());
+
+            // Mentés visszahelyezi az aktív rétegbe
+            old.setHoursWorked(6);
+            repository.save(old);
+            assertFalse(archive.contains(old.getId()));
+            assertEquals(2, repository.count());
+            assertEquals(2, repository.findByWorkDateBetween(LocalDate.of(2020, 1, 1), LocalDate.of(2024, 12, 31)).size());
+        } finally {
+            manager.closeAll();
+        }
+    }
+
+    @Test
+    void streamingKeepsRequestedOrderInBothTiers() throws Exception {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.getSchema().setBackgroundVerification(false);
+        DatabaseConnectionManager manager = new DatabaseConnectionManager(new SimpleMeterRegistry(), properties);
+        ConnectionConfig config = ConnectionConfig.builder()
+                .name("archive-order")
+                .type(DatabaseType.H2)
+                .database("archive_order_" + System.nanoTime())
+                .build();
+
+        try {
+            DataSource dataSource = manager.getVerifiedDataSource(config);
+            JdbcEmployeeRepository employees = new JdbcEmployeeRepository(dataSource);
+            JdbcWorkRecordArchive archive = new JdbcWorkRecordArchive(dataSource);
+            ArchivingWorkRecordRepository repository = new ArchivingWorkRecordRepository(
+                    new JdbcWorkRecordRepository(dataSource, employees), archive);
+
+            Employee employee = new Employee();
+            employee.setName("Teszt Elek");
+            employee.setBirthPlace("Budapest");
+            employee.setBirthDate(LocalDate.of(1980, 1, 1));
+            employee.setMotherName("Minta Anna");
+            employee.setTaxNumber("8123456789");
+            employee.setSocialSecurityNumber("123456789");
+            employee.setAddress("Budapest");
+            employees.save(employee);
+
+            // Az e-BEV bejelentés a munkavégzés előtti napon történik
+            WorkRecord earlier = record(employee, LocalDate.of(2024, 3, 5));
+            earlier.setNotificationDate(LocalDate.of(2024, 3, 4));
+            earlier = repository.save(earlier);
+            WorkRecord later = record(employee, LocalDate.of(2024, 3, 10));
+            later.setNotificationDate(LocalDate.of(2024, 3, 9));
+            later = repository.save(later);
+            WorkRecord archived = repository.save(record(employee, LocalDate.of(2020, 3, 10)));
+            WorkRecord lastArchived = repository.save(record(employee, LocalDate.of(2022, 12, 28)));
+            // Határ előtti bejelentés, határ utáni munkavégzés: aktív marad, de az archív sorok közé rendeződik
+            WorkRecord straddling = record(employee, LocalDate.of(2023, 1, 2));
+            straddling.setNotificationDate(LocalDate.of(2022, 12, 20));
+            straddling = repository.save(straddling);
+
+            LocalDate end = LocalDate.of(2024, 12, 31);
+            assertEquals(List.of(earlier.getId(), later.getId()),
+                    streamIds(repository, LocalDate.of(2024, 1, 1), end, StreamOrder.NOTIFICATION));
+            assertEquals(List.of(later.getId(), earlier.getId()),
+                    streamIds(repository, LocalDate.of(2024, 1, 1), end, StreamOrder.WORK_DATE_DESC));
+
+            // Archívumba nyúló tartománynál a két réteg soronként fésülődik össze ugyanebben a sorrendben
+            assertEquals(2, archive.archiveBefore(LocalDate.of(2023, 1, 1)));
+            LocalDate start = LocalDate.of(2020, 1, 1);
+            assertEquals(List.of(archived.getId(), straddling.getId(), lastArchived.getId(), earlier.getId(),
+                            later.getId()),
+                    streamIds(repository, start, end, StreamOrder.NOTIFICATION));
+            assertEquals(List.of(later.getId(), earlier.getId(), straddling.getId(), lastArchived.getId(),
+                            archived.getId()),
+                    streamIds(repository, start, end, StreamOrder.WORK_DATE_DESC));
+            assertEquals(5, repository.countByWorkDateBetween(start, end));
+            assertEquals(1, repository.countByWorkDateBetween(start, LocalDate.of(2020, 12, 31)));
+        } finally {
+            manager.closeAll();
+        }
+    }
+
+    private static List<String> streamIds(ArchivingWorkRecordRepository repository, LocalDate start, LocalDate end,
+                                          StreamOrder order) throws Exception {
+        List<String> ids = new ArrayList<>();
+        repository.streamByWorkDateBetween(start, end, order, record -> ids.add(record.getId()));
+        return ids;
+    }
+
+    private static WorkRecord record(Employee employee, LocalDate date) {
+        WorkRecord record = new WorkRecord();
+        record.setEmployee(employee);
+        record.setWorkDate(date);
+        record.setNotificationDate(date);
+        record.setEbevSerialNumber("EBEV-" + date);
+        record.setPayment(new BigDecimal("12000"));
+        record.setHoursWorked(8);
+        return record;
+    }
+}
@@ -0,0 +1,80 @@
+package com.employeemanager.repository.cache;
+
+import com.google.cloud.Timestamp;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalDocumentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void documentsAndSyncStateSurviveReopen() throws Exception {
+        Timestamp watermark = Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 123_000);
+        Instant fullSync = Instant.parse("2024-05-01T08:00:00Z");
+
+        try (LocalDocumentStore store = new LocalDocumentStore(directory)) {
+            assertTrue(store.loadState("workrecords").isEmpty());
+            store.replaceAll("workrecords", Map.of(
+                    "a", Map.of("id", "a", "workDate", "2024-04-02", "hoursWorked", 8),
+                    "b", Map.of("id", "b", "workDate", "2024-04-03", "hoursWorked", 6)),
+                    new LocalDocumentStore.SyncState(watermark, fullSync));
+            store.apply("workrecords", Map.of("c", Map.of("id", "c", "workDate", "2024-04-04")), List.of("a"), null);
+            store.apply("employees", Map.of("e", Map.of("id", "e", "name", "Teszt Elek")), List.of(), null);
+        }
+
+        try (LocalDocumentStore store = new LocalDocumentStore(directory)) {
+            Map<String, Map<String, Object>> records = store.load("workrecords");
+            assertEquals(2, records.size());
+            assertFalse(records.containsKey("a"));
+            assertEquals(6, records.get("b").get("hoursWorked"));
+            assertEquals("2024-04-04", records.get("c").get("workDate"));
+            assertEquals(1, store.load("employees").size());
+
+            Optional<LocalDocumentStore.SyncState> state = store.loadState("workrecords");
+            assertTrue(state.isPresent());
+            assertEquals(watermark, state.get().getWatermark());
+            assertEquals(fullSync, state.get().getLastFullSync());
+            assertTrue(store.loadState("employees").isEmpty());
+        }
+    }
+
+    @Test
+    void pendingWritesAreCoalescedPerDocument() throws Exception {
+        try (LocalDocumentStore store = new LocalDocumentStore(directory)) {
+            store.enqueue("workrecords", Map.of("a", Map.of("hoursWorked", 4)));
+            store.enqueue("workrecords", Map.of("b", Map.of("hoursWorked", 6)));
+            store.enqueue("workrecords", Map.of("a", Map.of("hoursWorked", 8)));
+
+            List<PendingWrite> writes = store.pendingWrites(10);
+            assertEquals(2, writes.size());
+            assertEquals("b", writes.get(0).getId());
+            assertEquals(8, writes.get(1).getData().get("hoursWorked"));
+
+            // A kiírás közben törölt dokumentum bejegyzése a naplóban marad
+            Map<String, Map<String, Object>> deletion = new HashMap<>();
+            deletion.put("b", null);
+            store.enqueue("workrecords", deletion);
+            store.completeWrites(writes);
+        }
+
+        try (LocalDocumentStore store = new LocalDocumentStore(directory)) {
+            List<PendingWrite> writes = store.pendingWrites("workrecords");
+            assertEquals(1, writes.size());
+            assertEquals("b", writes.get(0).getId());
+            assertTrue(writes.get(0).isDelete());
+        }
+    }
+}
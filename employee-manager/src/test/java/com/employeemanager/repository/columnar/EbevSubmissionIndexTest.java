@@ -0,0 +1,119 @@
+package com.employeemanager.repository.columnar;
+
+import com.employeemanager.benchmark.BenchmarkDataset;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.repository.interfaces.WorkRecordRepository.StreamOrder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class EbevSubmissionIndexTest {
+
+    @Test
+    void submissionsMatchGroupingByNotification() throws Exception {
+        try (BenchmarkDataset dataset = BenchmarkDataset.create(1000)) {
+            EbevSubmissionIndex index = dataset.getColumnStore().getStore().getEbevIndex();
+            List<WorkRecord> records = dataset.getWorkRecordService().getMonthlyRecords(
+                    LocalDate.of(1900, 1, 1), LocalDate.of(2100, 12, 31));
+
+            Map<String, Set<String>> expected = records.stream().collect(Collectors.groupingBy(
+                    record -> record.getNotificationDate() + "_"
+                            + (record.getNotificationTime() != null
+                                    ? record.getNotificationTime().truncatedTo(ChronoUnit.SECONDS) : "")
+                            + "_" + record.getEbevSerialNumber(),
+                    Collectors.mapping(WorkRecord::getId, Collectors.toSet())));
+            assertEquals(expected.size(), index.size());
+
+            for (WorkRecord record : records) {
+                int submission = index.find(record.getNotificationDate(), record.getNotificationTime(),
+                        record.getEbevSerialNumber());
+                assertTrue(submission != EbevSubmissionIndex.NOT_FOUND);
+                assertTrue(index.recordIds(submission).contains(record.getId()));
+                assertEquals(index.memberCount(submission), new HashSet<>(index.recordIds(submission)).size());
+            }
+
+            // Egy hónap bejelentései összefüggő, bejelentési dátum szerint rendezett tartomány
+            YearMonth month = YearMonth.of(BenchmarkDataset.YEAR, 3);
+            int from = index.from(month.atDay(1));
+            int to = index.to(month.atEndOfMonth());
+            long inMonth = records.stream()
+                    .filter(record -> YearMonth.from(record.getNotificationDate()).equals(month))
+                    .map(record -> index.find(record.getNotificationDate(), record.getNotificationTime(),
+                            record.getEbevSerialNumber()))
+                    .distinct()
+                    .count();
+            assertEquals(inMonth, to - from);
+            for (int submission = from; submission < to; submission++) {
+                assertEquals(month, YearMonth.from(index.notificationDate(submission)));
+                int[] days = index.workDays(submission);
+                for (int i = 1; i < days.length; i++) {
+                    assertTrue(days[i - 1] < days[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void submissionsInTheSameMinuteStaySeparate() throws Exception {
+        LocalDate day = LocalDate.of(2024, 3, 4);
+        WorkRecord first = record("1", day, LocalTime.of(7, 45, 10), 8);
+        WorkRecord second = record("2", day, LocalTime.of(7, 45, 50), 200);
+        WorkRecord sameAsFirst = record("3", day.plusDays(1), LocalTime.of(7, 45, 10), 4);
+
+        WorkRecordRepository repository = mock(WorkRecordRepository.class);
+        doAnswer(invocation -> {
+            Consumer<WorkRecord> consumer = invocation.getArgument(3);
+            consumer.accept(first);
+            consumer.accept(second);
+            consumer.accept(sameAsFirst);
+            return null;
+        }).when(repository).streamByWorkDateBetween(any(), any(), eq(StreamOrder.WORK_DATE_DESC), any());
+
+        WorkRecordColumnStore store = WorkRecordColumnStore.load(repository, null);
+        EbevSubmissionIndex index = store.getEbevIndex();
+
+        assertEquals(2, index.size());
+        int early = index.find(day, LocalTime.of(7, 45, 10), "EB-1");
+        int late = index.find(day, LocalTime.of(7, 45, 50), "EB-1");
+        assertEquals(List.of("1", "3"), index.recordIds(early));
+        assertEquals(List.of("2"), index.recordIds(late));
+        assertEquals(LocalTime.of(7, 45, 50), index.notificationTime(late));
+        assertEquals(EbevSubmissionIndex.NOT_FOUND, index.find(day, LocalTime.of(7, 45), "EB-1"));
+        assertEquals(212, store.sumHoursWorked(0, store.size()));
+    }
+
+    private static WorkRecord record(String id, LocalDate workDate, LocalTime notificationTime, int hours) {
+        Employee employee = new Employee();
+        employee.setId("E-1");
+        employee.setName("Teszt Elek");
+        WorkRecord record = new WorkRecord();
+        record.setId(id);
+        record.setEmployee(employee);
+        record.setWorkDate(workDate);
+        record.setNotificationDate(LocalDate.of(2024, 3, 4));
+        record.setNotificationTime(notificationTime);
+        record.setEbevSerialNumber("EB-1");
+        record.setPayment(new BigDecimal("12000"));
+        record.setHoursWorked(hours);
+        return record;
+    }
+}
@@ -0,0 +1,101 @@
+package com.employeemanager.repository.replication;
+
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.impl.JdbcEmployeeRepository;
+import com.employeemanager.repository.impl.JdbcWorkRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReplicationOutboxTest {
+
+    @Test
+    void committedWritesAreRecordedInOrder() throws Exception {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.getSchema().setBackgroundVerification(false);
+        DatabaseConnectionManager manager = new DatabaseConnectionManager(new SimpleMeterRegistry(), properties);
+        ConnectionConfig config = ConnectionConfig.builder()
+                .name("outbox")
+                .type(DatabaseType.H2)
+                .database("outbox_" + System.nanoTime())
+                .build();
+
+        try {
+            DataSource dataSource = manager.getVerifiedDataSource(config);
+            ReplicationOutbox outbox = new ReplicationOutbox();
+            JdbcEmployeeRepository employees = new JdbcEmployeeRepository(dataSource, outbox);
+            JdbcWorkRecordRepository records = new JdbcWorkRecordRepository(dataSource, employees, outbox);
+
+            Employee employee = new Employee();
+            employee.setName("Teszt Elek");
+            employee.setTaxNumber("8123456789");
+            employee.setSocialSecurityNumber("123456789");
+            employees.save(employee);
+            employee.setAddress("Budapest");
+            employees.save(employee);
+
+            WorkRecord first = record(employee, LocalDate.of(2024, 3, 10));
+            WorkRecord second = record(employee, LocalDate.of(2024, 3, 11));
+            records.saveAll(List.of(first, second));
+            records.deleteById(first.getId());
+
+            // Sikertelen írásnál (ismeretlen alkalmazott) a naplóbejegyzés sem marad meg
+            WorkRecord orphan = record(new Employee(), LocalDate.of(2024, 3, 12));
+            orphan.getEmployee().setId("missing");
+            assertThrows(Exception.class, () -> records.save(orphan));
+
+            employees.deleteById(employee.getId());
+
+            assertEquals(List.of(
+                    "EMPLOYEE " + employee.getId() + " UPSERT",
+                    "EMPLOYEE " + employee.getId() + " UPSERT",
+                    "WORK_RECORD " + first.getId() + " UPSERT",
+                    "WORK_RECORD " + second.getId() + " UPSERT",
+                    "WORK_RECORD " + first.getId() + " DELETE",
+                    "WORK_RECORD " + second.getId() + " DELETE",
+                    "EMPLOYEE " + employee.getId() + " DELETE"), entries(dataSource));
+        } finally {
+            manager.closeAll();
+        }
+    }
+
+    private static List<String> entries(DataSource dataSource) throws SQLException {
+        List<String> entries = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT entity_type, entity_id, operation FROM replication_outbox ORDER BY seq")) {
+            while (rs.next()) {
+                entries.add(rs.getString(1) + " " + rs.getString(2) + " " + rs.getString(3));
+            }
+        }
+        return entries;
+    }
+
+    private static WorkRecord record(Employee employee, LocalDate workDate) {
+        WorkRecord record = new WorkRecord();
+        record.setEmployee(employee);
+        record.setNotificationDate(workDate);
+        record.setWorkDate(workDate);
+        record.setPayment(new BigDecimal("12000"));
+        record.setHoursWorked(8);
+        return record;
+    }
+}
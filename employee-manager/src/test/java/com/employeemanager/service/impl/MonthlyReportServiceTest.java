@@ -0,0 +1,53 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.benchmark.BenchmarkDataset;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.dto.EmployeeMonthlySummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class MonthlyReportServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(BenchmarkDataset.YEAR, 3);
+
+    @Test
+    void columnarSummariesMatchRecordTotals() throws Exception {
+        try (BenchmarkDataset dataset = BenchmarkDataset.create(2000)) {
+            MonthlyReportService reportService =
+                    new MonthlyReportService(dataset.getWorkRecordService(), dataset.getColumnStore());
+            List<WorkRecord> records = dataset.getWorkRecordService()
+                    .getMonthlyRecords(MONTH.atDay(1), MONTH.atEndOfMonth());
+            Map<String, List<WorkRecord>> byEmployee = records.stream()
+                    .collect(Collectors.groupingBy(r -> r.getEmployee().getId()));
+
+            List<EmployeeMonthlySummary> summaries = reportService.getAllEmployeesMonthlySummary(MONTH);
+            assertEquals(byEmployee.size(), summaries.size());
+            assertFalse(summaries.isEmpty());
+
+            for (EmployeeMonthlySummary summary : summaries) {
+                List<WorkRecord> expected = byEmployee.get(summary.getEmployeeId());
+                Set<LocalDate> workDates = expected.stream().map(WorkRecord::getWorkDate).collect(Collectors.toSet());
+                assertEquals(workDates, summary.getWorkDates());
+                assertEquals(expected.stream().mapToInt(WorkRecord::getHoursWorked).sum(), summary.getTotalHoursWorked());
+                assertEquals(0, expected.stream().map(WorkRecord::getPayment).reduce(BigDecimal.ZERO, BigDecimal::add)
+                        .compareTo(summary.getTotalPayment()));
+                assertEquals(expected.get(0).getEmployee().getName(), summary.getEmployeeName());
+
+                EmployeeMonthlySummary single = reportService.getEmployeeMonthlySummary(summary.getEmployeeId(), MONTH);
+                assertEquals(summary.getWorkDates(), single.getWorkDates());
+                assertEquals(summary.getTotalHoursWorked(), single.getTotalHoursWorked());
+                assertEquals(summary.getTotalPayment(), single.getTotalPayment());
+            }
+        }
+    }
+}
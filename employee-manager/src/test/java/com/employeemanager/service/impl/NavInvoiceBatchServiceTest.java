@@ -0,0 +1,122 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.Invoice;
+import com.employeemanager.model.dto.NavBatchResult;
+import com.employeemanager.model.dto.NavInvoicePayload;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NavInvoiceBatchServiceTest {
+
+    private final NavInvoiceXmlGenerator generator = new NavInvoiceXmlGenerator();
+    private final NavInvoiceBatchService batchService = new NavInvoiceBatchService(generator);
+    private final CompanySettings settings = NavInvoiceTestData.companySettings();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void zipOutputContainsEveryInvoiceWithMatchingPayload() throws Exception {
+        List<Invoice> invoices = IntStream.rangeClosed(1, 200).mapToObj(NavInvoiceTestData::invoice).toList();
+        Map<String, NavInvoicePayload> payloads = new ConcurrentHashMap<>();
+        Path zip = tempDir.resolve("nav-batch.zip");
+
+        NavBatchResult result = batchService.generateBatch(invoices, settings, zip,
+                payload -> payloads.put(payload.getInvoiceNumber(), payload));
+
+        assertEquals(200, result.getGeneratedCount());
+        assertEquals(0, result.getFailedCount());
+        assertEquals(200, payloads.size());
+
+        try (FileSystem zipFs = FileSystems.newFileSystem(zip)) {
+            for (Invoice invoice : invoices) {
+                NavInvoicePayload payload = payloads.get(invoice.getInvoiceNumber());
+                String expectedXml = generator.generateInvoiceXml(invoice, settings);
+
+                byte[] entry = Files.readAllBytes(zipFs.getPath("/", payload.getOutputName()));
+                assertEquals(expectedXml, new String(entry, StandardCharsets.UTF_8));
+                assertEquals(expectedXml, new String(Base64.getDecoder().decode(payload.getInvoiceData()),
+                        StandardCharsets.UTF_8));
+                assertEquals(NavInvoiceBatchService.invoiceHash("CREATE", payload.getInvoiceData()),
+                        payload.getInvoiceHash());
+                assertEquals(128, payload.getInvoiceHash().length());
+            }
+        }
+    }
+
+    @Test
+    void sanitizedInvoiceNumbersDoNotOverwriteEachOther() throws Exception {
+        List<String> numbers = List.of("2024/1", "2024-1", "2024_1", "A/1", "A_1", "a_1");
+        List<Invoice> invoices = IntStream.range(0, numbers.size()).mapToObj(i -> {
+            Invoice invoice = NavInvoiceTestData.invoice(i + 1);
+            invoice.setInvoiceNumber(numbers.get(i));
+            return invoice;
+        }).toList();
+        Map<String, NavInvoicePayload> payloads = new ConcurrentHashMap<>();
+        Path zip = tempDir.resolve("nav-names.zip");
+
+        NavBatchResult result = batchService.generateBatch(invoices, settings, zip,
+                payload -> payloads.put(payload.getInvoiceNumber(), payload));
+
+        assertEquals(numbers.size(), result.getGeneratedCount());
+        assertEquals(numbers.size(), payloads.values().stream().map(p -> p.getOutputName().toLowerCase())
+                .distinct().count());
+        assertEquals("2024-1.xml", payloads.get("2024-1").getOutputName());
+        try (FileSystem zipFs = FileSystems.newFileSystem(zip)) {
+            for (Invoice invoice : invoices) {
+                byte[] entry = Files.readAllBytes(zipFs.getPath("/",
+                        payloads.get(invoice.getInvoiceNumber()).getOutputName()));
+                assertEquals(generator.generateInvoiceXml(invoice, settings), new String(entry, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void everyRepeatedInvoiceNumberFails() throws Exception {
+        List<String> numbers = List.of("INV-1", "INV-1", "INV-1", "2024/1", "2024/1", "INV-2");
+        List<Invoice> invoices = IntStream.range(0, numbers.size()).mapToObj(i -> {
+            Invoice invoice = NavInvoiceTestData.invoice(i + 1);
+            invoice.setInvoiceNumber(numbers.get(i));
+            return invoice;
+        }).toList();
+        Path directory = tempDir.resolve("nav-duplicates");
+
+        NavBatchResult result = batchService.generateBatch(invoices, settings, directory, null);
+
+        assertEquals(3, result.getGeneratedCount());
+        assertEquals(3, result.getFailedCount());
+        try (var files = Files.list(directory)) {
+            assertEquals(3, files.count());
+        }
+        assertTrue(Files.exists(directory.resolve("INV-1.xml")));
+    }
+
+    @Test
+    void directoryOutputWritesOneFilePerInvoice() throws Exception {
+        Path directory = tempDir.resolve("nav-xml");
+
+        NavBatchResult result = batchService.generateBatch(
+                IntStream.rangeClosed(1, 50).mapToObj(NavInvoiceTestData::invoice), settings, directory, null);
+
+        assertEquals(50, result.getGeneratedCount());
+        try (var files = Files.list(directory)) {
+            assertEquals(50, files.count());
+        }
+        assertTrue(Files.exists(directory.resolve("INV-2024-000001.xml")));
+    }
+}
@@ -0,0 +1,70 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.Customer;
+import com.employeemanager.model.Invoice;
+import com.employeemanager.model.InvoiceItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Determinisztikus számla minták a NAV XML tesztekhez és benchmarkokhoz
+ */
+public final class NavInvoiceTestData {
+
+    private NavInvoiceTestData() {
+    }
+
+    public static CompanySettings companySettings() {
+        return CompanySettings.builder()
+                .companyName("Példa & Társa Kft.")
+                .companyTaxNumber("12345678-2-42")
+                .companyZipCode("1051")
+                .companyCity("Budapest")
+                .companyAddress("Fő utca 1. <3. emelet>")
+                .companyBankAccount("11773016-11111018-00000000")
+                .navTechnicalUser("techuser")
+                .navSignatureKey("ce-8f5e-215119fa7dd621DLMRHRLH2S")
+                .navReplacementKey("b0a5-5bdc-4d32-8ca8-6a8a8c9c0e2c")
+                .build();
+    }
+
+    /**
+     * Számla a megadott sorszámmal; a tételek száma a sorszámtól függ (1-5)
+     */
+    public static Invoice invoice(int sequence) {
+        Customer customer = Customer.builder()
+                .name(sequence % 2 == 0 ? "Vevő \"Kettő\" Bt." : "Ügyfél Zrt.")
+                .taxNumber(sequence % 3 == 0 ? null : "87654321-1-13")
+                .zipCode("6720")
+                .city("Szeged")
+                .address("Kárász u. " + (sequence % 50 + 1) + ".")
+                .country(sequence % 5 == 0 ? null : "HU")
+                .build();
+
+        Invoice invoice = Invoice.builder()
+                .invoiceNumber(String.format("INV-2024-%06d", sequence))
+                .customer(customer)
+                .invoiceDate(LocalDate.of(2024, 1, 1).plusDays(sequence % 28))
+                .deliveryDate(sequence % 4 == 0 ? null : LocalDate.of(2024, 1, 1).plusDays(sequence % 28))
+                .paymentDeadline(sequence % 7 == 0 ? null : LocalDate.of(2024, 1, 9).plusDays(sequence % 28))
+                .currency(sequence % 6 == 0 ? null : "HUF")
+                .build();
+
+        int itemCount = sequence % 5 + 1;
+        for (int i = 1; i <= itemCount; i++) {
+            InvoiceItem item = InvoiceItem.builder()
+                    .description("Munkaerő kölcsönzés " + i + ". tétel")
+                    .quantity(new BigDecimal(i * 2 + sequence % 3))
+                    .unitOfMeasure(i % 2 == 0 ? "óra" : "nap")
+                    .unitPrice(new BigDecimal("2500.5").add(BigDecimal.valueOf(sequence % 100)))
+                    .vatRate(i % 3 == 0 ? new BigDecimal("5") : new BigDecimal("27.00"))
+                    .build();
+            item.calculateAmounts();
+            invoice.getItems().add(item);
+        }
+        invoice.recalculateAmounts();
+        return invoice;
+    }
+}
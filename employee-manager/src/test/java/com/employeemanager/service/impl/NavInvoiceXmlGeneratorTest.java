@@ -0,0 +1,44 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.Invoice;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * A StAX generátor kimenetének összevetése a korábbi DOM generátor által előállított golden fájlokkal
+ */
+class NavInvoiceXmlGeneratorTest {
+
+    private final NavInvoiceXmlGenerator generator = new NavInvoiceXmlGenerator();
+    private final DomNavInvoiceXmlGenerator domGenerator = new DomNavInvoiceXmlGenerator();
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 12, 35})
+    void staxOutputMatchesGoldenFile(int sequence) throws Exception {
+        Invoice invoice = NavInvoiceTestData.invoice(sequence);
+        CompanySettings settings = NavInvoiceTestData.companySettings();
+        String golden = readGolden(sequence);
+
+        assertEquals(golden, normalize(domGenerator.generateInvoiceXml(invoice, settings)),
+                "DOM reference drifted from golden file");
+        assertEquals(golden, normalize(generator.generateInvoiceXml(invoice, settings)));
+    }
+
+    private String readGolden(int sequence) throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/nav/invoice-" + sequence + ".xml")) {
+            assertNotNull(in, "Missing golden file for invoice " + sequence);
+            return normalize(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String normalize(String xml) {
+        return xml.replace("\r\n", "\n");
+    }
+}
@@ -0,0 +1,122 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.CompanySettings;
+import com.employeemanager.model.Invoice;
+import com.employeemanager.model.dto.NavInvoicePayload;
+import com.employeemanager.model.dto.NavSubmissionResult;
+import com.employeemanager.nav.NavStubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NavSubmissionClientTest {
+
+    private final CompanySettings settings = NavInvoiceTestData.companySettings();
+    private final NavInvoiceBatchService batchService = new NavInvoiceBatchService(new NavInvoiceXmlGenerator());
+
+    private NavStubServer server;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = new NavStubServer(settings.getNavReplacementKey(), 4);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void submitsInChunksOfHundredAndMarksInvoicesDone() throws Exception {
+        List<Invoice> invoices = IntStream.rangeClosed(1, 250).mapToObj(NavInvoiceTestData::invoice).toList();
+        List<NavInvoicePayload> payloads = generatePayloads(invoices);
+
+        NavSubmissionResult result;
+        try (NavSubmissionClient client = new NavSubmissionClient(server.getBaseUri(), 2)) {
+            result = client.submit(payloads, settings, "password");
+            client.applyResults(invoices, result);
+        }
+
+        assertEquals(250, server.getInvoiceCount());
+        assertEquals(250, result.countByStatus("DONE"));
+        assertEquals(0, result.getRetryCount());
+        // 3 kötegenként tokenExchange + manageInvoice, majd legalább egy állapot lekérdezés
+        assertTrue(result.getRequestCount() >= 9);
+        assertTrue(invoices.stream().allMatch(i -> Boolean.TRUE.equals(i.getIsSentToNav())
+                && i.getNavTransactionId() != null));
+    }
+
+    @Test
+    void retriesServerErrorsAndReportsAbortedInvoices() throws Exception {
+        server.failNext(2).withAbortRate(1.0);
+        List<NavInvoicePayload> payloads = generatePayloads(
+                IntStream.rangeClosed(1, 30).mapToObj(NavInvoiceTestData::invoice).toList());
+
+        NavSubmissionResult result;
+        try (NavSubmissionClient client = new NavSubmissionClient(server.getBaseUri(), 2)) {
+            result = client.submit(payloads, settings, "password");
+        }
+
+        assertEquals(2, result.getRetryCount());
+        assertEquals(2, server.getInjectedErrors());
+        assertEquals(30, result.countByStatus("ABORTED"));
+    }
+
+    @Test
+    void exchangesNewTokenWhenInvoiceSubmissionFails() throws Exception {
+        // A stub a hiba előtt felhasználja a tokent: a változatlan újraküldést elutasítaná
+        server.failNextInvoices(2);
+        List<NavInvoicePayload> payloads = generatePayloads(
+                IntStream.rangeClosed(1, 30).mapToObj(NavInvoiceTestData::invoice).toList());
+
+        NavSubmissionResult result;
+        try (NavSubmissionClient client = new NavSubmissionClient(server.getBaseUri(), 2)) {
+            result = client.submit(payloads, settings, "password");
+        }
+
+        assertEquals(2, server.getInjectedErrors());
+        assertEquals(2, result.getRetryCount());
+        assertEquals(30, server.getInvoiceCount());
+        assertEquals(30, result.countByStatus("DONE"));
+    }
+
+    @Test
+    void findsTransactionInsteadOfResubmittingWhenResponseIsLost() throws Exception {
+        server.dropNextInvoiceResponses(1);
+        List<Invoice> invoices = IntStream.rangeClosed(1, 250).mapToObj(NavInvoiceTestData::invoice).toList();
+        List<NavInvoicePayload> payloads = generatePayloads(invoices);
+
+        NavSubmissionResult result;
+        try (NavSubmissionClient client = new NavSubmissionClient(server.getBaseUri(), 2)) {
+            result = client.submit(payloads, settings, "password");
+        }
+
+        // A befogadott köteg nem megy be kétszer
+        assertEquals(1, server.getInjectedErrors());
+        assertEquals(250, server.getInvoiceCount());
+        assertEquals(250, result.countByStatus("DONE"));
+        assertEquals(3, result.getOutcomes().stream().map(NavSubmissionResult.InvoiceOutcome::getTransactionId)
+                .distinct().count());
+    }
+
+    private List<NavInvoicePayload> generatePayloads(List<Invoice> invoices) throws Exception {
+        List<NavInvoicePayload> payloads = Collections.synchronizedList(new ArrayList<>());
+        batchService.generateBatch(invoices, settings, tempDir.resolve("nav.zip"), payloads::add);
+        payloads.sort(Comparator.comparing(NavInvoicePayload::getInvoiceNumber));
+        return payloads;
+    }
+}
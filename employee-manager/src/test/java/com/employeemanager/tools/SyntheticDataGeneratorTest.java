@@ -0,0 +1,138 @@
+package com.employeemanager.tools;
+
+import com.employeemanager.config.ArchiveProperties;
+import com.employeemanager.config.DiagnosticsProperties;
+import com.employeemanager.config.FirebaseCacheProperties;
+import com.employeemanager.config.ReplicationProperties;
+import com.employeemanager.database.config.ConnectionConfig;
+import com.employeemanager.database.config.DatabaseConnectionManager;
+import com.employeemanager.database.config.DatabaseType;
+import com.employeemanager.database.factory.RepositoryFactory;
+import com.employeemanager.database.loader.JdbcBatchBulkLoader;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.util.ValidationHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyntheticDataGeneratorTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    @Test
+    void employeesHaveValidAndUniqueIdentifiers() {
+        List<Employee> employees = new SyntheticDataGenerator(1).generateEmployees(500);
+
+        Set<String> taxNumbers = new HashSet<>();
+        Set<String> socialSecurityNumbers = new HashSet<>();
+        for (Employee employee : employees) {
+            String taxNumber = employee.getTaxNumber();
+            String ssn = employee.getSocialSecurityNumber();
+
+            assertTrue(ValidationHelper.isValidTaxNumber(taxNumber), taxNumber);
+            assertTrue(ValidationHelper.isValidSocialSecurityNumber(ssn), ssn);
+            assertTrue(ValidationHelper.isValidName(employee.getName()));
+            assertTrue(ValidationHelper.isValidBirthDate(employee.getBirthDate()));
+            assertEquals('8', taxNumber.charAt(0));
+            assertEquals(SyntheticDataGenerator.taxNumberCheckDigit(taxNumber.substring(0, 9)),
+                    taxNumber.charAt(9) - '0');
+            assertEquals(SyntheticDataGenerator.socialSecurityCheckDigit(ssn.substring(0, 8)), ssn.charAt(8) - '0');
+            assertTrue(taxNumbers.add(taxNumber));
+            assertTrue(socialSecurityNumbers.add(ssn));
+        }
+    }
+
+    @Test
+    void sameSeedAndReferenceDateGiveSameEmployees() {
+        LocalDate referenceDate = LocalDate.of(2023, 6, 1);
+        List<Employee> first = new SyntheticDataGenerator(4, referenceDate).generateEmployees(50);
+        List<Employee> second = new SyntheticDataGenerator(4, referenceDate).generateEmployees(50);
+
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getBirthDate(), second.get(i).getBirthDate());
+            assertEquals(first.get(i).getTaxNumber(), second.get(i).getTaxNumber());
+            assertFalse(first.get(i).getBirthDate().isAfter(referenceDate.minusYears(18)));
+        }
+    }
+
+    @Test
+    void workRecordsAreValidAndGroupedByEbevSubmission() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(2);
+        List<Employee> employees = generator.generateEmployees(100);
+        employees.forEach(e -> e.setId(e.getTaxNumber()));
+
+        List<WorkRecord> records = new ArrayList<>();
+        long generated = generator.generateWorkRecords(employees, FROM, TO, 10_000, 1_000, records::addAll);
+
+        assertEquals(10_000, generated);
+        assertEquals(10_000, records.size());
+
+        Map<String, WorkRecord> firstBySerial = new HashMap<>();
+        Set<String> employeeDays = new HashSet<>();
+        for (WorkRecord record : records) {
+            assertTrue(ValidationHelper.isValidEbevSerial(record.getEbevSerialNumber()));
+            assertTrue(ValidationHelper.isValidWorkHours(record.getHoursWorked()));
+            assertTrue(ValidationHelper.isValidPayment(record.getPayment().doubleValue()));
+            assertTrue(ValidationHelper.isValidNotificationDate(record.getNotificationDate(), record.getWorkDate()));
+            assertFalse(record.getWorkDate().isBefore(FROM) || record.getWorkDate().isAfter(TO));
+            assertTrue(employeeDays.add(record.getEmployee().getId() + record.getWorkDate()),
+                    "employee works at most once a day");
+
+            // Egy e-BEV bejelentés egy munkanapra, azonos bejelentési időponttal szól
+            WorkRecord first = firstBySerial.putIfAbsent(record.getEbevSerialNumber(), record);
+            if (first != null) {
+                assertEquals(first.getWorkDate(), record.getWorkDate());
+                assertEquals(first.getNotificationDate(), record.getNotificationDate());
+                assertEquals(first.getNotificationTime(), record.getNotificationTime());
+            }
+        }
+        assertTrue(firstBySerial.size() < records.size(), "submissions cover several employees");
+    }
+
+    @Test
+    void jdbcBatchLoaderLoadsGeneratedData() throws Exception {
+        DatabaseConnectionManager connectionManager = new DatabaseConnectionManager(new SimpleMeterRegistry(), new DiagnosticsProperties());
+        RepositoryFactory repositoryFactory = new RepositoryFactory(connectionManager, new ArchiveProperties(),
+                new FirebaseCacheProperties(), new ReplicationProperties());
+        ConnectionConfig config = ConnectionConfig.builder()
+                .name("datagen-test")
+                .type(DatabaseType.H2)
+                .database("datagen_test_" + System.nanoTime())
+                .build();
+        try {
+            repositoryFactory.switchConnection(config);
+            JdbcBatchBulkLoader loader = new JdbcBatchBulkLoader(connectionManager.getDataSource(config));
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(3);
+
+            List<Employee> employees = generator.generateEmployees(50);
+            assertEquals(50, loader.loadEmployees(employees));
+            List<WorkRecord> loaded = new ArrayList<>();
+            generator.generateWorkRecords(employees, FROM, TO, 2_500, 700, chunk -> {
+                loader.loadWorkRecords(chunk);
+                loaded.addAll(chunk);
+            });
+
+            assertEquals(50, repositoryFactory.getEmployeeRepository().count());
+            assertEquals(2_500, repositoryFactory.getWorkRecordRepository().count());
+            // A generált létrehozási idő kerül az adatbázisba, nem a betöltésé
+            WorkRecord sample = loaded.get(loaded.size() / 2);
+            assertEquals(sample.getCreatedAt(),
+                    repositoryFactory.getWorkRecordRepository().findById(sample.getId()).orElseThrow().getCreatedAt());
+        } finally {
+            connectionManager.closeAll();
+        }
+    }
+}
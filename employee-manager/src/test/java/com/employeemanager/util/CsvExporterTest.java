@@ -0,0 +1,177 @@
+package com.employeemanager.util;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.service.interfaces.WorkRecordService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class CsvExporterTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 5);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void textAmountsAndSocialSecurityNumbersRoundTrip() throws Exception {
+        Path file = tempDir.resolve("rows.csv");
+        try (CsvExporter.CsvChannelWriter writer = new CsvExporter.CsvChannelWriter(file)) {
+            writer.writeHeader();
+            writer.writeRow(DATE, LocalTime.of(8, 30), "EB-1", DATE, "Árvíztűrő Tükörfúrógép", "123456789",
+                    new BigDecimal("12500.50"), 8);
+            writer.writeRow(DATE, LocalTime.of(8, 30, 15), "EB;2", DATE, "Kovács \"Pisti\" János", "12345678Ő",
+                    new BigDecimal("-12.34"), -2);
+            writer.writeRow(null, null, null, null, "Emoji 😀 𝄞\r\nmásodik sor", "AB;\"1234",
+                    new BigDecimal("-0.5"), null);
+            writer.writeRow(DATE, null, "EB-4", DATE, "Magányos \uD800 pótlás", null,
+                    new BigDecimal("1000.004"), 0);
+        }
+
+        List<List<String>> rows = readCsv(file);
+
+        assertEquals(List.of("bejelentés dátuma", "bejelentés időpontja", "e-BEV sorszáma", "munkavégzés dátuma",
+                "dolgozó neve", "TAJ", "kifizetett összeg", "ledolgozott óra"), rows.get(0));
+        assertEquals(List.of("2024.03.05", "08:30", "EB-1", "2024.03.05", "Árvíztűrő Tükörfúrógép",
+                "123-456-789", "12500.50", "8"), rows.get(1));
+        assertEquals(List.of("2024.03.05", "08:30:15", "EB;2", "2024.03.05", "Kovács \"Pisti\" János",
+                "12345678Ő", "-12.34", "-2"), rows.get(2));
+        assertEquals(List.of("", "", "", "", "Emoji 😀 𝄞\r\nmásodik sor", "AB;\"1234", "-0.50", ""), rows.get(3));
+        // A párosítatlan surrogate helyén '?' áll, a fillér alatti rész kerekítve tűnik el
+        assertEquals(List.of("2024.03.05", "", "EB-4", "2024.03.05", "Magányos ? pótlás", "", "1000", "0"),
+                rows.get(4));
+        assertEquals(5, rows.size());
+    }
+
+    @Test
+    void rowsSpanningBufferBoundariesStayIntact() throws Exception {
+        Path file = tempDir.resolve("large.csv");
+        List<List<String>> expected = new ArrayList<>();
+        try (CsvExporter.CsvChannelWriter writer = new CsvExporter.CsvChannelWriter(file)) {
+            writer.writeHeader();
+            for (int i = 0; i < 20_000; i++) {
+                // Változó hosszú, több bájtos karakterekkel teli sorok: a határ bármely bájtra eshet
+                String name = "Őrző-Ügyes 😀;\"" + "é".repeat(i % 17) + i;
+                BigDecimal payment = BigDecimal.valueOf(-i * 37L, 2);
+                writer.writeRow(DATE, LocalTime.NOON, "EB-" + i, DATE, name, String.format("%09d", i),
+                        payment, i);
+                String ssn = String.format("%09d", i);
+                expected.add(List.of("2024.03.05", "12:00", "EB-" + i, "2024.03.05", name,
+                        ssn.substring(0, 3) + "-" + ssn.substring(3, 6) + "-" + ssn.substring(6),
+                        formatAmount(payment), String.valueOf(i)));
+            }
+        }
+
+        List<List<String>> rows = readCsv(file);
+        assertEquals(expected, rows.subList(1, rows.size()));
+        assertTrue(Files.size(file) > 4L * 256 * 1024);
+    }
+
+    @Test
+    void streamingExportWritesEveryRecord() throws Exception {
+        Employee employee = new Employee();
+        employee.setName("Szép Ilona");
+        employee.setSocialSecurityNumber("987654321");
+        WorkRecord first = workRecord(employee, "EB-1", new BigDecimal("15000"));
+        WorkRecord second = workRecord(null, "EB-2", new BigDecimal("0.99"));
+
+        WorkRecordService service = mock(WorkRecordService.class);
+        doAnswer(invocation -> {
+            Consumer<WorkRecord> consumer = invocation.getArgument(2);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(service).streamMonthlyRecords(eq(DATE), eq(DATE.plusDays(30)), any());
+
+        String path = new CsvExporter(tempDir.resolve("exports")).exportWorkRecords(service, DATE, DATE.plusDays(30));
+
+        assertEquals(tempDir.resolve("exports").resolve("munkanaplok_ebev_2024_03_05_2024_04_04.csv").toString(), path);
+        List<List<String>> rows = readCsv(Path.of(path));
+        assertEquals(3, rows.size());
+        assertEquals(List.of("2024.03.05", "07:45", "EB-1", "2024.03.04", "Szép Ilona", "987-654-321", "15000", "6"),
+                rows.get(1));
+        assertEquals(List.of("2024.03.05", "07:45", "EB-2", "2024.03.04", "", "", "0.99", "6"), rows.get(2));
+    }
+
+    private static WorkRecord workRecord(Employee employee, String ebevSerialNumber, BigDecimal payment) {
+        WorkRecord record = new WorkRecord();
+        record.setEmployee(employee);
+        record.setNotificationDate(DATE);
+        record.setNotificationTime(LocalTime.of(7, 45));
+        record.setEbevSerialNumber(ebevSerialNumber);
+        record.setWorkDate(DATE.minusDays(1));
+        record.setPayment(payment);
+        record.setHoursWorked(6);
+        return record;
+    }
+
+    private static String formatAmount(BigDecimal amount) {
+        long filler = Money.toFiller(amount);
+        return filler % 100 == 0 ? String.valueOf(filler / 100) : Money.toBigDecimal(filler).toPlainString();
+    }
+
+    /**
+     * Szigorú UTF-8 dekódolás (hibás bájtsorozatnál kivétel) és RFC 4180 szerinti, pontosvesszővel tagolt olvasás
+     */
+    private static List<List<String>> readCsv(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        assertArrayEquals(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, Arrays.copyOf(bytes, 3));
+        String text = StandardCharsets.UTF_8.newDecoder()
+                .decode(ByteBuffer.wrap(bytes, 3, bytes.length - 3))
+                .toString();
+
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ';') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                row.add(field.toString());
+                field.setLength(0);
+                rows.add(row);
+                row = new ArrayList<>();
+                i++;
+            } else {
+                field.append(c);
+            }
+        }
+        assertEquals(0, field.length() + row.size(), "Last row must end with CRLF");
+        return rows;
+    }
+}
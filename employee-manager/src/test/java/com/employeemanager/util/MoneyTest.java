@@ -0,0 +1,38 @@
+package com.employeemanager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void convertsAtTheEdgesAndRoundsToForint() {
+        assertEquals(1250050, Money.toFiller(new BigDecimal("12500.50")));
+        assertEquals(1200000, Money.toFiller(new BigDecimal("12000")));
+        assertEquals(1250050, Money.toFiller(new BigDecimal("12500.5")));
+        assertEquals(-325, Money.toFiller(new BigDecimal("-3.25")));
+        assertEquals(1, Money.toFiller(new BigDecimal("0.005")));
+        assertEquals(0, Money.toFiller(null));
+        assertEquals(999999999999999999L, Money.toFiller(new BigDecimal("9999999999999999.99")));
+        assertEquals(Long.MAX_VALUE, Money.toFiller(new BigDecimal("92233720368547758.07")));
+        assertEquals(new BigDecimal("12500.50"), Money.toBigDecimal(1250050));
+
+        assertEquals(12501, Money.toForint(1250050));
+        assertEquals(12500, Money.toForint(1250049));
+        assertEquals(-12501, Money.toForint(-1250050));
+        assertEquals(String.format("%,d Ft", 12501), Money.format(1250050));
+    }
+
+    @Test
+    void overflowIsDetected() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.sum(new long[]{Long.MAX_VALUE, 1}, 0, 2));
+        assertThrows(ArithmeticException.class, () -> Money.toFiller(new BigDecimal("1e20")));
+        assertThrows(ArithmeticException.class, () -> Money.toFiller(new BigDecimal("100000000000000000")));
+        assertThrows(ArithmeticException.class, () -> Money.toFiller(new BigDecimal("92233720368547758.08")));
+    }
+}